@@ -0,0 +1,159 @@
+package com.example.clinic_appointments.config;
+
+import com.example.clinic_appointments.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Limiteaza cate conexiuni sunt scoase simultan din pool. Pe thread-uri virtuale numarul de
+// cereri in lucru nu mai e plafonat de pool-ul Tomcat, asa ca fara poarta mii de cereri ar
+// astepta direct in pool-ul de conexiuni (si ar expira acolo). Poarta are cate un permis
+// pentru fiecare conexiune: permisul se ia la getConnection si se elibereaza la close, deci
+// acopera toata tranzactia, nu doar un apel de repository. Cine asteapta mai mult de
+// 'timeout' primeste 503.
+//
+// O a doua conexiune ceruta de un thread care tine deja una (de ex. REQUIRES_NEW) nu mai
+// ia inca un permis; altfel thread-ul s-ar putea bloca singur.
+public class DatabaseGate implements MeterBinder {
+
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final Duration timeout;
+    private final ThreadLocal<int[]> held = ThreadLocal.withInitial(() -> new int[1]);
+
+    private volatile Timer waitTimer;
+    private volatile Counter rejected;
+
+    public DatabaseGate(int maxPermits, Duration timeout) {
+        if (maxPermits < 1) {
+            throw new IllegalArgumentException("clinic.db-gate.permits must be at least 1");
+        }
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.waitTimer = Timer.builder("clinic.db.gate.wait")
+                .description("Time spent waiting for a database gate permit")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rejected = Counter.builder("clinic.db.gate.rejected")
+                .description("Connection requests rejected after waiting longer than the gate timeout")
+                .register(registry);
+        Gauge.builder("clinic.db.gate.active", this, DatabaseGate::active)
+                .description("Connections currently holding a gate permit")
+                .register(registry);
+        Gauge.builder("clinic.db.gate.queued", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a gate permit")
+                .register(registry);
+    }
+
+    public DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return checkout(() -> obtainTargetDataSource().getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return checkout(() -> obtainTargetDataSource().getConnection(username, password));
+            }
+        };
+    }
+
+    // conexiunea intoarsa elibereaza permisul la primul close
+    public Connection checkout(ConnectionSource source) throws SQLException {
+        int[] owner = held.get();
+        boolean nested = owner[0] > 0;
+        if (!nested) {
+            acquire();
+        }
+        Connection connection;
+        try {
+            connection = source.get();
+        } catch (SQLException | RuntimeException | Error e) {
+            if (!nested) {
+                permits.release();
+            }
+            throw e;
+        }
+        owner[0]++;
+        return gated(connection, owner, !nested);
+    }
+
+    private void acquire() {
+        long startedAt = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for a database connection", timeout);
+        }
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            Counter counter = rejected;
+            if (counter != null) {
+                counter.increment();
+            }
+            throw new ServiceBusyException("Database is busy, please retry", timeout);
+        }
+    }
+
+    private Connection gated(Connection connection, int[] owner, boolean holdsPermit) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (closed.compareAndSet(false, true)) {
+                                owner[0]--;
+                                if (holdsPermit) {
+                                    permits.release();
+                                }
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    public int active() {
+        return maxPermits - permits.availablePermits();
+    }
+
+    public int maxPermits() {
+        return maxPermits;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.clinic_appointments.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Pune DatabaseGate in fata DataSource-ului: fiecare conexiune scoasa din pool tine un permis
+// pana la close. Implicit e pornita doar cand aplicatia ruleaza pe thread-uri virtuale
+// (spring.threads.virtual.enabled=true); pe pool-ul clasic Tomcat plafonul il da deja
+// numarul de thread-uri.
+@Configuration
+@ConditionalOnExpression("${clinic.db-gate.enabled:${spring.threads.virtual.enabled:false}}")
+public class DatabaseGateConfig {
+
+    // fara dependinte, ca sa poata fi creat devreme, cand se initializeaza DataSource-ul;
+    // metricile se leaga mai tarziu, prin MeterBinder
+    @Bean
+    public static DatabaseGate databaseGate(
+            @Value("${clinic.db-gate.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${clinic.db-gate.timeout:PT2S}") Duration timeout) {
+        return new DatabaseGate(permits, timeout);
+    }
+
+    @Bean
+    public static BeanPostProcessor dataSourceGatePostProcessor(ObjectProvider<DatabaseGate> gate) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return gate.getObject().wrap(dataSource);
+            }
+        };
+    }
+}
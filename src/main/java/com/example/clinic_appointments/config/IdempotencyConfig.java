@@ -0,0 +1,24 @@
+package com.example.clinic_appointments.config;
+
+import com.example.clinic_appointments.service.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+// Idempotency-Key doar pe endpoint-urile de creare pe care clientii mobili le reincearca;
+// filtrul nu e @Component, ca sa nu se aplice pe toate cererile
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore store,
+            @Value("${clinic.idempotency.max-body:1MB}") DataSize maxBody) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(store, Math.toIntExact(maxBody.toBytes())));
+        registration.addUrlPatterns("/api/appointments", "/api/invoices");
+        return registration;
+    }
+}
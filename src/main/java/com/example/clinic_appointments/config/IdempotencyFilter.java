@@ -0,0 +1,219 @@
+package com.example.clinic_appointments.config;
+
+import com.example.clinic_appointments.model.IdempotencyRecord;
+import com.example.clinic_appointments.service.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+// POST cu header Idempotency-Key: prima cerere se executa si raspunsul 2xx se pastreaza;
+// un retry cu aceeasi cheie si acelasi corp primeste raspunsul salvat, fara sa mai ajunga
+// la controller. Aceeasi cheie cu alt corp -> 422; cerere cu aceeasi cheie inca in lucru -> 409;
+// corp mai mare de maxBodyBytes -> 413 (corpul e tinut in memorie pentru hash).
+// Inregistrat din IdempotencyConfig doar pentru endpoint-urile de creare.
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 100;
+    static final int DEFAULT_MAX_BODY_BYTES = 1024 * 1024;
+
+    private final IdempotencyStore store;
+    private final int maxBodyBytes;
+
+    public IdempotencyFilter(IdempotencyStore store) {
+        this(store, DEFAULT_MAX_BODY_BYTES);
+    }
+
+    public IdempotencyFilter(IdempotencyStore store, int maxBodyBytes) {
+        this.store = store;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER).strip();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    HEADER + " must have between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // cheia e pe endpoint: aceeasi valoare trimisa la /appointments si /invoices nu se amesteca
+        String key = request.getMethod() + " " + request.getRequestURI() + ":" + idempotencyKey;
+        // Content-Length poate lipsi (chunked), asa ca citim oricum cel mult limita + 1 octet
+        byte[] body = request.getContentLengthLong() > maxBodyBytes
+                ? null
+                : request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body == null || body.length > maxBodyBytes) {
+            writeError(response, HttpStatus.CONTENT_TOO_LARGE,
+                    "Requests with " + HEADER + " are limited to " + maxBodyBytes + " bytes");
+            return;
+        }
+        String requestHash = sha256(body);
+
+        Optional<IdempotencyRecord> existing = store.find(key);
+        if (existing.isPresent()) {
+            replay(existing.get(), requestHash, response);
+            return;
+        }
+        if (!store.begin(key, requestHash)) {
+            writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+            return;
+        }
+        // cererea cu aceeasi cheie s-a putut termina intre find si begin; complete() pune
+        // raspunsul in memorie inainte sa elibereze cheia, deci aici il vedem sigur
+        existing = store.find(key);
+        if (existing.isPresent()) {
+            store.abandon(key);
+            replay(existing.get(), requestHash, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper cached = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), cached);
+            int status = cached.getStatus();
+            // erorile (validare, conflicte, 5xx) nu se pastreaza: retry-ul trebuie sa reincerce
+            if (status >= 200 && status < 300) {
+                store.complete(key, requestHash, status, cached.getContentType(),
+                        new String(cached.getContentAsByteArray(), StandardCharsets.UTF_8));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.abandon(key);
+            }
+            cached.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(IdempotencyRecord record, String requestHash, HttpServletResponse response)
+            throws IOException {
+        if (!record.getRequestHash().equals(requestHash)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_CONTENT,
+                    HEADER + " was already used with a different request body");
+            return;
+        }
+        response.setStatus(record.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        if (record.getBody() != null) {
+            byte[] bytes = record.getBody().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+        }
+    }
+
+    // acelasi format ca in GlobalExceptionHandler
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"timestamp\":\"" + Instant.now() + "\",\"status\":" + status.value()
+                + ",\"error\":\"" + status.getReasonPhrase() + "\",\"message\":\"" + message + "\"}");
+    }
+
+    static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // corpul a fost deja citit pentru hash, asa ca il servim din nou controller-ului
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // tot corpul e deja in memorie: datele sunt disponibile si citite imediat
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.clinic_appointments.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// activeaza metodele @Scheduled (de ex. expirarea holdurilor din SlotHoldRegistry)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
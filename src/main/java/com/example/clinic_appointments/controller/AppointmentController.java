@@ -1,12 +1,29 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.AppointmentResponse;
+import com.example.clinic_appointments.dto.AppointmentSearch;
+import com.example.clinic_appointments.dto.AutoAssignRequest;
+import com.example.clinic_appointments.dto.BatchItemResult;
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.SlotHoldRequest;
+import com.example.clinic_appointments.event.AppointmentChangeBus;
 import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.schedule.SlotHold;
 import com.example.clinic_appointments.service.AppointmentService;
-import jakarta.validation.Valid;
+import com.example.clinic_appointments.service.AutoAssignService;
+import com.example.clinic_appointments.service.ExportService;
+import jakarta.validation.groups.Default;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,35 +31,114 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final ExportService exportService;
+    private final AppointmentChangeBus changeBus;
+    private final AutoAssignService autoAssignService;
 
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService, ExportService exportService,
+                                 AppointmentChangeBus changeBus, AutoAssignService autoAssignService) {
         this.appointmentService = appointmentService;
+        this.exportService = exportService;
+        this.changeBus = changeBus;
+        this.autoAssignService = autoAssignService;
     }
 
-    // GET /api/appointments -> lista tuturor programarilor
+    // GET /api/appointments?cursor=&size= -> pagina din lista programarilor (keyset)
     @GetMapping
-    public List<Appointment> getAllAppointments() {
-        return appointmentService.getAllAppointments();
+    public CursorPage<AppointmentResponse> getAllAppointments(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return appointmentService.getAppointmentsPage(cursor, size).map(AppointmentResponse::from);
+    }
+
+    // GET /api/appointments/search?doctorId=&patientId=&roomId=&status=&from=&to=&order=&limit=
+    // -> programarile filtrate, ordonate dupa startTime (asc implicit, desc cu order=desc)
+    @GetMapping("/search")
+    public List<AppointmentResponse> searchAppointments(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long roomId,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) Integer limit) {
+        AppointmentSearch search = new AppointmentSearch(doctorId, patientId, roomId, status, from, to);
+        return appointmentService.searchAppointments(search, "desc".equalsIgnoreCase(order), limit).stream()
+                .map(AppointmentResponse::from)
+                .toList();
+    }
+
+    // GET /api/appointments/stream?doctorId= -> flux SSE cu programarile create/modificate/sterse
+    // (evenimentul "appointment"); fara doctorId, pentru toti doctorii
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long doctorId) {
+        return changeBus.subscribe(doctorId);
+    }
+
+    // GET /api/appointments/export?from=&to= -> programarile care incep in [from, to), NDJSON, in flux
+    @GetMapping(value = "/export", produces = ExportService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        exportService.validateRange(from, to);
+        StreamingResponseBody body = out -> exportService.exportAppointments(from, to, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(ExportService.NDJSON)).body(body);
     }
 
     // GET /api/appointments/{id} -> o programare dupa id
     @GetMapping("/{id}")
-    public Appointment getAppointmentById(@PathVariable Long id) {
-        return appointmentService.getAppointmentById(id);
+    public AppointmentResponse getAppointmentById(@PathVariable Long id) {
+        return AppointmentResponse.from(appointmentService.getAppointmentById(id));
     }
 
     // POST /api/appointments -> creeaza programare
     @PostMapping
-    public ResponseEntity<Appointment> createAppointment(@Valid @RequestBody Appointment appointment) {
-        Appointment created = appointmentService.createAppointment(appointment);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    // holdToken optional: token primit de la POST /api/appointments/holds
+    public ResponseEntity<AppointmentResponse> createAppointment(
+            @Validated({Default.class, Appointment.Booking.class}) @RequestBody Appointment appointment,
+            @RequestParam(required = false) String holdToken) {
+        Appointment created = appointmentService.createAppointment(appointment, holdToken);
+        return ResponseEntity.status(HttpStatus.CREATED).body(AppointmentResponse.from(created));
+    }
+
+    // POST /api/appointments/auto-assign -> programare pe specialitate; doctorul liber cel mai putin incarcat
+    @PostMapping("/auto-assign")
+    public ResponseEntity<AppointmentResponse> autoAssign(@RequestBody AutoAssignRequest request) {
+        Appointment created = autoAssignService.autoAssign(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(AppointmentResponse.from(created));
+    }
+
+    // POST /api/appointments/batch -> creeaza mai multe programari; rezultat pe fiecare element
+    @PostMapping("/batch")
+    public List<BatchItemResult> createAppointments(@RequestBody List<Appointment> appointments) {
+        return appointmentService.createAppointments(appointments);
+    }
+
+    // POST /api/appointments/holds -> tine intervalul ocupat cateva secunde, cat se completeaza programarea
+    @PostMapping("/holds")
+    public ResponseEntity<SlotHold> placeHold(@RequestBody SlotHoldRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(appointmentService.placeHold(request));
+    }
+
+    // DELETE /api/appointments/holds/{token} -> elibereaza holdul inainte de expirare
+    @DeleteMapping("/holds/{token}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseHold(@PathVariable String token) {
+        appointmentService.releaseHold(token);
+    }
+
+    // POST /api/appointments/{id}/check-in -> pacientul a ajuns la programare
+    @PostMapping("/{id}/check-in")
+    public AppointmentResponse checkIn(@PathVariable Long id) {
+        return AppointmentResponse.from(appointmentService.checkIn(id));
     }
 
     // PUT /api/appointments/{id} -> actualizeaza programare
     @PutMapping("/{id}")
-    public Appointment updateAppointment(@PathVariable Long id,
-                                         @Valid @RequestBody Appointment appointment) {
-        return appointmentService.updateAppointment(id, appointment);
+    public AppointmentResponse updateAppointment(
+            @PathVariable Long id,
+            @Validated({Default.class, Appointment.Booking.class}) @RequestBody Appointment appointment) {
+        return AppointmentResponse.from(appointmentService.updateAppointment(id, appointment));
     }
 
     // DELETE /api/appointments/{id} -> sterge programare
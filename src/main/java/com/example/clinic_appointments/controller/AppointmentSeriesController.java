@@ -0,0 +1,83 @@
+package com.example.clinic_appointments.controller;
+
+import com.example.clinic_appointments.dto.AppointmentResponse;
+import com.example.clinic_appointments.dto.AppointmentSeriesResponse;
+import com.example.clinic_appointments.dto.OccurrenceUpdate;
+import com.example.clinic_appointments.dto.SeriesOccurrence;
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.service.AppointmentSeriesService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/series")
+public class AppointmentSeriesController {
+
+    private final AppointmentSeriesService seriesService;
+
+    public AppointmentSeriesController(AppointmentSeriesService seriesService) {
+        this.seriesService = seriesService;
+    }
+
+    // GET /api/series/{id} -> seria cu regula si exceptiile ei
+    @GetMapping("/{id}")
+    public AppointmentSeriesResponse getSeries(@PathVariable Long id) {
+        return AppointmentSeriesResponse.from(seriesService.getSeries(id));
+    }
+
+    // GET /api/series/{id}/occurrences?from=2026-11-01&to=2026-12-01 -> aparitiile din interval
+    @GetMapping("/{id}/occurrences")
+    public List<SeriesOccurrence> getOccurrences(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return seriesService.getOccurrences(id, from, to);
+    }
+
+    // POST /api/series -> creeaza seria daca nicio aparitie nu se suprapune cu altceva
+    @PostMapping
+    public ResponseEntity<AppointmentSeriesResponse> createSeries(@Valid @RequestBody AppointmentSeries series) {
+        AppointmentSeries created = seriesService.createSeries(series);
+        return ResponseEntity.status(HttpStatus.CREATED).body(AppointmentSeriesResponse.from(created));
+    }
+
+    // PUT /api/series/{id}/occurrences/{date} -> muta/modifica o aparitie (devine programare)
+    @PutMapping("/{id}/occurrences/{date}")
+    public AppointmentResponse updateOccurrence(@PathVariable Long id,
+                                                @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                LocalDate date,
+                                                @RequestBody OccurrenceUpdate update) {
+        return AppointmentResponse.from(seriesService.updateOccurrence(id, date, update));
+    }
+
+    // POST /api/series/{id}/occurrences/{date}/check-in -> pacientul a ajuns (aparitia devine programare)
+    @PostMapping("/{id}/occurrences/{date}/check-in")
+    public AppointmentResponse checkInOccurrence(@PathVariable Long id,
+                                                 @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                 LocalDate date) {
+        return AppointmentResponse.from(seriesService.checkInOccurrence(id, date));
+    }
+
+    // DELETE /api/series/{id}/occurrences/{date} -> anuleaza o aparitie
+    @DeleteMapping("/{id}/occurrences/{date}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelOccurrence(@PathVariable Long id,
+                                 @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        seriesService.cancelOccurrence(id, date);
+    }
+
+    // DELETE /api/series/{id}?from= -> opreste seria de la data data (implicit azi)
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void endSeries(@PathVariable Long id,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                          LocalDate from) {
+        seriesService.endSeries(id, from != null ? from : LocalDate.now());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.DoctorAvailabilityResponse;
 import com.example.clinic_appointments.model.DoctorAvailability;
 import com.example.clinic_appointments.service.DoctorAvailabilityService;
 import jakarta.validation.Valid;
@@ -21,30 +22,32 @@ public class DoctorAvailabilityController {
 
     // GET /api/doctor-availabilities
     @GetMapping
-    public List<DoctorAvailability> getAllAvailabilities() {
-        return availabilityService.getAllAvailabilities();
+    public List<DoctorAvailabilityResponse> getAllAvailabilities() {
+        return availabilityService.getAllAvailabilities().stream()
+                .map(DoctorAvailabilityResponse::from)
+                .toList();
     }
 
     // GET /api/doctor-availabilities/{id}
     @GetMapping("/{id}")
-    public DoctorAvailability getAvailabilityById(@PathVariable Long id) {
-        return availabilityService.getAvailabilityById(id);
+    public DoctorAvailabilityResponse getAvailabilityById(@PathVariable Long id) {
+        return DoctorAvailabilityResponse.from(availabilityService.getAvailabilityById(id));
     }
 
     // POST /api/doctor-availabilities
     @PostMapping
-    public ResponseEntity<DoctorAvailability> createAvailability(
+    public ResponseEntity<DoctorAvailabilityResponse> createAvailability(
             @Valid @RequestBody DoctorAvailability availability) {
         DoctorAvailability created = availabilityService.createAvailability(availability);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return ResponseEntity.status(HttpStatus.CREATED).body(DoctorAvailabilityResponse.from(created));
     }
 
     // PUT /api/doctor-availabilities/{id}
     @PutMapping("/{id}")
-    public DoctorAvailability updateAvailability(
+    public DoctorAvailabilityResponse updateAvailability(
             @PathVariable Long id,
             @Valid @RequestBody DoctorAvailability availability) {
-        return availabilityService.updateAvailability(id, availability);
+        return DoctorAvailabilityResponse.from(availabilityService.updateAvailability(id, availability));
     }
 
     // DELETE /api/doctor-availabilities/{id}
@@ -1,12 +1,25 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.DoctorCalendar;
+import com.example.clinic_appointments.dto.DoctorOccupancy;
+import com.example.clinic_appointments.dto.ReschedulePlan;
+import com.example.clinic_appointments.dto.RescheduleRequest;
+import com.example.clinic_appointments.dto.TimeSlot;
 import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.service.DoctorCalendarService;
+import com.example.clinic_appointments.service.DoctorOccupancyTracker;
 import com.example.clinic_appointments.service.DoctorService;
+import com.example.clinic_appointments.service.FreeSlotService;
+import com.example.clinic_appointments.service.RescheduleService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,15 +27,34 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final FreeSlotService freeSlotService;
+    private final DoctorCalendarService calendarService;
+    private final DoctorOccupancyTracker occupancyTracker;
+    private final RescheduleService rescheduleService;
 
-    public DoctorController(DoctorService doctorService) {
+    public DoctorController(DoctorService doctorService, FreeSlotService freeSlotService,
+                            DoctorCalendarService calendarService, DoctorOccupancyTracker occupancyTracker,
+                            RescheduleService rescheduleService) {
         this.doctorService = doctorService;
+        this.freeSlotService = freeSlotService;
+        this.calendarService = calendarService;
+        this.occupancyTracker = occupancyTracker;
+        this.rescheduleService = rescheduleService;
     }
 
-    // GET /api/doctors -> lista tuturor doctorilor
+    // GET /api/doctors?cursor=&size= -> pagina din lista doctorilor (keyset)
     @GetMapping
-    public List<Doctor> getAllDoctors() {
-        return doctorService.getAllDoctors();
+    public CursorPage<Doctor> getAllDoctors(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        return doctorService.getDoctorsPage(cursor, size);
+    }
+
+    // GET /api/doctors/occupancy?date=2026-10-12&days=7 -> ocuparea fiecarui doctor (implicit azi, o zi)
+    @GetMapping("/occupancy")
+    public List<DoctorOccupancy> getOccupancy(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "1") int days) {
+        return occupancyTracker.getOccupancy(date != null ? date : LocalDate.now(), days);
     }
 
     // GET /api/doctors/{id} -> un doctor dupa id
@@ -31,6 +63,29 @@ public class DoctorController {
         return doctorService.getDoctorById(id);
     }
 
+    // GET /api/doctors/{id}/free-slots?from=&to=&duration= -> intervale libere pentru programare
+    @GetMapping("/{id}/free-slots")
+    public List<TimeSlot> getFreeSlots(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "30") int duration) {
+        return freeSlotService.getFreeSlots(id, from, to, duration);
+    }
+
+    // GET /api/doctors/{id}/calendar?week=2026-W42 -> programul si programarile din saptamana
+    @GetMapping("/{id}/calendar")
+    public DoctorCalendar getCalendar(@PathVariable Long id, @RequestParam(required = false) String week) {
+        return calendarService.getCalendar(id, week);
+    }
+
+    // POST /api/doctors/{id}/reschedule -> muta in bloc programarile din fereastra sursa in cea tinta
+    // (la acelasi doctor sau la substituteDoctorId); dryRun = true doar calculeaza propunerea
+    @PostMapping("/{id}/reschedule")
+    public ReschedulePlan reschedule(@PathVariable Long id, @RequestBody RescheduleRequest request) {
+        return rescheduleService.reschedule(id, request);
+    }
+
     // POST /api/doctors -> creeaza doctor
     @PostMapping
     public ResponseEntity<Doctor> createDoctor(@Valid @RequestBody Doctor doctor) {
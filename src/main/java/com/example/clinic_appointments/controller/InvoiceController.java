@@ -1,48 +1,67 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.InvoiceResponse;
 import com.example.clinic_appointments.model.Invoice;
+import com.example.clinic_appointments.service.ExportService;
 import com.example.clinic_appointments.service.InvoiceService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/invoices")
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final ExportService exportService;
 
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService, ExportService exportService) {
         this.invoiceService = invoiceService;
+        this.exportService = exportService;
     }
 
-    // GET /api/invoices -> toate facturile
+    // GET /api/invoices?cursor=&size= -> pagina din lista facturilor (keyset)
     @GetMapping
-    public List<Invoice> getAllInvoices() {
-        return invoiceService.getAllInvoices();
+    public CursorPage<InvoiceResponse> getAllInvoices(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return invoiceService.getInvoicesPage(cursor, size).map(InvoiceResponse::from);
+    }
+
+    // GET /api/invoices/export?from=&to= -> facturile emise in [from, to), NDJSON, in flux
+    @GetMapping(value = "/export", produces = ExportService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        exportService.validateRange(from, to);
+        StreamingResponseBody body = out -> exportService.exportInvoices(from, to, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(ExportService.NDJSON)).body(body);
     }
 
     // GET /api/invoices/{id} -> o factura dupa id
     @GetMapping("/{id}")
-    public Invoice getInvoiceById(@PathVariable Long id) {
-        return invoiceService.getInvoiceById(id);
+    public InvoiceResponse getInvoiceById(@PathVariable Long id) {
+        return InvoiceResponse.from(invoiceService.getInvoiceById(id));
     }
 
     // POST /api/invoices -> creeaza factura
     @PostMapping
-    public ResponseEntity<Invoice> createInvoice(@Valid @RequestBody Invoice invoice) {
+    public ResponseEntity<InvoiceResponse> createInvoice(@Valid @RequestBody Invoice invoice) {
         Invoice created = invoiceService.createInvoice(invoice);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return ResponseEntity.status(HttpStatus.CREATED).body(InvoiceResponse.from(created));
     }
 
     // PUT /api/invoices/{id} -> actualizeaza factura
     @PutMapping("/{id}")
-    public Invoice updateInvoice(@PathVariable Long id,
-                                 @Valid @RequestBody Invoice invoice) {
-        return invoiceService.updateInvoice(id, invoice);
+    public InvoiceResponse updateInvoice(@PathVariable Long id,
+                                         @Valid @RequestBody Invoice invoice) {
+        return InvoiceResponse.from(invoiceService.updateInvoice(id, invoice));
     }
 
     // DELETE /api/invoices/{id} -> sterge factura
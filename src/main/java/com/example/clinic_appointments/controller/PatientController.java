@@ -1,6 +1,9 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.AppointmentResponse;
+import com.example.clinic_appointments.dto.CursorPage;
 import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.service.AppointmentService;
 import com.example.clinic_appointments.service.PatientService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -14,15 +17,18 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final AppointmentService appointmentService;
 
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, AppointmentService appointmentService) {
         this.patientService = patientService;
+        this.appointmentService = appointmentService;
     }
 
-    // GET /api/patients  -> lista tuturor pacientilor
+    // GET /api/patients?cursor=&size= -> pagina din lista pacientilor (keyset)
     @GetMapping
-    public List<Patient> getAllPatients() {
-        return patientService.getAllPatients();
+    public CursorPage<Patient> getAllPatients(@RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer size) {
+        return patientService.getPatientsPage(cursor, size);
     }
 
     // GET /api/patients/{id} -> un pacient dupa id
@@ -31,6 +37,14 @@ public class PatientController {
         return patientService.getPatientById(id);
     }
 
+    // GET /api/patients/{id}/appointments -> istoricul programarilor, inclusiv cele arhivate
+    @GetMapping("/{id}/appointments")
+    public List<AppointmentResponse> getPatientHistory(@PathVariable Long id) {
+        return appointmentService.getPatientHistory(id).stream()
+                .map(AppointmentResponse::from)
+                .toList();
+    }
+
     // POST /api/patients -> creeaza pacient
     @PostMapping
     public ResponseEntity<Patient> createPatient(@Valid @RequestBody Patient patient) {
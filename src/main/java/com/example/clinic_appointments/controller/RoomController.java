@@ -1,12 +1,19 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.OccupiedInterval;
+import com.example.clinic_appointments.dto.RoomPlan;
 import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.service.RoomAllocationService;
 import com.example.clinic_appointments.service.RoomService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,15 +21,34 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final RoomAllocationService allocationService;
 
-    public RoomController(RoomService roomService) {
+    public RoomController(RoomService roomService, RoomAllocationService allocationService) {
         this.roomService = roomService;
+        this.allocationService = allocationService;
     }
 
-    // GET /api/rooms -> lista tuturor camerelor
+    // GET /api/rooms?cursor=&size= -> pagina din lista camerelor (keyset)
     @GetMapping
-    public List<Room> getAllRooms() {
-        return roomService.getAllRooms();
+    public CursorPage<Room> getAllRooms(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size) {
+        return roomService.getRoomsPage(cursor, size);
+    }
+
+    // GET /api/rooms/allocation?date=&keepExisting= -> planul camerelor pentru zi, fara sa-l salveze
+    @GetMapping("/allocation")
+    public RoomPlan previewAllocation(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "true") boolean keepExisting) {
+        return allocationService.plan(date, keepExisting);
+    }
+
+    // POST /api/rooms/allocation?date=&keepExisting= -> calculeaza si salveaza camerele zilei
+    @PostMapping("/allocation")
+    public RoomPlan applyAllocation(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "true") boolean keepExisting) {
+        return allocationService.apply(date, keepExisting);
     }
 
     // GET /api/rooms/{id} -> o camera dupa id
@@ -31,6 +57,15 @@ public class RoomController {
         return roomService.getRoomById(id);
     }
 
+    // GET /api/rooms/{id}/occupancy?from=&to= -> intervalele ocupate ale camerei
+    @GetMapping("/{id}/occupancy")
+    public List<OccupiedInterval> getRoomOccupancy(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return roomService.getOccupancy(id, from, to);
+    }
+
     // POST /api/rooms -> creeaza camera
     @PostMapping
     public ResponseEntity<Room> createRoom(@Valid @RequestBody Room room) {
@@ -1,12 +1,17 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.DoctorSlot;
 import com.example.clinic_appointments.model.Specialty;
+import com.example.clinic_appointments.service.SpecialtyAvailabilityService;
 import com.example.clinic_appointments.service.SpecialtyService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,15 +19,19 @@ import java.util.List;
 public class SpecialtyController {
 
     private final SpecialtyService specialtyService;
+    private final SpecialtyAvailabilityService specialtyAvailabilityService;
 
-    public SpecialtyController(SpecialtyService specialtyService) {
+    public SpecialtyController(SpecialtyService specialtyService,
+                               SpecialtyAvailabilityService specialtyAvailabilityService) {
         this.specialtyService = specialtyService;
+        this.specialtyAvailabilityService = specialtyAvailabilityService;
     }
 
-    // GET /api/specialties -> lista tuturor specializarilor
+    // GET /api/specialties?cursor=&size= -> pagina din lista specializarilor (keyset)
     @GetMapping
-    public List<Specialty> getAllSpecialties() {
-        return specialtyService.getAllSpecialties();
+    public CursorPage<Specialty> getAllSpecialties(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size) {
+        return specialtyService.getSpecialtiesPage(cursor, size);
     }
 
     // GET /api/specialties/{id} -> o specializare dupa id
@@ -31,6 +40,17 @@ public class SpecialtyController {
         return specialtyService.getSpecialtyById(id);
     }
 
+    // GET /api/specialties/{id}/next-available?after=&duration=&limit= -> primele intervale libere
+    // la oricare doctor cu specializarea respectiva
+    @GetMapping("/{id}/next-available")
+    public List<DoctorSlot> getNextAvailable(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(defaultValue = "30") int duration,
+            @RequestParam(defaultValue = "5") int limit) {
+        return specialtyAvailabilityService.findNextAvailable(id, after, duration, limit);
+    }
+
     // POST /api/specialties -> creeaza specializare
     @PostMapping
     public ResponseEntity<Specialty> createSpecialty(@Valid @RequestBody Specialty specialty) {
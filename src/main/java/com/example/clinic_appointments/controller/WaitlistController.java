@@ -0,0 +1,50 @@
+package com.example.clinic_appointments.controller;
+
+import com.example.clinic_appointments.dto.WaitlistEntryResponse;
+import com.example.clinic_appointments.model.WaitlistEntry;
+import com.example.clinic_appointments.service.WaitlistService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    public WaitlistController(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    // GET /api/waitlist?doctorId= -> pacientii care asteapta un loc la doctor
+    @GetMapping
+    public List<WaitlistEntryResponse> getWaiting(@RequestParam Long doctorId) {
+        return waitlistService.getWaiting(doctorId).stream()
+                .map(WaitlistEntryResponse::from)
+                .toList();
+    }
+
+    // GET /api/waitlist/{id} -> o intrare dupa id (status BOOKED + appointmentId dupa programare)
+    @GetMapping("/{id}")
+    public WaitlistEntryResponse getEntryById(@PathVariable Long id) {
+        return WaitlistEntryResponse.from(waitlistService.getEntryById(id));
+    }
+
+    // POST /api/waitlist -> inscrie pacientul pe lista de asteptare
+    @PostMapping
+    public ResponseEntity<WaitlistEntryResponse> enqueue(@Valid @RequestBody WaitlistEntry entry) {
+        WaitlistEntry created = waitlistService.enqueue(entry);
+        return ResponseEntity.status(HttpStatus.CREATED).body(WaitlistEntryResponse.from(created));
+    }
+
+    // DELETE /api/waitlist/{id} -> scoate pacientul de pe lista
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancel(@PathVariable Long id) {
+        waitlistService.cancel(id);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.clinic_appointments.dto;
+
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Programarea asa cum iese din API, cu aceeasi forma JSON ca entitatea. Asocierile sunt LAZY,
+// asa ca aici le despachetam din proxy-urile Hibernate (serializarea unui proxy ar scrie
+// campurile interne ale proxy-ului sau ar pica dupa inchiderea sesiunii).
+public record AppointmentResponse(Long id,
+                                  Patient patient,
+                                  Doctor doctor,
+                                  Room room,
+                                  LocalDateTime startTime,
+                                  LocalDateTime endTime,
+                                  String reason,
+                                  AppointmentStatus status,
+                                  LocalDateTime checkedInAt,
+                                  Long seriesId,
+                                  LocalDate occurrenceDate,
+                                  Long version) {
+
+    public static AppointmentResponse from(Appointment appointment) {
+        if (appointment == null) {
+            return null;
+        }
+        return new AppointmentResponse(
+                appointment.getId(),
+                (Patient) Hibernate.unproxy(appointment.getPatient()),
+                (Doctor) Hibernate.unproxy(appointment.getDoctor()),
+                (Room) Hibernate.unproxy(appointment.getRoom()),
+                appointment.getStartTime(),
+                appointment.getEndTime(),
+                appointment.getReason(),
+                appointment.getStatus(),
+                appointment.getCheckedInAt(),
+                appointment.getSeriesId(),
+                appointment.getOccurrenceDate(),
+                appointment.getVersion());
+    }
+}
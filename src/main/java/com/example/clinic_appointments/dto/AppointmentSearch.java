@@ -0,0 +1,15 @@
+package com.example.clinic_appointments.dto;
+
+import com.example.clinic_appointments.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// Criteriile pentru GET /api/appointments/search; orice camp null inseamna "oricare".
+// Intervalul e pe startTime: [from, to).
+public record AppointmentSearch(Long doctorId,
+                                Long patientId,
+                                Long roomId,
+                                AppointmentStatus status,
+                                LocalDateTime from,
+                                LocalDateTime to) {
+}
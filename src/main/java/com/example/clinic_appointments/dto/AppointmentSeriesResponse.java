@@ -0,0 +1,40 @@
+package com.example.clinic_appointments.dto;
+
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+// Seria asa cum iese din API, cu asocierile despachetate si exceptiile sortate.
+public record AppointmentSeriesResponse(Long id,
+                                        Patient patient,
+                                        Doctor doctor,
+                                        Room room,
+                                        LocalDate firstDate,
+                                        LocalTime startTime,
+                                        int durationMinutes,
+                                        String rule,
+                                        String reason,
+                                        List<LocalDate> exceptions,
+                                        Long version) {
+
+    public static AppointmentSeriesResponse from(AppointmentSeries series) {
+        return new AppointmentSeriesResponse(
+                series.getId(),
+                (Patient) Hibernate.unproxy(series.getPatient()),
+                (Doctor) Hibernate.unproxy(series.getDoctor()),
+                (Room) Hibernate.unproxy(series.getRoom()),
+                series.getFirstDate(),
+                series.getStartTime(),
+                series.getDurationMinutes(),
+                series.getRule(),
+                series.getReason(),
+                series.getExceptions().stream().sorted().toList(),
+                series.getVersion());
+    }
+}
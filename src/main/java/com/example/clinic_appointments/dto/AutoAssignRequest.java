@@ -0,0 +1,9 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDateTime;
+
+// programare fara doctor ales: serviciul alege doctorul specialitatii cel mai putin incarcat
+// care e liber in interval; camera e optionala
+public record AutoAssignRequest(Long patientId, Long specialtyId, Long roomId, LocalDateTime startTime,
+                                LocalDateTime endTime, String reason) {
+}
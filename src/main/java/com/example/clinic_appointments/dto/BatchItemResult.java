@@ -0,0 +1,26 @@
+package com.example.clinic_appointments.dto;
+
+// Rezultatul pentru un element din POST /api/appointments/batch, in ordinea din cerere.
+public record BatchItemResult(int index,
+                              Status status,
+                              Long appointmentId,
+                              String message,
+                              Long conflictingAppointmentId) {
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    public static BatchItemResult created(int index, Long appointmentId) {
+        return new BatchItemResult(index, Status.CREATED, appointmentId, null, null);
+    }
+
+    public static BatchItemResult rejected(int index, String message) {
+        return new BatchItemResult(index, Status.REJECTED, null, message, null);
+    }
+
+    public static BatchItemResult conflict(int index, String message, Long conflictingAppointmentId) {
+        return new BatchItemResult(index, Status.REJECTED, null, message, conflictingAppointmentId);
+    }
+}
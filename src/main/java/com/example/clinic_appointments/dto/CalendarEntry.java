@@ -0,0 +1,10 @@
+package com.example.clinic_appointments.dto;
+
+import com.example.clinic_appointments.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// o programare din calendarul doctorului, fara grafurile complete de entitati
+public record CalendarEntry(Long id, LocalDateTime startTime, LocalDateTime endTime, AppointmentStatus status,
+                            String patientName, String roomName) {
+}
@@ -0,0 +1,34 @@
+package com.example.clinic_appointments.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// O pagina de rezultate pentru listarile paginate cu keyset.
+// nextCursor e null cand nu mai sunt rezultate.
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    public static int clampSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    // rows trebuie sa contina pana la size + 1 elemente: elementul in plus
+    // ne spune doar ca exista o pagina urmatoare si nu este returnat
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), cursorOf.apply(items.get(size - 1)));
+    }
+
+    // aceeasi pagina (si acelasi cursor), cu elementele transformate
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+}
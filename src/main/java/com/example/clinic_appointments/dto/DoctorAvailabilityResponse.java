@@ -0,0 +1,25 @@
+package com.example.clinic_appointments.dto;
+
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import org.hibernate.Hibernate;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+// Intervalul de disponibilitate asa cum iese din API, cu doctorul despachetat din proxy.
+public record DoctorAvailabilityResponse(Long id,
+                                         Doctor doctor,
+                                         DayOfWeek dayOfWeek,
+                                         LocalTime startTime,
+                                         LocalTime endTime) {
+
+    public static DoctorAvailabilityResponse from(DoctorAvailability availability) {
+        return new DoctorAvailabilityResponse(
+                availability.getId(),
+                (Doctor) Hibernate.unproxy(availability.getDoctor()),
+                availability.getDayOfWeek(),
+                availability.getStartTime(),
+                availability.getEndTime());
+    }
+}
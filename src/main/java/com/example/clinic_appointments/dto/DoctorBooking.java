@@ -0,0 +1,7 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDateTime;
+
+// intervalul ocupat de o programare, pentru reconstruirea contoarelor de ocupare
+public record DoctorBooking(Long appointmentId, Long doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+}
@@ -0,0 +1,9 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// saptamana unui doctor: ferestrele de program pe zile concrete si programarile din ele
+public record DoctorCalendar(Long doctorId, String week, LocalDate weekStart,
+                             List<TimeSlot> availability, List<CalendarEntry> appointments) {
+}
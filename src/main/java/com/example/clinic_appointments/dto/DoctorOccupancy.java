@@ -0,0 +1,15 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDate;
+
+// ocuparea unui doctor pe zilele [from, to]; utilization = booked / available (0 fara program)
+public record DoctorOccupancy(Long doctorId, LocalDate from, LocalDate to, long bookedMinutes,
+                              long appointmentCount, long availableMinutes, double utilization) {
+
+    public static DoctorOccupancy of(Long doctorId, LocalDate from, LocalDate to, long bookedMinutes,
+                                     long appointmentCount, long availableMinutes) {
+        double utilization = availableMinutes > 0 ? (double) bookedMinutes / availableMinutes : 0;
+        return new DoctorOccupancy(doctorId, from, to, bookedMinutes, appointmentCount, availableMinutes,
+                utilization);
+    }
+}
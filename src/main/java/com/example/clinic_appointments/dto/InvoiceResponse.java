@@ -0,0 +1,36 @@
+package com.example.clinic_appointments.dto;
+
+import com.example.clinic_appointments.model.Invoice;
+import com.example.clinic_appointments.model.InvoiceStatus;
+import com.example.clinic_appointments.model.Patient;
+import org.hibernate.Hibernate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Factura asa cum iese din API, cu aceeasi forma JSON ca entitatea (vezi AppointmentResponse).
+public record InvoiceResponse(Long id,
+                              Patient patient,
+                              AppointmentResponse appointment,
+                              BigDecimal amount,
+                              String currency,
+                              LocalDate issueDate,
+                              LocalDate dueDate,
+                              InvoiceStatus status,
+                              String description,
+                              Long version) {
+
+    public static InvoiceResponse from(Invoice invoice) {
+        return new InvoiceResponse(
+                invoice.getId(),
+                (Patient) Hibernate.unproxy(invoice.getPatient()),
+                AppointmentResponse.from(invoice.getAppointment()),
+                invoice.getAmount(),
+                invoice.getCurrency(),
+                invoice.getIssueDate(),
+                invoice.getDueDate(),
+                invoice.getStatus(),
+                invoice.getDescription(),
+                invoice.getVersion());
+    }
+}
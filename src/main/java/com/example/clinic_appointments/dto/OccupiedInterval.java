@@ -0,0 +1,11 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDateTime;
+
+// seriesId e setat (si appointmentId null) pentru aparitiile virtuale ale unei serii
+public record OccupiedInterval(Long appointmentId, LocalDateTime startTime, LocalDateTime endTime, Long seriesId) {
+
+    public OccupiedInterval(Long appointmentId, LocalDateTime startTime, LocalDateTime endTime) {
+        this(appointmentId, startTime, endTime, null);
+    }
+}
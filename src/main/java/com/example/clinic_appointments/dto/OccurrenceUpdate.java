@@ -0,0 +1,7 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDateTime;
+
+// modificarea unei singure aparitii dintr-o serie; campurile null raman ca in serie
+public record OccurrenceUpdate(LocalDateTime startTime, LocalDateTime endTime, Long roomId, String reason) {
+}
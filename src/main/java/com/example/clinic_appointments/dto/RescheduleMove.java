@@ -0,0 +1,12 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// noul loc al unei programari; roomId null = camera veche nu era libera la noua ora.
+// Aparitiile virtuale ale seriilor au seriesId/occurrenceDate; appointmentId ramane null
+// in dry-run si e programarea creata pentru ele cand planul se aplica.
+public record RescheduleMove(Long appointmentId, LocalDateTime previousStartTime, LocalDateTime previousEndTime,
+                             Long doctorId, LocalDateTime startTime, LocalDateTime endTime,
+                             Long previousRoomId, Long roomId, Long seriesId, LocalDate occurrenceDate) {
+}
@@ -0,0 +1,10 @@
+package com.example.clinic_appointments.dto;
+
+import java.util.List;
+
+// rezultatul unei reprogramari in bloc; applied = false pentru dry-run,
+// unplaced = programarile pentru care nu s-a gasit loc (raman neschimbate),
+// unplacedOccurrences = la fel pentru aparitiile virtuale ale seriilor
+public record ReschedulePlan(Long doctorId, Long targetDoctorId, boolean applied, List<RescheduleMove> moves,
+                             List<Long> unplaced, List<SeriesOccurrence> unplacedOccurrences) {
+}
@@ -0,0 +1,10 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDateTime;
+
+// mutarea in bloc a programarilor unui doctor din [sourceFrom, sourceTo) in [targetFrom, targetTo);
+// substituteDoctorId optional (altfel raman la acelasi doctor), dryRun = doar propunerea
+public record RescheduleRequest(LocalDateTime sourceFrom, LocalDateTime sourceTo,
+                                LocalDateTime targetFrom, LocalDateTime targetTo,
+                                Long substituteDoctorId, boolean dryRun) {
+}
@@ -0,0 +1,12 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDateTime;
+
+// camera propusa pentru o programare; roomId null = nu exista camera potrivita libera
+public record RoomAssignment(Long appointmentId, LocalDateTime startTime, LocalDateTime endTime,
+                             Long previousRoomId, Long roomId) {
+
+    public boolean changed() {
+        return roomId != null && !roomId.equals(previousRoomId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// planul camerelor pentru o zi; applied = false pentru dry-run
+public record RoomPlan(LocalDate date, boolean applied, int roomsUsed, int changed, List<Long> unassigned,
+                       List<RoomAssignment> assignments) {
+}
@@ -0,0 +1,23 @@
+package com.example.clinic_appointments.dto;
+
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.model.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// o aparitie a unei serii; appointmentId null = aparitie virtuala (nu exista rand pentru ea)
+public record SeriesOccurrence(Long seriesId, LocalDate occurrenceDate, LocalDateTime startTime,
+                               LocalDateTime endTime, Long appointmentId, AppointmentStatus status) {
+
+    public static SeriesOccurrence virtual(AppointmentSeries series, LocalDate date) {
+        return new SeriesOccurrence(series.getId(), date, series.occurrenceStart(date), series.occurrenceEnd(date),
+                null, AppointmentStatus.SCHEDULED);
+    }
+
+    public static SeriesOccurrence materialized(Appointment appointment) {
+        return new SeriesOccurrence(appointment.getSeriesId(), appointment.getOccurrenceDate(),
+                appointment.getStartTime(), appointment.getEndTime(), appointment.getId(), appointment.getStatus());
+    }
+}
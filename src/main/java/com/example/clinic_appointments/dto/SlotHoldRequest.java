@@ -0,0 +1,8 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDateTime;
+
+// cerere de hold: doctorul (si optional camera) pentru interval, timp de ttlSeconds
+public record SlotHoldRequest(Long doctorId, Long roomId, LocalDateTime startTime, LocalDateTime endTime,
+                              Integer ttlSeconds) {
+}
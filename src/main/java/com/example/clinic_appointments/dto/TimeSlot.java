@@ -0,0 +1,6 @@
+package com.example.clinic_appointments.dto;
+
+import java.time.LocalDateTime;
+
+public record TimeSlot(LocalDateTime startTime, LocalDateTime endTime) {
+}
@@ -0,0 +1,36 @@
+package com.example.clinic_appointments.dto;
+
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.WaitlistEntry;
+import com.example.clinic_appointments.model.WaitlistStatus;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDateTime;
+
+// Intrarea din lista de asteptare asa cum iese din API, cu pacientul si doctorul despachetati.
+public record WaitlistEntryResponse(Long id,
+                                    Patient patient,
+                                    Doctor doctor,
+                                    LocalDateTime preferredFrom,
+                                    LocalDateTime preferredTo,
+                                    int priority,
+                                    String reason,
+                                    WaitlistStatus status,
+                                    Long appointmentId,
+                                    LocalDateTime createdAt) {
+
+    public static WaitlistEntryResponse from(WaitlistEntry entry) {
+        return new WaitlistEntryResponse(
+                entry.getId(),
+                (Patient) Hibernate.unproxy(entry.getPatient()),
+                (Doctor) Hibernate.unproxy(entry.getDoctor()),
+                entry.getPreferredFrom(),
+                entry.getPreferredTo(),
+                entry.getPriority(),
+                entry.getReason(),
+                entry.getStatus(),
+                entry.getAppointmentId(),
+                entry.getCreatedAt());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.clinic_appointments.event;
+
+// Ce primeste un abonat la GET /api/appointments/stream. appointment e starea dupa
+// modificare (la DELETED, ultima stare cunoscuta).
+public record AppointmentChange(Type type, Long appointmentId, AppointmentSnapshot appointment) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static AppointmentChange of(AppointmentEvent event) {
+        if (event.before() == null) {
+            return new AppointmentChange(Type.CREATED, event.appointmentId(), event.after());
+        }
+        if (event.after() == null) {
+            return new AppointmentChange(Type.DELETED, event.appointmentId(), event.before());
+        }
+        return new AppointmentChange(Type.UPDATED, event.appointmentId(), event.after());
+    }
+
+    // o mutare de la un doctor la altul apare in fluxul ambilor
+    public static boolean concernsDoctor(AppointmentEvent event, Long doctorId) {
+        return (event.before() != null && doctorId.equals(event.before().doctorId()))
+                || (event.after() != null && doctorId.equals(event.after().doctorId()));
+    }
+}
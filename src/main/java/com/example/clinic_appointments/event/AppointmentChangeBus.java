@@ -0,0 +1,170 @@
+package com.example.clinic_appointments.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Distribuie AppointmentEvent-urile catre abonatii SSE din acest proces. Publicarea doar pune
+// evenimentul in coada fiecarui abonat interesat (nu blocheaza niciodata AppointmentService);
+// scrierea pe conexiune se face separat, cate un singur drenaj activ per abonat. Cand coada
+// unui abonat e plina, clientul e prea lent: il deconectam, iar el se reconecteaza si
+// reincarca starea prin GET.
+@Component
+public class AppointmentChangeBus {
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long doctorId;
+        private final Queue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Long doctorId) {
+            this.emitter = emitter;
+            this.doctorId = doctorId;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Executor sender;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Counter dropped;
+
+    @Autowired
+    public AppointmentChangeBus(MeterRegistry meterRegistry,
+                                @Value("${clinic.stream.buffer:256}") int bufferSize,
+                                @Value("${clinic.stream.timeout:PT30M}") Duration timeout) {
+        this(meterRegistry, Executors.newVirtualThreadPerTaskExecutor(), bufferSize, timeout);
+    }
+
+    AppointmentChangeBus(MeterRegistry meterRegistry, Executor sender, int bufferSize, Duration timeout) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("clinic.stream.buffer must be at least 1");
+        }
+        this.sender = sender;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.dropped = Counter.builder("clinic.stream.dropped")
+                .description("SSE subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("clinic.stream.subscribers", subscribers, Set::size)
+                .description("Open appointment change streams")
+                .register(meterRegistry);
+    }
+
+    // doctorId null = toate programarile
+    public SseEmitter subscribe(Long doctorId) {
+        return subscribe(doctorId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(Long doctorId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, doctorId);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    // fallbackExecution: serviciile nu ruleaza in tranzactii, deci de obicei livram imediat
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentEvent(AppointmentEvent event) {
+        AppointmentChange change = AppointmentChange.of(event);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.doctorId == null || AppointmentChange.concernsDoctor(event, subscriber.doctorId)) {
+                offer(subscriber, SseEmitter.event()
+                        .name("appointment")
+                        .id(String.valueOf(change.appointmentId()))
+                        .data(change));
+            }
+        }
+    }
+
+    // tine conexiunile deschise prin proxy-uri si descopera clientii plecati
+    @Scheduled(fixedRateString = "${clinic.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // builder-ul se consuma la trimitere, deci unul nou pentru fiecare abonat
+            offer(subscriber, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            dropped.increment();
+            close(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed.get() && (event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // clientul a inchis conexiunea; containerul finalizeaza cererea
+            close(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // un eveniment sosit intre ultimul poll si eliberarea flag-ului
+        if (!subscriber.closed.get() && !subscriber.queue.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            close(subscriber);
+            subscriber.emitter.complete();
+        }
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+}
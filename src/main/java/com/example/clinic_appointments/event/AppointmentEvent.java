@@ -0,0 +1,27 @@
+package com.example.clinic_appointments.event;
+
+// Publicat de AppointmentService dupa fiecare creare, modificare sau stergere salvata.
+// before e null la creare, after e null la stergere. reopensSlot = false cand intervalul
+// eliberat nu trebuie oferit altcuiva (de ex. reprogramarile facute pentru ca doctorul lipseste).
+public record AppointmentEvent(AppointmentSnapshot before, AppointmentSnapshot after, boolean reopensSlot) {
+
+    public AppointmentEvent(AppointmentSnapshot before, AppointmentSnapshot after) {
+        this(before, after, true);
+    }
+
+    public Long appointmentId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    // intervalul vechi nu mai e ocupat de aceasta programare: anulare, stergere sau mutare
+    public boolean freesSlot() {
+        if (!reopensSlot || before == null || !before.isActive()) {
+            return false;
+        }
+        return after == null
+                || !after.isActive()
+                || !before.doctorId().equals(after.doctorId())
+                || !before.startTime().equals(after.startTime())
+                || !before.endTime().equals(after.endTime());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.clinic_appointments.event;
+
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// Starea unei programari la un moment dat, fara referinte la entitati (poate fi tinuta dupa
+// ce sesiunea JPA s-a inchis si nu se schimba daca entitatea e modificata ulterior).
+public record AppointmentSnapshot(Long id, Long patientId, Long doctorId, Long roomId,
+                                  LocalDateTime startTime, LocalDateTime endTime, AppointmentStatus status,
+                                  LocalDateTime checkedInAt) {
+
+    public static AppointmentSnapshot of(Appointment appointment) {
+        return new AppointmentSnapshot(
+                appointment.getId(),
+                appointment.getPatient() != null ? appointment.getPatient().getId() : null,
+                appointment.getDoctor() != null ? appointment.getDoctor().getId() : null,
+                appointment.getRoom() != null ? appointment.getRoom().getId() : null,
+                appointment.getStartTime(),
+                appointment.getEndTime(),
+                appointment.getStatus(),
+                appointment.getCheckedInAt());
+    }
+
+    // ocupa intervalul in programul doctorului
+    public boolean isActive() {
+        return status != AppointmentStatus.CANCELLED && startTime != null && endTime != null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.clinic_appointments.exception;
+
+public class BookingConflictException extends RuntimeException {
+
+    private final Long conflictingAppointmentId;
+
+    public BookingConflictException(String message, Long conflictingAppointmentId) {
+        super(message);
+        this.conflictingAppointmentId = conflictingAppointmentId;
+    }
+
+    public Long getConflictingAppointmentId() {
+        return conflictingAppointmentId;
+    }
+}
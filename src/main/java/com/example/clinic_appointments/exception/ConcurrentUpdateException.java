@@ -0,0 +1,17 @@
+package com.example.clinic_appointments.exception;
+
+// 'current' ajunge in corpul raspunsului 409, deci e mereu un DTO de raspuns (AppointmentResponse,
+// InvoiceResponse...), niciodata o entitate cu asocieri LAZY; null cand nu exista o stare unica
+public class ConcurrentUpdateException extends RuntimeException {
+
+    private final Object current;
+
+    public ConcurrentUpdateException(String message, Object current) {
+        super(message);
+        this.current = current;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+}
@@ -5,35 +5,63 @@ import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+// asocierile sunt LAZY; fiecare endpoint isi alege graful in repository (@EntityGraph).
+// @BatchSize (aici si pe Patient/Doctor/Room) e plasa de siguranta: proxy-urile ramase
+// neinitializate se incarca in loturi de cate 50, nu cate o interogare pe rand.
 @Entity
-@Table(name = "appointments")
+@BatchSize(size = 50)
+@Table(name = "appointments", indexes = {
+        // conflicte si calendarul doctorului: doctor_id = ? and start_time between ...
+        @Index(name = "idx_appointments_doctor_start", columnList = "doctor_id, start_time"),
+        // istoricul pacientului
+        @Index(name = "idx_appointments_patient_start", columnList = "patient_id, start_time"),
+        // conflicte pe camera
+        @Index(name = "idx_appointments_room_start", columnList = "room_id, start_time"),
+        // paginarea keyset si exportul, ordonate dupa (start_time, id)
+        @Index(name = "idx_appointments_start_id", columnList = "start_time, id"),
+        // sweeper-ul: status = SCHEDULED and end_time < ...
+        @Index(name = "idx_appointments_status_end", columnList = "status, end_time")
+}, uniqueConstraints = {
+        // o aparitie a unei serii se materializeaza cel mult o data
+        @UniqueConstraint(name = "uk_appointments_series_occurrence", columnNames = {"series_id", "occurrence_date"})
+})
 public class Appointment {
 
+    // regulile care privesc doar o rezervare noua sau mutata; nu se verifica la salvare
+    // (Hibernate valideaza doar grupul Default), ca un check-in intarziat sa poata fi salvat
+    public interface Booking {
+    }
+
+    // secventa cu alocare pe blocuri (pooled): Hibernate nu poate trimite insert-urile
+    // in loturi JDBC cand id-ul vine din IDENTITY
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     // Many appointments -> one patient
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "patient_id")
     @NotNull(message = "Patient is required")
     private Patient patient;
 
     // Many appointments -> one doctor
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "doctor_id")
     @NotNull(message = "Doctor is required")
     private Doctor doctor;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id")
     private Room room;
 
     @NotNull(message = "Start time is required")
-    @FutureOrPresent(message = "Start time must be in the present or future")
+    @FutureOrPresent(message = "Start time must be in the present or future", groups = Booking.class)
     private LocalDateTime startTime;
 
     @NotNull(message = "End time is required")
@@ -46,6 +74,21 @@ public class Appointment {
     @Column(nullable = false)
     private AppointmentStatus status = AppointmentStatus.SCHEDULED;
 
+    // momentul in care pacientul s-a prezentat; null daca nu a facut check-in
+    private LocalDateTime checkedInAt;
+
+    // aparitia materializata a unei serii (AppointmentSeries), modificata sau cu check-in;
+    // null la programarile obisnuite
+    @Column(name = "series_id")
+    private Long seriesId;
+
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate;
+
+    // versiune pentru optimistic locking; un update pe o versiune veche e respins de Hibernate
+    @Version
+    private Long version;
+
     public Appointment() {
     }
 
@@ -129,4 +172,36 @@ public class Appointment {
     public void setStatus(AppointmentStatus status) {
         this.status = status;
     }
+
+    public LocalDateTime getCheckedInAt() {
+        return checkedInAt;
+    }
+
+    public void setCheckedInAt(LocalDateTime checkedInAt) {
+        this.checkedInAt = checkedInAt;
+    }
+
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(Long seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public LocalDate getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public void setOccurrenceDate(LocalDate occurrenceDate) {
+        this.occurrenceDate = occurrenceDate;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,171 @@
+package com.example.clinic_appointments.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// Programari recurente (de ex. saptamanal, luni de zile): un singur rand cu regula (RRULE, vezi
+// RecurrenceRule) in loc de cate un rand pe aparitie. Aparitiile sunt virtuale si se calculeaza
+// la cerere; devin Appointment (seriesId + occurrenceDate) doar cand sunt modificate sau au check-in.
+@Entity
+@Table(name = "appointment_series", indexes = {
+        @Index(name = "idx_series_doctor", columnList = "doctor_id"),
+        @Index(name = "idx_series_room", columnList = "room_id")
+})
+public class AppointmentSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "patient_id")
+    @NotNull(message = "Patient is required")
+    private Patient patient;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "doctor_id")
+    @NotNull(message = "Doctor is required")
+    private Doctor doctor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id")
+    private Room room;
+
+    // prima zi a seriei; ancoreaza regula
+    @NotNull(message = "First date is required")
+    private LocalDate firstDate;
+
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+
+    @Min(value = 5, message = "Duration must be at least 5 minutes")
+    @Max(value = 1440, message = "Duration cannot exceed one day")
+    private int durationMinutes;
+
+    // de ex. FREQ=WEEKLY;BYDAY=MO,TH;COUNT=24
+    @NotBlank(message = "Rule is required")
+    private String rule;
+
+    @NotBlank(message = "Reason is required")
+    private String reason;
+
+    // zilele in care regula nu mai produce o aparitie virtuala: anulate sau materializate ca
+    // Appointment (cele materializate se recunosc dupa seriesId + occurrenceDate)
+    @ElementCollection
+    @CollectionTable(name = "appointment_series_exceptions", joinColumns = @JoinColumn(name = "series_id"))
+    @Column(name = "occurrence_date", nullable = false)
+    private Set<LocalDate> exceptions = new HashSet<>();
+
+    @Version
+    private Long version;
+
+    public AppointmentSeries() {
+    }
+
+    public LocalDateTime occurrenceStart(LocalDate date) {
+        return date.atTime(startTime);
+    }
+
+    public LocalDateTime occurrenceEnd(LocalDate date) {
+        return occurrenceStart(date).plusMinutes(durationMinutes);
+    }
+
+    // --- getters & setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public void setPatient(Patient patient) {
+        this.patient = patient;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public void setDoctor(Doctor doctor) {
+        this.doctor = doctor;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public void setFirstDate(LocalDate firstDate) {
+        this.firstDate = firstDate;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(int durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public void setRule(String rule) {
+        this.rule = rule;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Set<LocalDate> getExceptions() {
+        return exceptions;
+    }
+
+    public void setExceptions(Set<LocalDate> exceptions) {
+        this.exceptions = exceptions;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
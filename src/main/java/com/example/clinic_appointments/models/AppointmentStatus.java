@@ -3,5 +3,6 @@ package com.example.clinic_appointments.model;
 public enum AppointmentStatus {
     SCHEDULED,   
     COMPLETED,   
-    CANCELLED    
+    CANCELLED,   
+    NO_SHOW      // trecuta fara check-in (vezi AppointmentStatusSweeper)
 }
@@ -0,0 +1,208 @@
+package com.example.clinic_appointments.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Copia unei programari mutate din 'appointments' de AppointmentArchiver. Id-ul e cel din
+// tabela calda, deci linkurile vechi (GET /api/appointments/{id}) raman valide. Randurile
+// sunt doar pentru citire: coloanele FK se scriu prin insert-select, iar asocierile de mai
+// jos le citesc pe aceleasi coloane.
+@Entity
+@Table(name = "appointments_archive", indexes = {
+        @Index(name = "idx_appointments_archive_patient_start", columnList = "patient_id, start_time")
+})
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", insertable = false, updatable = false)
+    private Patient patient;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", insertable = false, updatable = false)
+    private Doctor doctor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", insertable = false, updatable = false)
+    private Room room;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    private AppointmentStatus status;
+
+    private LocalDateTime checkedInAt;
+
+    // legatura cu seria, pentru aparitiile materializate
+    @Column(name = "series_id")
+    private Long seriesId;
+
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate;
+
+    private Long version;
+
+    private LocalDateTime archivedAt;
+
+    public ArchivedAppointment() {
+    }
+
+    // programarea in forma obisnuita, detasata, pentru caile de citire
+    public Appointment toAppointment() {
+        Appointment appointment = new Appointment(patient, doctor, startTime, endTime, reason, status);
+        appointment.setId(id);
+        appointment.setRoom(room);
+        appointment.setCheckedInAt(checkedInAt);
+        appointment.setSeriesId(seriesId);
+        appointment.setOccurrenceDate(occurrenceDate);
+        appointment.setVersion(version);
+        return appointment;
+    }
+
+    // --- getters & setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public void setPatient(Patient patient) {
+        this.patient = patient;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public void setDoctor(Doctor doctor) {
+        this.doctor = doctor;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCheckedInAt() {
+        return checkedInAt;
+    }
+
+    public void setCheckedInAt(LocalDateTime checkedInAt) {
+        this.checkedInAt = checkedInAt;
+    }
+
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(Long seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public LocalDate getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public void setOccurrenceDate(LocalDate occurrenceDate) {
+        this.occurrenceDate = occurrenceDate;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
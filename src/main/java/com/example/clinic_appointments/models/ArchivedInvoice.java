@@ -0,0 +1,167 @@
+package com.example.clinic_appointments.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Factura achitata (sau anulata) arhivata impreuna cu programarea ei. Ca la
+// ArchivedAppointment, id-ul e pastrat si randul e doar pentru citire.
+@Entity
+@Table(name = "invoices_archive", indexes = {
+        @Index(name = "idx_invoices_archive_appointment", columnList = "appointment_id")
+})
+public class ArchivedInvoice {
+
+    @Id
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", insertable = false, updatable = false)
+    private Patient patient;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "appointment_id", insertable = false, updatable = false)
+    private ArchivedAppointment appointment;
+
+    private BigDecimal amount;
+
+    private String currency;
+
+    private LocalDate issueDate;
+
+    private LocalDate dueDate;
+
+    @Enumerated(EnumType.STRING)
+    private InvoiceStatus status;
+
+    private String description;
+
+    private Long version;
+
+    private LocalDateTime archivedAt;
+
+    public ArchivedInvoice() {
+    }
+
+    public Invoice toInvoice() {
+        Invoice invoice = new Invoice(patient, appointment != null ? appointment.toAppointment() : null,
+                amount, currency, issueDate, dueDate, status, description);
+        invoice.setId(id);
+        invoice.setVersion(version);
+        return invoice;
+    }
+
+    // --- getters & setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public void setPatient(Patient patient) {
+        this.patient = patient;
+    }
+
+    public ArchivedAppointment getAppointment() {
+        return appointment;
+    }
+
+    public void setAppointment(ArchivedAppointment appointment) {
+        this.appointment = appointment;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public LocalDate getIssueDate() {
+        return issueDate;
+    }
+
+    public void setIssueDate(LocalDate issueDate) {
+        this.issueDate = issueDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public InvoiceStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(InvoiceStatus status) {
+        this.status = status;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
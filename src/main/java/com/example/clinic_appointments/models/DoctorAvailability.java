@@ -6,7 +6,9 @@ import java.time.DayOfWeek;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "doctor_availabilities")
+@Table(name = "doctor_availabilities", indexes = {
+        @Index(name = "idx_availabilities_doctor_day", columnList = "doctor_id, day_of_week")
+})
 public class DoctorAvailability {
 
     @Id
@@ -14,7 +16,7 @@ public class DoctorAvailability {
     private Long id;
 
     // Many availabilities -> one doctor
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "doctor_id")
     @NotNull(message = "Doctor is required")
     private Doctor doctor;
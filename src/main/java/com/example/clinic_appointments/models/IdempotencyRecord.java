@@ -0,0 +1,97 @@
+package com.example.clinic_appointments.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Raspunsul salvat pentru un Idempotency-Key, ca un POST repetat sa primeasca acelasi
+// raspuns si dupa un restart sau de pe alta instanta. Cheia include metoda si calea.
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    public static final int MAX_BODY_LENGTH = 100_000;
+
+    @Id
+    @Column(length = 300)
+    private String id;
+
+    // SHA-256 al corpului cererii: aceeasi cheie cu alt corp e o eroare a clientului
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    private int status;
+
+    private String contentType;
+
+    @Column(length = MAX_BODY_LENGTH)
+    private String body;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String id, String requestHash, int status, String contentType, String body,
+                             Instant expiresAt) {
+        this.id = id;
+        this.requestHash = requestHash;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+        this.expiresAt = expiresAt;
+    }
+
+    // --- getters & setters ---
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
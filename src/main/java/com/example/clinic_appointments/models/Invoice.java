@@ -10,7 +10,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_patient_status", columnList = "patient_id, status"),
+        // exportul pe interval de emitere
+        @Index(name = "idx_invoices_issue_date", columnList = "issue_date, id")
+})
 public class Invoice {
 
     @Id
@@ -18,13 +22,13 @@ public class Invoice {
     private Long id;
 
     // Many invoices -> one patient
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "patient_id")
     @NotNull(message = "Patient is required")
     private Patient patient;
 
     // Optional: factura poate fi legata de o anumita programare
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id")
     private Appointment appointment;
 
@@ -48,6 +52,10 @@ public class Invoice {
     @Size(max = 255)
     private String description;
 
+    // versiune pentru optimistic locking; un update pe o versiune veche e respins de Hibernate
+    @Version
+    private Long version;
+
     public Invoice() {
     }
 
@@ -142,4 +150,12 @@ public class Invoice {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -3,8 +3,10 @@ package com.example.clinic_appointments.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
+@BatchSize(size = 50)
 @Table(name = "rooms")
 public class Room {
 
@@ -0,0 +1,136 @@
+package com.example.clinic_appointments.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+// Pacient care asteapta un loc la un doctor, in intervalul preferat [preferredFrom, preferredTo).
+// La prioritate egala, cine s-a inscris primul (id mai mic) e servit primul.
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_doctor_status", columnList = "doctor_id, status")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "patient_id")
+    @NotNull(message = "Patient is required")
+    private Patient patient;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "doctor_id")
+    @NotNull(message = "Doctor is required")
+    private Doctor doctor;
+
+    @NotNull(message = "Preferred start is required")
+    private LocalDateTime preferredFrom;
+
+    @NotNull(message = "Preferred end is required")
+    private LocalDateTime preferredTo;
+
+    // mai mare = mai urgent
+    private int priority;
+
+    @NotBlank(message = "Reason is required")
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    // programarea facuta automat cand s-a eliberat un loc
+    private Long appointmentId;
+
+    private LocalDateTime createdAt;
+
+    public WaitlistEntry() {
+    }
+
+    // --- getters & setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Patient getPatient() {
+        return patient;
+    }
+
+    public void setPatient(Patient patient) {
+        this.patient = patient;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public void setDoctor(Doctor doctor) {
+        this.doctor = doctor;
+    }
+
+    public LocalDateTime getPreferredFrom() {
+        return preferredFrom;
+    }
+
+    public void setPreferredFrom(LocalDateTime preferredFrom) {
+        this.preferredFrom = preferredFrom;
+    }
+
+    public LocalDateTime getPreferredTo() {
+        return preferredTo;
+    }
+
+    public void setPreferredTo(LocalDateTime preferredTo) {
+        this.preferredTo = preferredTo;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public WaitlistStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WaitlistStatus status) {
+        this.status = status;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
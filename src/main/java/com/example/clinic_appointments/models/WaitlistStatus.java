@@ -0,0 +1,7 @@
+package com.example.clinic_appointments.model;
+
+public enum WaitlistStatus {
+    WAITING,     // asteapta un loc eliberat
+    BOOKED,      // a primit o programare
+    CANCELLED    // scos de pe lista
+}
@@ -1,16 +1,41 @@
 package com.example.clinic_appointments.repository;
 
+import com.example.clinic_appointments.dto.CalendarEntry;
+import com.example.clinic_appointments.dto.DoctorBooking;
 import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
 import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.InvoiceStatus;
 import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>,
+        JpaSpecificationExecutor<Appointment> {
+
+    // endpoint-urile care intorc programari le serializeaza cu pacient, doctor si camera;
+    // le aducem in acelasi select, nu prin proxy-uri initializate pe rand
+    @Override
+    @EntityGraph(attributePaths = {"patient", "doctor", "room"})
+    Optional<Appointment> findById(Long id);
 
     List<Appointment> findByPatient(Patient patient);
 
@@ -19,4 +44,135 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findByDoctorAndStartTimeBetween(Doctor doctor,
                                                       LocalDateTime start,
                                                       LocalDateTime end);
+
+    List<Appointment> findByRoomAndStartTimeBetween(Room room,
+                                                    LocalDateTime start,
+                                                    LocalDateTime end);
+
+    // paginare keyset pe (startTime, id): prima pagina
+    @EntityGraph(attributePaths = {"patient", "doctor", "room"})
+    List<Appointment> findAllByOrderByStartTimeAscIdAsc(Limit limit);
+
+    // paginare keyset pe (startTime, id): paginile urmatoare, dupa ultimul element vazut
+    @Query("""
+            select a from Appointment a
+            where a.startTime > :startTime
+               or (a.startTime = :startTime and a.id > :id)
+            order by a.startTime asc, a.id asc
+            """)
+    @EntityGraph(attributePaths = {"patient", "doctor", "room"})
+    List<Appointment> findPageAfter(@Param("startTime") LocalDateTime startTime,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
+    // export: randurile vin din cursor in pachete de 500, nu toate odata; trebuie consumat intr-o tranzactie
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select a from Appointment a
+            join fetch a.patient
+            join fetch a.doctor
+            left join fetch a.room
+            where a.startTime >= :from and a.startTime < :to
+            order by a.startTime asc, a.id asc
+            """)
+    Stream<Appointment> streamByStartTimeRange(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    // cea mai veche programare inca in starea data, terminata inainte de 'before'
+    @Query("select min(a.endTime) from Appointment a where a.status = :status and a.endTime < :before")
+    LocalDateTime findOldestEndTime(@Param("status") AppointmentStatus status,
+                                    @Param("before") LocalDateTime before);
+
+    // schimba starea direct in baza, fara sa incarce entitatile; versiunea creste ca la un
+    // update obisnuit, deci o editare concurenta pe o copie veche pica pe optimistic lock
+    @Modifying
+    @Query("""
+            update Appointment a
+            set a.status = :newStatus, a.version = a.version + 1
+            where a.status = :oldStatus
+              and a.endTime >= :from and a.endTime < :to
+              and ((:checkedIn = true and a.checkedInAt is not null)
+                or (:checkedIn = false and a.checkedInAt is null))
+            """)
+    int updateStatusForEndTimeWindow(@Param("oldStatus") AppointmentStatus oldStatus,
+                                     @Param("newStatus") AppointmentStatus newStatus,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("checkedIn") boolean checkedIn);
+
+    // istoricul pacientului din tabela calda; completat cu arhiva in AppointmentService
+    @EntityGraph(attributePaths = {"patient", "doctor", "room"})
+    List<Appointment> findByPatientIdOrderByStartTimeDesc(Long patientId);
+
+    // candidatii pentru arhivare: terminati inainte de 'before', nu mai sunt SCHEDULED si nu au
+    // facturi deschise (acelea raman in tabela calda pana sunt platite sau anulate)
+    @Query("""
+            select a.id from Appointment a
+            where a.endTime < :before
+              and a.status <> :pending
+              and not exists (
+                  select i.id from Invoice i
+                  where i.appointment = a and i.status not in :settled)
+            order by a.id asc
+            """)
+    List<Long> findArchivableIds(@Param("before") LocalDateTime before,
+                                 @Param("pending") AppointmentStatus pending,
+                                 @Param("settled") Collection<InvoiceStatus> settled,
+                                 Limit limit);
+
+    // calendarul doctorului: doar coloanele afisate, intr-o singura interogare
+    @Query("""
+            select new com.example.clinic_appointments.dto.CalendarEntry(
+                a.id, a.startTime, a.endTime, a.status,
+                concat(p.firstName, ' ', p.lastName), r.name)
+            from Appointment a
+            join a.patient p
+            left join a.room r
+            where a.doctor.id = :doctorId
+              and a.startTime >= :from and a.startTime < :to
+            order by a.startTime asc, a.id asc
+            """)
+    List<CalendarEntry> findCalendarEntries(@Param("doctorId") Long doctorId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // programarile active care se termina dupa 'from', doar doctorul si intervalul
+    @Query("""
+            select new com.example.clinic_appointments.dto.DoctorBooking(a.id, a.doctor.id, a.startTime, a.endTime)
+            from Appointment a
+            where a.status <> :cancelled and a.endTime > :from
+            """)
+    List<DoctorBooking> findBookingsEndingAfter(@Param("from") LocalDateTime from,
+                                                @Param("cancelled") AppointmentStatus cancelled);
+
+    // programarile active care incep in [from, to), cu doctorul (specializarea conteaza la
+    // repartizarea camerelor); camera ramane proxy, ne trebuie doar id-ul ei
+    @EntityGraph(attributePaths = "doctor")
+    @Query("""
+            select a from Appointment a
+            where a.startTime >= :from and a.startTime < :to and a.status <> :cancelled
+            order by a.startTime asc, a.id asc
+            """)
+    List<Appointment> findActiveStartingBetween(@Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("cancelled") AppointmentStatus cancelled);
+
+    // programarile unui doctor care inca pot fi mutate: programate, fara check-in, incepute in [from, to)
+    @Query("""
+            select a from Appointment a
+            where a.doctor.id = :doctorId
+              and a.startTime >= :from and a.startTime < :to
+              and a.status = :status and a.checkedInAt is null
+            order by a.startTime asc, a.id asc
+            """)
+    List<Appointment> findMovableByDoctor(@Param("doctorId") Long doctorId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("status") AppointmentStatus status);
+
+    // aparitiile materializate ale unei serii din [from, to]
+    @EntityGraph(attributePaths = {"patient", "doctor", "room"})
+    List<Appointment> findBySeriesIdAndOccurrenceDateBetween(Long seriesId, LocalDate from, LocalDate to);
+
+    Optional<Appointment> findBySeriesIdAndOccurrenceDate(Long seriesId, LocalDate occurrenceDate);
 }
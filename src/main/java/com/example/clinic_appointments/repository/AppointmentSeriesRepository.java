@@ -0,0 +1,24 @@
+package com.example.clinic_appointments.repository;
+
+import com.example.clinic_appointments.model.AppointmentSeries;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AppointmentSeriesRepository extends JpaRepository<AppointmentSeries, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"patient", "doctor", "room", "exceptions"})
+    Optional<AppointmentSeries> findById(Long id);
+
+    // SeriesIndex: seriile unui doctor / ale unei camere, cu exceptiile in acelasi select
+    @EntityGraph(attributePaths = {"doctor", "room", "exceptions"})
+    List<AppointmentSeries> findByDoctorId(Long doctorId);
+
+    @EntityGraph(attributePaths = {"doctor", "room", "exceptions"})
+    List<AppointmentSeries> findByRoomId(Long roomId);
+}
@@ -0,0 +1,65 @@
+package com.example.clinic_appointments.repository;
+
+import com.example.clinic_appointments.dto.AppointmentSearch;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Filtrele pentru GET /api/appointments/search. Fiecare criteriu lipsa nu adauga nimic in
+// WHERE; conditiile pe *_id compara direct coloana FK, fara join.
+public final class AppointmentSpecifications {
+
+    private AppointmentSpecifications() {
+    }
+
+    public static Specification<Appointment> matching(AppointmentSearch search) {
+        List<Specification<Appointment>> filters = new ArrayList<>();
+        if (search.doctorId() != null) {
+            filters.add(hasDoctor(search.doctorId()));
+        }
+        if (search.patientId() != null) {
+            filters.add(hasPatient(search.patientId()));
+        }
+        if (search.roomId() != null) {
+            filters.add(hasRoom(search.roomId()));
+        }
+        if (search.status() != null) {
+            filters.add(hasStatus(search.status()));
+        }
+        if (search.from() != null) {
+            filters.add(startsAtOrAfter(search.from()));
+        }
+        if (search.to() != null) {
+            filters.add(startsBefore(search.to()));
+        }
+        return Specification.allOf(filters);
+    }
+
+    public static Specification<Appointment> hasDoctor(Long doctorId) {
+        return (root, query, cb) -> cb.equal(root.get("doctor").get("id"), doctorId);
+    }
+
+    public static Specification<Appointment> hasPatient(Long patientId) {
+        return (root, query, cb) -> cb.equal(root.get("patient").get("id"), patientId);
+    }
+
+    public static Specification<Appointment> hasRoom(Long roomId) {
+        return (root, query, cb) -> cb.equal(root.get("room").get("id"), roomId);
+    }
+
+    public static Specification<Appointment> hasStatus(AppointmentStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Appointment> startsAtOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("startTime"), from);
+    }
+
+    public static Specification<Appointment> startsBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("startTime"), to);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.clinic_appointments.repository;
+
+import com.example.clinic_appointments.model.ArchivedAppointment;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"patient", "doctor", "room"})
+    Optional<ArchivedAppointment> findById(Long id);
+
+    @EntityGraph(attributePaths = {"patient", "doctor", "room"})
+    List<ArchivedAppointment> findByPatientIdOrderByStartTimeDesc(Long patientId);
+
+    // copiaza programarile direct in baza (insert ... select), fara sa le incarce in memorie
+    @Modifying
+    @Query("""
+            insert into ArchivedAppointment (id, patientId, doctorId, roomId, startTime, endTime,
+                                             reason, status, checkedInAt, seriesId, occurrenceDate,
+                                             version, archivedAt)
+            select a.id, a.patient.id, a.doctor.id, a.room.id, a.startTime, a.endTime,
+                   a.reason, a.status, a.checkedInAt, a.seriesId, a.occurrenceDate,
+                   a.version, :archivedAt
+            from Appointment a
+            where a.id in :ids
+            """)
+    int copyFromAppointments(@Param("ids") Collection<Long> ids,
+                             @Param("archivedAt") LocalDateTime archivedAt);
+}
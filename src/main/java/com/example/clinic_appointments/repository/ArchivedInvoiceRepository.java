@@ -0,0 +1,34 @@
+package com.example.clinic_appointments.repository;
+
+import com.example.clinic_appointments.model.ArchivedInvoice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedInvoiceRepository extends JpaRepository<ArchivedInvoice, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"patient", "appointment.patient", "appointment.doctor", "appointment.room"})
+    Optional<ArchivedInvoice> findById(Long id);
+
+    // facturile programarilor arhivate; programarile trebuie copiate inainte (FK pe appointment_id)
+    @Modifying
+    @Query("""
+            insert into ArchivedInvoice (id, patientId, appointmentId, amount, currency, issueDate,
+                                         dueDate, status, description, version, archivedAt)
+            select i.id, i.patient.id, i.appointment.id, i.amount, i.currency, i.issueDate,
+                   i.dueDate, i.status, i.description, i.version, :archivedAt
+            from Invoice i
+            where i.appointment.id in :appointmentIds
+            """)
+    int copyFromInvoices(@Param("appointmentIds") Collection<Long> appointmentIds,
+                         @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -2,16 +2,33 @@ package com.example.clinic_appointments.repository;
 
 import com.example.clinic_appointments.model.Doctor;
 import com.example.clinic_appointments.model.DoctorAvailability;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DoctorAvailabilityRepository extends JpaRepository<DoctorAvailability, Long> {
 
+    // doar listarea si citirea dupa id intorc doctorul in raspuns; calculele de sloturi
+    // folosesc numai intervalele si merg pe proxy
+    @Override
+    @EntityGraph(attributePaths = "doctor")
+    List<DoctorAvailability> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "doctor")
+    Optional<DoctorAvailability> findById(Long id);
+
     List<DoctorAvailability> findByDoctor(Doctor doctor);
 
     List<DoctorAvailability> findByDoctorAndDayOfWeek(Doctor doctor, DayOfWeek dayOfWeek);
+
+    List<DoctorAvailability> findByDoctorIn(Collection<Doctor> doctors);
+
+    List<DoctorAvailability> findByDoctorId(Long doctorId);
 }
@@ -1,11 +1,18 @@
 package com.example.clinic_appointments.repository;
 
 import com.example.clinic_appointments.model.Doctor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
-    // aici putem adauga metode custom mai tarziu, de ex:
-    // List<Doctor> findBySpecialization(String specialization);
+
+    // Doctor.specialization e text liber; il potrivim cu Specialty.name
+    List<Doctor> findBySpecializationIgnoreCase(String specialization);
+
+    // paginare keyset dupa id
+    List<Doctor> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -3,15 +3,57 @@ package com.example.clinic_appointments.repository;
 import com.example.clinic_appointments.model.Invoice;
 import com.example.clinic_appointments.model.InvoiceStatus;
 import com.example.clinic_appointments.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
+    // factura se serializeaza cu pacientul si cu programarea ei (care are la randul ei
+    // pacient, doctor si camera): tot graful intr-un singur select
+    @Override
+    @EntityGraph(attributePaths = {"patient", "appointment.patient", "appointment.doctor", "appointment.room"})
+    Optional<Invoice> findById(Long id);
+
     List<Invoice> findByPatient(Patient patient);
 
     List<Invoice> findByPatientAndStatus(Patient patient, InvoiceStatus status);
+
+    // paginare keyset dupa id
+    @EntityGraph(attributePaths = {"patient", "appointment.patient", "appointment.doctor", "appointment.room"})
+    List<Invoice> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // dupa ce au fost copiate in arhiva
+    @Modifying
+    @Query("delete from Invoice i where i.appointment.id in :appointmentIds")
+    int deleteByAppointmentIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+    // export: randurile vin din cursor in pachete de 500, nu toate odata; trebuie consumat intr-o tranzactie
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select i from Invoice i
+            join fetch i.patient
+            left join fetch i.appointment a
+            left join fetch a.patient
+            left join fetch a.doctor
+            left join fetch a.room
+            where i.issueDate >= :from and i.issueDate < :to
+            order by i.issueDate asc, i.id asc
+            """)
+    Stream<Invoice> streamByIssueDateRange(@Param("from") LocalDate from,
+                                           @Param("to") LocalDate to);
 }
@@ -1,11 +1,15 @@
 package com.example.clinic_appointments.repository;
 
 import com.example.clinic_appointments.model.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
-    // aici poti adauga metode de query custom mai tarziu, de exemplu:
-    // List<Patient> findByLastName(String lastName);
+
+    // paginare keyset dupa id
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
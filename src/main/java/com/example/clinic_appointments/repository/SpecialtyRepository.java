@@ -1,11 +1,15 @@
 package com.example.clinic_appointments.repository;
 
 import com.example.clinic_appointments.model.Specialty;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface SpecialtyRepository extends JpaRepository<Specialty, Long> {
-    // optional mai tarziu:
-    // Optional<Specialty> findByName(String name);
+
+    // paginare keyset dupa id
+    List<Specialty> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -0,0 +1,26 @@
+package com.example.clinic_appointments.repository;
+
+import com.example.clinic_appointments.model.WaitlistEntry;
+import com.example.clinic_appointments.model.WaitlistStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    Optional<WaitlistEntry> findById(Long id);
+
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    List<WaitlistEntry> findByDoctorIdAndStatusOrderByIdAsc(Long doctorId, WaitlistStatus status);
+
+    // intrarile inca utile: fereastra preferata nu s-a terminat
+    List<WaitlistEntry> findByDoctorIdAndStatusAndPreferredToAfter(Long doctorId, WaitlistStatus status,
+                                                                   LocalDateTime after);
+}
@@ -0,0 +1,87 @@
+package com.example.clinic_appointments.schedule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Serializeaza rezervarile care ating acelasi doctor sau aceeasi camera, fara un lock global.
+// Fiecare doctor/camera cade pe una din STRIPES lock-uri; lock-urile unei rezervari se iau
+// mereu in ordinea crescatoare a indexului, deci doua rezervari nu se pot bloca reciproc.
+@Component
+public class BookingLockCoordinator {
+
+    static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Timer waitTimer;
+    private final Counter contended;
+
+    public BookingLockCoordinator(MeterRegistry meterRegistry) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.waitTimer = Timer.builder("clinic.booking.lock.wait")
+                .description("Time spent waiting for doctor/room booking locks")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.contended = Counter.builder("clinic.booking.lock.contended")
+                .description("Bookings that had to wait for a lock held by another booking")
+                .register(meterRegistry);
+    }
+
+    public <T> T withLocks(Long doctorId, Long roomId, Supplier<T> action) {
+        return withLocks(doctorId != null ? List.of(doctorId) : List.of(),
+                roomId != null ? List.of(roomId) : List.of(), action);
+    }
+
+    public <T> T withLocks(Collection<Long> doctorIds, Collection<Long> roomIds, Supplier<T> action) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long doctorId : doctorIds) {
+            stripes.add(stripeOf(doctorId, 0));
+        }
+        for (Long roomId : roomIds) {
+            stripes.add(stripeOf(roomId, 1));
+        }
+
+        List<ReentrantLock> acquired = new ArrayList<>(stripes.size());
+        long startedAt = System.nanoTime();
+        boolean waited = false;
+        try {
+            for (int stripe : stripes) {
+                ReentrantLock lock = locks[stripe];
+                if (!lock.tryLock()) {
+                    waited = true;
+                    lock.lock();
+                }
+                acquired.add(lock);
+            }
+            waitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (waited) {
+                contended.increment();
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    // doctorii si camerele cu acelasi id nu trebuie sa cada neaparat pe acelasi lock
+    static int stripeOf(Long id, int kind) {
+        long h = id * 2 + kind;
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return (int) (h & (STRIPES - 1));
+    }
+}
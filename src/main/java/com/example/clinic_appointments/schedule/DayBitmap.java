@@ -0,0 +1,93 @@
+package com.example.clinic_appointments.schedule;
+
+import java.time.LocalTime;
+import java.util.BitSet;
+
+// Ziua impartita in felii de GRANULARITY_MINUTES minute, un bit pe felie (288 de biti,
+// adica 5 long-uri). Bit setat = doctorul e disponibil si liber in felia respectiva.
+public class DayBitmap {
+
+    public static final int GRANULARITY_MINUTES = 5;
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int SLOTS_PER_DAY = MINUTES_PER_DAY / GRANULARITY_MINUTES;
+
+    @FunctionalInterface
+    public interface SlotConsumer {
+        void accept(int startMinute, int endMinute);
+    }
+
+    private final BitSet bits = new BitSet(SLOTS_PER_DAY);
+
+    // marcheaza ca disponibil; se iau doar feliile cuprinse complet in [fromMinute, toMinute)
+    public void markAvailable(int fromMinute, int toMinute) {
+        int first = ceilDiv(clamp(fromMinute), GRANULARITY_MINUTES);
+        int last = clamp(toMinute) / GRANULARITY_MINUTES;
+        if (first < last) {
+            bits.set(first, last);
+        }
+    }
+
+    // marcheaza ca ocupat; orice felie atinsa de [fromMinute, toMinute) devine ocupata
+    public void markBusy(int fromMinute, int toMinute) {
+        int first = clamp(fromMinute) / GRANULARITY_MINUTES;
+        int last = ceilDiv(clamp(toMinute), GRANULARITY_MINUTES);
+        if (first < last) {
+            bits.clear(first, last);
+        }
+    }
+
+    public boolean isFree(int fromMinute, int toMinute) {
+        int first = clamp(fromMinute) / GRANULARITY_MINUTES;
+        int last = ceilDiv(clamp(toMinute), GRANULARITY_MINUTES);
+        return first < last && bits.nextClearBit(first) >= last;
+    }
+
+    // apeleaza action(startMinute, endMinute) pentru fiecare interval liber de
+    // durationMinutes, asezate unul dupa altul in fiecare fereastra libera
+    public void forEachSlot(int durationMinutes, SlotConsumer action) {
+        int needed = ceilDiv(durationMinutes, GRANULARITY_MINUTES);
+        int runStart = bits.nextSetBit(0);
+        while (runStart >= 0) {
+            int runEnd = bits.nextClearBit(runStart);
+            for (int slot = runStart; slot + needed <= runEnd; slot += needed) {
+                action.accept(slot * GRANULARITY_MINUTES, slot * GRANULARITY_MINUTES + durationMinutes);
+            }
+            runStart = bits.nextSetBit(runEnd);
+        }
+    }
+
+    // primul minut >= fromMinute (aliniat la felie) de la care urmeaza durationMinutes libere; -1 daca nu exista
+    public int firstFree(int fromMinute, int durationMinutes) {
+        int needed = ceilDiv(durationMinutes, GRANULARITY_MINUTES);
+        int slot = bits.nextSetBit(ceilDiv(clamp(fromMinute), GRANULARITY_MINUTES));
+        while (slot >= 0 && slot + needed <= SLOTS_PER_DAY) {
+            int runEnd = bits.nextClearBit(slot);
+            if (runEnd - slot >= needed) {
+                return slot * GRANULARITY_MINUTES;
+            }
+            slot = bits.nextSetBit(runEnd);
+        }
+        return -1;
+    }
+
+    public int freeMinutes() {
+        return bits.cardinality() * GRANULARITY_MINUTES;
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    // ora de sfarsit 00:00 inseamna sfarsitul zilei
+    public static int endMinuteOfDay(LocalTime time) {
+        return time.equals(LocalTime.MIDNIGHT) ? MINUTES_PER_DAY : minuteOfDay(time);
+    }
+
+    private static int clamp(int minute) {
+        return Math.max(0, Math.min(MINUTES_PER_DAY, minute));
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.clinic_appointments.schedule;
+
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Programarile active ale fiecarui doctor, pentru detectarea dublarilor.
+@Component
+public class DoctorScheduleIndex extends ScheduleIndex {
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+
+    public DoctorScheduleIndex(AppointmentRepository appointmentRepository,
+                               DoctorRepository doctorRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+    }
+
+    @Override
+    protected List<Appointment> load(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        return appointmentRepository.findByDoctorAndStartTimeBetween(
+                doctorRepository.getReferenceById(doctorId), from, to);
+    }
+
+    @Override
+    protected Long resourceIdOf(Appointment appointment) {
+        return appointment.getDoctor() != null ? appointment.getDoctor().getId() : null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.clinic_appointments.schedule;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Conversii LocalDateTime <-> minute de la epoch. Orele din aplicatie sunt locale
+// (fara fus orar), asa ca folosim UTC doar ca referinta fixa pentru aritmetica.
+public final class EpochMinutes {
+
+    private EpochMinutes() {
+    }
+
+    public static long floor(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public static long ceil(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC) + 59, 60);
+    }
+
+    public static LocalDateTime toDateTime(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.clinic_appointments.schedule;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Heap binar de chei long dupa o prioritate double, cu pozitia fiecarei chei tinuta intr-un map:
+// schimbarea prioritatii unei chei existente e O(log n), fara cautare prin heap.
+// La prioritati egale iese cheia mai mica. Nu e sincronizat.
+public class IndexedMinHeap {
+
+    private long[] keys = new long[16];
+    private double[] priorities = new double[16];
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private int size;
+
+    // adauga cheia sau ii schimba prioritatea
+    public void put(long key, double priority) {
+        Integer position = positions.get(key);
+        if (position == null) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                priorities = Arrays.copyOf(priorities, size * 2);
+            }
+            keys[size] = key;
+            priorities[size] = priority;
+            positions.put(key, size);
+            siftUp(size++);
+            return;
+        }
+        double previous = priorities[position];
+        priorities[position] = priority;
+        if (priority < previous) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    public boolean remove(long key) {
+        Integer position = positions.remove(key);
+        if (position == null) {
+            return false;
+        }
+        size--;
+        if (position < size) {
+            move(size, position);
+            siftDown(position);
+            siftUp(position);
+        }
+        return true;
+    }
+
+    // scoate si intoarce cheia cu prioritatea cea mai mica
+    public long poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        long top = keys[0];
+        remove(top);
+        return top;
+    }
+
+    public long peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return keys[0];
+    }
+
+    public boolean contains(long key) {
+        return positions.containsKey(key);
+    }
+
+    public double priorityOf(long key) {
+        Integer position = positions.get(key);
+        if (position == null) {
+            throw new IllegalArgumentException("Key not in heap: " + key);
+        }
+        return priorities[position];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!less(position, parent)) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+            if (!less(smallest, position)) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private boolean less(int a, int b) {
+        int byPriority = Double.compare(priorities[a], priorities[b]);
+        return byPriority < 0 || (byPriority == 0 && keys[a] < keys[b]);
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        double priority = priorities[a];
+        move(b, a);
+        keys[b] = key;
+        priorities[b] = priority;
+        positions.put(key, b);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        priorities[to] = priorities[from];
+        positions.put(keys[to], to);
+    }
+}
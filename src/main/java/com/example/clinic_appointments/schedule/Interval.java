@@ -0,0 +1,9 @@
+package com.example.clinic_appointments.schedule;
+
+// Interval ocupat [start, end) in minute de la epoch, tinut pentru o programare (id).
+public record Interval(long id, long start, long end) {
+
+    public boolean overlaps(long otherStart, long otherEnd) {
+        return start < otherEnd && otherStart < end;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.clinic_appointments.schedule;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.OptionalLong;
+import java.util.TreeSet;
+
+// Intervalele ocupate ale unei singure resurse (doctor, camera), sortate dupa start.
+//
+// Cautarea unei suprapuneri porneste de la ultimul interval care incepe inainte de
+// sfarsitul cererii si merge inapoi doar cat timp un interval ar mai putea ajunge
+// pana la inceputul cererii (start + maxLength > start cerere). Cum programarile au
+// durate scurte si apropiate, asta inseamna O(log n) plus cateva comparatii, chiar si
+// cand in date vechi exista deja suprapuneri.
+public class IntervalSet {
+
+    private static final Comparator<Interval> BY_START =
+            Comparator.comparingLong(Interval::start).thenComparingLong(Interval::id);
+
+    private final NavigableSet<Interval> byStart = new TreeSet<>(BY_START);
+    private final Map<Long, Interval> byId = new HashMap<>();
+    private long maxLength;
+
+    public synchronized void put(Interval interval) {
+        Interval previous = byId.put(interval.id(), interval);
+        if (previous != null) {
+            byStart.remove(previous);
+        }
+        byStart.add(interval);
+        maxLength = Math.max(maxLength, interval.end() - interval.start());
+    }
+
+    public synchronized boolean remove(long id) {
+        Interval previous = byId.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        byStart.remove(previous);
+        return true;
+    }
+
+    public synchronized OptionalLong findOverlap(long start, long end, Long excludeId) {
+        Iterator<Interval> it = candidates(end);
+        while (it.hasNext()) {
+            Interval candidate = it.next();
+            if (candidate.start() + maxLength <= start) {
+                break;
+            }
+            if (candidate.end() > start && (excludeId == null || candidate.id() != excludeId)) {
+                return OptionalLong.of(candidate.id());
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    // toate intervalele care se suprapun cu [start, end), in ordinea inceputului
+    public synchronized List<Interval> overlapping(long start, long end) {
+        List<Interval> result = new ArrayList<>();
+        Iterator<Interval> it = candidates(end);
+        while (it.hasNext()) {
+            Interval candidate = it.next();
+            if (candidate.start() + maxLength <= start) {
+                break;
+            }
+            if (candidate.end() > start) {
+                result.add(candidate);
+            }
+        }
+        return result.reversed();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    // intervalele care incep strict inainte de end, de la cel mai apropiat spre trecut
+    private Iterator<Interval> candidates(long end) {
+        return byStart.headSet(new Interval(Long.MIN_VALUE, end, Long.MIN_VALUE), false).descendingIterator();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.clinic_appointments.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Subsetul din RRULE (RFC 5545) de care avem nevoie pentru programarile recurente:
+// FREQ=DAILY|WEEKLY, INTERVAL, BYDAY (doar la WEEKLY), COUNT sau UNTIL (unul e obligatoriu,
+// o serie nu poate fi infinita). Aparitiile se calculeaza la cerere, pe intervalul intrebat.
+public final class RecurrenceRule {
+
+    public enum Frequency { DAILY, WEEKLY }
+
+    public static final int MAX_COUNT = 520;
+    public static final int MAX_YEARS = 5;
+
+    private static final Map<String, DayOfWeek> DAYS = Map.of(
+            "MO", DayOfWeek.MONDAY, "TU", DayOfWeek.TUESDAY, "WE", DayOfWeek.WEDNESDAY,
+            "TH", DayOfWeek.THURSDAY, "FR", DayOfWeek.FRIDAY, "SA", DayOfWeek.SATURDAY, "SU", DayOfWeek.SUNDAY);
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Frequency frequency;
+    private final int interval;
+    private final Set<DayOfWeek> byDay;
+    private final Integer count;
+    private final LocalDate until;
+
+    private RecurrenceRule(Frequency frequency, int interval, Set<DayOfWeek> byDay, Integer count, LocalDate until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay;
+        this.count = count;
+        this.until = until;
+    }
+
+    // firstDate ancoreaza regula: la WEEKLY fara BYDAY se repeta ziua ei din saptamana
+    public static RecurrenceRule parse(String rule, LocalDate firstDate) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("Recurrence rule is required");
+        }
+        String body = rule.trim().toUpperCase(Locale.ROOT);
+        if (body.startsWith("RRULE:")) {
+            body = body.substring("RRULE:".length());
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        Integer count = null;
+        LocalDate until = null;
+        for (String part : body.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Malformed rule part '" + part + "'");
+            }
+            String key = part.substring(0, eq);
+            String value = part.substring(eq + 1);
+            try {
+                switch (key) {
+                    case "FREQ" -> frequency = frequencyOf(value);
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = parseDate(value);
+                    case "BYDAY" -> {
+                        for (String day : value.split(",")) {
+                            DayOfWeek dayOfWeek = DAYS.get(day);
+                            if (dayOfWeek == null) {
+                                throw new IllegalArgumentException("Unknown BYDAY value '" + day + "'");
+                            }
+                            byDay.add(dayOfWeek);
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported rule part " + key);
+                }
+            } catch (NumberFormatException | DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid value for " + key + ": '" + value + "'");
+            }
+        }
+
+        if (frequency == null) {
+            throw new IllegalArgumentException("FREQ is required");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("INTERVAL must be at least 1");
+        }
+        if (frequency == Frequency.DAILY && !byDay.isEmpty()) {
+            throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        if (frequency == Frequency.WEEKLY && byDay.isEmpty()) {
+            byDay.add(firstDate.getDayOfWeek());
+        }
+        if ((count == null) == (until == null)) {
+            throw new IllegalArgumentException("Exactly one of COUNT and UNTIL is required");
+        }
+        if (count != null && (count < 1 || count > MAX_COUNT)) {
+            throw new IllegalArgumentException("COUNT must be between 1 and " + MAX_COUNT);
+        }
+        if (until != null && (until.isBefore(firstDate) || until.isAfter(firstDate.plusYears(MAX_YEARS)))) {
+            throw new IllegalArgumentException("UNTIL must be within " + MAX_YEARS + " years after the first date");
+        }
+        RecurrenceRule parsed = new RecurrenceRule(frequency, interval, byDay, count, until);
+        if (count != null) {
+            int[] within = {0};
+            parsed.forEach(firstDate, firstDate, horizon(firstDate), date -> within[0]++);
+            if (within[0] < count) {
+                throw new IllegalArgumentException("A series cannot span more than " + MAX_YEARS + " years");
+            }
+        }
+        return parsed;
+    }
+
+    // aceeasi regula, oprita la ultima aparitie de dinainte de 'date'
+    public RecurrenceRule endingBefore(LocalDate firstDate, LocalDate date) {
+        LocalDate[] last = new LocalDate[1];
+        forEach(firstDate, firstDate, date, occurrence -> last[0] = occurrence);
+        if (last[0] == null) {
+            throw new IllegalArgumentException("No occurrence left before " + date);
+        }
+        return new RecurrenceRule(frequency, interval, byDay, null, last[0]);
+    }
+
+    // aparitiile din [from, to), in ordine
+    public void forEach(LocalDate firstDate, LocalDate from, LocalDate to, Consumer<LocalDate> action) {
+        LocalDate anchor = frequency == Frequency.WEEKLY
+                ? firstDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : firstDate;
+        long period = 0;
+        // fara COUNT nu trebuie numarate aparitiile de dinainte, sarim direct la perioada lui 'from'
+        if (count == null && from.isAfter(firstDate)) {
+            long units = frequency == Frequency.WEEKLY
+                    ? ChronoUnit.WEEKS.between(anchor, from)
+                    : ChronoUnit.DAYS.between(anchor, from);
+            period = units / interval;
+        }
+        int seen = 0;
+        while (true) {
+            LocalDate periodStart = frequency == Frequency.WEEKLY
+                    ? anchor.plusWeeks(period * interval)
+                    : anchor.plusDays(period * interval);
+            if (periodStart.isAfter(to) || (until != null && periodStart.isAfter(until))) {
+                return;
+            }
+            for (DayOfWeek day : frequency == Frequency.WEEKLY ? byDay : Set.of(periodStart.getDayOfWeek())) {
+                LocalDate date = periodStart.plusDays(day.getValue() - periodStart.getDayOfWeek().getValue());
+                if (date.isBefore(firstDate)) {
+                    continue;
+                }
+                if ((until != null && date.isAfter(until)) || (count != null && seen >= count)
+                        || !date.isBefore(to)) {
+                    return;
+                }
+                seen++;
+                if (!date.isBefore(from)) {
+                    action.accept(date);
+                }
+            }
+            period++;
+        }
+    }
+
+    public boolean occursOn(LocalDate firstDate, LocalDate date) {
+        boolean[] found = new boolean[1];
+        forEach(firstDate, date, date.plusDays(1), occurrence -> found[0] = true);
+        return found[0];
+    }
+
+    // ultima zi in care poate exista o aparitie
+    public LocalDate lastDate(LocalDate firstDate) {
+        if (until != null) {
+            return until;
+        }
+        LocalDate[] last = {firstDate};
+        forEach(firstDate, firstDate, horizon(firstDate), occurrence -> last[0] = occurrence);
+        return last[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            rule.append(";INTERVAL=").append(interval);
+        }
+        if (frequency == Frequency.WEEKLY) {
+            rule.append(";BYDAY=").append(byDay.stream()
+                    .map(day -> day.name().substring(0, 2))
+                    .collect(Collectors.joining(",")));
+        }
+        if (count != null) {
+            rule.append(";COUNT=").append(count);
+        } else {
+            rule.append(";UNTIL=").append(BASIC_DATE.format(until));
+        }
+        return rule.toString();
+    }
+
+    private static LocalDate horizon(LocalDate firstDate) {
+        return firstDate.plusYears(MAX_YEARS).plusDays(1);
+    }
+
+    private static Frequency frequencyOf(String value) {
+        for (Frequency frequency : Frequency.values()) {
+            if (frequency.name().equals(value)) {
+                return frequency;
+            }
+        }
+        throw new IllegalArgumentException("FREQ must be DAILY or WEEKLY");
+    }
+
+    // UNTIL vine fie ca data (20261231), fie ca data-ora UTC (20261231T235959Z); ne intereseaza doar ziua
+    private static LocalDate parseDate(String value) {
+        String date = value.length() > 8 ? value.substring(0, 8) : value;
+        return LocalDate.parse(date, BASIC_DATE);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.clinic_appointments.schedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Repartizarea camerelor pe programarile unei zile, ca o colorare a grafului de intervale:
+// programarile se iau in ordinea inceputului si fiecare primeste o camera deja folosita care
+// s-a eliberat; o camera noua se deschide doar cand nu exista niciuna. Pentru camere identice
+// asta da numarul minim de camere. Capabilitatile (Room.description, ex. "Ecografie") limiteaza
+// camerele posibile; dintre cele libere preferam camera cu cele mai putine capabilitati, ca sa
+// ramana camerele speciale pentru cine are nevoie de ele.
+//
+// Programarile care au deja o camera potrivita si fara suprapuneri o pot pastra (keepExisting);
+// ele sunt puse primele, iar restul se aranjeaza in jurul lor.
+public final class RoomAllocator {
+
+    public record RoomSpec(long roomId, Set<String> capabilities) {
+    }
+
+    // start/end in minute (EpochMinutes)
+    public record Request(long appointmentId, long start, long end, Set<String> required, Long currentRoomId) {
+    }
+
+    // roomByAppointment nu contine programarile pentru care nu s-a gasit camera
+    public record Result(Map<Long, Long> roomByAppointment, List<Long> unassigned, int roomsUsed) {
+    }
+
+    private static final Comparator<Request> BY_START = Comparator.comparingLong(Request::start)
+            .thenComparingLong(Request::end)
+            .thenComparingLong(Request::appointmentId);
+
+    private RoomAllocator() {
+    }
+
+    // "Ecografie, Cardiologie" -> {ecografie, cardiologie}
+    public static Set<String> capabilities(String description) {
+        Set<String> result = new LinkedHashSet<>();
+        if (description == null) {
+            return result;
+        }
+        for (String token : description.split("[,;/]")) {
+            String capability = token.strip().toLowerCase(Locale.ROOT);
+            if (!capability.isEmpty()) {
+                result.add(capability);
+            }
+        }
+        return result;
+    }
+
+    public static Result allocate(List<RoomSpec> rooms, List<Request> requests, boolean keepExisting) {
+        return allocate(rooms, requests, Map.of(), keepExisting);
+    }
+
+    // blocked: pe id-ul camerei, intervalele pe care nu le putem folosi (alte zile, holduri, serii)
+    public static Result allocate(List<RoomSpec> rooms, List<Request> requests, Map<Long, List<Interval>> blocked,
+                                  boolean keepExisting) {
+        RoomSpec[] byPreference = rooms.toArray(RoomSpec[]::new);
+        Arrays.sort(byPreference, Comparator.comparingInt((RoomSpec room) -> room.capabilities().size())
+                .thenComparingLong(RoomSpec::roomId));
+        List<RoomState> ordered = new ArrayList<>(byPreference.length);
+        Map<Long, RoomState> states = new HashMap<>();
+        for (RoomSpec room : byPreference) {
+            RoomState state = new RoomState(room);
+            ordered.add(state);
+            states.put(room.roomId(), state);
+        }
+        // id-uri negative, ca sa nu se confunde cu programarile
+        long blockedId = -1;
+        for (RoomState state : ordered) {
+            for (Interval interval : blocked.getOrDefault(state.spec.roomId(), List.of())) {
+                state.fixed.put(new Interval(blockedId--, interval.start(), interval.end()));
+            }
+        }
+
+        List<Request> sorted = new ArrayList<>(requests);
+        sorted.sort(BY_START);
+        Map<Long, Long> assigned = new HashMap<>();
+        List<Request> pending = new ArrayList<>(sorted.size());
+
+        // camerele deja alese raman, daca se potrivesc si nu se suprapun cu altele pastrate
+        for (Request request : sorted) {
+            RoomState current = keepExisting && request.currentRoomId() != null
+                    ? states.get(request.currentRoomId()) : null;
+            if (current != null && current.supports(request)
+                    && current.fixed.findOverlap(request.start(), request.end(), null).isEmpty()) {
+                current.fixed.put(new Interval(request.appointmentId(), request.start(), request.end()));
+                current.used = true;
+                assigned.put(request.appointmentId(), current.spec.roomId());
+            } else {
+                pending.add(request);
+            }
+        }
+
+        List<Long> unassigned = new ArrayList<>();
+        for (Request request : pending) {
+            RoomState chosen = null;
+            for (RoomState state : ordered) {
+                if (!state.supports(request) || !state.isFree(request)) {
+                    continue;
+                }
+                if (chosen == null || betterFit(state, chosen)) {
+                    chosen = state;
+                }
+            }
+            if (chosen == null) {
+                unassigned.add(request.appointmentId());
+                continue;
+            }
+            chosen.freeFrom = Math.max(chosen.freeFrom, request.end());
+            chosen.used = true;
+            assigned.put(request.appointmentId(), chosen.spec.roomId());
+        }
+
+        int roomsUsed = (int) ordered.stream().filter(state -> state.used).count();
+        return new Result(assigned, unassigned, roomsUsed);
+    }
+
+    // intai camerele deja deschise, apoi cele cu mai putine capabilitati, apoi cea eliberata
+    // cel mai recent (lasa golurile mari pentru programarile lungi)
+    private static boolean betterFit(RoomState candidate, RoomState current) {
+        if (candidate.used != current.used) {
+            return candidate.used;
+        }
+        int byCapabilities = Integer.compare(candidate.spec.capabilities().size(),
+                current.spec.capabilities().size());
+        if (byCapabilities != 0) {
+            return byCapabilities < 0;
+        }
+        return candidate.freeFrom > current.freeFrom;
+    }
+
+    private static final class RoomState {
+        private final RoomSpec spec;
+        // programarile pastrate in camera, oriunde in zi, si intervalele blocate
+        private final IntervalSet fixed = new IntervalSet();
+        // sfarsitul ultimei programari repartizate aici; cererile vin in ordinea inceputului
+        private long freeFrom = Long.MIN_VALUE;
+        private boolean used;
+
+        private RoomState(RoomSpec spec) {
+            this.spec = spec;
+        }
+
+        private boolean supports(Request request) {
+            return spec.capabilities().containsAll(request.required());
+        }
+
+        private boolean isFree(Request request) {
+            return freeFrom <= request.start()
+                    && fixed.findOverlap(request.start(), request.end(), null).isEmpty();
+        }
+    }
+}
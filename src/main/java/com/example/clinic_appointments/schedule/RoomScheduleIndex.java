@@ -0,0 +1,34 @@
+package com.example.clinic_appointments.schedule;
+
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.RoomRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Ocuparea fiecarei camere, ca sa nu fie doua consultatii in acelasi cabinet simultan.
+@Component
+public class RoomScheduleIndex extends ScheduleIndex {
+
+    private final AppointmentRepository appointmentRepository;
+    private final RoomRepository roomRepository;
+
+    public RoomScheduleIndex(AppointmentRepository appointmentRepository,
+                             RoomRepository roomRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    @Override
+    protected List<Appointment> load(Long roomId, LocalDateTime from, LocalDateTime to) {
+        return appointmentRepository.findByRoomAndStartTimeBetween(
+                roomRepository.getReferenceById(roomId), from, to);
+    }
+
+    @Override
+    protected Long resourceIdOf(Appointment appointment) {
+        return appointment.getRoom() != null ? appointment.getRoom().getId() : null;
+    }
+}
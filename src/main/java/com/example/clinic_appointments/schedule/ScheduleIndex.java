@@ -0,0 +1,193 @@
+package com.example.clinic_appointments.schedule;
+
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Index in memorie al programarilor active (ne-anulate), pe resursa (doctor sau camera).
+//
+// Fiecare resursa isi incarca programarile din baza de date la prima cerere, pentru un
+// interval de zile care se extinde la nevoie; dupa aceea verificarile de suprapunere nu
+// mai ating baza de date. Serviciul de programari tine indexul sincronizat dupa fiecare
+// creare, modificare si stergere.
+public abstract class ScheduleIndex {
+
+    // o programare poate incepe cu cel mult o zi inainte de intervalul cerut si totusi
+    // sa se suprapuna cu el, deci incarcam mereu si ziua de dinainte
+    private static final int LOAD_PADDING_DAYS = 1;
+    // la prima incarcare luam direct o luna inainte, ca sa nu mergem la baza zi cu zi
+    private static final int INITIAL_HORIZON_DAYS = 31;
+
+    private final Map<Long, ResourceSchedule> schedules = new ConcurrentHashMap<>();
+    // programare -> resursa la care e indexata, ca sa putem sterge doar dupa id
+    private final Map<Long, Long> locations = new ConcurrentHashMap<>();
+    // incarcarile in curs; register/remove noteaza in fiecare id-ul atins, iar randul citit din
+    // baza pentru acel id poate fi mai vechi, deci fill nu il mai pune peste
+    private final Queue<FillWindow> fills = new ConcurrentLinkedQueue<>();
+
+    // programarile resursei care incep in [from, to]
+    protected abstract List<Appointment> load(Long resourceId, LocalDateTime from, LocalDateTime to);
+
+    protected abstract Long resourceIdOf(Appointment appointment);
+
+    // id-ul primei programari care se suprapune cu [start, end), daca exista
+    public Optional<Long> findConflict(Long resourceId, LocalDateTime start, LocalDateTime end,
+                                       Long excludeAppointmentId) {
+        if (resourceId == null || start == null || end == null) {
+            return Optional.empty();
+        }
+        ResourceSchedule schedule = loaded(resourceId, start, end);
+        OptionalLong conflict = schedule.intervals.findOverlap(
+                EpochMinutes.floor(start), EpochMinutes.ceil(end), excludeAppointmentId);
+        return conflict.isPresent() ? Optional.of(conflict.getAsLong()) : Optional.empty();
+    }
+
+    public List<Interval> occupied(Long resourceId, LocalDateTime from, LocalDateTime to) {
+        ResourceSchedule schedule = loaded(resourceId, from, to);
+        return schedule.intervals.overlapping(EpochMinutes.floor(from), EpochMinutes.ceil(to));
+    }
+
+    // adauga sau actualizeaza programarea; cele anulate sunt scoase din index
+    public void register(Appointment appointment) {
+        Long id = appointment.getId();
+        if (id == null) {
+            return;
+        }
+        touched(id);
+        Long resourceId = resourceIdOf(appointment);
+        Long previousResource = resourceId != null && isActive(appointment)
+                ? locations.put(id, resourceId)
+                : locations.remove(id);
+        if (previousResource != null && !previousResource.equals(resourceId)) {
+            schedule(previousResource).intervals.remove(id);
+        }
+        if (resourceId == null) {
+            return;
+        }
+        if (isActive(appointment)) {
+            schedule(resourceId).intervals.put(toInterval(appointment));
+        } else {
+            schedule(resourceId).intervals.remove(id);
+        }
+    }
+
+    public void remove(Long appointmentId) {
+        touched(appointmentId);
+        Long resourceId = locations.remove(appointmentId);
+        if (resourceId != null) {
+            schedule(resourceId).intervals.remove(appointmentId);
+        }
+    }
+
+    public void evict(Long resourceId) {
+        ResourceSchedule removed = schedules.remove(resourceId);
+        if (removed != null) {
+            locations.values().removeIf(resourceId::equals);
+        }
+    }
+
+    private ResourceSchedule schedule(Long resourceId) {
+        return schedules.computeIfAbsent(resourceId, id -> new ResourceSchedule());
+    }
+
+    private ResourceSchedule loaded(Long resourceId, LocalDateTime from, LocalDateTime to) {
+        ResourceSchedule schedule = schedule(resourceId);
+        LocalDate firstDay = from.toLocalDate().minusDays(LOAD_PADDING_DAYS);
+        LocalDate lastDay = to.toLocalDate().plusDays(1);
+        // ReentrantLock, nu synchronized: incarcarea merge la baza de date, iar un thread
+        // virtual blocat pe I/O in interiorul unui monitor ar ramane lipit de carrier
+        schedule.loading.lock();
+        try {
+            if (schedule.coveredFrom == null) {
+                LocalDate horizon = firstDay.plusDays(INITIAL_HORIZON_DAYS);
+                if (horizon.isAfter(lastDay)) {
+                    lastDay = horizon;
+                }
+                fill(resourceId, schedule, firstDay, lastDay);
+                schedule.coveredFrom = firstDay;
+                schedule.coveredTo = lastDay;
+                return schedule;
+            }
+            if (firstDay.isBefore(schedule.coveredFrom)) {
+                fill(resourceId, schedule, firstDay, schedule.coveredFrom);
+                schedule.coveredFrom = firstDay;
+            }
+            if (lastDay.isAfter(schedule.coveredTo)) {
+                fill(resourceId, schedule, schedule.coveredTo, lastDay);
+                schedule.coveredTo = lastDay;
+            }
+        } finally {
+            schedule.loading.unlock();
+        }
+        return schedule;
+    }
+
+    // fereastra se deschide inainte de interogare: orice register/remove de dupa ea poate fi
+    // mai nou decat randurile citite
+    private void fill(Long resourceId, ResourceSchedule schedule, LocalDate from, LocalDate to) {
+        FillWindow window = new FillWindow();
+        fills.add(window);
+        try {
+            for (Appointment appointment : load(resourceId, from.atStartOfDay(), to.atStartOfDay())) {
+                if (appointment.getId() == null || !isActive(appointment)) {
+                    continue;
+                }
+                synchronized (window) {
+                    if (!window.touched.contains(appointment.getId())) {
+                        schedule.intervals.put(toInterval(appointment));
+                        locations.put(appointment.getId(), resourceId);
+                    }
+                }
+            }
+        } finally {
+            fills.remove(window);
+        }
+    }
+
+    // inainte de actualizare: fill fie a pus deja randul (si actualizarea il suprascrie), fie
+    // vede id-ul atins si il sare
+    private void touched(Long appointmentId) {
+        for (FillWindow window : fills) {
+            synchronized (window) {
+                window.touched.add(appointmentId);
+            }
+        }
+    }
+
+    private static boolean isActive(Appointment appointment) {
+        return appointment.getStatus() != AppointmentStatus.CANCELLED
+                && appointment.getStartTime() != null
+                && appointment.getEndTime() != null;
+    }
+
+    private static Interval toInterval(Appointment appointment) {
+        return new Interval(appointment.getId(),
+                EpochMinutes.floor(appointment.getStartTime()),
+                EpochMinutes.ceil(appointment.getEndTime()));
+    }
+
+    // fara equals: fiecare incarcare isi scoate propria fereastra din coada
+    private static final class FillWindow {
+        private final Set<Long> touched = new HashSet<>();
+    }
+
+    private static final class ResourceSchedule {
+        private final IntervalSet intervals = new IntervalSet();
+        private final ReentrantLock loading = new ReentrantLock();
+        // zilele [coveredFrom, coveredTo) au fost incarcate din baza de date
+        private LocalDate coveredFrom;
+        private LocalDate coveredTo;
+    }
+}
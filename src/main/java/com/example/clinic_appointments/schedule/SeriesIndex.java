@@ -0,0 +1,161 @@
+package com.example.clinic_appointments.schedule;
+
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.repository.AppointmentSeriesRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Seriile de programari ale fiecarui doctor si ale fiecarei camere, ca aparitiile virtuale
+// sa conteze la detectarea conflictelor fara sa existe ca randuri. Nu tinem aparitiile, doar
+// regulile: la fiecare intrebare desfasuram regula numai pe zilele intervalului cerut.
+// Intervalele intoarse au ca id id-ul seriei.
+@Component
+public class SeriesIndex {
+
+    // o aparitie poate incepe cu cel mult o zi inainte de interval si totusi sa se suprapuna cu el
+    private static final int PADDING_DAYS = 1;
+
+    private final AppointmentSeriesRepository seriesRepository;
+    private final Map<Long, Map<Long, Entry>> byDoctor = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Entry>> byRoom = new ConcurrentHashMap<>();
+    // creste la fiecare serie adaugata, schimbata sau stearsa
+    private final AtomicLong version = new AtomicLong();
+
+    public SeriesIndex(AppointmentSeriesRepository seriesRepository) {
+        this.seriesRepository = seriesRepository;
+    }
+
+    // prima aparitie (a doctorului sau a camerei) care se suprapune cu [start, end); aparitia
+    // excludeDate din seria excludeSeriesId e chiar cea pe care o materializam, deci nu conteaza
+    public Optional<Interval> findConflict(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end,
+                                           Long excludeSeriesId, LocalDate excludeDate) {
+        if (start == null || end == null) {
+            return Optional.empty();
+        }
+        List<Interval> found = new ArrayList<>(1);
+        Consumer<Interval> collect = interval -> {
+            boolean excluded = excludeSeriesId != null && interval.id() == excludeSeriesId
+                    && EpochMinutes.toDateTime(interval.start()).toLocalDate().equals(excludeDate);
+            if (!excluded && found.isEmpty()) {
+                found.add(interval);
+            }
+        };
+        if (doctorId != null) {
+            forEachOccurrence(doctor(doctorId), start, end, collect);
+        }
+        if (found.isEmpty() && roomId != null) {
+            forEachOccurrence(room(roomId), start, end, collect);
+        }
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    // aparitiile doctorului care se suprapun cu [from, to), sortate dupa start
+    public List<Interval> occupied(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        List<Interval> occupied = new ArrayList<>();
+        forEachOccurrence(doctor(doctorId), from, to, occupied::add);
+        occupied.sort(Comparator.comparingLong(Interval::start));
+        return occupied;
+    }
+
+    // aparitiile din camera care se suprapun cu [from, to), sortate dupa start
+    public List<Interval> occupiedInRoom(Long roomId, LocalDateTime from, LocalDateTime to) {
+        List<Interval> occupied = new ArrayList<>();
+        forEachOccurrence(room(roomId), from, to, occupied::add);
+        occupied.sort(Comparator.comparingLong(Interval::start));
+        return occupied;
+    }
+
+    // adauga sau inlocuieste seria (regula sau exceptiile s-au schimbat)
+    public void register(AppointmentSeries series) {
+        Entry entry = Entry.of(series);
+        put(byDoctor, entry.doctorId(), entry);
+        put(byRoom, entry.roomId(), entry);
+        version.incrementAndGet();
+    }
+
+    public void remove(Long seriesId) {
+        byDoctor.values().forEach(entries -> entries.remove(seriesId));
+        byRoom.values().forEach(entries -> entries.remove(seriesId));
+        version.incrementAndGet();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    private Map<Long, Entry> doctor(Long doctorId) {
+        return byDoctor.computeIfAbsent(doctorId, id -> load(seriesRepository.findByDoctorId(id)));
+    }
+
+    private Map<Long, Entry> room(Long roomId) {
+        return byRoom.computeIfAbsent(roomId, id -> load(seriesRepository.findByRoomId(id)));
+    }
+
+    // doar resursele deja incarcate; celelalte vor citi seria din baza la primul acces
+    private static void put(Map<Long, Map<Long, Entry>> index, Long resourceId, Entry entry) {
+        if (resourceId == null) {
+            return;
+        }
+        Map<Long, Entry> entries = index.get(resourceId);
+        if (entries != null) {
+            entries.put(entry.id(), entry);
+        }
+    }
+
+    private static Map<Long, Entry> load(List<AppointmentSeries> series) {
+        Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        for (AppointmentSeries item : series) {
+            entries.put(item.getId(), Entry.of(item));
+        }
+        return entries;
+    }
+
+    private static void forEachOccurrence(Map<Long, Entry> entries, LocalDateTime from, LocalDateTime to,
+                                          Consumer<Interval> action) {
+        long fromMinute = EpochMinutes.floor(from);
+        long toMinute = EpochMinutes.ceil(to);
+        LocalDate firstDay = from.toLocalDate().minusDays(PADDING_DAYS);
+        LocalDate lastDay = to.toLocalDate().plusDays(1);
+        for (Entry entry : entries.values()) {
+            if (entry.firstDate().isAfter(lastDay) || entry.lastDate().isBefore(firstDay)) {
+                continue;
+            }
+            entry.rule().forEach(entry.firstDate(), firstDay, lastDay, date -> {
+                if (entry.exceptions().contains(date)) {
+                    return;
+                }
+                long start = EpochMinutes.floor(date.atTime(entry.startTime()));
+                long end = start + entry.durationMinutes();
+                if (start < toMinute && fromMinute < end) {
+                    action.accept(new Interval(entry.id(), start, end));
+                }
+            });
+        }
+    }
+
+    // seria asa cum o tine indexul: regula deja parsata, exceptiile copiate
+    private record Entry(long id, Long doctorId, Long roomId, LocalDate firstDate, LocalDate lastDate,
+                         LocalTime startTime, int durationMinutes, RecurrenceRule rule, Set<LocalDate> exceptions) {
+
+        static Entry of(AppointmentSeries series) {
+            RecurrenceRule rule = RecurrenceRule.parse(series.getRule(), series.getFirstDate());
+            return new Entry(series.getId(),
+                    series.getDoctor() != null ? series.getDoctor().getId() : null,
+                    series.getRoom() != null ? series.getRoom().getId() : null,
+                    series.getFirstDate(), rule.lastDate(series.getFirstDate()), series.getStartTime(),
+                    series.getDurationMinutes(), rule, Set.copyOf(series.getExceptions()));
+        }
+    }
+}
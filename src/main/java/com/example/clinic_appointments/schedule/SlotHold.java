@@ -0,0 +1,18 @@
+package com.example.clinic_appointments.schedule;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// Rezervare temporara a unui interval pentru un doctor (si optional o camera),
+// valabila pana la expiresAt; token-ul se foloseste la crearea programarii.
+public record SlotHold(String token, Long doctorId, Long roomId,
+                       LocalDateTime startTime, LocalDateTime endTime, Instant expiresAt) {
+
+    // programarea trebuie sa fie la acelasi doctor, in camera tinuta (daca exista) si in interval
+    public boolean covers(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end) {
+        return this.doctorId.equals(doctorId)
+                && (this.roomId == null || this.roomId.equals(roomId))
+                && !start.isBefore(startTime)
+                && !end.isAfter(endTime);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.clinic_appointments.schedule;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tabela in memorie cu intervalele tinute temporar in timpul rezervarii. Holdurile sunt
+// indexate pe doctor si pe camera ca programarile (IntervalSet), iar expirarea lor e
+// condusa de o roata de timp avansata o data pe secunda. Un hold expirat dar inca
+// nematurat e ignorat la citire, deci corectitudinea nu depinde de tick.
+//
+// Plasarea unui hold si verificarea conflictelor se fac sub BookingLockCoordinator.
+@Component
+public class SlotHoldRegistry {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    private record Entry(long id, SlotHold hold) {
+    }
+
+    private final Clock clock;
+    private final TimingWheel<String> expiries;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<String, Entry> byToken = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<Long, IntervalSet> byDoctor = new ConcurrentHashMap<>();
+    private final Map<Long, IntervalSet> byRoom = new ConcurrentHashMap<>();
+
+    public SlotHoldRegistry() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public SlotHoldRegistry(Clock clock) {
+        this.clock = clock;
+        this.expiries = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, clock.millis());
+    }
+
+    public SlotHold place(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end, Duration ttl) {
+        long id = ids.incrementAndGet();
+        SlotHold hold = new SlotHold(UUID.randomUUID().toString(), doctorId, roomId, start, end,
+                clock.instant().plus(ttl));
+        Entry entry = new Entry(id, hold);
+        Interval interval = new Interval(id, EpochMinutes.floor(start), EpochMinutes.ceil(end));
+
+        byToken.put(hold.token(), entry);
+        byId.put(id, entry);
+        byDoctor.computeIfAbsent(doctorId, d -> new IntervalSet()).put(interval);
+        if (roomId != null) {
+            byRoom.computeIfAbsent(roomId, r -> new IntervalSet()).put(interval);
+        }
+        expiries.schedule(hold.token(), hold.expiresAt().toEpochMilli());
+        return hold;
+    }
+
+    public Optional<SlotHold> find(String token) {
+        Entry entry = byToken.get(token);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (isExpired(entry)) {
+            release(token);
+            return Optional.empty();
+        }
+        return Optional.of(entry.hold());
+    }
+
+    // primul hold activ care se suprapune peste interval pe doctor sau pe camera;
+    // ignoreToken exclude holdul pe care il foloseste chiar rezervarea curenta
+    public Optional<SlotHold> findConflict(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end,
+                                           String ignoreToken) {
+        Entry ignored = ignoreToken != null ? byToken.get(ignoreToken) : null;
+        Long excludeId = ignored != null ? ignored.id() : null;
+        long from = EpochMinutes.floor(start);
+        long to = EpochMinutes.ceil(end);
+
+        Optional<SlotHold> conflict = doctorId != null
+                ? findConflict(byDoctor.get(doctorId), from, to, excludeId)
+                : Optional.empty();
+        if (conflict.isEmpty() && roomId != null) {
+            conflict = findConflict(byRoom.get(roomId), from, to, excludeId);
+        }
+        return conflict;
+    }
+
+    // intervalele tinute pentru doctor in [from, to), sortate dupa start
+    public List<Interval> held(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        return held(byDoctor.get(doctorId), from, to);
+    }
+
+    // intervalele tinute pentru camera in [from, to), sortate dupa start
+    public List<Interval> heldInRoom(Long roomId, LocalDateTime from, LocalDateTime to) {
+        return held(byRoom.get(roomId), from, to);
+    }
+
+    private List<Interval> held(IntervalSet set, LocalDateTime from, LocalDateTime to) {
+        if (set == null) {
+            return List.of();
+        }
+        List<Interval> result = new ArrayList<>();
+        for (Interval interval : set.overlapping(EpochMinutes.floor(from), EpochMinutes.ceil(to))) {
+            Entry entry = byId.get(interval.id());
+            if (entry != null && !isExpired(entry)) {
+                result.add(interval);
+            }
+        }
+        return result;
+    }
+
+    public boolean release(String token) {
+        Entry entry = byToken.remove(token);
+        if (entry == null) {
+            return false;
+        }
+        byId.remove(entry.id());
+        expiries.cancel(token);
+        IntervalSet doctorSet = byDoctor.get(entry.hold().doctorId());
+        if (doctorSet != null) {
+            doctorSet.remove(entry.id());
+        }
+        if (entry.hold().roomId() != null) {
+            IntervalSet roomSet = byRoom.get(entry.hold().roomId());
+            if (roomSet != null) {
+                roomSet.remove(entry.id());
+            }
+        }
+        return true;
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void expire() {
+        for (String token : expiries.advance(clock.millis())) {
+            release(token);
+        }
+    }
+
+    public int size() {
+        return byToken.size();
+    }
+
+    private Optional<SlotHold> findConflict(IntervalSet set, long from, long to, Long excludeId) {
+        if (set == null) {
+            return Optional.empty();
+        }
+        // holdurile expirate gasite pe drum le scoatem si cautam din nou
+        while (true) {
+            OptionalLong id = set.findOverlap(from, to, excludeId);
+            if (id.isEmpty()) {
+                return Optional.empty();
+            }
+            Entry entry = byId.get(id.getAsLong());
+            if (entry == null) {
+                set.remove(id.getAsLong());
+            } else if (isExpired(entry)) {
+                release(entry.hold().token());
+            } else {
+                return Optional.of(entry.hold());
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return !entry.hold().expiresAt().isAfter(clock.instant());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.clinic_appointments.schedule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Roata de timp pentru expirari: fiecare cheie sta in slotul tick-ului in care expira,
+// iar la fiecare tick verificam doar sloturile prin care a trecut timpul, nu toate cheile.
+// Termenele mai lungi decat o rotatie completa raman in slot pana la tura lor.
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Map<K, Long>> buckets;
+    private final Map<K, Integer> bucketOf = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        // rotunjim in sus, ca la vizitarea slotului termenul sa fie sigur depasit;
+        // un termen deja trecut intra in slotul urmator
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        int bucket = (int) (tick % buckets.size());
+        buckets.get(bucket).put(key, deadlineMillis);
+        bucketOf.put(key, bucket);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Integer bucket = bucketOf.remove(key);
+        return bucket != null && buckets.get(bucket).remove(key) != null;
+    }
+
+    // avanseaza pana la nowMillis si intoarce cheile expirate
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        // dupa o pauza mai lunga decat o rotatie e suficient sa trecem o data prin toate sloturile
+        long steps = Math.min(targetTick - currentTick, buckets.size());
+        for (long i = 1; i <= steps; i++) {
+            Map<K, Long> bucket = buckets.get((int) ((currentTick + i) % buckets.size()));
+            Iterator<Map.Entry<K, Long>> it = bucket.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Long> entry = it.next();
+                if (entry.getValue() <= nowMillis) {
+                    expired.add(entry.getKey());
+                    bucketOf.remove(entry.getKey());
+                    it.remove();
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    public synchronized int size() {
+        return bucketOf.size();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.clinic_appointments.schedule;
+
+import com.example.clinic_appointments.model.WaitlistEntry;
+import com.example.clinic_appointments.model.WaitlistStatus;
+import com.example.clinic_appointments.repository.WaitlistEntryRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Lista de asteptare in memorie, pe doctor. Fiecare intrare e pusa in cozile de prioritate
+// ale zilelor pe care le acopera fereastra ei preferata, asa ca pentru un loc eliberat ne
+// uitam doar la coada zilei respective, in ordinea prioritatii, nu la toata lista.
+//
+// Intrarile unui doctor se incarca din baza la prima folosire; WaitlistService tine apoi
+// indexul sincronizat la inscriere, anulare si programare.
+@Component
+public class WaitlistIndex {
+
+    // ferestrele mai lungi ar umple prea multe cozi zilnice
+    public static final int MAX_WINDOW_DAYS = 31;
+
+    public record Candidate(long entryId, int priority, LocalDateTime preferredFrom, LocalDateTime preferredTo) {
+
+        public static Candidate of(WaitlistEntry entry) {
+            return new Candidate(entry.getId(), entry.getPriority(), entry.getPreferredFrom(), entry.getPreferredTo());
+        }
+
+        boolean accepts(LocalDateTime start, LocalDateTime end) {
+            return !start.isBefore(preferredFrom) && !end.isAfter(preferredTo);
+        }
+    }
+
+    // prioritate mare intai; la egalitate, cine s-a inscris primul
+    private static final Comparator<Candidate> BEST_FIRST =
+            Comparator.comparingInt(Candidate::priority).reversed().thenComparingLong(Candidate::entryId);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final Map<Long, DoctorQueue> queues = new ConcurrentHashMap<>();
+
+    public WaitlistIndex(WaitlistEntryRepository waitlistRepository) {
+        this.waitlistRepository = waitlistRepository;
+    }
+
+    public void add(Long doctorId, Candidate candidate) {
+        loaded(doctorId).add(candidate);
+    }
+
+    public boolean remove(Long doctorId, long entryId) {
+        return loaded(doctorId).remove(entryId);
+    }
+
+    // scoate din coada si intoarce cel mai bun candidat a carui fereastra cuprinde [start, end)
+    public Optional<Candidate> claim(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return Optional.ofNullable(loaded(doctorId).claim(start, end));
+    }
+
+    public int size(Long doctorId) {
+        return loaded(doctorId).size();
+    }
+
+    private DoctorQueue loaded(Long doctorId) {
+        DoctorQueue queue = queues.computeIfAbsent(doctorId, id -> new DoctorQueue());
+        // ReentrantLock, ca in ScheduleIndex: incarcarea merge la baza de date, iar un thread
+        // virtual blocat pe I/O in interiorul unui monitor ar ramane lipit de carrier
+        queue.loading.lock();
+        try {
+            if (!queue.loaded) {
+                for (WaitlistEntry entry : waitlistRepository.findByDoctorIdAndStatusAndPreferredToAfter(
+                        doctorId, WaitlistStatus.WAITING, LocalDateTime.now())) {
+                    queue.add(Candidate.of(entry));
+                }
+                queue.loaded = true;
+            }
+        } finally {
+            queue.loading.unlock();
+        }
+        return queue;
+    }
+
+    private static final class DoctorQueue {
+        private final Map<LocalDate, NavigableSet<Candidate>> byDay = new HashMap<>();
+        private final Map<Long, Candidate> byId = new HashMap<>();
+        private final ReentrantLock loading = new ReentrantLock();
+        // citit si scris doar sub 'loading'
+        private boolean loaded;
+
+        synchronized void add(Candidate candidate) {
+            remove(candidate.entryId());
+            byId.put(candidate.entryId(), candidate);
+            for (LocalDate day = candidate.preferredFrom().toLocalDate(); day.isBefore(endDay(candidate));
+                 day = day.plusDays(1)) {
+                byDay.computeIfAbsent(day, d -> new TreeSet<>(BEST_FIRST)).add(candidate);
+            }
+        }
+
+        synchronized boolean remove(long entryId) {
+            Candidate candidate = byId.remove(entryId);
+            if (candidate == null) {
+                return false;
+            }
+            for (LocalDate day = candidate.preferredFrom().toLocalDate(); day.isBefore(endDay(candidate));
+                 day = day.plusDays(1)) {
+                NavigableSet<Candidate> queue = byDay.get(day);
+                if (queue != null && queue.remove(candidate) && queue.isEmpty()) {
+                    byDay.remove(day);
+                }
+            }
+            return true;
+        }
+
+        synchronized Candidate claim(LocalDateTime start, LocalDateTime end) {
+            NavigableSet<Candidate> queue = byDay.get(start.toLocalDate());
+            if (queue == null) {
+                return null;
+            }
+            for (Candidate candidate : queue) {
+                if (candidate.accepts(start, end)) {
+                    remove(candidate.entryId());
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        synchronized int size() {
+            return byId.size();
+        }
+
+        // prima zi dupa fereastra; o fereastra care se termina la miezul noptii nu include ziua urmatoare
+        private static LocalDate endDay(Candidate candidate) {
+            return candidate.preferredTo().minusNanos(1).toLocalDate().plusDays(1);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.InvoiceStatus;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.ArchivedAppointmentRepository;
+import com.example.clinic_appointments.repository.ArchivedInvoiceRepository;
+import com.example.clinic_appointments.repository.InvoiceRepository;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Muta programarile vechi (terminate de mai mult de clinic.archive.age) si facturile lor
+// inchise in appointments_archive / invoices_archive, ca tabelele calde si indexurile lor sa
+// ramana mici. Lucreaza pe pachete de chunk-size id-uri, fiecare in tranzactia lui:
+// insert-select in arhiva, apoi delete din tabela calda. Programarile cu facturi neplatite
+// sunt sarite pana la inchiderea facturii.
+@Component
+public class AppointmentArchiver {
+
+    static final Set<InvoiceStatus> SETTLED = EnumSet.of(InvoiceStatus.PAID, InvoiceStatus.CANCELLED);
+
+    private final AppointmentRepository appointmentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final ArchivedInvoiceRepository archivedInvoiceRepository;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final RoomScheduleIndex roomScheduleIndex;
+    private final TransactionTemplate transaction;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Duration age;
+    private final int chunkSize;
+
+    private final Counter archivedAppointments;
+    private final Counter archivedInvoices;
+    private final Timer runDuration;
+
+    @Autowired
+    public AppointmentArchiver(AppointmentRepository appointmentRepository,
+                               InvoiceRepository invoiceRepository,
+                               ArchivedAppointmentRepository archivedAppointmentRepository,
+                               ArchivedInvoiceRepository archivedInvoiceRepository,
+                               DoctorScheduleIndex doctorScheduleIndex,
+                               RoomScheduleIndex roomScheduleIndex,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${clinic.archive.enabled:true}") boolean enabled,
+                               @Value("${clinic.archive.age:P730D}") Duration age,
+                               @Value("${clinic.archive.chunk-size:500}") int chunkSize) {
+        this(appointmentRepository, invoiceRepository, archivedAppointmentRepository, archivedInvoiceRepository,
+                doctorScheduleIndex, roomScheduleIndex, transactionManager, meterRegistry,
+                Clock.systemDefaultZone(), enabled, age, chunkSize);
+    }
+
+    AppointmentArchiver(AppointmentRepository appointmentRepository,
+                        InvoiceRepository invoiceRepository,
+                        ArchivedAppointmentRepository archivedAppointmentRepository,
+                        ArchivedInvoiceRepository archivedInvoiceRepository,
+                        DoctorScheduleIndex doctorScheduleIndex,
+                        RoomScheduleIndex roomScheduleIndex,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        Clock clock,
+                        boolean enabled,
+                        Duration age,
+                        int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("clinic.archive.chunk-size must be at least 1");
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.archivedInvoiceRepository = archivedInvoiceRepository;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.roomScheduleIndex = roomScheduleIndex;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.enabled = enabled;
+        this.age = age;
+        this.chunkSize = chunkSize;
+
+        this.archivedAppointments = Counter.builder("clinic.archive.appointments")
+                .description("Appointments moved to the archive table")
+                .register(meterRegistry);
+        this.archivedInvoices = Counter.builder("clinic.archive.invoices")
+                .description("Invoices moved to the archive table")
+                .register(meterRegistry);
+        this.runDuration = Timer.builder("clinic.archive.duration")
+                .description("Duration of a full archival run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${clinic.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    // intoarce numarul de programari arhivate
+    public int archive() {
+        return runDuration.record(() -> {
+            LocalDateTime cutoff = LocalDateTime.now(clock).minus(age);
+            int total = 0;
+            while (true) {
+                List<Long> ids = transaction.execute(status -> archiveChunk(cutoff));
+                total += ids.size();
+                // intervalele lor nu mai trebuie tinute in indexurile de conflicte
+                for (Long id : ids) {
+                    doctorScheduleIndex.remove(id);
+                    roomScheduleIndex.remove(id);
+                }
+                if (ids.size() < chunkSize) {
+                    return total;
+                }
+            }
+        });
+    }
+
+    private List<Long> archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = appointmentRepository.findArchivableIds(
+                cutoff, AppointmentStatus.SCHEDULED, SETTLED, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        archivedAppointmentRepository.copyFromAppointments(ids, now);
+        int invoices = archivedInvoiceRepository.copyFromInvoices(ids, now);
+        invoiceRepository.deleteByAppointmentIds(ids);
+        appointmentRepository.deleteAllByIdInBatch(ids);
+
+        archivedAppointments.increment(ids.size());
+        archivedInvoices.increment(invoices);
+        return ids;
+    }
+}
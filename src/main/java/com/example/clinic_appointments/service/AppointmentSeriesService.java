@@ -0,0 +1,323 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.AppointmentSeriesResponse;
+import com.example.clinic_appointments.dto.OccurrenceUpdate;
+import com.example.clinic_appointments.dto.SeriesOccurrence;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.BookingConflictException;
+import com.example.clinic_appointments.exception.ConcurrentUpdateException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.AppointmentSeriesRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.repository.PatientRepository;
+import com.example.clinic_appointments.repository.RoomRepository;
+import com.example.clinic_appointments.schedule.BookingLockCoordinator;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.RecurrenceRule;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Serii de programari recurente. Seria se salveaza o singura data; aparitiile se desfasoara
+// din regula doar pentru intervalul cerut. O aparitie devine Appointment (prin AppointmentService,
+// cu verificarea obisnuita de conflicte) abia cand e modificata sau are check-in, iar ziua ei
+// trece, in aceeasi tranzactie, in exceptiile seriei, ca sa nu mai fie numarata si virtual.
+@Service
+public class AppointmentSeriesService {
+
+    static final int MAX_RANGE_DAYS = 366;
+
+    private final AppointmentSeriesRepository seriesRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final RoomScheduleIndex roomScheduleIndex;
+    private final SlotHoldRegistry slotHolds;
+    private final SeriesIndex seriesIndex;
+    private final BookingLockCoordinator bookingLocks;
+    private final AppointmentService appointmentService;
+    private final OptimisticRetryExecutor updateRetries;
+
+    public AppointmentSeriesService(AppointmentSeriesRepository seriesRepository,
+                                    AppointmentRepository appointmentRepository,
+                                    PatientRepository patientRepository,
+                                    DoctorRepository doctorRepository,
+                                    RoomRepository roomRepository,
+                                    DoctorScheduleIndex doctorScheduleIndex,
+                                    RoomScheduleIndex roomScheduleIndex,
+                                    SlotHoldRegistry slotHolds,
+                                    SeriesIndex seriesIndex,
+                                    BookingLockCoordinator bookingLocks,
+                                    AppointmentService appointmentService,
+                                    OptimisticRetryExecutor updateRetries) {
+        this.seriesRepository = seriesRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.roomScheduleIndex = roomScheduleIndex;
+        this.slotHolds = slotHolds;
+        this.seriesIndex = seriesIndex;
+        this.bookingLocks = bookingLocks;
+        this.appointmentService = appointmentService;
+        this.updateRetries = updateRetries;
+    }
+
+    public AppointmentSeries getSeries(Long id) {
+        return seriesRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment series not found with id " + id));
+    }
+
+    public AppointmentSeries createSeries(AppointmentSeries series) {
+        Long patientId = series.getPatient() != null ? series.getPatient().getId() : null;
+        Long doctorId = series.getDoctor() != null ? series.getDoctor().getId() : null;
+        if (patientId == null || doctorId == null || series.getFirstDate() == null || series.getStartTime() == null) {
+            throw new BadRequestException("patient, doctor, firstDate and startTime are required");
+        }
+        RecurrenceRule rule;
+        try {
+            rule = RecurrenceRule.parse(series.getRule(), series.getFirstDate());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid rule: " + ex.getMessage());
+        }
+
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id " + patientId));
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id " + doctorId));
+        Room room = null;
+        if (series.getRoom() != null && series.getRoom().getId() != null) {
+            Long roomId = series.getRoom().getId();
+            room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Room not found with id " + roomId));
+        }
+        series.setId(null);
+        series.setVersion(null);
+        series.setPatient(patient);
+        series.setDoctor(doctor);
+        series.setRoom(room);
+        series.setRule(rule.toString());
+        series.setExceptions(new HashSet<>());
+
+        return bookingLocks.withLocks(doctorId, room != null ? room.getId() : null, () -> {
+            ensureOccurrencesAreFree(series, rule);
+            AppointmentSeries saved = seriesRepository.save(series);
+            seriesIndex.register(saved);
+            return saved;
+        });
+    }
+
+    // aparitiile din [from, to): cele materializate cu programarea lor, restul virtuale
+    public List<SeriesOccurrence> getOccurrences(Long id, LocalDate from, LocalDate to) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("'to' must be after 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new BadRequestException("Range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        AppointmentSeries series = getSeries(id);
+        Map<LocalDate, Appointment> materialized = new HashMap<>();
+        for (Appointment appointment : appointmentRepository.findBySeriesIdAndOccurrenceDateBetween(
+                id, from, to.minusDays(1))) {
+            materialized.put(appointment.getOccurrenceDate(), appointment);
+        }
+        List<SeriesOccurrence> occurrences = new ArrayList<>();
+        ruleOf(series).forEach(series.getFirstDate(), from, to, date -> {
+            Appointment appointment = materialized.get(date);
+            if (appointment != null) {
+                occurrences.add(SeriesOccurrence.materialized(appointment));
+            } else if (!series.getExceptions().contains(date)) {
+                occurrences.add(SeriesOccurrence.virtual(series, date));
+            }
+        });
+        return occurrences;
+    }
+
+    // muta sau modifica o singura aparitie; prima modificare o materializeaza
+    public Appointment updateOccurrence(Long id, LocalDate date, OccurrenceUpdate update) {
+        AppointmentSeries series = getSeries(id);
+        requireOccurrence(series, date);
+        Optional<Appointment> existing = appointmentRepository.findBySeriesIdAndOccurrenceDate(id, date);
+        Appointment target = existing.orElseGet(() -> virtualOccurrence(series, date));
+
+        Appointment changes = new Appointment();
+        changes.setStartTime(update.startTime() != null ? update.startTime() : target.getStartTime());
+        changes.setEndTime(update.endTime() != null ? update.endTime() : target.getEndTime());
+        changes.setReason(update.reason() != null ? update.reason() : target.getReason());
+        if (!changes.getEndTime().isAfter(changes.getStartTime())) {
+            throw new BadRequestException("End time must be after start time");
+        }
+        if (update.roomId() != null) {
+            Room room = new Room();
+            room.setId(update.roomId());
+            changes.setRoom(room);
+        }
+
+        if (existing.isPresent()) {
+            return appointmentService.updateAppointment(target.getId(), changes);
+        }
+        target.setStartTime(changes.getStartTime());
+        target.setEndTime(changes.getEndTime());
+        target.setReason(changes.getReason());
+        if (changes.getRoom() != null) {
+            target.setRoom(changes.getRoom());
+        }
+        return materialize(target);
+    }
+
+    // check-in pe o aparitie virtuala: o materializam la ora din serie, apoi check-in obisnuit
+    public Appointment checkInOccurrence(Long id, LocalDate date) {
+        AppointmentSeries series = getSeries(id);
+        requireOccurrence(series, date);
+        Long appointmentId = appointmentRepository.findBySeriesIdAndOccurrenceDate(id, date)
+                .map(Appointment::getId)
+                .orElseGet(() -> materialize(virtualOccurrence(series, date)).getId());
+        return appointmentService.checkIn(appointmentId);
+    }
+
+    // anuleaza o aparitie virtuala; cele materializate se anuleaza ca orice programare
+    public void cancelOccurrence(Long id, LocalDate date) {
+        AppointmentSeries series = getSeries(id);
+        requireOccurrence(series, date);
+        appointmentRepository.findBySeriesIdAndOccurrenceDate(id, date).ifPresent(appointment -> {
+            throw new BadRequestException("Occurrence " + date + " of series " + id + " is appointment "
+                    + appointment.getId() + ", cancel it through /api/appointments");
+        });
+        if (series.getExceptions().contains(date)) {
+            throw new ResourceNotFoundException("Occurrence " + date + " of series " + id + " is already cancelled");
+        }
+        addException(id, date);
+    }
+
+    // opreste seria incepand cu 'from'; aparitiile materializate raman programari obisnuite
+    public void endSeries(Long id, LocalDate from) {
+        AppointmentSeries series = getSeries(id);
+        boolean[] anyBefore = {false};
+        ruleOf(series).forEach(series.getFirstDate(), series.getFirstDate(), from, date -> anyBefore[0] = true);
+        if (!anyBefore[0]) {
+            seriesRepository.deleteById(id);
+            seriesIndex.remove(id);
+            return;
+        }
+        AppointmentSeries saved = saveWithRetries(id, current ->
+                current.setRule(ruleOf(current).endingBefore(current.getFirstDate(), from).toString()));
+        seriesIndex.register(saved);
+    }
+
+    // programarea si exceptia din serie se scriu in aceeasi tranzactie, sub lock-urile
+    // doctorului si camerei; un conflict de versiune pe serie anuleaza si programarea
+    private Appointment materialize(Appointment occurrence) {
+        Long id = occurrence.getSeriesId();
+        LocalDate date = occurrence.getOccurrenceDate();
+        try {
+            return appointmentService.createSeriesOccurrence(occurrence, () -> {
+                AppointmentSeries current = getSeries(id);
+                current.getExceptions().add(date);
+                return seriesRepository.save(current);
+            });
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentUpdateException("Appointment series " + id + " was modified concurrently, retry",
+                    AppointmentSeriesResponse.from(getSeries(id)));
+        }
+    }
+
+    private void addException(Long id, LocalDate date) {
+        AppointmentSeries saved = saveWithRetries(id, current -> current.getExceptions().add(date));
+        seriesIndex.register(saved);
+    }
+
+    private AppointmentSeries saveWithRetries(Long id, Consumer<AppointmentSeries> change) {
+        try {
+            return updateRetries.execute(() -> {
+                AppointmentSeries current = getSeries(id);
+                change.accept(current);
+                return seriesRepository.save(current);
+            });
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentUpdateException("Appointment series " + id + " was modified concurrently, retry",
+                    AppointmentSeriesResponse.from(getSeries(id)));
+        }
+    }
+
+    private static Appointment virtualOccurrence(AppointmentSeries series, LocalDate date) {
+        if (series.getExceptions().contains(date)) {
+            throw new ResourceNotFoundException("Occurrence " + date + " of series " + series.getId()
+                    + " was cancelled");
+        }
+        return occurrenceOf(series, date);
+    }
+
+    // aparitia din ziua data ca programare nesalvata, la ora si in camera din serie
+    static Appointment occurrenceOf(AppointmentSeries series, LocalDate date) {
+        Appointment appointment = new Appointment(series.getPatient(), series.getDoctor(),
+                series.occurrenceStart(date), series.occurrenceEnd(date), series.getReason(),
+                AppointmentStatus.SCHEDULED);
+        appointment.setRoom(series.getRoom());
+        appointment.setSeriesId(series.getId());
+        appointment.setOccurrenceDate(date);
+        return appointment;
+    }
+
+    private static void requireOccurrence(AppointmentSeries series, LocalDate date) {
+        if (!ruleOf(series).occursOn(series.getFirstDate(), date)) {
+            throw new ResourceNotFoundException("Appointment series " + series.getId() + " has no occurrence on "
+                    + date);
+        }
+    }
+
+    // fiecare aparitie trebuie sa fie libera: programari, holduri si aparitiile altor serii
+    private void ensureOccurrencesAreFree(AppointmentSeries series, RecurrenceRule rule) {
+        Long doctorId = series.getDoctor().getId();
+        Long roomId = series.getRoom() != null ? series.getRoom().getId() : null;
+        LocalDate first = series.getFirstDate();
+        rule.forEach(first, first, rule.lastDate(first).plusDays(1), date -> {
+            LocalDateTime start = series.occurrenceStart(date);
+            LocalDateTime end = series.occurrenceEnd(date);
+            doctorScheduleIndex.findConflict(doctorId, start, end, null).ifPresent(conflictId -> {
+                throw new BookingConflictException("Occurrence on " + date + " overlaps appointment " + conflictId
+                        + " of doctor " + doctorId, conflictId);
+            });
+            if (roomId != null) {
+                roomScheduleIndex.findConflict(roomId, start, end, null).ifPresent(conflictId -> {
+                    throw new BookingConflictException("Occurrence on " + date + " overlaps appointment "
+                            + conflictId + " in room " + roomId, conflictId);
+                });
+            }
+            slotHolds.findConflict(doctorId, roomId, start, end, null).ifPresent(hold -> {
+                throw new BookingConflictException("Occurrence on " + date + " is held by another booking until "
+                        + hold.expiresAt(), null);
+            });
+            seriesIndex.findConflict(doctorId, roomId, start, end, null, null).ifPresent(occurrence -> {
+                throw new BookingConflictException("Occurrence on " + date + " overlaps appointment series "
+                        + occurrence.id(), null);
+            });
+        });
+    }
+
+    private static RecurrenceRule ruleOf(AppointmentSeries series) {
+        return RecurrenceRule.parse(series.getRule(), series.getFirstDate());
+    }
+}
@@ -1,42 +1,223 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.AppointmentResponse;
+import com.example.clinic_appointments.dto.AppointmentSearch;
+import com.example.clinic_appointments.dto.BatchItemResult;
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.SlotHoldRequest;
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.BookingConflictException;
+import com.example.clinic_appointments.exception.ConcurrentUpdateException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
 import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentSeries;
 import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.ArchivedAppointment;
 import com.example.clinic_appointments.model.Doctor;
 import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
 import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.AppointmentSpecifications;
+import com.example.clinic_appointments.repository.ArchivedAppointmentRepository;
 import com.example.clinic_appointments.repository.DoctorRepository;
 import com.example.clinic_appointments.repository.PatientRepository;
+import com.example.clinic_appointments.repository.RoomRepository;
+import com.example.clinic_appointments.schedule.BookingLockCoordinator;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.IntervalSet;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHold;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
 
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int DEFAULT_HOLD_SECONDS = 90;
+    public static final int MAX_HOLD_SECONDS = 600;
+    public static final int DEFAULT_SEARCH_LIMIT = 50;
+    public static final int MAX_SEARCH_LIMIT = 500;
+
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
+    private final RoomRepository roomRepository;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final RoomScheduleIndex roomScheduleIndex;
+    private final Validator validator;
+    private final BookingLockCoordinator bookingLocks;
+    private final OptimisticRetryExecutor updateRetries;
+    private final SlotHoldRegistry slotHolds;
+    private final ApplicationEventPublisher events;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final SeriesIndex seriesIndex;
+    private final TransactionTemplate transaction;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
                               PatientRepository patientRepository,
-                              DoctorRepository doctorRepository) {
+                              DoctorRepository doctorRepository,
+                              RoomRepository roomRepository,
+                              DoctorScheduleIndex doctorScheduleIndex,
+                              RoomScheduleIndex roomScheduleIndex,
+                              Validator validator,
+                              BookingLockCoordinator bookingLocks,
+                              OptimisticRetryExecutor updateRetries,
+                              SlotHoldRegistry slotHolds,
+                              ApplicationEventPublisher events,
+                              ArchivedAppointmentRepository archivedAppointmentRepository,
+                              SeriesIndex seriesIndex,
+                              PlatformTransactionManager transactionManager) {
         this.appointmentRepository = appointmentRepository;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
+        this.roomRepository = roomRepository;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.roomScheduleIndex = roomScheduleIndex;
+        this.validator = validator;
+        this.bookingLocks = bookingLocks;
+        this.updateRetries = updateRetries;
+        this.slotHolds = slotHolds;
+        this.events = events;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.seriesIndex = seriesIndex;
+        this.transaction = new TransactionTemplate(transactionManager);
     }
 
     public List<Appointment> getAllAppointments() {
         return appointmentRepository.findAll();
     }
 
+    public CursorPage<Appointment> getAppointmentsPage(String cursor, Integer size) {
+        int limit = CursorPage.clampSize(size);
+        List<Appointment> rows;
+        if (cursor == null) {
+            rows = appointmentRepository.findAllByOrderByStartTimeAscIdAsc(Limit.of(limit + 1));
+        } else {
+            CursorCodec.TimeCursor after = CursorCodec.decodeTime(cursor);
+            rows = appointmentRepository.findPageAfter(after.startTime(), after.id(), Limit.of(limit + 1));
+        }
+        return CursorPage.of(rows, limit, a -> CursorCodec.encode(a.getStartTime(), a.getId()));
+    }
+
+    // filtrarea, sortarea si limita ajung in SQL; rezultatul nu depaseste niciodata MAX_SEARCH_LIMIT
+    public List<Appointment> searchAppointments(AppointmentSearch search, boolean newestFirst, Integer limit) {
+        if (search.from() != null && search.to() != null && !search.from().isBefore(search.to())) {
+            throw new BadRequestException("'to' must be after 'from'");
+        }
+        int max = limit == null || limit <= 0 ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_SEARCH_LIMIT);
+        Sort.Direction direction = newestFirst ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, "startTime").and(Sort.by(direction, "id"));
+
+        return appointmentRepository.findBy(AppointmentSpecifications.matching(search), query -> query
+                .project("patient", "doctor", "room")
+                .sortBy(sort)
+                .limit(max)
+                .all());
+    }
+
+    // programarile mutate de AppointmentArchiver se citesc din arhiva, cu acelasi id
     public Appointment getAppointmentById(Long id) {
         return appointmentRepository.findById(id)
+                .or(() -> archivedAppointmentRepository.findById(id).map(ArchivedAppointment::toAppointment))
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id " + id));
     }
 
+    // pentru modificari: programarile arhivate sunt doar pentru citire
+    private Appointment getActiveAppointment(Long id) {
+        return appointmentRepository.findById(id).orElseThrow(() -> {
+            if (archivedAppointmentRepository.existsById(id)) {
+                return new BadRequestException("Appointment " + id + " is archived and cannot be modified");
+            }
+            return new RuntimeException("Appointment not found with id " + id);
+        });
+    }
+
+    // toate programarile pacientului, cele mai noi primele: tabela calda plus arhiva
+    public List<Appointment> getPatientHistory(Long patientId) {
+        if (!patientRepository.existsById(patientId)) {
+            throw new ResourceNotFoundException("Patient not found with id " + patientId);
+        }
+        List<Appointment> history = new ArrayList<>(
+                appointmentRepository.findByPatientIdOrderByStartTimeDesc(patientId));
+        archivedAppointmentRepository.findByPatientIdOrderByStartTimeDesc(patientId)
+                .forEach(archived -> history.add(archived.toAppointment()));
+        history.sort(Comparator.comparing(Appointment::getStartTime).reversed());
+        return history;
+    }
+
     public Appointment createAppointment(Appointment appointment) {
+        return createAppointment(appointment, null);
+    }
+
+    // holdToken (optional) vine de la POST /api/appointments/holds; intervalul tinut nu mai
+    // conteaza ca ocupat pentru aceasta programare, iar dupa salvare holdul se elibereaza
+    public Appointment createAppointment(Appointment appointment, String holdToken) {
+        // legatura cu o serie o pune doar AppointmentSeriesService, la materializare
+        appointment.setSeriesId(null);
+        appointment.setOccurrenceDate(null);
+        return create(appointment, holdToken, null);
+    }
+
+    // programare impreuna cu o scriere care trebuie sa reuseasca sau sa pice odata cu ea (de ex.
+    // intrarea din lista de asteptare marcata BOOKED): sameTransaction primeste programarea
+    // salvata si ruleaza in aceeasi tranzactie cu insert-ul
+    public Appointment createAppointmentWith(Appointment appointment, Consumer<Appointment> sameTransaction) {
+        appointment.setSeriesId(null);
+        appointment.setOccurrenceDate(null);
+        return create(appointment, null, saved -> {
+            sameTransaction.accept(saved);
+            return null;
+        });
+    }
+
+    // aparitia unei serii devine programare; propria aparitie virtuala nu e conflict.
+    // markOccurrence scoate ziua din serie in aceeasi tranzactie cu insert-ul, ca programarea
+    // si aparitia virtuala sa nu poata exista niciodata amandoua (sau niciuna)
+    public Appointment createSeriesOccurrence(Appointment appointment, Supplier<AppointmentSeries> markOccurrence) {
+        if (appointment.getSeriesId() == null || appointment.getOccurrenceDate() == null) {
+            throw new BadRequestException("Series occurrence must have a series id and an occurrence date");
+        }
+        return create(appointment, null, saved -> {
+            AppointmentSeries series = markOccurrence.get();
+            // dupa commit, dar inca sub lock-uri, ca in RescheduleService
+            return () -> seriesIndex.register(series);
+        });
+    }
+
+    private Appointment create(Appointment appointment, String holdToken,
+                               Function<Appointment, Runnable> sameTransaction) {
         // verificam ca pacientul si doctorul exista
         Long patientId = appointment.getPatient() != null ? appointment.getPatient().getId() : null;
         Long doctorId = appointment.getDoctor() != null ? appointment.getDoctor().getId() : null;
@@ -52,6 +233,15 @@ public class AppointmentService {
 
         appointment.setPatient(patient);
         appointment.setDoctor(doctor);
+        appointment.setVersion(null);
+        appointment.setCheckedInAt(null);
+
+        // camera este optionala, dar daca vine id, verificam ca exista
+        if (appointment.getRoom() != null && appointment.getRoom().getId() != null) {
+            appointment.setRoom(findRoom(appointment.getRoom().getId()));
+        } else {
+            appointment.setRoom(null);
+        }
 
         // optional: verificare simpla sa nu fie endTime inainte de startTime
         LocalDateTime start = appointment.getStartTime();
@@ -65,11 +255,143 @@ public class AppointmentService {
             appointment.setStatus(AppointmentStatus.SCHEDULED);
         }
 
-        return appointmentRepository.save(appointment);
+        return bookSlot(appointment, null, holdToken, null, sameTransaction);
+    }
+
+    public SlotHold placeHold(SlotHoldRequest request) {
+        if (request.doctorId() == null || request.startTime() == null || request.endTime() == null) {
+            throw new BadRequestException("doctorId, startTime and endTime are required");
+        }
+        if (!request.endTime().isAfter(request.startTime())) {
+            throw new BadRequestException("End time must be after start time");
+        }
+        int ttlSeconds = request.ttlSeconds() != null ? request.ttlSeconds() : DEFAULT_HOLD_SECONDS;
+        if (ttlSeconds <= 0 || ttlSeconds > MAX_HOLD_SECONDS) {
+            throw new BadRequestException("ttlSeconds must be between 1 and " + MAX_HOLD_SECONDS);
+        }
+        if (!doctorRepository.existsById(request.doctorId())) {
+            throw new ResourceNotFoundException("Doctor not found with id " + request.doctorId());
+        }
+        if (request.roomId() != null && !roomRepository.existsById(request.roomId())) {
+            throw new ResourceNotFoundException("Room not found with id " + request.roomId());
+        }
+
+        return bookingLocks.withLocks(request.doctorId(), request.roomId(), () -> {
+            ensureSlotIsFree(request.doctorId(), request.roomId(), request.startTime(), request.endTime(),
+                    null, null, null, null);
+            return slotHolds.place(request.doctorId(), request.roomId(), request.startTime(), request.endTime(),
+                    Duration.ofSeconds(ttlSeconds));
+        });
+    }
+
+    public void releaseHold(String token) {
+        if (!slotHolds.release(token)) {
+            throw new ResourceNotFoundException("Hold not found: " + token);
+        }
     }
 
+    // Creeaza mai multe programari odata. Pacientii, doctorii si camerele se incarca cu
+    // cate o interogare IN, conflictele se verifica in memorie (si intre elementele
+    // lotului), iar programarile valide se salveaza intr-o singura tranzactie, cu
+    // insert-uri trimise in loturi JDBC (id-uri din secventa, vezi Appointment).
+    public List<BatchItemResult> createAppointments(List<Appointment> appointments) {
+        if (appointments == null || appointments.isEmpty() || appointments.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " appointments");
+        }
+
+        Map<Long, Patient> patients = patientRepository.findAllById(
+                        referencedIds(appointments, Appointment::getPatient, Patient::getId)).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        Map<Long, Doctor> doctors = doctorRepository.findAllById(
+                        referencedIds(appointments, Appointment::getDoctor, Doctor::getId)).stream()
+                .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+        Map<Long, Room> rooms = roomRepository.findAllById(
+                        referencedIds(appointments, Appointment::getRoom, Room::getId)).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+
+        List<Appointment> created = new ArrayList<>();
+        // toti doctorii si toate camerele din lot raman blocate pana la salvare
+        List<BatchItemResult> outcome = bookingLocks.withLocks(doctors.keySet(), rooms.keySet(), () -> {
+            BatchItemResult[] results = new BatchItemResult[appointments.size()];
+            List<Appointment> accepted = new ArrayList<>();
+            List<Integer> acceptedIndexes = new ArrayList<>();
+            // intervalele deja acceptate in acest lot; id-ul intervalului e indexul elementului
+            Map<Long, IntervalSet> batchDoctors = new HashMap<>();
+            Map<Long, IntervalSet> batchRooms = new HashMap<>();
+
+            for (int i = 0; i < appointments.size(); i++) {
+                Appointment appointment = appointments.get(i);
+                String error = resolveBatchItem(appointment, patients, doctors, rooms);
+                if (error != null) {
+                    results[i] = BatchItemResult.rejected(i, error);
+                    continue;
+                }
+
+                if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                    try {
+                        ensureSlotIsFree(appointment, null, null);
+                    } catch (BookingConflictException ex) {
+                        results[i] = BatchItemResult.conflict(i, ex.getMessage(), ex.getConflictingAppointmentId());
+                        continue;
+                    }
+
+                    Interval interval = new Interval(i, EpochMinutes.floor(appointment.getStartTime()),
+                            EpochMinutes.ceil(appointment.getEndTime()));
+                    OptionalLong clash = findOverlap(batchDoctors, appointment.getDoctor().getId(), interval);
+                    if (clash.isEmpty() && appointment.getRoom() != null) {
+                        clash = findOverlap(batchRooms, appointment.getRoom().getId(), interval);
+                    }
+                    if (clash.isPresent()) {
+                        results[i] = BatchItemResult.rejected(i, "Overlaps item " + clash.getAsLong() + " of this batch");
+                        continue;
+                    }
+                    batchDoctors.computeIfAbsent(appointment.getDoctor().getId(), id -> new IntervalSet()).put(interval);
+                    if (appointment.getRoom() != null) {
+                        batchRooms.computeIfAbsent(appointment.getRoom().getId(), id -> new IntervalSet()).put(interval);
+                    }
+                }
+
+                accepted.add(appointment);
+                acceptedIndexes.add(i);
+            }
+
+            if (!accepted.isEmpty()) {
+                List<Appointment> saved = appointmentRepository.saveAll(accepted);
+                created.addAll(saved);
+                for (int j = 0; j < saved.size(); j++) {
+                    registerInIndexes(saved.get(j));
+                    int index = acceptedIndexes.get(j);
+                    results[index] = BatchItemResult.created(index, saved.get(j).getId());
+                }
+            }
+            return Arrays.asList(results);
+        });
+        for (Appointment appointment : created) {
+            events.publishEvent(new AppointmentEvent(null, AppointmentSnapshot.of(appointment)));
+        }
+        return outcome;
+    }
+
+    // la conflict de versiune recitim programarea si reaplicam modificarile; daca nici dupa
+    // ultima incercare nu reusim, clientul primeste 409 cu starea curenta
     public Appointment updateAppointment(Long id, Appointment updated) {
-        Appointment existing = getAppointmentById(id);
+        try {
+            return updateRetries.execute(() -> applyUpdate(id, updated));
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentUpdateException(
+                    "Appointment " + id + " was modified concurrently, retry the update",
+                    AppointmentResponse.from(getAppointmentById(id)));
+        }
+    }
+
+    private Appointment applyUpdate(Long id, Appointment updated) {
+        Appointment existing = getActiveAppointment(id);
+        AppointmentSnapshot before = AppointmentSnapshot.of(existing);
+        // clientul a pornit de la o versiune mai veche: nu suprascriem ce n-a vazut
+        if (updated.getVersion() != null && !updated.getVersion().equals(existing.getVersion())) {
+            throw new ConcurrentUpdateException("Appointment " + id + " is at version " + existing.getVersion()
+                    + ", update was based on version " + updated.getVersion(), AppointmentResponse.from(existing));
+        }
 
         // daca vin noi patient/doctor in updated, ii putem ignora sau procesa;
         // pentru inceput ne concentram pe timp, reason si status
@@ -79,14 +401,201 @@ public class AppointmentService {
         if (updated.getStatus() != null) {
             existing.setStatus(updated.getStatus());
         }
+        if (updated.getRoom() != null && updated.getRoom().getId() != null) {
+            existing.setRoom(findRoom(updated.getRoom().getId()));
+        }
 
-        return appointmentRepository.save(existing);
+        return bookSlot(existing, existing.getId(), null, before, null);
     }
 
-    public void deleteAppointment(Long id) {
-        if (!appointmentRepository.existsById(id)) {
-            throw new RuntimeException("Appointment not found with id " + id);
+    // pacientul s-a prezentat; sweeper-ul va marca programarea COMPLETED dupa ce se termina
+    public Appointment checkIn(Long id) {
+        try {
+            return updateRetries.execute(() -> {
+                Appointment existing = getActiveAppointment(id);
+                if (existing.getStatus() == AppointmentStatus.CANCELLED) {
+                    throw new BadRequestException("Cancelled appointment " + id + " cannot be checked in");
+                }
+                if (existing.getCheckedInAt() != null) {
+                    return existing;
+                }
+                AppointmentSnapshot before = AppointmentSnapshot.of(existing);
+                existing.setCheckedInAt(LocalDateTime.now());
+                Appointment saved = appointmentRepository.save(existing);
+                events.publishEvent(new AppointmentEvent(before, AppointmentSnapshot.of(saved)));
+                return saved;
+            });
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentUpdateException(
+                    "Appointment " + id + " was modified concurrently, retry the check-in",
+                    AppointmentResponse.from(getAppointmentById(id)));
         }
+    }
+
+    public void deleteAppointment(Long id) {
+        Appointment existing = getActiveAppointment(id);
         appointmentRepository.deleteById(id);
+        doctorScheduleIndex.remove(id);
+        roomScheduleIndex.remove(id);
+        events.publishEvent(new AppointmentEvent(AppointmentSnapshot.of(existing), null));
+    }
+
+    // valideaza un element din lot si ii ataseaza entitatile incarcate; intoarce mesajul de eroare
+    private String resolveBatchItem(Appointment appointment, Map<Long, Patient> patients,
+                                    Map<Long, Doctor> doctors, Map<Long, Room> rooms) {
+        if (appointment == null) {
+            return "Appointment is required";
+        }
+        Set<ConstraintViolation<Appointment>> violations = validator.validate(appointment, Default.class, Appointment.Booking.class);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        Patient patient = patients.get(appointment.getPatient().getId());
+        if (patient == null) {
+            return "Patient not found with id " + appointment.getPatient().getId();
+        }
+        Doctor doctor = doctors.get(appointment.getDoctor().getId());
+        if (doctor == null) {
+            return "Doctor not found with id " + appointment.getDoctor().getId();
+        }
+        Room room = null;
+        if (appointment.getRoom() != null && appointment.getRoom().getId() != null) {
+            room = rooms.get(appointment.getRoom().getId());
+            if (room == null) {
+                return "Room not found with id " + appointment.getRoom().getId();
+            }
+        }
+        if (appointment.getEndTime().isBefore(appointment.getStartTime())) {
+            return "End time cannot be before start time";
+        }
+
+        appointment.setPatient(patient);
+        appointment.setDoctor(doctor);
+        appointment.setRoom(room);
+        appointment.setVersion(null);
+        appointment.setSeriesId(null);
+        appointment.setOccurrenceDate(null);
+        if (appointment.getStatus() == null) {
+            appointment.setStatus(AppointmentStatus.SCHEDULED);
+        }
+        return null;
+    }
+
+    private static OptionalLong findOverlap(Map<Long, IntervalSet> sets, Long resourceId, Interval interval) {
+        IntervalSet set = sets.get(resourceId);
+        return set == null ? OptionalLong.empty() : set.findOverlap(interval.start(), interval.end(), null);
+    }
+
+    private static <T> Set<Long> referencedIds(List<Appointment> appointments,
+                                               Function<Appointment, T> reference,
+                                               Function<T, Long> idOf) {
+        Set<Long> ids = new HashSet<>();
+        for (Appointment appointment : appointments) {
+            T target = appointment != null ? reference.apply(appointment) : null;
+            if (target != null && idOf.apply(target) != null) {
+                ids.add(idOf.apply(target));
+            }
+        }
+        return ids;
+    }
+
+    // verificarea conflictelor si salvarea se fac sub lock-ul doctorului si al camerei,
+    // altfel doua cereri concurente pentru acelasi interval ar trece amandoua de verificare
+    private Appointment bookSlot(Appointment appointment, Long excludeId, String holdToken,
+                                 AppointmentSnapshot before, Function<Appointment, Runnable> sameTransaction) {
+        Long doctorId = appointment.getDoctor() != null ? appointment.getDoctor().getId() : null;
+        Long roomId = appointment.getRoom() != null ? appointment.getRoom().getId() : null;
+        Appointment booked = bookingLocks.withLocks(doctorId, roomId, () -> {
+            if (holdToken != null) {
+                SlotHold hold = slotHolds.find(holdToken)
+                        .orElseThrow(() -> new BookingConflictException(
+                                "Hold " + holdToken + " has expired or does not exist", null));
+                if (!hold.covers(doctorId, roomId, appointment.getStartTime(), appointment.getEndTime())) {
+                    throw new BadRequestException("Appointment does not match hold " + holdToken);
+                }
+            }
+            ensureSlotIsFree(appointment, excludeId, holdToken);
+
+            Appointment saved;
+            if (sameTransaction == null) {
+                saved = appointmentRepository.save(appointment);
+            } else {
+                // sameTransaction poate intoarce ce mai e de facut dupa commit, sub aceleasi lock-uri
+                List<Runnable> afterCommit = new ArrayList<>(1);
+                saved = transaction.execute(status -> {
+                    Appointment inserted = appointmentRepository.save(appointment);
+                    afterCommit.add(sameTransaction.apply(inserted));
+                    return inserted;
+                });
+                if (afterCommit.get(0) != null) {
+                    afterCommit.get(0).run();
+                }
+            }
+            registerInIndexes(saved);
+            if (holdToken != null) {
+                slotHolds.release(holdToken);
+            }
+            return saved;
+        });
+        // ascultatorii ruleaza dupa ce lock-urile au fost eliberate
+        events.publishEvent(new AppointmentEvent(before, AppointmentSnapshot.of(booked)));
+        return booked;
+    }
+
+    private Room findRoom(Long roomId) {
+        return roomRepository.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found with id " + roomId));
+    }
+
+    private void ensureSlotIsFree(Appointment appointment, Long excludeId, String holdToken) {
+        if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+            return;
+        }
+        ensureSlotIsFree(appointment.getDoctor() != null ? appointment.getDoctor().getId() : null,
+                appointment.getRoom() != null ? appointment.getRoom().getId() : null,
+                appointment.getStartTime(), appointment.getEndTime(), excludeId, holdToken,
+                appointment.getSeriesId(), appointment.getOccurrenceDate());
+    }
+
+    // verificam in index ca doctorul si camera nu sunt deja ocupate in intervalul cerut,
+    // nici de programari, nici de holdurile altor rezervari in curs, nici de aparitiile
+    // virtuale ale seriilor (in afara de aparitia care se materializeaza chiar acum)
+    private void ensureSlotIsFree(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end,
+                                  Long excludeId, String holdToken, Long seriesId, LocalDate occurrenceDate) {
+        if (doctorId != null) {
+            doctorScheduleIndex.findConflict(doctorId, start, end, excludeId)
+                    .ifPresent(conflictId -> {
+                        throw new BookingConflictException(
+                                "Doctor " + doctorId + " already has appointment " + conflictId + " in this interval",
+                                conflictId);
+                    });
+        }
+        if (roomId != null) {
+            roomScheduleIndex.findConflict(roomId, start, end, excludeId)
+                    .ifPresent(conflictId -> {
+                        throw new BookingConflictException(
+                                "Room " + roomId + " is already used by appointment " + conflictId + " in this interval",
+                                conflictId);
+                    });
+        }
+        slotHolds.findConflict(doctorId, roomId, start, end, holdToken)
+                .ifPresent(hold -> {
+                    throw new BookingConflictException(
+                            "Interval is held by another booking until " + hold.expiresAt(), null);
+                });
+        seriesIndex.findConflict(doctorId, roomId, start, end, seriesId, occurrenceDate)
+                .ifPresent(occurrence -> {
+                    throw new BookingConflictException("Interval overlaps the "
+                            + EpochMinutes.toDateTime(occurrence.start()).toLocalDate()
+                            + " occurrence of appointment series " + occurrence.id(), null);
+                });
+    }
+
+    private void registerInIndexes(Appointment appointment) {
+        doctorScheduleIndex.register(appointment);
+        roomScheduleIndex.register(appointment);
     }
 }
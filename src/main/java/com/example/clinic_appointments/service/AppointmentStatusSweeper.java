@@ -0,0 +1,120 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Scoate din SCHEDULED programarile care s-au terminat. Lucreaza direct in baza, cu UPDATE-uri
+// JPQL pe ferestre de timp (dupa endTime), fiecare fereastra in tranzactia ei, ca sa nu tinem
+// lock-uri pe multe randuri odata. Cu check-in -> COMPLETED; fara check-in -> starea din
+// clinic.sweeper.unchecked-status (COMPLETED sau NO_SHOW).
+@Component
+public class AppointmentStatusSweeper {
+
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate transaction;
+    private final Clock clock;
+    private final boolean enabled;
+    private final AppointmentStatus uncheckedStatus;
+    private final Duration grace;
+    private final Duration window;
+
+    private final DistributionSummary batchRows;
+    private final Timer sweepDuration;
+    private final Counter completed;
+    private final Counter uncheckedCounter;
+
+    @Autowired
+    public AppointmentStatusSweeper(AppointmentRepository appointmentRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${clinic.sweeper.enabled:true}") boolean enabled,
+                                    @Value("${clinic.sweeper.unchecked-status:COMPLETED}") AppointmentStatus uncheckedStatus,
+                                    @Value("${clinic.sweeper.grace:PT30M}") Duration grace,
+                                    @Value("${clinic.sweeper.window:P1D}") Duration window) {
+        this(appointmentRepository, transactionManager, meterRegistry, Clock.systemDefaultZone(),
+                enabled, uncheckedStatus, grace, window);
+    }
+
+    AppointmentStatusSweeper(AppointmentRepository appointmentRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             Clock clock,
+                             boolean enabled,
+                             AppointmentStatus uncheckedStatus,
+                             Duration grace,
+                             Duration window) {
+        if (uncheckedStatus != AppointmentStatus.COMPLETED && uncheckedStatus != AppointmentStatus.NO_SHOW) {
+            throw new IllegalArgumentException("clinic.sweeper.unchecked-status must be COMPLETED or NO_SHOW");
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.enabled = enabled;
+        this.uncheckedStatus = uncheckedStatus;
+        this.grace = grace;
+        this.window = window;
+
+        this.batchRows = DistributionSummary.builder("clinic.sweeper.batch.rows")
+                .description("Appointments updated per sweeper window")
+                .register(meterRegistry);
+        this.sweepDuration = Timer.builder("clinic.sweeper.duration")
+                .description("Duration of a full status sweep")
+                .register(meterRegistry);
+        this.completed = Counter.builder("clinic.sweeper.updated")
+                .tag("status", AppointmentStatus.COMPLETED.name())
+                .register(meterRegistry);
+        this.uncheckedCounter = uncheckedStatus == AppointmentStatus.COMPLETED ? completed
+                : Counter.builder("clinic.sweeper.updated")
+                .tag("status", uncheckedStatus.name())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${clinic.sweeper.cron:0 */15 * * * *}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    // intoarce numarul total de programari actualizate
+    public int sweep() {
+        return sweepDuration.record(() -> {
+            LocalDateTime cutoff = LocalDateTime.now(clock).minus(grace);
+            LocalDateTime from = appointmentRepository.findOldestEndTime(AppointmentStatus.SCHEDULED, cutoff);
+            int total = 0;
+            while (from != null && from.isBefore(cutoff)) {
+                LocalDateTime windowStart = from;
+                LocalDateTime windowEnd = from.plus(window).isBefore(cutoff) ? from.plus(window) : cutoff;
+                int rows = transaction.execute(status -> sweepWindow(windowStart, windowEnd));
+                batchRows.record(rows);
+                total += rows;
+                from = windowEnd;
+            }
+            return total;
+        });
+    }
+
+    private int sweepWindow(LocalDateTime from, LocalDateTime to) {
+        int checkedIn = appointmentRepository.updateStatusForEndTimeWindow(
+                AppointmentStatus.SCHEDULED, AppointmentStatus.COMPLETED, from, to, true);
+        int unchecked = appointmentRepository.updateStatusForEndTimeWindow(
+                AppointmentStatus.SCHEDULED, uncheckedStatus, from, to, false);
+        completed.increment(checkedIn);
+        uncheckedCounter.increment(unchecked);
+        return checkedIn + unchecked;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.AutoAssignRequest;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.BookingConflictException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.model.Specialty;
+import com.example.clinic_appointments.repository.SpecialtyRepository;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Programari "orice doctor din specialitate": DoctorLoadBalancer propune doctorii in ordinea
+// utilizarii din ziua respectiva, iar aici ii filtram pe cei care lucreaza si sunt liberi in
+// interval. Rezervarea trece apoi prin AppointmentService, cu verificarea obisnuita sub lock;
+// daca altcineva a luat intervalul intre timp, incercam urmatorul doctor.
+@Service
+public class AutoAssignService {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    private final SpecialtyRepository specialtyRepository;
+    private final DoctorOccupancyTracker occupancyTracker;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final RoomScheduleIndex roomScheduleIndex;
+    private final SlotHoldRegistry slotHolds;
+    private final SeriesIndex seriesIndex;
+    private final DoctorLoadBalancer loadBalancer;
+    private final AppointmentService appointmentService;
+
+    public AutoAssignService(SpecialtyRepository specialtyRepository,
+                             DoctorOccupancyTracker occupancyTracker,
+                             DoctorScheduleIndex doctorScheduleIndex,
+                             RoomScheduleIndex roomScheduleIndex,
+                             SlotHoldRegistry slotHolds,
+                             SeriesIndex seriesIndex,
+                             DoctorLoadBalancer loadBalancer,
+                             AppointmentService appointmentService) {
+        this.specialtyRepository = specialtyRepository;
+        this.occupancyTracker = occupancyTracker;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.roomScheduleIndex = roomScheduleIndex;
+        this.slotHolds = slotHolds;
+        this.seriesIndex = seriesIndex;
+        this.loadBalancer = loadBalancer;
+        this.appointmentService = appointmentService;
+    }
+
+    public Appointment autoAssign(AutoAssignRequest request) {
+        if (request.patientId() == null || request.specialtyId() == null
+                || request.startTime() == null || request.endTime() == null
+                || request.reason() == null || request.reason().isBlank()) {
+            throw new BadRequestException("patientId, specialtyId, startTime, endTime and reason are required");
+        }
+        LocalDateTime start = request.startTime();
+        LocalDateTime end = request.endTime();
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("End time must be after start time");
+        }
+        if (!end.toLocalDate().equals(start.toLocalDate())) {
+            throw new BadRequestException("Auto-assigned appointments must start and end on the same day");
+        }
+        Specialty specialty = specialtyRepository.findById(request.specialtyId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Specialty not found with id " + request.specialtyId()));
+        // camera ocupata (programare, hold sau aparitie de serie) ar face sa pice orice doctor am alege
+        if (request.roomId() != null) {
+            ensureRoomIsFree(request.roomId(), start, end);
+        }
+
+        Set<Long> tried = new HashSet<>();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Optional<Long> doctorId = loadBalancer.pickLeastLoaded(specialty.getName(), start.toLocalDate(),
+                    id -> !tried.contains(id) && isFree(id, start, end));
+            if (doctorId.isEmpty()) {
+                break;
+            }
+            tried.add(doctorId.get());
+            try {
+                return appointmentService.createAppointment(toAppointment(request, doctorId.get()));
+            } catch (BookingConflictException ex) {
+                // intervalul a fost luat intre timp; trecem la urmatorul doctor
+            }
+        }
+        throw new BookingConflictException(
+                "No " + specialty.getName() + " doctor is available between " + start + " and " + end, null);
+    }
+
+    private void ensureRoomIsFree(Long roomId, LocalDateTime start, LocalDateTime end) {
+        roomScheduleIndex.findConflict(roomId, start, end, null).ifPresent(conflictId -> {
+            throw new BookingConflictException(
+                    "Room " + roomId + " is already used by appointment " + conflictId + " in this interval",
+                    conflictId);
+        });
+        slotHolds.findConflict(null, roomId, start, end, null).ifPresent(hold -> {
+            throw new BookingConflictException(
+                    "Room " + roomId + " is held by another booking until " + hold.expiresAt(), null);
+        });
+        List<Interval> occurrences = seriesIndex.occupiedInRoom(roomId, start, end);
+        if (!occurrences.isEmpty()) {
+            throw new BookingConflictException("Room " + roomId + " is used by the "
+                    + EpochMinutes.toDateTime(occurrences.get(0).start()).toLocalDate()
+                    + " occurrence of appointment series " + occurrences.get(0).id(), null);
+        }
+    }
+
+    // lucreaza in interval (programul din DoctorOccupancyTracker, fara interogari) si nu are
+    // programari, holduri sau aparitii de serii care se suprapun
+    private boolean isFree(long doctorId, LocalDateTime start, LocalDateTime end) {
+        return occupancyTracker.worksDuring(doctorId, start, end)
+                && doctorScheduleIndex.findConflict(doctorId, start, end, null).isEmpty()
+                && slotHolds.findConflict(doctorId, null, start, end, null).isEmpty()
+                && seriesIndex.findConflict(doctorId, null, start, end, null, null).isEmpty();
+    }
+
+    private static Appointment toAppointment(AutoAssignRequest request, Long doctorId) {
+        Patient patient = new Patient();
+        patient.setId(request.patientId());
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        Appointment appointment = new Appointment();
+        appointment.setPatient(patient);
+        appointment.setDoctor(doctor);
+        if (request.roomId() != null) {
+            Room room = new Room();
+            room.setId(request.roomId());
+            appointment.setRoom(room);
+        }
+        appointment.setStartTime(request.startTime());
+        appointment.setEndTime(request.endTime());
+        appointment.setReason(request.reason());
+        return appointment;
+    }
+}
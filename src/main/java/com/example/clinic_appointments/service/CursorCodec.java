@@ -0,0 +1,76 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Codifica pozitia din listare intr-un token opac (base64url),
+// ca sa nu depinda clientii de forma cheii.
+public final class CursorCodec {
+
+    private static final String TIME_PREFIX = "t:";
+    private static final String ID_PREFIX = "i:";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record TimeCursor(LocalDateTime startTime, long id) {
+    }
+
+    private CursorCodec() {
+    }
+
+    public static String encode(LocalDateTime startTime, Long id) {
+        return wrap(TIME_PREFIX + startTime + "|" + id);
+    }
+
+    public static String encode(Long id) {
+        return wrap(ID_PREFIX + id);
+    }
+
+    public static TimeCursor decodeTime(String cursor) {
+        String raw = unwrap(cursor, TIME_PREFIX);
+        int sep = raw.lastIndexOf('|');
+        if (sep < 0) {
+            throw invalid(cursor);
+        }
+        try {
+            return new TimeCursor(LocalDateTime.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1)));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw invalid(cursor);
+        }
+    }
+
+    public static long decodeId(String cursor) {
+        try {
+            return Long.parseLong(unwrap(cursor, ID_PREFIX));
+        } catch (NumberFormatException ex) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static String wrap(String raw) {
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String unwrap(String cursor, String prefix) {
+        String raw;
+        try {
+            raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw invalid(cursor);
+        }
+        if (!raw.startsWith(prefix)) {
+            throw invalid(cursor);
+        }
+        return raw.substring(prefix.length());
+    }
+
+    private static BadRequestException invalid(String cursor) {
+        return new BadRequestException("Invalid cursor: " + cursor);
+    }
+}
@@ -13,11 +13,14 @@ public class DoctorAvailabilityService {
 
     private final DoctorAvailabilityRepository availabilityRepository;
     private final DoctorRepository doctorRepository;
+    private final DoctorOccupancyTracker occupancyTracker;
 
     public DoctorAvailabilityService(DoctorAvailabilityRepository availabilityRepository,
-                                     DoctorRepository doctorRepository) {
+                                     DoctorRepository doctorRepository,
+                                     DoctorOccupancyTracker occupancyTracker) {
         this.availabilityRepository = availabilityRepository;
         this.doctorRepository = doctorRepository;
+        this.occupancyTracker = occupancyTracker;
     }
 
     public List<DoctorAvailability> getAllAvailabilities() {
@@ -40,11 +43,14 @@ public class DoctorAvailabilityService {
 
         availability.setDoctor(doctor);
 
-        return availabilityRepository.save(availability);
+        DoctorAvailability saved = availabilityRepository.save(availability);
+        occupancyTracker.availabilityChanged(doctorId);
+        return saved;
     }
 
     public DoctorAvailability updateAvailability(Long id, DoctorAvailability updated) {
         DoctorAvailability existing = getAvailabilityById(id);
+        Long previousDoctorId = existing.getDoctor().getId();
 
         existing.setDayOfWeek(updated.getDayOfWeek());
         existing.setStartTime(updated.getStartTime());
@@ -58,13 +64,18 @@ public class DoctorAvailabilityService {
             existing.setDoctor(doctor);
         }
 
-        return availabilityRepository.save(existing);
+        DoctorAvailability saved = availabilityRepository.save(existing);
+        occupancyTracker.availabilityChanged(previousDoctorId);
+        if (!previousDoctorId.equals(saved.getDoctor().getId())) {
+            occupancyTracker.availabilityChanged(saved.getDoctor().getId());
+        }
+        return saved;
     }
 
     public void deleteAvailability(Long id) {
-        if (!availabilityRepository.existsById(id)) {
-            throw new RuntimeException("Availability not found with id " + id);
-        }
-        availabilityRepository.deleteById(id);
+        // citim intervalul (nu doar existsById) ca sa stim al carui doctor program se schimba
+        DoctorAvailability existing = getAvailabilityById(id);
+        availabilityRepository.delete(existing);
+        occupancyTracker.availabilityChanged(existing.getDoctor().getId());
     }
 }
@@ -0,0 +1,84 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.CalendarEntry;
+import com.example.clinic_appointments.dto.DoctorCalendar;
+import com.example.clinic_appointments.dto.TimeSlot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Saptamana unui doctor intr-un singur raspuns: programarile vin dintr-o proiectie JPQL
+// (fara Patient/Doctor/Room complete), iar programul saptamanal e desfasurat pe zilele saptamanii.
+@Service
+public class DoctorCalendarService {
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    public DoctorCalendarService(DoctorRepository doctorRepository,
+                                 DoctorAvailabilityRepository availabilityRepository,
+                                 AppointmentRepository appointmentRepository) {
+        this.doctorRepository = doctorRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    // week in format ISO, ex: 2026-W42; null -> saptamana curenta
+    public DoctorCalendar getCalendar(Long doctorId, String week) {
+        LocalDate monday = week != null ? parseWeek(week) : LocalDate.now().with(DayOfWeek.MONDAY);
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new ResourceNotFoundException("Doctor not found with id " + doctorId);
+        }
+
+        LocalDateTime from = monday.atStartOfDay();
+        LocalDateTime to = monday.plusWeeks(1).atStartOfDay();
+        List<CalendarEntry> appointments = appointmentRepository.findCalendarEntries(doctorId, from, to);
+
+        List<TimeSlot> availability = new ArrayList<>();
+        for (DoctorAvailability window : availabilityRepository.findByDoctorId(doctorId)) {
+            LocalDate day = monday.with(window.getDayOfWeek());
+            availability.add(new TimeSlot(day.atTime(window.getStartTime()), day.atTime(window.getEndTime())));
+        }
+        availability.sort(Comparator.comparing(TimeSlot::startTime));
+
+        return new DoctorCalendar(doctorId, formatWeek(monday), monday, availability, appointments);
+    }
+
+    static LocalDate parseWeek(String week) {
+        String[] parts = week.split("-W");
+        try {
+            if (parts.length != 2 || parts[1].length() != 2) {
+                throw new NumberFormatException();
+            }
+            int year = Integer.parseInt(parts[0]);
+            int number = Integer.parseInt(parts[1]);
+            // 4 ianuarie e mereu in prima saptamana ISO
+            LocalDate reference = LocalDate.of(year, 1, 4);
+            if (number < 1 || number > reference.range(IsoFields.WEEK_OF_WEEK_BASED_YEAR).getMaximum()) {
+                throw new NumberFormatException();
+            }
+            return reference.with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, number).with(DayOfWeek.MONDAY);
+        } catch (NumberFormatException | DateTimeException ex) {
+            throw new BadRequestException("Invalid week '" + week + "', expected format YYYY-Www");
+        }
+    }
+
+    static String formatWeek(LocalDate monday) {
+        return String.format("%d-W%02d", monday.get(IsoFields.WEEK_BASED_YEAR),
+                monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.schedule.IndexedMinHeap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+
+// Doctorii unei specialitati ordonati dupa utilizarea din ziua ceruta, intr-un heap indexat
+// pe (specialitate, zi). Heap-ul se construieste la prima cerere pentru ziua respectiva, din
+// contoarele DoctorOccupancyTracker, apoi fiecare programare muta doar doctorul ei in heap
+// (O(log n)), fara sa mai treaca prin toti doctorii si programarile lor. Ordinea completa se
+// copiaza din heap doar cand s-a schimbat o prioritate; alegerile dintre doua programari
+// citesc aceeasi copie.
+@Component
+public class DoctorLoadBalancer {
+
+    private record HeapKey(String specialty, LocalDate date) {
+    }
+
+    // heap-ul unei (specialitati, zile) si ordinea copiata din el; copia se reface la prima
+    // alegere dupa o schimbare de prioritate, nu la fiecare alegere
+    private static final class Ranking {
+
+        private final IndexedMinHeap heap = new IndexedMinHeap();
+        private List<Long> snapshot;
+
+        synchronized void add(long doctorId, double utilization) {
+            heap.put(doctorId, utilization);
+            snapshot = null;
+        }
+
+        synchronized void update(long doctorId, double utilization) {
+            if (heap.contains(doctorId) && heap.priorityOf(doctorId) != utilization) {
+                heap.put(doctorId, utilization);
+                snapshot = null;
+            }
+        }
+
+        // doctorii care lucreaza in ziua heap-ului, de la cel mai putin incarcat
+        synchronized List<Long> ranked() {
+            if (snapshot == null) {
+                List<Long> ranked = new ArrayList<>();
+                List<Double> priorities = new ArrayList<>();
+                // restul doctorilor (prioritate infinita) nu lucreaza in ziua respectiva
+                while (!heap.isEmpty() && heap.priorityOf(heap.peek()) != Double.POSITIVE_INFINITY) {
+                    priorities.add(heap.priorityOf(heap.peek()));
+                    ranked.add(heap.poll());
+                }
+                for (int i = 0; i < ranked.size(); i++) {
+                    heap.put(ranked.get(i), priorities.get(i));
+                }
+                snapshot = List.copyOf(ranked);
+            }
+            return snapshot;
+        }
+    }
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorOccupancyTracker occupancyTracker;
+    private final Map<HeapKey, Ranking> heaps = new ConcurrentHashMap<>();
+    // specialitatea (normalizata) fiecarui doctor dintr-un heap construit
+    private final Map<Long, String> specialtyOfDoctor = new ConcurrentHashMap<>();
+    // pazeste heaps/specialtyOfDoctor la reconstruire; build() citeste doctorii din baza, deci
+    // ReentrantLock si nu synchronized, ca thread-urile virtuale sa nu ramana lipite de carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private long builtFromGeneration = -1;
+
+    public DoctorLoadBalancer(DoctorRepository doctorRepository, DoctorOccupancyTracker occupancyTracker) {
+        this.doctorRepository = doctorRepository;
+        this.occupancyTracker = occupancyTracker;
+    }
+
+    // cel mai putin incarcat doctor al specialitatii in ziua data care trece de 'eligible'.
+    // Copia ordinii e imutabila, deci 'eligible' (care poate merge la baza de date) ruleaza
+    // fara niciun lock tinut
+    public Optional<Long> pickLeastLoaded(String specialty, LocalDate date, LongPredicate eligible) {
+        for (long doctorId : ranking(normalize(specialty), date).ranked()) {
+            if (eligible.test(doctorId)) {
+                return Optional.of(doctorId);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // dupa DoctorOccupancyTracker (@Order(0)), deci utilizarea citita include programarea
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentEvent(AppointmentEvent event) {
+        refresh(event.before());
+        refresh(event.after());
+    }
+
+    // apelat de DoctorService: doctorii noi sau cu alta specializare schimba componenta heap-urilor
+    public void doctorsChanged() {
+        rebuildLock.lock();
+        try {
+            heaps.clear();
+            specialtyOfDoctor.clear();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void refresh(AppointmentSnapshot snapshot) {
+        if (snapshot == null || snapshot.doctorId() == null || snapshot.startTime() == null) {
+            return;
+        }
+        String specialty = specialtyOfDoctor.get(snapshot.doctorId());
+        if (specialty == null) {
+            return;
+        }
+        refresh(specialty, snapshot.doctorId(), snapshot.startTime().toLocalDate());
+        if (snapshot.endTime() != null && !snapshot.endTime().toLocalDate().equals(snapshot.startTime().toLocalDate())) {
+            refresh(specialty, snapshot.doctorId(), snapshot.endTime().toLocalDate());
+        }
+    }
+
+    private void refresh(String specialty, Long doctorId, LocalDate date) {
+        Ranking ranking = heaps.get(new HeapKey(specialty, date));
+        if (ranking != null) {
+            ranking.update(doctorId, occupancyTracker.utilization(doctorId, date));
+        }
+    }
+
+    private Ranking ranking(String specialty, LocalDate date) {
+        rebuildLock.lock();
+        try {
+            // contoarele au fost reconstruite sau s-a schimbat un program: pornim de la zero;
+            // tot acum scapam de heap-urile zilelor trecute
+            long generation = occupancyTracker.generation();
+            if (generation != builtFromGeneration) {
+                heaps.clear();
+                specialtyOfDoctor.clear();
+                builtFromGeneration = generation;
+            } else {
+                LocalDate today = LocalDate.now();
+                heaps.keySet().removeIf(key -> key.date().isBefore(today));
+            }
+            return heaps.computeIfAbsent(new HeapKey(specialty, date), key -> build(specialty, date));
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Ranking build(String specialty, LocalDate date) {
+        Ranking ranking = new Ranking();
+        for (Doctor doctor : doctorRepository.findBySpecializationIgnoreCase(specialty)) {
+            ranking.add(doctor.getId(), occupancyTracker.utilization(doctor.getId(), date));
+            specialtyOfDoctor.put(doctor.getId(), specialty);
+        }
+        return ranking;
+    }
+
+    private static String normalize(String specialty) {
+        return specialty.strip().toLowerCase(Locale.ROOT);
+    }
+}
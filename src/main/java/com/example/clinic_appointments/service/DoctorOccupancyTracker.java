@@ -0,0 +1,372 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.DoctorBooking;
+import com.example.clinic_appointments.dto.DoctorOccupancy;
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ServiceBusyException;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ocuparea fiecarui doctor pe zile, tinuta in memorie: minute rezervate si numar de programari
+// pe (doctor, zi), actualizate din AppointmentEvent la fiecare creare/mutare/anulare/stergere,
+// si minutele din programul saptamanal. Un raspuns pentru dashboard citeste doar contoarele,
+// fara sa mai aduca programarile din baza.
+//
+// Contoarele se reconstruiesc din baza la pornire si in fiecare noapte (atunci se si scot
+// zilele mai vechi decat 'history'); reconstruirea corecteaza si modificarile facute direct in
+// baza, fara evenimente (de ex. arhivarea).
+//
+// Pentru fiecare programare numarata tinem intervalul cu care a intrat in contoare. Un
+// eveniment muta contoarele de la intervalul tinut la starea 'after', nu aplica diferenta
+// before -> after: randul e salvat inainte sa se publice evenimentul, deci o reconstruire
+// care ruleaza intre cele doua il vede deja, iar evenimentul care vine dupa nu mai schimba
+// nimic, in loc sa-l numere a doua oara.
+//
+// Aparitiile virtuale ale seriilor nu au evenimente si nu intra in contoare: se adauga la
+// citire, desfasurate din SeriesIndex doar pe zilele cerute.
+@Component
+public class DoctorOccupancyTracker {
+
+    public static final int MAX_DAYS = 31;
+
+    private record DayKey(long doctorId, LocalDate date) {
+    }
+
+    // intervalul cu care o programare a intrat in contoare
+    private record Booked(Long doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    private static final class DayCounters {
+        private final LongAdder bookedMinutes = new LongAdder();
+        private final LongAdder appointments = new LongAdder();
+    }
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final SeriesIndex seriesIndex;
+    private final Clock clock;
+    private final Duration history;
+    private final Timer rebuildDuration;
+
+    private final Map<DayKey, DayCounters> dayCounters = new ConcurrentHashMap<>();
+    // minutele din program pe fiecare zi a saptamanii (index DayOfWeek.ordinal()); tabloul se
+    // inlocuieste intreg, nu se modifica pe loc
+    private final Map<Long, long[]> weeklyMinutes = new ConcurrentHashMap<>();
+    // ferestrele din program ale fiecarui doctor, din aceeasi citire ca weeklyMinutes; lista
+    // se inlocuieste intreaga
+    private final Map<Long, List<DoctorAvailability>> weeklyWindows = new ConcurrentHashMap<>();
+    private final Set<Long> doctors = ConcurrentHashMap.newKeySet();
+    // programare -> intervalul numarat; compute() pe id serializeaza evenimentele aceleiasi programari
+    private final Map<Long, Booked> counted = new ConcurrentHashMap<>();
+    // evenimentele actualizeaza contoarele in paralel (read lock); reconstruirea le opreste cat
+    // goleste contoarele si citeste din baza
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile LocalDate trackedFrom;
+    // creste la fiecare reconstruire si schimbare de program; cine tine date derivate din
+    // contoare (DoctorLoadBalancer) stie astfel cand trebuie sa le recalculeze
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public DoctorOccupancyTracker(AppointmentRepository appointmentRepository,
+                                  DoctorAvailabilityRepository availabilityRepository,
+                                  SeriesIndex seriesIndex,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${clinic.occupancy.history:P35D}") Duration history) {
+        this(appointmentRepository, availabilityRepository, seriesIndex, meterRegistry, Clock.systemDefaultZone(),
+                history);
+    }
+
+    DoctorOccupancyTracker(AppointmentRepository appointmentRepository,
+                           DoctorAvailabilityRepository availabilityRepository,
+                           SeriesIndex seriesIndex,
+                           MeterRegistry meterRegistry,
+                           Clock clock,
+                           Duration history) {
+        this.appointmentRepository = appointmentRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.seriesIndex = seriesIndex;
+        this.clock = clock;
+        this.history = history;
+        this.rebuildDuration = Timer.builder("clinic.occupancy.rebuild")
+                .description("Time spent rebuilding doctor occupancy counters from the database")
+                .register(meterRegistry);
+        Gauge.builder("clinic.occupancy.days", dayCounters, Map::size)
+                .description("Doctor-days with occupancy counters in memory")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${clinic.occupancy.rebuild-cron:0 15 3 * * *}")
+    public void rebuild() {
+        rebuildDuration.record(() -> {
+            LocalDate from = LocalDate.now(clock).minusDays(history.toDays());
+            rebuildLock.writeLock().lock();
+            try {
+                dayCounters.clear();
+                doctors.clear();
+                counted.clear();
+                trackedFrom = from;
+                for (DoctorBooking booking : appointmentRepository.findBookingsEndingAfter(
+                        from.atStartOfDay(), AppointmentStatus.CANCELLED)) {
+                    Booked booked = new Booked(booking.doctorId(), booking.startTime(), booking.endTime());
+                    counted.put(booking.appointmentId(), booked);
+                    add(booked, 1);
+                }
+                Map<Long, List<DoctorAvailability>> windows = new HashMap<>();
+                for (DoctorAvailability window : availabilityRepository.findAll()) {
+                    windows.computeIfAbsent(window.getDoctor().getId(), id -> new ArrayList<>()).add(window);
+                }
+                weeklyMinutes.clear();
+                weeklyWindows.clear();
+                windows.forEach((doctorId, list) -> {
+                    weeklyMinutes.put(doctorId, weeklyMinutes(list));
+                    weeklyWindows.put(doctorId, List.copyOf(list));
+                    doctors.add(doctorId);
+                });
+                generation.incrementAndGet();
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+        });
+    }
+
+    // inaintea celorlalti ascultatori, care pot citi contoarele deja actualizate
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentEvent(AppointmentEvent event) {
+        AppointmentSnapshot before = event.before();
+        AppointmentSnapshot after = event.after();
+        Long appointmentId = after != null ? after.id() : before != null ? before.id() : null;
+        if (appointmentId == null || !changesOccupancy(before, after)) {
+            return;
+        }
+        Booked target = after != null && after.isActive()
+                ? new Booked(after.doctorId(), after.startTime(), after.endTime())
+                : null;
+        rebuildLock.readLock().lock();
+        try {
+            if (trackedFrom == null) {
+                return;
+            }
+            counted.compute(appointmentId, (id, current) -> {
+                // reconstruirea a vazut deja starea din eveniment
+                if (Objects.equals(current, target)) {
+                    return current;
+                }
+                if (current != null) {
+                    add(current, -1);
+                }
+                if (target != null) {
+                    add(target, 1);
+                }
+                return target;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // apelat de DoctorAvailabilityService dupa ce programul doctorului s-a schimbat
+    public void availabilityChanged(Long doctorId) {
+        List<DoctorAvailability> windows = availabilityRepository.findByDoctorId(doctorId);
+        weeklyMinutes.put(doctorId, weeklyMinutes(windows));
+        weeklyWindows.put(doctorId, List.copyOf(windows));
+        doctors.add(doctorId);
+        generation.incrementAndGet();
+    }
+
+    // si seriile schimba utilizarea, deci versiunea lor intra in generatie
+    public long generation() {
+        return generation.get() + seriesIndex.version();
+    }
+
+    // intervalul [start, end) din aceeasi zi incape intr-o fereastra din programul doctorului
+    public boolean worksDuring(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        for (DoctorAvailability window : weeklyWindows.getOrDefault(doctorId, List.of())) {
+            if (window.getDayOfWeek() == start.getDayOfWeek()
+                    && !start.toLocalTime().isBefore(window.getStartTime())
+                    && !end.toLocalTime().isAfter(window.getEndTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // minute rezervate / minute din program in ziua data; un doctor care nu lucreaza in ziua
+    // respectiva are utilizarea infinita
+    public double utilization(Long doctorId, LocalDate date) {
+        long available = weeklyMinutes.getOrDefault(doctorId, new long[7])[date.getDayOfWeek().ordinal()];
+        if (available == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        DayCounters counters = dayCounters.get(new DayKey(doctorId, date));
+        long booked = (counters != null ? counters.bookedMinutes.sum() : 0)
+                + seriesLoad(doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay()).minutes();
+        return (double) booked / available;
+    }
+
+    // ocuparea fiecarui doctor pe zilele [from, from + days); doctorii fara program si fara
+    // programari in perioada urmarita nu apar
+    public List<DoctorOccupancy> getOccupancy(LocalDate from, int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new BadRequestException("days must be between 1 and " + MAX_DAYS);
+        }
+        LocalDate tracked = trackedFrom;
+        if (tracked == null) {
+            throw new ServiceBusyException("Occupancy counters are still loading", Duration.ofSeconds(5));
+        }
+        if (from.isBefore(tracked)) {
+            throw new BadRequestException("Occupancy is only tracked from " + tracked);
+        }
+        LocalDate to = from.plusDays(days - 1L);
+        List<DoctorOccupancy> result = new ArrayList<>();
+        // in timpul reconstruirii contoarele sunt incomplete: asteptam sa se termine
+        rebuildLock.readLock().lock();
+        try {
+            for (Long doctorId : new TreeSet<>(doctors)) {
+                long[] weekly = weeklyMinutes.getOrDefault(doctorId, new long[7]);
+                long booked = 0;
+                long count = 0;
+                long available = 0;
+                for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                    DayCounters counters = dayCounters.get(new DayKey(doctorId, day));
+                    if (counters != null) {
+                        booked += counters.bookedMinutes.sum();
+                        count += counters.appointments.sum();
+                    }
+                    available += weekly[day.getDayOfWeek().ordinal()];
+                }
+                SeriesLoad series = seriesLoad(doctorId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+                booked += series.minutes();
+                count += series.appointments();
+                result.add(DoctorOccupancy.of(doctorId, from, to, booked, count, available));
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // programarea se numara in ziua in care incepe; minutele se impart pe zilele acoperite
+    private void add(Booked booked, int sign) {
+        Long doctorId = booked.doctorId();
+        LocalDateTime start = booked.startTime();
+        LocalDateTime end = booked.endTime();
+        if (doctorId == null || !end.isAfter(start)) {
+            return;
+        }
+        doctors.add(doctorId);
+        LocalDate day = start.toLocalDate();
+        if (!day.isBefore(trackedFrom)) {
+            counters(doctorId, day).appointments.add(sign);
+        }
+        while (day.atStartOfDay().isBefore(end)) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+            LocalDateTime from = start.isAfter(dayStart) ? start : dayStart;
+            LocalDateTime to = end.isBefore(dayEnd) ? end : dayEnd;
+            if (!day.isBefore(trackedFrom)) {
+                counters(doctorId, day).bookedMinutes.add(sign * Duration.between(from, to).toMinutes());
+            }
+            day = day.plusDays(1);
+        }
+    }
+
+    // aparitiile virtuale din [from, to), numarate ca programarile: in ziua in care incep,
+    // cu minutele taiate la interval
+    private SeriesLoad seriesLoad(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        long fromMinute = EpochMinutes.floor(from);
+        long toMinute = EpochMinutes.floor(to);
+        long appointments = 0;
+        long minutes = 0;
+        for (Interval occurrence : seriesIndex.occupied(doctorId, from, to)) {
+            if (occurrence.start() >= fromMinute) {
+                appointments++;
+            }
+            minutes += Math.min(occurrence.end(), toMinute) - Math.max(occurrence.start(), fromMinute);
+        }
+        return new SeriesLoad(appointments, minutes);
+    }
+
+    private record SeriesLoad(long appointments, long minutes) {
+    }
+
+    private DayCounters counters(Long doctorId, LocalDate day) {
+        return dayCounters.computeIfAbsent(new DayKey(doctorId, day), key -> new DayCounters());
+    }
+
+    // check-in si schimbarile de pacient/camera nu muta minutele
+    private static boolean changesOccupancy(AppointmentSnapshot before, AppointmentSnapshot after) {
+        boolean wasActive = before != null && before.isActive();
+        boolean isActive = after != null && after.isActive();
+        if (wasActive != isActive) {
+            return true;
+        }
+        return wasActive
+                && (!before.doctorId().equals(after.doctorId())
+                || !before.startTime().equals(after.startTime())
+                || !before.endTime().equals(after.endTime()));
+    }
+
+    // ferestrele care se suprapun in aceeasi zi se numara o singura data
+    static long[] weeklyMinutes(List<DoctorAvailability> windows) {
+        long[] minutes = new long[7];
+        List<DoctorAvailability> sorted = new ArrayList<>(windows);
+        sorted.sort(Comparator.comparing(DoctorAvailability::getDayOfWeek)
+                .thenComparing(DoctorAvailability::getStartTime));
+        DayOfWeek currentDay = null;
+        LocalTime coveredUntil = null;
+        for (DoctorAvailability window : sorted) {
+            if (!window.getEndTime().isAfter(window.getStartTime())) {
+                continue;
+            }
+            if (window.getDayOfWeek() != currentDay) {
+                currentDay = window.getDayOfWeek();
+                coveredUntil = LocalTime.MIN;
+            }
+            LocalTime start = window.getStartTime().isAfter(coveredUntil) ? window.getStartTime() : coveredUntil;
+            if (window.getEndTime().isAfter(start)) {
+                minutes[currentDay.ordinal()] += Duration.between(start, window.getEndTime()).toMinutes();
+                coveredUntil = window.getEndTime();
+            }
+        }
+        return minutes;
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.CursorPage;
 import com.example.clinic_appointments.exception.ResourceNotFoundException;
 import com.example.clinic_appointments.model.Doctor;
 import com.example.clinic_appointments.repository.DoctorRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,22 +13,33 @@ import java.util.List;
 public class DoctorService {
 
     private final DoctorRepository doctorRepository;
+    private final DoctorLoadBalancer loadBalancer;
 
-    public DoctorService(DoctorRepository doctorRepository) {
+    public DoctorService(DoctorRepository doctorRepository, DoctorLoadBalancer loadBalancer) {
         this.doctorRepository = doctorRepository;
+        this.loadBalancer = loadBalancer;
     }
 
     public List<Doctor> getAllDoctors() {
         return doctorRepository.findAll();
     }
 
+    public CursorPage<Doctor> getDoctorsPage(String cursor, Integer size) {
+        int limit = CursorPage.clampSize(size);
+        long afterId = cursor != null ? CursorCodec.decodeId(cursor) : 0L;
+        List<Doctor> rows = doctorRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, d -> CursorCodec.encode(d.getId()));
+    }
+
     public Doctor getDoctorById(Long id) {
         return doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id " + id));
     }
 
     public Doctor createDoctor(Doctor doctor) {
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        loadBalancer.doctorsChanged();
+        return saved;
     }
 
     public Doctor updateDoctor(Long id, Doctor updated) {
@@ -38,11 +51,14 @@ public class DoctorService {
         existing.setPhone(updated.getPhone());
         existing.setSpecialization(updated.getSpecialization());
 
-        return doctorRepository.save(existing);
+        Doctor saved = doctorRepository.save(existing);
+        loadBalancer.doctorsChanged();
+        return saved;
     }
 
     public void deleteDoctor(Long id) {
         Doctor existing = getDoctorById(id); // dacă nu există → 404
         doctorRepository.delete(existing);
+        loadBalancer.doctorsChanged();
     }
 }
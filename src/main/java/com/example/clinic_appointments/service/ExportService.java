@@ -0,0 +1,92 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.AppointmentResponse;
+import com.example.clinic_appointments.dto.InvoiceResponse;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.InvoiceRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Export NDJSON (un obiect JSON pe linie) pentru extragerile BI. Randurile sunt citite
+// dintr-un Stream peste cursorul JDBC si scrise direct in raspuns; la fiecare CHUNK_SIZE
+// randuri golim contextul de persistenta, ca memoria sa nu creasca odata cu tabela.
+@Service
+public class ExportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+    static final int CHUNK_SIZE = 500;
+
+    private final AppointmentRepository appointmentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter writer;
+
+    public ExportService(AppointmentRepository appointmentRepository,
+                         InvoiceRepository invoiceRepository,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper) {
+        this.appointmentRepository = appointmentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writer = objectMapper.writer();
+    }
+
+    // apelat inainte de a incepe raspunsul, cat inca putem intoarce 400
+    public <T extends Comparable<? super T>> void validateRange(T from, T to) {
+        if (to.compareTo(from) <= 0) {
+            throw new BadRequestException("'to' must be after 'from'");
+        }
+    }
+
+    public void exportAppointments(LocalDateTime from, LocalDateTime to, OutputStream out) {
+        validateRange(from, to);
+        export(() -> appointmentRepository.streamByStartTimeRange(from, to).map(AppointmentResponse::from), out);
+    }
+
+    public void exportInvoices(LocalDate from, LocalDate to, OutputStream out) {
+        validateRange(from, to);
+        export(() -> invoiceRepository.streamByIssueDateRange(from, to).map(InvoiceResponse::from), out);
+    }
+
+    private void export(Supplier<? extends Stream<?>> rows, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<?> stream = rows.get()) {
+                BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+                Iterator<?> it = stream.iterator();
+                int inChunk = 0;
+                while (it.hasNext()) {
+                    buffered.write(writer.writeValueAsBytes(it.next()));
+                    buffered.write('\n');
+                    if (++inChunk == CHUNK_SIZE) {
+                        // entitatile deja scrise nu mai trebuie tinute in memorie
+                        entityManager.clear();
+                        buffered.flush();
+                        inChunk = 0;
+                    }
+                }
+                buffered.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Export aborted", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.TimeSlot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.schedule.DayBitmap;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Calculeaza intervalele libere ale unui doctor: programul saptamanal (DoctorAvailability)
+// desfasurat pe zile concrete, minus programarile din DoctorScheduleIndex, holdurile active si
+// aparitiile virtuale ale seriilor (SeriesIndex).
+@Service
+public class FreeSlotService {
+
+    private static final Duration MAX_RANGE = Duration.ofDays(62);
+    private static final int MAX_DURATION_MINUTES = DayBitmap.MINUTES_PER_DAY;
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final SlotHoldRegistry slotHolds;
+    private final SeriesIndex seriesIndex;
+
+    public FreeSlotService(DoctorRepository doctorRepository,
+                           DoctorAvailabilityRepository availabilityRepository,
+                           DoctorScheduleIndex doctorScheduleIndex,
+                           SlotHoldRegistry slotHolds,
+                           SeriesIndex seriesIndex) {
+        this.doctorRepository = doctorRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.slotHolds = slotHolds;
+        this.seriesIndex = seriesIndex;
+    }
+
+    public List<TimeSlot> getFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        validate(from, to, durationMinutes);
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id " + doctorId));
+        return computeFreeSlots(doctorId, availabilityRepository.findByDoctor(doctor), from, to, durationMinutes);
+    }
+
+    // varianta folosita cand programul doctorului e deja incarcat (de ex. cautari pe mai multi doctori)
+    public List<TimeSlot> computeFreeSlots(Long doctorId, List<DoctorAvailability> availabilities,
+                                           LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        List<TimeSlot> slots = new ArrayList<>();
+        freeBitmaps(doctorId, availabilities, from, to).forEach((day, bitmap) -> {
+            LocalDateTime midnight = day.atStartOfDay();
+            bitmap.forEachSlot(durationMinutes, (start, end) ->
+                    slots.add(new TimeSlot(midnight.plusMinutes(start), midnight.plusMinutes(end))));
+        });
+        return slots;
+    }
+
+    // timpul liber al doctorului in [from, to), cate un bitmap pe fiecare zi in care lucreaza,
+    // in ordinea zilelor; apelantul le poate modifica (de ex. ca sa aseze mai multe programari)
+    public SortedMap<LocalDate, DayBitmap> freeBitmaps(Long doctorId, List<DoctorAvailability> availabilities,
+                                                       LocalDateTime from, LocalDateTime to) {
+        Map<DayOfWeek, List<DoctorAvailability>> weekly = new EnumMap<>(DayOfWeek.class);
+        for (DoctorAvailability availability : availabilities) {
+            weekly.computeIfAbsent(availability.getDayOfWeek(), d -> new ArrayList<>()).add(availability);
+        }
+        SortedMap<LocalDate, DayBitmap> bitmaps = new TreeMap<>();
+        if (weekly.isEmpty()) {
+            return bitmaps;
+        }
+
+        List<Interval> busy = doctorScheduleIndex.occupied(doctorId, from, to);
+        List<Interval> held = slotHolds.held(doctorId, from, to);
+        List<Interval> series = seriesIndex.occupied(doctorId, from, to);
+        if (!held.isEmpty() || !series.isEmpty()) {
+            busy = new ArrayList<>(busy);
+            busy.addAll(held);
+            busy.addAll(series);
+            busy.sort(Comparator.comparingLong(Interval::start));
+        }
+        int busyIndex = 0;
+        long fromMinute = EpochMinutes.floor(from);
+        long toMinute = EpochMinutes.floor(to);
+
+        for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+            List<DoctorAvailability> windows = weekly.get(day.getDayOfWeek());
+            if (windows == null) {
+                continue;
+            }
+            long dayStart = EpochMinutes.floor(day.atStartOfDay());
+            long dayEnd = dayStart + DayBitmap.MINUTES_PER_DAY;
+
+            DayBitmap bitmap = new DayBitmap();
+            for (DoctorAvailability window : windows) {
+                bitmap.markAvailable(DayBitmap.minuteOfDay(window.getStartTime()),
+                        DayBitmap.endMinuteOfDay(window.getEndTime()));
+            }
+            // taiem ce e in afara intervalului cerut
+            bitmap.markBusy(0, (int) (fromMinute - dayStart));
+            bitmap.markBusy((int) (toMinute - dayStart), DayBitmap.MINUTES_PER_DAY);
+
+            // intervalele ocupate sunt sortate dupa start, deci avansam doar inainte
+            while (busyIndex < busy.size() && busy.get(busyIndex).end() <= dayStart) {
+                busyIndex++;
+            }
+            for (int i = busyIndex; i < busy.size() && busy.get(i).start() < dayEnd; i++) {
+                Interval interval = busy.get(i);
+                bitmap.markBusy((int) (interval.start() - dayStart), (int) Math.min(interval.end() - dayStart,
+                        DayBitmap.MINUTES_PER_DAY));
+            }
+            bitmaps.put(day, bitmap);
+        }
+        return bitmaps;
+    }
+
+    public void validate(LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("'to' must be after 'from'");
+        }
+        if (Duration.between(from, to).compareTo(MAX_RANGE) > 0) {
+            throw new BadRequestException("Search range cannot exceed " + MAX_RANGE.toDays() + " days");
+        }
+        if (durationMinutes <= 0 || durationMinutes > MAX_DURATION_MINUTES) {
+            throw new BadRequestException("Duration must be between 1 and " + MAX_DURATION_MINUTES + " minutes");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.model.IdempotencyRecord;
+import com.example.clinic_appointments.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Raspunsurile deja date pentru Idempotency-Key. Cautarea merge intai intr-un LRU in memorie,
+// marginit la max-entries si cu expirare dupa ttl; la ratare citim din idempotency_keys
+// (raspunsuri date inainte de restart sau de alta instanta). Cererile inca in lucru sunt
+// tinute doar in memorie.
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Clock clock;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, IdempotencyRecord> recent;
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${clinic.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${clinic.idempotency.max-entries:10000}") int maxEntries) {
+        this(repository, Clock.systemUTC(), ttl, maxEntries);
+    }
+
+    IdempotencyStore(IdempotencyRecordRepository repository, Clock clock, Duration ttl, int maxEntries) {
+        this.repository = repository;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        // ordine de acces: cel mai vechi folosit iese primul cand depasim maxEntries
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > IdempotencyStore.this.maxEntries;
+            }
+        };
+    }
+
+    public Optional<IdempotencyRecord> find(String key) {
+        synchronized (recent) {
+            IdempotencyRecord cached = recent.get(key);
+            if (cached != null) {
+                if (isLive(cached)) {
+                    return Optional.of(cached);
+                }
+                recent.remove(key);
+            }
+        }
+        Optional<IdempotencyRecord> stored = repository.findById(key).filter(this::isLive);
+        stored.ifPresent(this::remember);
+        return stored;
+    }
+
+    // rezerva cheia pentru o cerere noua; false daca alta cerere cu aceeasi cheie e in lucru
+    public boolean begin(String key, String requestHash) {
+        return inFlight.putIfAbsent(key, requestHash) == null;
+    }
+
+    // cererea s-a terminat fara raspuns de pastrat (eroare): un retry o va executa din nou
+    public void abandon(String key) {
+        inFlight.remove(key);
+    }
+
+    public void complete(String key, String requestHash, int status, String contentType, String body) {
+        IdempotencyRecord record = new IdempotencyRecord(key, requestHash, status, contentType, body,
+                clock.instant().plus(ttl));
+        remember(record);
+        inFlight.remove(key);
+        if (body != null && body.length() > IdempotencyRecord.MAX_BODY_LENGTH) {
+            return;
+        }
+        try {
+            repository.save(record);
+        } catch (DataAccessException e) {
+            // raspunsul a fost deja trimis; ramane doar copia din memorie
+            log.warn("Could not persist idempotency key {}", key, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${clinic.idempotency.cleanup:PT1H}")
+    public void purgeExpired() {
+        synchronized (recent) {
+            recent.values().removeIf(record -> !isLive(record));
+        }
+        repository.deleteExpired(clock.instant());
+    }
+
+    int cachedCount() {
+        synchronized (recent) {
+            return recent.size();
+        }
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (recent) {
+            recent.put(record.getId(), record);
+        }
+    }
+
+    private boolean isLive(IdempotencyRecord record) {
+        return record.getExpiresAt().isAfter(clock.instant());
+    }
+}
@@ -1,12 +1,20 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.InvoiceResponse;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ConcurrentUpdateException;
 import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.ArchivedInvoice;
 import com.example.clinic_appointments.model.Invoice;
 import com.example.clinic_appointments.model.InvoiceStatus;
 import com.example.clinic_appointments.model.Patient;
 import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.ArchivedInvoiceRepository;
 import com.example.clinic_appointments.repository.InvoiceRepository;
 import com.example.clinic_appointments.repository.PatientRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -19,24 +27,49 @@ public class InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final OptimisticRetryExecutor updateRetries;
+    private final ArchivedInvoiceRepository archivedInvoiceRepository;
 
     public InvoiceService(InvoiceRepository invoiceRepository,
                           PatientRepository patientRepository,
-                          AppointmentRepository appointmentRepository) {
+                          AppointmentRepository appointmentRepository,
+                          OptimisticRetryExecutor updateRetries,
+                          ArchivedInvoiceRepository archivedInvoiceRepository) {
         this.invoiceRepository = invoiceRepository;
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
+        this.updateRetries = updateRetries;
+        this.archivedInvoiceRepository = archivedInvoiceRepository;
     }
 
     public List<Invoice> getAllInvoices() {
         return invoiceRepository.findAll();
     }
 
+    public CursorPage<Invoice> getInvoicesPage(String cursor, Integer size) {
+        int limit = CursorPage.clampSize(size);
+        long afterId = cursor != null ? CursorCodec.decodeId(cursor) : 0L;
+        List<Invoice> rows = invoiceRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, i -> CursorCodec.encode(i.getId()));
+    }
+
+    // facturile arhivate impreuna cu programarea lor se citesc din arhiva, cu acelasi id
     public Invoice getInvoiceById(Long id) {
         return invoiceRepository.findById(id)
+                .or(() -> archivedInvoiceRepository.findById(id).map(ArchivedInvoice::toInvoice))
                 .orElseThrow(() -> new RuntimeException("Invoice not found with id " + id));
     }
 
+    // pentru modificari: facturile arhivate sunt doar pentru citire
+    private Invoice getActiveInvoice(Long id) {
+        return invoiceRepository.findById(id).orElseThrow(() -> {
+            if (archivedInvoiceRepository.existsById(id)) {
+                return new BadRequestException("Invoice " + id + " is archived and cannot be modified");
+            }
+            return new RuntimeException("Invoice not found with id " + id);
+        });
+    }
+
     public Invoice createInvoice(Invoice invoice) {
         // validare pacient
         Long patientId = invoice.getPatient() != null ? invoice.getPatient().getId() : null;
@@ -47,6 +80,7 @@ public class InvoiceService {
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new RuntimeException("Patient not found with id " + patientId));
         invoice.setPatient(patient);
+        invoice.setVersion(null);
 
         // appointment este optional, dar daca vine id, verificam ca exista
         if (invoice.getAppointment() != null && invoice.getAppointment().getId() != null) {
@@ -77,8 +111,25 @@ public class InvoiceService {
         return invoiceRepository.save(invoice);
     }
 
+    // la conflict de versiune recitim factura si reaplicam modificarile; daca nici dupa
+    // ultima incercare nu reusim, clientul primeste 409 cu starea curenta
     public Invoice updateInvoice(Long id, Invoice updated) {
-        Invoice existing = getInvoiceById(id);
+        try {
+            return updateRetries.execute(() -> applyUpdate(id, updated));
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentUpdateException(
+                    "Invoice " + id + " was modified concurrently, retry the update",
+                    InvoiceResponse.from(getInvoiceById(id)));
+        }
+    }
+
+    private Invoice applyUpdate(Long id, Invoice updated) {
+        Invoice existing = getActiveInvoice(id);
+        // clientul a pornit de la o versiune mai veche: nu suprascriem ce n-a vazut
+        if (updated.getVersion() != null && !updated.getVersion().equals(existing.getVersion())) {
+            throw new ConcurrentUpdateException("Invoice " + id + " is at version " + existing.getVersion()
+                    + ", update was based on version " + updated.getVersion(), InvoiceResponse.from(existing));
+        }
 
         if (updated.getAmount() != null) {
             if (updated.getAmount().compareTo(BigDecimal.ZERO) < 0) {
@@ -127,6 +178,9 @@ public class InvoiceService {
 
     public void deleteInvoice(Long id) {
         if (!invoiceRepository.existsById(id)) {
+            if (archivedInvoiceRepository.existsById(id)) {
+                throw new BadRequestException("Invoice " + id + " is archived and cannot be deleted");
+            }
             throw new RuntimeException("Invoice not found with id " + id);
         }
         invoiceRepository.deleteById(id);
@@ -0,0 +1,57 @@
+package com.example.clinic_appointments.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Reia un read-modify-save cand salvarea pica pe conflict de versiune. Fiecare incercare
+// trebuie sa reciteasca entitatea; intre incercari asteptam exponential, cu jitter,
+// ca cererile concurente sa nu se ciocneasca din nou in acelasi moment.
+@Component
+public class OptimisticRetryExecutor {
+
+    static final int DEFAULT_MAX_ATTEMPTS = 4;
+    static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(20);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    public OptimisticRetryExecutor() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF);
+    }
+
+    OptimisticRetryExecutor(int maxAttempts, Duration initialBackoff) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+    }
+
+    // dupa ultima incercare esuata intoarce OptimisticLockingFailureException mai departe
+    public <T> T execute(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException ex) {
+                if (i >= maxAttempts) {
+                    throw ex;
+                }
+                backoff(i);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        if (initialBackoffMillis <= 0) {
+            return;
+        }
+        long max = initialBackoffMillis << (attempt - 1);
+        try {
+            Thread.sleep(max / 2 + ThreadLocalRandom.current().nextLong(max / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying update", e);
+        }
+    }
+}
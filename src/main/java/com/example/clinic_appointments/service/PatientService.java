@@ -1,7 +1,9 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.CursorPage;
 import com.example.clinic_appointments.model.Patient;
 import com.example.clinic_appointments.repository.PatientRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,6 +21,13 @@ public class PatientService {
         return patientRepository.findAll();
     }
 
+    public CursorPage<Patient> getPatientsPage(String cursor, Integer size) {
+        int limit = CursorPage.clampSize(size);
+        long afterId = cursor != null ? CursorCodec.decodeId(cursor) : 0L;
+        List<Patient> rows = patientRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, p -> CursorCodec.encode(p.getId()));
+    }
+
     public Patient getPatientById(Long id) {
         return patientRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Patient not found with id " + id));
@@ -0,0 +1,410 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.RescheduleMove;
+import com.example.clinic_appointments.dto.ReschedulePlan;
+import com.example.clinic_appointments.dto.RescheduleRequest;
+import com.example.clinic_appointments.dto.SeriesOccurrence;
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ConcurrentUpdateException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.AppointmentSeriesRepository;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.schedule.BookingLockCoordinator;
+import com.example.clinic_appointments.schedule.DayBitmap;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.IntervalSet;
+import com.example.clinic_appointments.schedule.RecurrenceRule;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+// Reprogramare in bloc cand un doctor lipseste: programarile lui din fereastra sursa sunt
+// asezate, in ordinea orei, in primul interval liber al doctorului (sau al inlocuitorului)
+// din fereastra tinta. Timpul liber vine din indexurile din memorie (FreeSlotService), iar
+// asezarile facute deja in lot il ocupa, deci propunerea nu are suprapuneri.
+// Camera ramane aceeasi daca e libera la noua ora; altfel programarea e mutata fara camera.
+// Aparitiile virtuale ale seriilor doctorului din fereastra sursa se muta si ele: la aplicare
+// devin programari la noua ora, iar ziua lor trece in exceptiile seriei.
+// La aplicare totul se recalculeaza sub lock-urile doctorilor si camerelor si se salveaza
+// intr-o singura tranzactie (update-uri JDBC in loturi).
+@Service
+public class RescheduleService {
+
+    private static final Duration MAX_WINDOW = Duration.ofDays(31);
+    private static final Comparator<Appointment> BY_START = Comparator.comparing(Appointment::getStartTime)
+            .thenComparing(Appointment::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentSeriesRepository seriesRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final FreeSlotService freeSlotService;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final RoomScheduleIndex roomScheduleIndex;
+    private final SlotHoldRegistry slotHolds;
+    private final SeriesIndex seriesIndex;
+    private final BookingLockCoordinator bookingLocks;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transaction;
+
+    public RescheduleService(AppointmentRepository appointmentRepository,
+                             AppointmentSeriesRepository seriesRepository,
+                             DoctorRepository doctorRepository,
+                             DoctorAvailabilityRepository availabilityRepository,
+                             FreeSlotService freeSlotService,
+                             DoctorScheduleIndex doctorScheduleIndex,
+                             RoomScheduleIndex roomScheduleIndex,
+                             SlotHoldRegistry slotHolds,
+                             SeriesIndex seriesIndex,
+                             BookingLockCoordinator bookingLocks,
+                             ApplicationEventPublisher events,
+                             PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.seriesRepository = seriesRepository;
+        this.doctorRepository = doctorRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.freeSlotService = freeSlotService;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.roomScheduleIndex = roomScheduleIndex;
+        this.slotHolds = slotHolds;
+        this.seriesIndex = seriesIndex;
+        this.bookingLocks = bookingLocks;
+        this.events = events;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public ReschedulePlan reschedule(Long doctorId, RescheduleRequest request) {
+        validate(request);
+        Doctor doctor = findDoctor(doctorId);
+        Doctor target = request.substituteDoctorId() != null ? findDoctor(request.substituteDoctorId()) : doctor;
+        List<Appointment> appointments = movable(doctorId, request, new HashMap<>());
+        if (request.dryRun()) {
+            return solve(doctor, target, request, appointments, false);
+        }
+
+        Set<Long> doctorIds = new HashSet<>(List.of(doctorId, target.getId()));
+        Set<Long> roomIds = roomIdsOf(appointments);
+        List<AppointmentSnapshot> before = new ArrayList<>();
+        List<Appointment> saved = new ArrayList<>();
+        List<AppointmentSeries> changedSeries = new ArrayList<>();
+        ReschedulePlan plan;
+        try {
+            plan = bookingLocks.withLocks(doctorIds, roomIds, () -> {
+                ReschedulePlan applied = transaction.execute(status -> {
+                    Map<Long, AppointmentSeries> seriesById = new HashMap<>();
+                    List<Appointment> current = movable(doctorId, request, seriesById);
+                    // o programare si-a schimbat camera intre timp si n-o avem sub lock
+                    if (!roomIds.containsAll(roomIdsOf(current))) {
+                        throw new ConcurrentUpdateException("Appointments of doctor " + doctorId
+                                + " were modified while the reschedule was prepared, retry", null);
+                    }
+                    ReschedulePlan solved = solve(doctor, target, request, current, true);
+                    Map<Long, Appointment> byId = new HashMap<>();
+                    Map<OccurrenceKey, Appointment> byOccurrence = new HashMap<>();
+                    for (Appointment appointment : current) {
+                        if (appointment.getId() != null) {
+                            byId.put(appointment.getId(), appointment);
+                        } else {
+                            byOccurrence.put(OccurrenceKey.of(appointment), appointment);
+                        }
+                    }
+                    List<Appointment> updated = new ArrayList<>(solved.moves().size());
+                    Map<Long, AppointmentSeries> touched = new LinkedHashMap<>();
+                    for (RescheduleMove move : solved.moves()) {
+                        Appointment appointment;
+                        if (move.appointmentId() != null) {
+                            appointment = byId.get(move.appointmentId());
+                            before.add(AppointmentSnapshot.of(appointment));
+                        } else {
+                            // aparitia virtuala devine programare noua, iar ziua ei iese din serie
+                            appointment = byOccurrence.get(new OccurrenceKey(move.seriesId(), move.occurrenceDate()));
+                            before.add(null);
+                            AppointmentSeries series = seriesById.get(move.seriesId());
+                            series.getExceptions().add(move.occurrenceDate());
+                            touched.put(series.getId(), series);
+                        }
+                        appointment.setDoctor(target);
+                        appointment.setStartTime(move.startTime());
+                        appointment.setEndTime(move.endTime());
+                        if (move.roomId() == null) {
+                            appointment.setRoom(null);
+                        }
+                        updated.add(appointment);
+                    }
+                    saved.addAll(appointmentRepository.saveAll(updated));
+                    changedSeries.addAll(seriesRepository.saveAll(touched.values()));
+                    return withAppointmentIds(solved, saved);
+                });
+                // indexurile se actualizeaza dupa commit, dar inca sub lock-uri, ca o rezervare
+                // concurenta sa nu gaseasca libere intervalele tocmai ocupate
+                for (Appointment appointment : saved) {
+                    doctorScheduleIndex.register(appointment);
+                    roomScheduleIndex.register(appointment);
+                }
+                for (AppointmentSeries series : changedSeries) {
+                    seriesIndex.register(series);
+                }
+                return applied;
+            });
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentUpdateException("Appointments of doctor " + doctorId
+                    + " were modified while the reschedule was applied, retry", null);
+        }
+        // ascultatorii afla de mutari dupa eliberarea lock-urilor; intervalele vechi nu se
+        // ofera listei de asteptare, doctorul lipseste atunci
+        for (int i = 0; i < saved.size(); i++) {
+            Appointment appointment = saved.get(i);
+            events.publishEvent(new AppointmentEvent(before.get(i), AppointmentSnapshot.of(appointment), false));
+        }
+        return plan;
+    }
+
+    private ReschedulePlan solve(Doctor doctor, Doctor target, RescheduleRequest request,
+                                 List<Appointment> appointments, boolean applied) {
+        RoomOccupancy rooms = new RoomOccupancy(request, appointments);
+        SortedMap<LocalDate, DayBitmap> free = freeSlotService.freeBitmaps(target.getId(),
+                availabilityRepository.findByDoctor(target), request.targetFrom(), request.targetTo());
+        if (target.getId().equals(doctor.getId())) {
+            markBusy(free, request.sourceFrom(), request.sourceTo());
+        }
+
+        List<RescheduleMove> moves = new ArrayList<>();
+        List<Long> unplaced = new ArrayList<>();
+        List<SeriesOccurrence> unplacedOccurrences = new ArrayList<>();
+        // aparitiile virtuale n-au id; in camerele ocupate in lot le tinem sub chei negative
+        long virtualKey = -1;
+        for (Appointment appointment : appointments) {
+            long key = appointment.getId() != null ? appointment.getId() : virtualKey--;
+            RescheduleMove move = place(appointment, key, target.getId(), free, rooms);
+            if (move != null) {
+                moves.add(move);
+            } else if (appointment.getId() != null) {
+                unplaced.add(appointment.getId());
+            } else {
+                unplacedOccurrences.add(SeriesOccurrence.materialized(appointment));
+            }
+        }
+        return new ReschedulePlan(doctor.getId(), target.getId(), applied, moves, unplaced, unplacedOccurrences);
+    }
+
+    // primul interval liber (in ordinea zilelor) care incape; cel cu camera veche libera are prioritate
+    // in aceeasi cautare, iar daca nu exista deloc luam primul interval liber fara camera
+    private RescheduleMove place(Appointment appointment, long key, Long targetDoctorId,
+                                 SortedMap<LocalDate, DayBitmap> free, RoomOccupancy rooms) {
+        Duration length = Duration.between(appointment.getStartTime(), appointment.getEndTime());
+        int minutes = (int) (EpochMinutes.ceil(appointment.getEndTime())
+                - EpochMinutes.floor(appointment.getStartTime()));
+        Long roomId = appointment.getRoom() != null ? appointment.getRoom().getId() : null;
+
+        LocalDate fallbackDay = null;
+        int fallbackMinute = -1;
+        for (Map.Entry<LocalDate, DayBitmap> entry : free.entrySet()) {
+            DayBitmap bitmap = entry.getValue();
+            LocalDateTime midnight = entry.getKey().atStartOfDay();
+            int minute = bitmap.firstFree(0, minutes);
+            while (minute >= 0) {
+                LocalDateTime start = midnight.plusMinutes(minute);
+                LocalDateTime end = start.plus(length);
+                if (roomId == null || rooms.isFree(roomId, start, end)) {
+                    return take(appointment, key, targetDoctorId, bitmap, minute, minutes, start, end, roomId, rooms);
+                }
+                if (fallbackDay == null) {
+                    fallbackDay = entry.getKey();
+                    fallbackMinute = minute;
+                }
+                minute = bitmap.firstFree(minute + DayBitmap.GRANULARITY_MINUTES, minutes);
+            }
+        }
+        if (fallbackDay == null) {
+            return null;
+        }
+        LocalDateTime start = fallbackDay.atStartOfDay().plusMinutes(fallbackMinute);
+        return take(appointment, key, targetDoctorId, free.get(fallbackDay), fallbackMinute, minutes, start,
+                start.plus(length), null, rooms);
+    }
+
+    private RescheduleMove take(Appointment appointment, long key, Long targetDoctorId, DayBitmap bitmap, int minute,
+                                int minutes, LocalDateTime start, LocalDateTime end, Long roomId,
+                                RoomOccupancy rooms) {
+        bitmap.markBusy(minute, minute + minutes);
+        if (roomId != null) {
+            rooms.take(roomId, key, start, end);
+        }
+        Room previousRoom = appointment.getRoom();
+        return new RescheduleMove(appointment.getId(), appointment.getStartTime(), appointment.getEndTime(),
+                targetDoctorId, start, end, previousRoom != null ? previousRoom.getId() : null, roomId,
+                appointment.getSeriesId(), appointment.getOccurrenceDate());
+    }
+
+    // la aplicare, mutarile aparitiilor virtuale primesc id-ul programarii create pentru ele
+    private static ReschedulePlan withAppointmentIds(ReschedulePlan plan, List<Appointment> saved) {
+        List<RescheduleMove> moves = new ArrayList<>(plan.moves().size());
+        for (int i = 0; i < plan.moves().size(); i++) {
+            RescheduleMove move = plan.moves().get(i);
+            moves.add(move.appointmentId() != null ? move : new RescheduleMove(saved.get(i).getId(),
+                    move.previousStartTime(), move.previousEndTime(), move.doctorId(), move.startTime(),
+                    move.endTime(), move.previousRoomId(), move.roomId(), move.seriesId(), move.occurrenceDate()));
+        }
+        return new ReschedulePlan(plan.doctorId(), plan.targetDoctorId(), plan.applied(), moves, plan.unplaced(),
+                plan.unplacedOccurrences());
+    }
+
+    // fereastra sursa ramane blocata cand mutam la acelasi doctor
+    private static void markBusy(SortedMap<LocalDate, DayBitmap> free, LocalDateTime from, LocalDateTime to) {
+        long fromMinute = EpochMinutes.floor(from);
+        long toMinute = EpochMinutes.ceil(to);
+        for (Map.Entry<LocalDate, DayBitmap> entry : free.entrySet()) {
+            long dayStart = EpochMinutes.floor(entry.getKey().atStartOfDay());
+            if (toMinute > dayStart && fromMinute < dayStart + DayBitmap.MINUTES_PER_DAY) {
+                entry.getValue().markBusy((int) Math.max(fromMinute - dayStart, 0),
+                        (int) Math.min(toMinute - dayStart, DayBitmap.MINUTES_PER_DAY));
+            }
+        }
+    }
+
+    // programarile inca mutabile ale doctorului din fereastra sursa, plus aparitiile virtuale ale
+    // seriilor lui care incep acolo (fara id, cu seriesId/occurrenceDate), in ordinea orei
+    private List<Appointment> movable(Long doctorId, RescheduleRequest request,
+                                      Map<Long, AppointmentSeries> seriesById) {
+        List<Appointment> movable = new ArrayList<>(appointmentRepository.findMovableByDoctor(doctorId,
+                request.sourceFrom(), request.sourceTo(), AppointmentStatus.SCHEDULED));
+        int stored = movable.size();
+        LocalDate firstDay = request.sourceFrom().toLocalDate();
+        LocalDate lastDay = request.sourceTo().toLocalDate().plusDays(1);
+        for (AppointmentSeries series : seriesRepository.findByDoctorId(doctorId)) {
+            seriesById.put(series.getId(), series);
+            RecurrenceRule.parse(series.getRule(), series.getFirstDate())
+                    .forEach(series.getFirstDate(), firstDay, lastDay, date -> {
+                        LocalDateTime start = series.occurrenceStart(date);
+                        if (!series.getExceptions().contains(date) && !start.isBefore(request.sourceFrom())
+                                && start.isBefore(request.sourceTo())) {
+                            movable.add(AppointmentSeriesService.occurrenceOf(series, date));
+                        }
+                    });
+        }
+        if (movable.size() > stored) {
+            movable.sort(BY_START);
+        }
+        return movable;
+    }
+
+    private Doctor findDoctor(Long id) {
+        return doctorRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id " + id));
+    }
+
+    private static Set<Long> roomIdsOf(List<Appointment> appointments) {
+        Set<Long> roomIds = new HashSet<>();
+        for (Appointment appointment : appointments) {
+            if (appointment.getRoom() != null) {
+                roomIds.add(appointment.getRoom().getId());
+            }
+        }
+        return roomIds;
+    }
+
+    private static void validate(RescheduleRequest request) {
+        if (request.sourceFrom() == null || request.sourceTo() == null
+                || request.targetFrom() == null || request.targetTo() == null) {
+            throw new BadRequestException("sourceFrom, sourceTo, targetFrom and targetTo are required");
+        }
+        if (!request.sourceTo().isAfter(request.sourceFrom()) || !request.targetTo().isAfter(request.targetFrom())) {
+            throw new BadRequestException("Each window must end after it starts");
+        }
+        if (Duration.between(request.sourceFrom(), request.sourceTo()).compareTo(MAX_WINDOW) > 0
+                || Duration.between(request.targetFrom(), request.targetTo()).compareTo(MAX_WINDOW) > 0) {
+            throw new BadRequestException("Windows cannot exceed " + MAX_WINDOW.toDays() + " days");
+        }
+    }
+
+    // o aparitie a unei serii; pentru seriile din SeriesIndex id-ul intervalului e id-ul seriei
+    private record OccurrenceKey(Long seriesId, LocalDate date) {
+
+        static OccurrenceKey of(Appointment occurrence) {
+            return new OccurrenceKey(occurrence.getSeriesId(), occurrence.getOccurrenceDate());
+        }
+
+        static OccurrenceKey of(Interval occurrence) {
+            return new OccurrenceKey(occurrence.id(), EpochMinutes.toDateTime(occurrence.start()).toLocalDate());
+        }
+    }
+
+    // ocuparea camerelor din fereastra tinta fara programarile si aparitiile care se muta,
+    // plus ce am asezat deja in lot
+    private final class RoomOccupancy {
+
+        private final RescheduleRequest request;
+        private final Set<Long> moving = new HashSet<>();
+        private final Set<OccurrenceKey> movingOccurrences = new HashSet<>();
+        private final Map<Long, IntervalSet> busy = new HashMap<>();
+
+        private RoomOccupancy(RescheduleRequest request, List<Appointment> appointments) {
+            this.request = request;
+            for (Appointment appointment : appointments) {
+                if (appointment.getId() != null) {
+                    moving.add(appointment.getId());
+                } else {
+                    movingOccurrences.add(OccurrenceKey.of(appointment));
+                }
+            }
+        }
+
+        private boolean isFree(Long roomId, LocalDateTime start, LocalDateTime end) {
+            if (busy.computeIfAbsent(roomId, this::load)
+                    .findOverlap(EpochMinutes.floor(start), EpochMinutes.ceil(end), null).isPresent()
+                    || slotHolds.findConflict(null, roomId, start, end, null).isPresent()) {
+                return false;
+            }
+            for (Interval occurrence : seriesIndex.occupiedInRoom(roomId, start, end)) {
+                if (!movingOccurrences.contains(OccurrenceKey.of(occurrence))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void take(Long roomId, long key, LocalDateTime start, LocalDateTime end) {
+            busy.computeIfAbsent(roomId, this::load)
+                    .put(new Interval(key, EpochMinutes.floor(start), EpochMinutes.ceil(end)));
+        }
+
+        private IntervalSet load(Long roomId) {
+            IntervalSet set = new IntervalSet();
+            for (Interval interval : roomScheduleIndex.occupied(roomId, request.targetFrom(), request.targetTo())) {
+                if (!moving.contains(interval.id())) {
+                    set.put(interval);
+                }
+            }
+            return set;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.RoomAssignment;
+import com.example.clinic_appointments.dto.RoomPlan;
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.exception.ConcurrentUpdateException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.RoomRepository;
+import com.example.clinic_appointments.schedule.BookingLockCoordinator;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.RoomAllocator;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Repartizarea camerelor pe o zi intreaga (RoomAllocator). plan() doar calculeaza propunerea;
+// apply() o recalculeaza sub lock-urile tuturor camerelor si salveaza camerele schimbate intr-o
+// singura tranzactie (update-uri JDBC in loturi), ca sa nu intre intre timp o rezervare noua.
+//
+// O programare cere o capabilitate daca numele ei (din descrierile camerelor) apare in
+// specializarea doctorului sau in motivul programarii, de ex. "Ecografie abdominala".
+//
+// Ce ocupa camerele fara sa fie replanificat (programarile din zilele vecine care trec de
+// miezul noptii, holdurile si aparitiile virtuale ale seriilor) ramane blocat in plan.
+//
+// O programare care are deja camera si pentru care planul nu gaseste alta o pastreaza pe a ei;
+// altfel camera ar putea fi data altcuiva, iar ea (nesalvata, fiind fara camera noua) ar ramane
+// tot acolo, suprapusa.
+@Service
+public class RoomAllocationService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final RoomRepository roomRepository;
+    private final RoomScheduleIndex roomScheduleIndex;
+    private final SlotHoldRegistry slotHolds;
+    private final SeriesIndex seriesIndex;
+    private final BookingLockCoordinator bookingLocks;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transaction;
+    private final Timer solveDuration;
+
+    public RoomAllocationService(AppointmentRepository appointmentRepository,
+                                 RoomRepository roomRepository,
+                                 RoomScheduleIndex roomScheduleIndex,
+                                 SlotHoldRegistry slotHolds,
+                                 SeriesIndex seriesIndex,
+                                 BookingLockCoordinator bookingLocks,
+                                 ApplicationEventPublisher events,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.appointmentRepository = appointmentRepository;
+        this.roomRepository = roomRepository;
+        this.roomScheduleIndex = roomScheduleIndex;
+        this.slotHolds = slotHolds;
+        this.seriesIndex = seriesIndex;
+        this.bookingLocks = bookingLocks;
+        this.events = events;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.solveDuration = Timer.builder("clinic.rooms.allocation.duration")
+                .description("Time spent computing a daily room plan")
+                .register(meterRegistry);
+    }
+
+    public RoomPlan plan(LocalDate date, boolean keepExisting) {
+        List<Room> rooms = roomRepository.findAll();
+        return solve(date, rooms, appointmentsOf(date), keepExisting, false);
+    }
+
+    public RoomPlan apply(LocalDate date, boolean keepExisting) {
+        List<Room> rooms = roomRepository.findAll();
+        Map<Long, Room> roomsById = rooms.stream().collect(Collectors.toMap(Room::getId, Function.identity()));
+        List<AppointmentSnapshot> before = new ArrayList<>();
+        List<Appointment> saved = new ArrayList<>();
+        RoomPlan plan;
+        try {
+            plan = bookingLocks.withLocks(List.of(), roomsById.keySet(), () -> {
+                RoomPlan applied = transaction.execute(status -> {
+                    List<Appointment> appointments = appointmentsOf(date);
+                    RoomPlan solved = solve(date, rooms, appointments, keepExisting, true);
+                    Map<Long, Appointment> byId = appointments.stream()
+                            .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+                    List<Appointment> updated = new ArrayList<>();
+                    for (RoomAssignment assignment : solved.assignments()) {
+                        if (assignment.changed()) {
+                            Appointment appointment = byId.get(assignment.appointmentId());
+                            before.add(AppointmentSnapshot.of(appointment));
+                            appointment.setRoom(roomsById.get(assignment.roomId()));
+                            updated.add(appointment);
+                        }
+                    }
+                    saved.addAll(appointmentRepository.saveAll(updated));
+                    return solved;
+                });
+                // indexul se actualizeaza dupa commit, dar inca sub lock-urile camerelor
+                for (Appointment appointment : saved) {
+                    roomScheduleIndex.register(appointment);
+                }
+                return applied;
+            });
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentUpdateException(
+                    "Appointments of " + date + " were modified while the room plan was applied, retry", null);
+        }
+        // ascultatorii afla de schimbari dupa eliberarea lock-urilor
+        for (int i = 0; i < saved.size(); i++) {
+            events.publishEvent(new AppointmentEvent(before.get(i), AppointmentSnapshot.of(saved.get(i))));
+        }
+        return plan;
+    }
+
+    private List<Appointment> appointmentsOf(LocalDate date) {
+        return appointmentRepository.findActiveStartingBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+                AppointmentStatus.CANCELLED);
+    }
+
+    private RoomPlan solve(LocalDate date, List<Room> rooms, List<Appointment> appointments, boolean keepExisting,
+                           boolean applied) {
+        return solveDuration.record(() -> {
+            List<RoomAllocator.RoomSpec> specs = new ArrayList<>(rooms.size());
+            Set<String> vocabulary = new HashSet<>();
+            for (Room room : rooms) {
+                Set<String> capabilities = RoomAllocator.capabilities(room.getDescription());
+                specs.add(new RoomAllocator.RoomSpec(room.getId(), capabilities));
+                vocabulary.addAll(capabilities);
+            }
+
+            List<RoomAllocator.Request> requests = new ArrayList<>(appointments.size());
+            for (Appointment appointment : appointments) {
+                requests.add(new RoomAllocator.Request(appointment.getId(),
+                        EpochMinutes.floor(appointment.getStartTime()), EpochMinutes.ceil(appointment.getEndTime()),
+                        required(appointment, vocabulary), roomIdOf(appointment)));
+            }
+            // cine ar ramane fara camera desi are una isi pastreaza camera: o scoatem din plan,
+            // ii blocam intervalul acolo si recalculam pentru restul; se opreste cand nu mai
+            // ramane nimeni cu camera pe dinafara (cel mult o trecere per programare)
+            Map<Long, List<Interval>> blocked = blocked(date, rooms, appointments);
+            Map<Long, Long> roomByAppointment = new HashMap<>();
+            List<RoomAllocator.Request> remaining = requests;
+            RoomAllocator.Result result;
+            while (true) {
+                result = RoomAllocator.allocate(specs, remaining, blocked, keepExisting);
+                Set<Long> unassigned = new HashSet<>(result.unassigned());
+                List<RoomAllocator.Request> stranded = remaining.stream()
+                        .filter(request -> request.currentRoomId() != null
+                                && unassigned.contains(request.appointmentId()))
+                        .toList();
+                if (stranded.isEmpty()) {
+                    break;
+                }
+                for (RoomAllocator.Request request : stranded) {
+                    roomByAppointment.put(request.appointmentId(), request.currentRoomId());
+                    blocked.computeIfAbsent(request.currentRoomId(), id -> new ArrayList<>())
+                            .add(new Interval(request.appointmentId(), request.start(), request.end()));
+                }
+                remaining = remaining.stream().filter(request -> !stranded.contains(request)).toList();
+            }
+            roomByAppointment.putAll(result.roomByAppointment());
+
+            List<RoomAssignment> assignments = new ArrayList<>(appointments.size());
+            int changed = 0;
+            for (Appointment appointment : appointments) {
+                RoomAssignment assignment = new RoomAssignment(appointment.getId(), appointment.getStartTime(),
+                        appointment.getEndTime(), roomIdOf(appointment), roomByAppointment.get(appointment.getId()));
+                if (assignment.changed()) {
+                    changed++;
+                }
+                assignments.add(assignment);
+            }
+            int roomsUsed = new HashSet<>(roomByAppointment.values()).size();
+            return new RoomPlan(date, applied, roomsUsed, changed, result.unassigned(), assignments);
+        });
+    }
+
+    // pe camera, intervalele ocupate de altceva decat programarile replanificate, din ziua
+    // planului pana la sfarsitul ultimei programari (care poate trece in ziua urmatoare)
+    private Map<Long, List<Interval>> blocked(LocalDate date, List<Room> rooms, List<Appointment> appointments) {
+        Set<Long> planned = new HashSet<>();
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = date.plusDays(1).atStartOfDay();
+        for (Appointment appointment : appointments) {
+            planned.add(appointment.getId());
+            if (appointment.getEndTime().isAfter(to)) {
+                to = appointment.getEndTime();
+            }
+        }
+        Map<Long, List<Interval>> blocked = new HashMap<>();
+        for (Room room : rooms) {
+            List<Interval> busy = new ArrayList<>();
+            for (Interval interval : roomScheduleIndex.occupied(room.getId(), from, to)) {
+                if (!planned.contains(interval.id())) {
+                    busy.add(interval);
+                }
+            }
+            busy.addAll(slotHolds.heldInRoom(room.getId(), from, to));
+            busy.addAll(seriesIndex.occupiedInRoom(room.getId(), from, to));
+            if (!busy.isEmpty()) {
+                blocked.put(room.getId(), busy);
+            }
+        }
+        return blocked;
+    }
+
+    private static Set<String> required(Appointment appointment, Set<String> vocabulary) {
+        String text = ((appointment.getDoctor() != null ? appointment.getDoctor().getSpecialization() : "")
+                + " " + (appointment.getReason() != null ? appointment.getReason() : "")).toLowerCase(Locale.ROOT);
+        Set<String> required = new HashSet<>();
+        for (String capability : vocabulary) {
+            if (text.contains(capability)) {
+                required.add(capability);
+            }
+        }
+        return required;
+    }
+
+    private static Long roomIdOf(Appointment appointment) {
+        return appointment.getRoom() != null ? appointment.getRoom().getId() : null;
+    }
+}
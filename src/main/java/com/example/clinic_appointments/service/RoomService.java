@@ -1,29 +1,81 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.OccupiedInterval;
+import com.example.clinic_appointments.exception.BadRequestException;
 import com.example.clinic_appointments.model.Room;
 import com.example.clinic_appointments.repository.RoomRepository;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 public class RoomService {
 
+    // intervalul maxim pentru care intoarcem ocuparea unei camere
+    private static final Duration MAX_OCCUPANCY_RANGE = Duration.ofDays(31);
+
     private final RoomRepository roomRepository;
+    private final RoomScheduleIndex roomScheduleIndex;
+    private final SeriesIndex seriesIndex;
 
-    public RoomService(RoomRepository roomRepository) {
+    public RoomService(RoomRepository roomRepository, RoomScheduleIndex roomScheduleIndex, SeriesIndex seriesIndex) {
         this.roomRepository = roomRepository;
+        this.roomScheduleIndex = roomScheduleIndex;
+        this.seriesIndex = seriesIndex;
     }
 
     public List<Room> getAllRooms() {
         return roomRepository.findAll();
     }
 
+    public CursorPage<Room> getRoomsPage(String cursor, Integer size) {
+        int limit = CursorPage.clampSize(size);
+        long afterId = cursor != null ? CursorCodec.decodeId(cursor) : 0L;
+        List<Room> rows = roomRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, r -> CursorCodec.encode(r.getId()));
+    }
+
     public Room getRoomById(Long id) {
         return roomRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Room not found with id " + id));
     }
 
+    public List<OccupiedInterval> getOccupancy(Long roomId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("'to' must be after 'from'");
+        }
+        if (Duration.between(from, to).compareTo(MAX_OCCUPANCY_RANGE) > 0) {
+            throw new BadRequestException("Occupancy range cannot exceed " + MAX_OCCUPANCY_RANGE.toDays() + " days");
+        }
+        getRoomById(roomId);
+
+        List<OccupiedInterval> occupied = new ArrayList<>();
+        for (Interval interval : roomScheduleIndex.occupied(roomId, from, to)) {
+            occupied.add(new OccupiedInterval(interval.id(),
+                    EpochMinutes.toDateTime(interval.start()),
+                    EpochMinutes.toDateTime(interval.end())));
+        }
+        // aparitiile virtuale ale seriilor care folosesc camera
+        for (Interval interval : seriesIndex.occupiedInRoom(roomId, from, to)) {
+            occupied.add(new OccupiedInterval(null,
+                    EpochMinutes.toDateTime(interval.start()),
+                    EpochMinutes.toDateTime(interval.end()),
+                    interval.id()));
+        }
+        occupied.sort(Comparator.comparing(OccupiedInterval::startTime));
+        return occupied;
+    }
+
     public Room createRoom(Room room) {
         return roomRepository.save(room);
     }
@@ -43,5 +95,6 @@ public class RoomService {
             throw new RuntimeException("Room not found with id " + id);
         }
         roomRepository.deleteById(id);
+        roomScheduleIndex.evict(id);
     }
 }
@@ -0,0 +1,194 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.DoctorSlot;
+import com.example.clinic_appointments.dto.TimeSlot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.model.Specialty;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.repository.SpecialtyRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+// "Primul interval liber" pe o specialitate: fiecare doctor are un flux de intervale
+// libere calculat pe bucati de cateva zile, iar fluxurile sunt interclasate cu o
+// coada de prioritate dupa ora de inceput.
+@Service
+public class SpecialtyAvailabilityService {
+
+    public static final int DEFAULT_LIMIT = 5;
+    public static final int MAX_LIMIT = 50;
+    // cat de departe cautam dupa momentul cerut
+    private static final int HORIZON_DAYS = 28;
+    // cate zile calculam odata pentru un doctor
+    private static final int CHUNK_DAYS = 3;
+
+    private static final Comparator<SlotStream> BY_NEXT_SLOT = Comparator
+            .comparing((SlotStream stream) -> stream.peek().startTime())
+            .thenComparing(stream -> stream.doctor.getId());
+
+    private final SpecialtyRepository specialtyRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorAvailabilityRepository availabilityRepository;
+    private final FreeSlotService freeSlotService;
+    // primul calcul al fiecarui doctor poate incarca programari din baza (JDBC blocant), deci
+    // nu pe ForkJoinPool-ul comun; thread-uri virtuale, iar DatabaseGate limiteaza conexiunile
+    private final ExecutorService fanOut;
+
+    @Autowired
+    public SpecialtyAvailabilityService(SpecialtyRepository specialtyRepository,
+                                        DoctorRepository doctorRepository,
+                                        DoctorAvailabilityRepository availabilityRepository,
+                                        FreeSlotService freeSlotService) {
+        this(specialtyRepository, doctorRepository, availabilityRepository, freeSlotService,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    SpecialtyAvailabilityService(SpecialtyRepository specialtyRepository,
+                                 DoctorRepository doctorRepository,
+                                 DoctorAvailabilityRepository availabilityRepository,
+                                 FreeSlotService freeSlotService,
+                                 ExecutorService fanOut) {
+        this.specialtyRepository = specialtyRepository;
+        this.doctorRepository = doctorRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.freeSlotService = freeSlotService;
+        this.fanOut = fanOut;
+    }
+
+    public List<DoctorSlot> findNextAvailable(Long specialtyId, LocalDateTime after, int durationMinutes, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        LocalDateTime horizon = after.plusDays(HORIZON_DAYS);
+        freeSlotService.validate(after, horizon, durationMinutes);
+
+        Specialty specialty = specialtyRepository.findById(specialtyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Specialty not found with id " + specialtyId));
+        List<Doctor> doctors = doctorRepository.findBySpecializationIgnoreCase(specialty.getName());
+        if (doctors.isEmpty()) {
+            return List.of();
+        }
+
+        // programul tuturor doctorilor dintr-o singura interogare
+        Map<Long, List<DoctorAvailability>> availabilities = availabilityRepository.findByDoctorIn(doctors).stream()
+                .collect(Collectors.groupingBy(a -> a.getDoctor().getId()));
+
+        // primul calcul pentru fiecare doctor ruleaza in paralel
+        List<CompletableFuture<SlotStream>> started = doctors.stream()
+                .map(doctor -> CompletableFuture.supplyAsync(() -> new SlotStream(doctor,
+                        availabilities.getOrDefault(doctor.getId(), List.of()), after, horizon, durationMinutes),
+                        fanOut))
+                .toList();
+
+        PriorityQueue<SlotStream> queue = new PriorityQueue<>(BY_NEXT_SLOT);
+        for (CompletableFuture<SlotStream> future : started) {
+            SlotStream stream = join(future);
+            if (stream.hasNext()) {
+                queue.add(stream);
+            }
+        }
+
+        List<DoctorSlot> result = new ArrayList<>(limit);
+        while (result.size() < limit && !queue.isEmpty()) {
+            SlotStream stream = queue.poll();
+            TimeSlot slot = stream.next();
+            result.add(new DoctorSlot(stream.doctor.getId(),
+                    stream.doctor.getFirstName() + " " + stream.doctor.getLastName(),
+                    slot.startTime(), slot.endTime()));
+            if (stream.hasNext()) {
+                queue.add(stream);
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdown();
+    }
+
+    // exceptia din calcul (de ex. ServiceBusyException de la DatabaseGate) ajunge neinvelita la apelant
+    private static SlotStream join(CompletableFuture<SlotStream> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // intervalele libere ale unui doctor, in ordine, calculate lazy pe bucati de CHUNK_DAYS zile
+    private final class SlotStream {
+
+        private final Doctor doctor;
+        private final List<DoctorAvailability> availabilities;
+        private final LocalDateTime horizon;
+        private final int durationMinutes;
+        private LocalDateTime computedUntil;
+        private List<TimeSlot> buffer = List.of();
+        private int position;
+
+        private SlotStream(Doctor doctor, List<DoctorAvailability> availabilities,
+                           LocalDateTime after, LocalDateTime horizon, int durationMinutes) {
+            this.doctor = doctor;
+            this.availabilities = availabilities;
+            this.horizon = horizon;
+            this.durationMinutes = durationMinutes;
+            this.computedUntil = after;
+            fill();
+        }
+
+        private boolean hasNext() {
+            return position < buffer.size();
+        }
+
+        private TimeSlot peek() {
+            return buffer.get(position);
+        }
+
+        private TimeSlot next() {
+            TimeSlot slot = buffer.get(position++);
+            if (position == buffer.size()) {
+                fill();
+            }
+            return slot;
+        }
+
+        // calculeaza urmatoarea bucata care contine macar un interval liber
+        private void fill() {
+            buffer = List.of();
+            position = 0;
+            if (availabilities.isEmpty()) {
+                return;
+            }
+            while (buffer.isEmpty() && computedUntil.isBefore(horizon)) {
+                LocalDateTime chunkEnd = computedUntil.toLocalDate().plusDays(CHUNK_DAYS).atStartOfDay();
+                if (chunkEnd.isAfter(horizon)) {
+                    chunkEnd = horizon;
+                }
+                buffer = freeSlotService.computeFreeSlots(doctor.getId(), availabilities,
+                        computedUntil, chunkEnd, durationMinutes);
+                computedUntil = chunkEnd;
+            }
+        }
+    }
+}
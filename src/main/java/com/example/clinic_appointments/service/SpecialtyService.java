@@ -1,7 +1,9 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.CursorPage;
 import com.example.clinic_appointments.model.Specialty;
 import com.example.clinic_appointments.repository.SpecialtyRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,6 +21,13 @@ public class SpecialtyService {
         return specialtyRepository.findAll();
     }
 
+    public CursorPage<Specialty> getSpecialtiesPage(String cursor, Integer size) {
+        int limit = CursorPage.clampSize(size);
+        long afterId = cursor != null ? CursorCodec.decodeId(cursor) : 0L;
+        List<Specialty> rows = specialtyRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, s -> CursorCodec.encode(s.getId()));
+    }
+
     public Specialty getSpecialtyById(Long id) {
         return specialtyRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Specialty not found with id " + id));
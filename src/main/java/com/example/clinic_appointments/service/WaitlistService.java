@@ -0,0 +1,158 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.BookingConflictException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.model.WaitlistEntry;
+import com.example.clinic_appointments.model.WaitlistStatus;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.repository.PatientRepository;
+import com.example.clinic_appointments.repository.WaitlistEntryRepository;
+import com.example.clinic_appointments.schedule.WaitlistIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Lista de asteptare pentru locurile eliberate. Cand o programare e anulata, stearsa sau mutata,
+// intervalul vechi e oferit celui mai bun candidat din WaitlistIndex si programat direct prin
+// AppointmentService (cu aceleasi lock-uri si verificari de conflict ca orice rezervare).
+@Service
+public class WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final WaitlistIndex waitlistIndex;
+    private final AppointmentService appointmentService;
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+                           PatientRepository patientRepository,
+                           DoctorRepository doctorRepository,
+                           WaitlistIndex waitlistIndex,
+                           AppointmentService appointmentService) {
+        this.waitlistRepository = waitlistRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.waitlistIndex = waitlistIndex;
+        this.appointmentService = appointmentService;
+    }
+
+    public List<WaitlistEntry> getWaiting(Long doctorId) {
+        return waitlistRepository.findByDoctorIdAndStatusOrderByIdAsc(doctorId, WaitlistStatus.WAITING);
+    }
+
+    public WaitlistEntry getEntryById(Long id) {
+        return waitlistRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found with id " + id));
+    }
+
+    public WaitlistEntry enqueue(WaitlistEntry entry) {
+        Long patientId = entry.getPatient() != null ? entry.getPatient().getId() : null;
+        Long doctorId = entry.getDoctor() != null ? entry.getDoctor().getId() : null;
+        if (patientId == null || doctorId == null) {
+            throw new BadRequestException("Patient and doctor must be provided with valid IDs");
+        }
+        if (!entry.getPreferredTo().isAfter(entry.getPreferredFrom())) {
+            throw new BadRequestException("Preferred end must be after preferred start");
+        }
+        if (Duration.between(entry.getPreferredFrom(), entry.getPreferredTo()).toDays()
+                >= WaitlistIndex.MAX_WINDOW_DAYS) {
+            throw new BadRequestException("Preferred window cannot exceed " + WaitlistIndex.MAX_WINDOW_DAYS + " days");
+        }
+
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id " + patientId));
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id " + doctorId));
+
+        entry.setPatient(patient);
+        entry.setDoctor(doctor);
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setAppointmentId(null);
+        entry.setCreatedAt(LocalDateTime.now());
+
+        WaitlistEntry saved = waitlistRepository.save(entry);
+        waitlistIndex.add(doctorId, WaitlistIndex.Candidate.of(saved));
+        return saved;
+    }
+
+    public void cancel(Long id) {
+        WaitlistEntry entry = getEntryById(id);
+        waitlistIndex.remove(entry.getDoctor().getId(), id);
+        if (entry.getStatus() == WaitlistStatus.WAITING) {
+            entry.setStatus(WaitlistStatus.CANCELLED);
+            waitlistRepository.save(entry);
+        }
+    }
+
+    // ruleaza in firul care a anulat programarea; o eroare aici nu trebuie sa strice anularea
+    @EventListener
+    public void onAppointmentEvent(AppointmentEvent event) {
+        if (!event.freesSlot()) {
+            return;
+        }
+        AppointmentSnapshot freed = event.before();
+        try {
+            offer(freed.doctorId(), freed.roomId(), freed.startTime(), freed.endTime());
+        } catch (RuntimeException ex) {
+            log.warn("Could not offer freed slot of appointment {} to the waitlist", freed.id(), ex);
+        }
+    }
+
+    // programeaza primul candidat potrivit in interval; locurile din trecut nu se mai ofera
+    public Optional<Appointment> offer(Long doctorId, Long roomId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isAfter(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        while (true) {
+            Optional<WaitlistIndex.Candidate> claimed = waitlistIndex.claim(doctorId, start, end);
+            if (claimed.isEmpty()) {
+                return Optional.empty();
+            }
+            WaitlistEntry entry = waitlistRepository.findById(claimed.get().entryId()).orElse(null);
+            if (entry == null || entry.getStatus() != WaitlistStatus.WAITING) {
+                continue;
+            }
+
+            Appointment appointment = new Appointment(entry.getPatient(), entry.getDoctor(), start, end,
+                    entry.getReason(), AppointmentStatus.SCHEDULED);
+            if (roomId != null) {
+                Room room = new Room();
+                room.setId(roomId);
+                appointment.setRoom(room);
+            }
+            Appointment booked;
+            try {
+                // intrarea devine BOOKED in aceeasi tranzactie cu programarea
+                booked = appointmentService.createAppointmentWith(appointment, saved -> {
+                    entry.setStatus(WaitlistStatus.BOOKED);
+                    entry.setAppointmentId(saved.getId());
+                    waitlistRepository.save(entry);
+                });
+            } catch (RuntimeException ex) {
+                // candidatul ramane pe lista; daca locul a fost luat intre timp nu e o eroare
+                waitlistIndex.add(doctorId, claimed.get());
+                if (ex instanceof BookingConflictException) {
+                    return Optional.empty();
+                }
+                throw ex;
+            }
+            return Optional.of(booked);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.clinic_appointments.config;
+
+import com.example.clinic_appointments.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DatabaseGateTest {
+
+    private DataSource pool() throws SQLException {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return pool;
+    }
+
+    @Test
+    void getConnection_allPermitsTaken_rejectsAfterTimeout() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DatabaseGate gate = new DatabaseGate(1, Duration.ofMillis(50));
+        gate.bindTo(registry);
+        DataSource dataSource = gate.wrap(pool());
+
+        CountDownLatch checkedOut = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> holder = executor.submit(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    checkedOut.countDown();
+                    release.await();
+                    return "done";
+                }
+            });
+            assertThat(checkedOut.await(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(gate.active()).isEqualTo(1);
+
+            assertThatThrownBy(dataSource::getConnection)
+                    .isInstanceOf(ServiceBusyException.class);
+
+            release.countDown();
+            assertThat(holder.get(1, TimeUnit.SECONDS)).isEqualTo("done");
+        }
+
+        assertThat(gate.active()).isZero();
+        assertThat(registry.get("clinic.db.gate.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("clinic.db.gate.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void getConnection_permitHeldUntilClose() throws SQLException {
+        DatabaseGate gate = new DatabaseGate(2, Duration.ofMillis(50));
+        Connection target = mock(Connection.class);
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(target);
+        DataSource dataSource = gate.wrap(pool);
+
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.commit();
+        assertThat(gate.active()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+
+        assertThat(gate.active()).isZero();
+        verify(target).commit();
+        verify(target, times(2)).close();
+    }
+
+    @Test
+    void getConnection_nestedOnSameThread_usesOnePermit() throws SQLException {
+        DatabaseGate gate = new DatabaseGate(1, Duration.ofMillis(50));
+        DataSource dataSource = gate.wrap(pool());
+
+        try (Connection outer = dataSource.getConnection();
+             Connection inner = dataSource.getConnection()) {
+            assertThat(gate.active()).isEqualTo(1);
+        }
+
+        assertThat(gate.active()).isZero();
+        try (Connection next = dataSource.getConnection()) {
+            assertThat(gate.active()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void getConnection_poolFailure_releasesPermit() throws SQLException {
+        DatabaseGate gate = new DatabaseGate(1, Duration.ofMillis(50));
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        DataSource dataSource = gate.wrap(pool);
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+
+        assertThat(gate.active()).isZero();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.clinic_appointments.config;
+
+import com.example.clinic_appointments.repository.IdempotencyRecordRepository;
+import com.example.clinic_appointments.service.IdempotencyStore;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+class IdempotencyFilterTest {
+
+    private IdempotencyStore store;
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(mock(IdempotencyRecordRepository.class), Duration.ofHours(1), 100);
+        filter = new IdempotencyFilter(store);
+        executions = new AtomicInteger();
+    }
+
+    // "controller" care citeste corpul si raspunde 201 cu un id nou la fiecare executie
+    private MockFilterChain chain(int status) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response)
+                    throws IOException {
+                String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                response.setStatus(status);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"id\":" + executions.incrementAndGet() + ",\"echo\":" + body + "}");
+            }
+        });
+    }
+
+    private MockHttpServletRequest post(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/appointments");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @Test
+    void repeatedKeyReplaysOriginalResponse() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(post("abc", "{\"a\":1}"), first, chain(201));
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(post("abc", "{\"a\":1}"), second, chain(201));
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(first.getContentAsString()).isEqualTo("{\"id\":1,\"echo\":{\"a\":1}}");
+        assertThat(second.getStatus()).isEqualTo(201);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(second.getContentType()).startsWith("application/json");
+        assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() throws Exception {
+        filter.doFilter(post("abc", "{\"a\":1}"), new MockHttpServletResponse(), chain(201));
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(post("abc", "{\"a\":2}"), second, chain(201));
+
+        assertThat(executions).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void failedRequestIsNotStored() throws Exception {
+        filter.doFilter(post("abc", "{}"), new MockHttpServletResponse(), chain(409));
+
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(post("abc", "{}"), retry, chain(201));
+
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void keyStillInProgressGetsConflict() throws Exception {
+        store.begin("POST /api/appointments:abc", IdempotencyFilter.sha256(new byte[0]));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("abc", ""), response, chain(201));
+
+        assertThat(executions).hasValue(0);
+        assertThat(response.getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    void requestsWithoutKeyPassThrough() throws Exception {
+        filter.doFilter(post(null, "{}"), new MockHttpServletResponse(), chain(201));
+        filter.doFilter(post(null, "{}"), new MockHttpServletResponse(), chain(201));
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void overlongKeyIsRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("x".repeat(IdempotencyFilter.MAX_KEY_LENGTH + 1), "{}"), response, chain(201));
+
+        assertThat(executions).hasValue(0);
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void keysAreScopedPerEndpoint() throws Exception {
+        filter.doFilter(post("abc", "{}"), new MockHttpServletResponse(), chain(201));
+        MockHttpServletRequest invoice = post("abc", "{}");
+        invoice.setRequestURI("/api/invoices");
+
+        filter.doFilter(invoice, new MockHttpServletResponse(), chain(201));
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void requestCompletedBetweenFindAndBeginIsReplayed() throws Exception {
+        filter.doFilter(post("abc", "{}"), new MockHttpServletResponse(), chain(201));
+        // prima cautare nu vede raspunsul: cererea originala inca nu terminase
+        IdempotencyStore racing = spy(store);
+        doReturn(Optional.empty()).doCallRealMethod().when(racing).find("POST /api/appointments:abc");
+
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        new IdempotencyFilter(racing).doFilter(post("abc", "{}"), retry, chain(201));
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(store.begin("POST /api/appointments:abc", "hash")).isTrue();
+    }
+
+    @Test
+    void oversizedBodyIsRejected() throws Exception {
+        IdempotencyFilter small = new IdempotencyFilter(store, 8);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        small.doFilter(post("abc", "{\"a\":123456}"), response, chain(201));
+
+        assertThat(executions).hasValue(0);
+        assertThat(response.getStatus()).isEqualTo(413);
+    }
+}
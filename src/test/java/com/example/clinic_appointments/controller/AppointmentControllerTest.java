@@ -0,0 +1,219 @@
+package com.example.clinic_appointments.controller;
+
+import com.example.clinic_appointments.dto.AppointmentSearch;
+import com.example.clinic_appointments.dto.AutoAssignRequest;
+import com.example.clinic_appointments.dto.BatchItemResult;
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.SlotHoldRequest;
+import com.example.clinic_appointments.event.AppointmentChangeBus;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.schedule.SlotHold;
+import com.example.clinic_appointments.service.AppointmentService;
+import com.example.clinic_appointments.service.AutoAssignService;
+import com.example.clinic_appointments.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AppointmentController.class)
+class AppointmentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AppointmentService appointmentService;
+
+    @MockitoBean
+    private ExportService exportService;
+
+    @MockitoBean
+    private AppointmentChangeBus changeBus;
+
+    @MockitoBean
+    private AutoAssignService autoAssignService;
+
+    @Test
+    void getAllAppointments_returnsPageWithCursor() throws Exception {
+        Appointment a1 = new Appointment();
+        a1.setId(1L);
+        a1.setReason("Control");
+
+        given(appointmentService.getAppointmentsPage("abc", 1))
+                .willReturn(new CursorPage<>(List.of(a1), "next"));
+
+        mockMvc.perform(get("/api/appointments")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[0].reason").value("Control"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getAppointmentById_returnsAppointment() throws Exception {
+        Appointment a = new Appointment();
+        a.setId(1L);
+        a.setReason("Control");
+
+        given(appointmentService.getAppointmentById(1L)).willReturn(a);
+
+        mockMvc.perform(get("/api/appointments/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.reason").value("Control"));
+    }
+
+    @Test
+    void createAppointments_returnsResultPerItem() throws Exception {
+        given(appointmentService.createAppointments(anyList())).willReturn(List.of(
+                BatchItemResult.created(0, 100L),
+                BatchItemResult.conflict(1, "Doctor 20 already has appointment 7 in this interval", 7L)));
+
+        String requestBody = """
+                [
+                  { "patient": { "id": 10 }, "doctor": { "id": 20 },
+                    "startTime": "2030-01-01T09:00:00", "endTime": "2030-01-01T09:30:00", "reason": "Control" },
+                  { "patient": { "id": 11 }, "doctor": { "id": 20 },
+                    "startTime": "2030-01-01T09:00:00", "endTime": "2030-01-01T09:30:00", "reason": "Control" }
+                ]
+                """;
+
+        mockMvc.perform(post("/api/appointments/batch")
+                        .contentType("application/json")
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].appointmentId").value(100L))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].conflictingAppointmentId").value(7L));
+    }
+
+    @Test
+    void placeHold_returnsCreatedWithToken() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        given(appointmentService.placeHold(any(SlotHoldRequest.class))).willReturn(new SlotHold(
+                "abc", 20L, null, start, start.plusMinutes(30), Instant.parse("2030-01-01T08:01:30Z")));
+
+        String requestBody = """
+                { "doctorId": 20, "startTime": "2030-01-01T09:00:00", "endTime": "2030-01-01T09:30:00",
+                  "ttlSeconds": 90 }
+                """;
+
+        mockMvc.perform(post("/api/appointments/holds")
+                        .contentType("application/json")
+                        .content(requestBody))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.token").value("abc"))
+                .andExpect(jsonPath("$.doctorId").value(20));
+    }
+
+    @Test
+    void autoAssign_returnsCreatedWithChosenDoctor() throws Exception {
+        Doctor doctor = new Doctor();
+        doctor.setId(7L);
+        Appointment created = new Appointment();
+        created.setId(3L);
+        created.setDoctor(doctor);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+        given(autoAssignService.autoAssign(new AutoAssignRequest(10L, 2L, null, start, start.plusMinutes(30),
+                "Triaj"))).willReturn(created);
+
+        String requestBody = """
+                { "patientId": 10, "specialtyId": 2,
+                  "startTime": "2030-01-07T09:00:00", "endTime": "2030-01-07T09:30:00",
+                  "reason": "Triaj" }
+                """;
+
+        mockMvc.perform(post("/api/appointments/auto-assign")
+                        .contentType("application/json")
+                        .content(requestBody))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(3L))
+                .andExpect(jsonPath("$.doctor.id").value(7L));
+    }
+
+    @Test
+    void exportAppointments_streamsNdjson() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+        willAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(exportService).exportAppointments(eq(from), eq(to), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/appointments/export")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-02-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+        verify(exportService).validateRange(from, to);
+    }
+
+    @Test
+    void searchAppointments_bindsFiltersAndReturnsMatches() throws Exception {
+        Appointment a = new Appointment();
+        a.setId(3L);
+        a.setStatus(AppointmentStatus.SCHEDULED);
+        AppointmentSearch expected = new AppointmentSearch(20L, null, null, AppointmentStatus.SCHEDULED,
+                LocalDateTime.of(2030, 1, 1, 0, 0), LocalDateTime.of(2030, 2, 1, 0, 0));
+        given(appointmentService.searchAppointments(eq(expected), eq(true), isNull())).willReturn(List.of(a));
+
+        mockMvc.perform(get("/api/appointments/search")
+                        .param("doctorId", "20")
+                        .param("status", "SCHEDULED")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-02-01T00:00:00")
+                        .param("order", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3L))
+                .andExpect(jsonPath("$[0].status").value("SCHEDULED"));
+    }
+
+    @Test
+    void streamChanges_opensEventStreamForDoctor() throws Exception {
+        given(changeBus.subscribe(20L)).willReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/appointments/stream").param("doctorId", "20"))
+                .andExpect(request().asyncStarted());
+
+        verify(changeBus).subscribe(20L);
+    }
+
+    @Test
+    void deleteAppointment_returnsNoContent() throws Exception {
+        mockMvc.perform(delete("/api/appointments/1"))
+                .andExpect(status().isNoContent());
+
+        verify(appointmentService).deleteAppointment(1L);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.clinic_appointments.controller;
+
+import com.example.clinic_appointments.dto.SeriesOccurrence;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.service.AppointmentSeriesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AppointmentSeriesController.class)
+class AppointmentSeriesControllerTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AppointmentSeriesService seriesService;
+
+    @Test
+    void getOccurrences_returnsVirtualAndMaterialized() throws Exception {
+        given(seriesService.getOccurrences(7L, MONDAY, MONDAY.plusDays(14))).willReturn(List.of(
+                new SeriesOccurrence(7L, MONDAY, MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), null,
+                        AppointmentStatus.SCHEDULED),
+                new SeriesOccurrence(7L, MONDAY.plusWeeks(1), MONDAY.plusWeeks(1).atTime(11, 0),
+                        MONDAY.plusWeeks(1).atTime(11, 30), 50L, AppointmentStatus.SCHEDULED)));
+
+        mockMvc.perform(get("/api/series/7/occurrences")
+                        .param("from", "2030-01-07")
+                        .param("to", "2030-01-21"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].occurrenceDate").value("2030-01-07"))
+                .andExpect(jsonPath("$[0].appointmentId").doesNotExist())
+                .andExpect(jsonPath("$[1].appointmentId").value(50L));
+    }
+
+    @Test
+    void checkInOccurrence_returnsMaterializedAppointment() throws Exception {
+        Appointment appointment = new Appointment();
+        appointment.setId(60L);
+        appointment.setSeriesId(7L);
+        appointment.setOccurrenceDate(MONDAY);
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        given(seriesService.checkInOccurrence(7L, MONDAY)).willReturn(appointment);
+
+        mockMvc.perform(post("/api/series/7/occurrences/2030-01-07/check-in"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(60L))
+                .andExpect(jsonPath("$.seriesId").value(7L))
+                .andExpect(jsonPath("$.occurrenceDate").value("2030-01-07"));
+    }
+
+    @Test
+    void cancelOccurrence_returnsNoContent() throws Exception {
+        mockMvc.perform(delete("/api/series/7/occurrences/2030-01-14"))
+                .andExpect(status().isNoContent());
+
+        verify(seriesService).cancelOccurrence(7L, MONDAY.plusWeeks(1));
+    }
+}
@@ -1,13 +1,28 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CalendarEntry;
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.DoctorCalendar;
+import com.example.clinic_appointments.dto.DoctorOccupancy;
+import com.example.clinic_appointments.dto.RescheduleMove;
+import com.example.clinic_appointments.dto.ReschedulePlan;
+import com.example.clinic_appointments.dto.RescheduleRequest;
+import com.example.clinic_appointments.dto.TimeSlot;
+import com.example.clinic_appointments.model.AppointmentStatus;
 import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.service.DoctorCalendarService;
+import com.example.clinic_appointments.service.DoctorOccupancyTracker;
 import com.example.clinic_appointments.service.DoctorService;
+import com.example.clinic_appointments.service.FreeSlotService;
+import com.example.clinic_appointments.service.RescheduleService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -25,6 +40,18 @@ class DoctorControllerTest {
     @MockitoBean
     private DoctorService doctorService;
 
+    @MockitoBean
+    private FreeSlotService freeSlotService;
+
+    @MockitoBean
+    private DoctorCalendarService calendarService;
+
+    @MockitoBean
+    private DoctorOccupancyTracker occupancyTracker;
+
+    @MockitoBean
+    private RescheduleService rescheduleService;
+
     @Test
     void getAllDoctors_returnsList() throws Exception {
         Doctor d1 = new Doctor();
@@ -32,12 +59,13 @@ class DoctorControllerTest {
         d1.setFirstName("Ana");
         d1.setLastName("Popescu");
 
-        given(doctorService.getAllDoctors()).willReturn(List.of(d1));
+        given(doctorService.getDoctorsPage(null, null))
+                .willReturn(new CursorPage<>(List.of(d1), null));
 
         mockMvc.perform(get("/api/doctors"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].firstName").value("Ana"));
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[0].firstName").value("Ana"));
     }
 
     @Test
@@ -125,4 +153,84 @@ class DoctorControllerTest {
 
         verify(doctorService).deleteDoctor(1L);
     }
+
+    @Test
+    void getFreeSlots_returnsSlots() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 13, 0, 0);
+
+        given(freeSlotService.getFreeSlots(1L, from, to, 30)).willReturn(List.of(
+                new TimeSlot(LocalDateTime.of(2025, 1, 6, 9, 0), LocalDateTime.of(2025, 1, 6, 9, 30))));
+
+        mockMvc.perform(get("/api/doctors/1/free-slots")
+                        .param("from", "2025-01-06T00:00:00")
+                        .param("to", "2025-01-13T00:00:00")
+                        .param("duration", "30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].startTime").value("2025-01-06T09:00:00"))
+                .andExpect(jsonPath("$[0].endTime").value("2025-01-06T09:30:00"));
+    }
+
+    @Test
+    void getCalendar_returnsAvailabilityAndCompactEntries() throws Exception {
+        LocalDateTime nine = LocalDateTime.of(2026, 10, 12, 9, 0);
+        given(calendarService.getCalendar(1L, "2026-W42")).willReturn(new DoctorCalendar(
+                1L, "2026-W42", LocalDate.of(2026, 10, 12),
+                List.of(new TimeSlot(nine, nine.plusHours(4))),
+                List.of(new CalendarEntry(5L, nine, nine.plusMinutes(30), AppointmentStatus.SCHEDULED,
+                        "Ana Popescu", "Cabinet 101"))));
+
+        mockMvc.perform(get("/api/doctors/1/calendar").param("week", "2026-W42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weekStart").value("2026-10-12"))
+                .andExpect(jsonPath("$.availability[0].endTime").value("2026-10-12T13:00:00"))
+                .andExpect(jsonPath("$.appointments[0].patientName").value("Ana Popescu"))
+                .andExpect(jsonPath("$.appointments[0].roomName").value("Cabinet 101"));
+    }
+
+    @Test
+    void getOccupancy_returnsCountersPerDoctor() throws Exception {
+        LocalDate monday = LocalDate.of(2026, 10, 12);
+        given(occupancyTracker.getOccupancy(monday, 7)).willReturn(List.of(
+                DoctorOccupancy.of(1L, monday, monday.plusDays(6), 600, 20, 1200)));
+
+        mockMvc.perform(get("/api/doctors/occupancy").param("date", "2026-10-12").param("days", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].doctorId").value(1L))
+                .andExpect(jsonPath("$[0].to").value("2026-10-18"))
+                .andExpect(jsonPath("$[0].bookedMinutes").value(600))
+                .andExpect(jsonPath("$[0].appointmentCount").value(20))
+                .andExpect(jsonPath("$[0].utilization").value(0.5));
+    }
+
+    @Test
+    void reschedule_returnsMappingAndUnplaced() throws Exception {
+        LocalDateTime nine = LocalDateTime.of(2026, 10, 12, 9, 0);
+        LocalDateTime nextDay = nine.plusDays(1);
+        RescheduleRequest request = new RescheduleRequest(nine.toLocalDate().atStartOfDay(),
+                nine.toLocalDate().plusDays(1).atStartOfDay(), nextDay.toLocalDate().atStartOfDay(),
+                nextDay.toLocalDate().plusDays(1).atStartOfDay(), 2L, true);
+        given(rescheduleService.reschedule(1L, request)).willReturn(new ReschedulePlan(1L, 2L, false,
+                List.of(new RescheduleMove(5L, nine, nine.plusMinutes(30), 2L, nextDay, nextDay.plusMinutes(30),
+                        3L, 3L, null, null)),
+                List.of(6L), List.of()));
+
+        mockMvc.perform(post("/api/doctors/1/reschedule")
+                        .contentType("application/json")
+                        .content("""
+                                {
+                                  "sourceFrom": "2026-10-12T00:00:00",
+                                  "sourceTo": "2026-10-13T00:00:00",
+                                  "targetFrom": "2026-10-13T00:00:00",
+                                  "targetTo": "2026-10-14T00:00:00",
+                                  "substituteDoctorId": 2,
+                                  "dryRun": true
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(false))
+                .andExpect(jsonPath("$.moves[0].appointmentId").value(5L))
+                .andExpect(jsonPath("$.moves[0].startTime").value("2026-10-13T09:00:00"))
+                .andExpect(jsonPath("$.unplaced[0]").value(6L));
+    }
 }
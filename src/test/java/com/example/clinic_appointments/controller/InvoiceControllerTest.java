@@ -1,9 +1,13 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.InvoiceResponse;
+import com.example.clinic_appointments.exception.ConcurrentUpdateException;
 import com.example.clinic_appointments.model.Appointment;
 import com.example.clinic_appointments.model.Invoice;
 import com.example.clinic_appointments.model.InvoiceStatus;
 import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.service.ExportService;
 import com.example.clinic_appointments.service.InvoiceService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +34,9 @@ class InvoiceControllerTest {
     @MockitoBean
     private InvoiceService invoiceService;
 
+    @MockitoBean
+    private ExportService exportService;
+
     @Test
     void getAllInvoices_returnsList() throws Exception {
         Invoice i1 = new Invoice();
@@ -37,12 +44,13 @@ class InvoiceControllerTest {
         i1.setAmount(BigDecimal.valueOf(100));
         i1.setCurrency("RON");
 
-        given(invoiceService.getAllInvoices()).willReturn(List.of(i1));
+        given(invoiceService.getInvoicesPage(null, null))
+                .willReturn(new CursorPage<>(List.of(i1), null));
 
         mockMvc.perform(get("/api/invoices"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].amount").value(100));
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[0].amount").value(100));
     }
 
     @Test
@@ -162,6 +170,37 @@ class InvoiceControllerTest {
                 .andExpect(jsonPath("$.appointment.id").value(20));
     }
 
+    @Test
+    void updateInvoice_concurrentUpdate_returnsConflictWithCurrentState() throws Exception {
+        Invoice current = new Invoice();
+        current.setId(1L);
+        current.setAmount(BigDecimal.valueOf(150));
+        current.setCurrency("RON");
+        current.setVersion(4L);
+
+        given(invoiceService.updateInvoice(any(Long.class), any(Invoice.class)))
+                .willThrow(new ConcurrentUpdateException("Invoice 1 is at version 4, update was based on version 3",
+                        InvoiceResponse.from(current)));
+
+        String requestBody = """
+        {
+          "patient": { "id": 10 },
+          "amount": 300,
+          "currency": "EUR",
+          "issueDate": "2025-02-01",
+          "status": "PAID",
+          "version": 3
+        }
+        """;
+
+        mockMvc.perform(put("/api/invoices/1")
+                        .contentType("application/json")
+                        .content(requestBody))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.current.version").value(4))
+                .andExpect(jsonPath("$.current.amount").value(150));
+    }
+
     @Test
     void deleteInvoice_returnsNoContent() throws Exception {
         mockMvc.perform(delete("/api/invoices/1"))
@@ -1,6 +1,10 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
 import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.service.AppointmentService;
 import com.example.clinic_appointments.service.PatientService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +13,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.BDDMockito.given;
@@ -28,6 +33,9 @@ class PatientControllerTest {
     @MockitoBean
     private PatientService patientService;
 
+    @MockitoBean
+    private AppointmentService appointmentService;
+
     @Test
     void getAllPatients_returnsList() throws Exception {
         Patient p1 = new Patient();
@@ -38,12 +46,13 @@ class PatientControllerTest {
         p1.setPhone("123456");
         p1.setDateOfBirth(LocalDate.of(1990, 1, 1));
 
-        given(patientService.getAllPatients()).willReturn(List.of(p1));
+        given(patientService.getPatientsPage(null, null))
+                .willReturn(new CursorPage<>(List.of(p1), null));
 
         mockMvc.perform(get("/api/patients"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].firstName").value("John"));
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[0].firstName").value("John"));
     }
 
     @Test
@@ -76,4 +85,31 @@ class PatientControllerTest {
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.firstName").value("John"));
     }
+
+    @Test
+    void getPatientHistory_returnsAppointmentsNewestFirst() throws Exception {
+        Patient patient = new Patient();
+        patient.setId(1L);
+
+        Appointment recent = new Appointment();
+        recent.setId(7L);
+        recent.setPatient(patient);
+        recent.setStartTime(LocalDateTime.of(2030, 1, 1, 9, 0));
+        recent.setStatus(AppointmentStatus.SCHEDULED);
+
+        Appointment archived = new Appointment();
+        archived.setId(5L);
+        archived.setPatient(patient);
+        archived.setStartTime(LocalDateTime.of(2015, 3, 2, 9, 0));
+        archived.setStatus(AppointmentStatus.COMPLETED);
+
+        given(appointmentService.getPatientHistory(1L)).willReturn(List.of(recent, archived));
+
+        mockMvc.perform(get("/api/patients/1/appointments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7L))
+                .andExpect(jsonPath("$[1].id").value(5L))
+                .andExpect(jsonPath("$[1].patient.id").value(1L))
+                .andExpect(jsonPath("$[1].status").value("COMPLETED"));
+    }
 }
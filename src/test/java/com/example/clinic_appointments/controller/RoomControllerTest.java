@@ -1,6 +1,11 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.OccupiedInterval;
+import com.example.clinic_appointments.dto.RoomAssignment;
+import com.example.clinic_appointments.dto.RoomPlan;
 import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.service.RoomAllocationService;
 import com.example.clinic_appointments.service.RoomService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,10 +13,14 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,6 +34,9 @@ class RoomControllerTest {
     @MockitoBean
     private RoomService roomService;
 
+    @MockitoBean
+    private RoomAllocationService allocationService;
+
     @Test
     void getAllRooms_returnsList() throws Exception {
         Room r1 = new Room();
@@ -33,14 +45,15 @@ class RoomControllerTest {
         r1.setFloor("1");
         r1.setDescription("General");
 
-        given(roomService.getAllRooms()).willReturn(List.of(r1));
+        given(roomService.getRoomsPage(null, null))
+                .willReturn(new CursorPage<>(List.of(r1), null));
 
         mockMvc.perform(get("/api/rooms"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].name").value("Room A"))
-                .andExpect(jsonPath("$[0].floor").value("1"))
-                .andExpect(jsonPath("$[0].description").value("General"));
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[0].name").value("Room A"))
+                .andExpect(jsonPath("$.items[0].floor").value("1"))
+                .andExpect(jsonPath("$.items[0].description").value("General"));
     }
 
     @Test
@@ -61,6 +74,22 @@ class RoomControllerTest {
                 .andExpect(jsonPath("$.description").value("General"));
     }
 
+    @Test
+    void getRoomOccupancy_returnsIntervals() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 8, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 18, 0);
+
+        given(roomService.getOccupancy(1L, from, to)).willReturn(List.of(
+                new OccupiedInterval(7L, LocalDateTime.of(2025, 1, 1, 9, 0), LocalDateTime.of(2025, 1, 1, 9, 30))));
+
+        mockMvc.perform(get("/api/rooms/1/occupancy")
+                        .param("from", "2025-01-01T08:00:00")
+                        .param("to", "2025-01-01T18:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].appointmentId").value(7L))
+                .andExpect(jsonPath("$[0].startTime").value("2025-01-01T09:00:00"));
+    }
+
     @Test
     void createRoom_returnsCreated() throws Exception {
         Room created = new Room();
@@ -125,4 +154,31 @@ class RoomControllerTest {
 
         verify(roomService).deleteRoom(1L);
     }
+
+    @Test
+    void previewAllocation_returnsPlanWithoutApplying() throws Exception {
+        LocalDate day = LocalDate.of(2030, 1, 7);
+        LocalDateTime nine = day.atTime(9, 0);
+        given(allocationService.plan(day, false)).willReturn(new RoomPlan(day, false, 1, 1, List.of(8L),
+                List.of(new RoomAssignment(5L, nine, nine.plusMinutes(30), null, 2L),
+                        new RoomAssignment(8L, nine, nine.plusMinutes(30), null, null))));
+
+        mockMvc.perform(get("/api/rooms/allocation").param("date", "2030-01-07").param("keepExisting", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(false))
+                .andExpect(jsonPath("$.roomsUsed").value(1))
+                .andExpect(jsonPath("$.unassigned[0]").value(8L))
+                .andExpect(jsonPath("$.assignments[0].roomId").value(2L));
+        verify(allocationService, never()).apply(any(), anyBoolean());
+    }
+
+    @Test
+    void applyAllocation_savesPlan() throws Exception {
+        LocalDate day = LocalDate.of(2030, 1, 7);
+        given(allocationService.apply(day, true)).willReturn(new RoomPlan(day, true, 0, 0, List.of(), List.of()));
+
+        mockMvc.perform(post("/api/rooms/allocation").param("date", "2030-01-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(true));
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.clinic_appointments.controller;
 
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.DoctorSlot;
 import com.example.clinic_appointments.model.Specialty;
+import com.example.clinic_appointments.service.SpecialtyAvailabilityService;
 import com.example.clinic_appointments.service.SpecialtyService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +11,7 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -25,6 +29,9 @@ class SpecialtyControllerTest {
     @MockitoBean
     private SpecialtyService specialtyService;
 
+    @MockitoBean
+    private SpecialtyAvailabilityService specialtyAvailabilityService;
+
     @Test
     void getAllSpecialties_returnsList() throws Exception {
         Specialty s1 = new Specialty();
@@ -32,13 +39,14 @@ class SpecialtyControllerTest {
         s1.setName("Cardiology");
         s1.setDescription("Heart related");
 
-        given(specialtyService.getAllSpecialties()).willReturn(List.of(s1));
+        given(specialtyService.getSpecialtiesPage(null, null))
+                .willReturn(new CursorPage<>(List.of(s1), null));
 
         mockMvc.perform(get("/api/specialties"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].name").value("Cardiology"))
-                .andExpect(jsonPath("$[0].description").value("Heart related"));
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[0].name").value("Cardiology"))
+                .andExpect(jsonPath("$.items[0].description").value("Heart related"));
     }
 
     @Test
@@ -115,4 +123,22 @@ class SpecialtyControllerTest {
 
         verify(specialtyService).deleteSpecialty(1L);
     }
+
+    @Test
+    void getNextAvailable_returnsSlotsAcrossDoctors() throws Exception {
+        LocalDateTime after = LocalDateTime.of(2025, 1, 6, 14, 0);
+
+        given(specialtyAvailabilityService.findNextAvailable(1L, after, 20, 2)).willReturn(List.of(
+                new DoctorSlot(3L, "Ana Popescu", after, after.plusMinutes(20)),
+                new DoctorSlot(4L, "Ion Ionescu", after.plusMinutes(10), after.plusMinutes(30))));
+
+        mockMvc.perform(get("/api/specialties/1/next-available")
+                        .param("after", "2025-01-06T14:00:00")
+                        .param("duration", "20")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].doctorId").value(3L))
+                .andExpect(jsonPath("$[1].doctorId").value(4L))
+                .andExpect(jsonPath("$[1].startTime").value("2025-01-06T14:10:00"));
+    }
 }
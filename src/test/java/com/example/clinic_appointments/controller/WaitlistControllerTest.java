@@ -0,0 +1,87 @@
+package com.example.clinic_appointments.controller;
+
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.WaitlistEntry;
+import com.example.clinic_appointments.service.WaitlistService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(WaitlistController.class)
+class WaitlistControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private WaitlistService waitlistService;
+
+    private static WaitlistEntry entry() {
+        Patient patient = new Patient();
+        patient.setId(10L);
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(1L);
+        entry.setPatient(patient);
+        entry.setDoctor(doctor);
+        entry.setPreferredFrom(LocalDateTime.of(2030, 1, 7, 8, 0));
+        entry.setPreferredTo(LocalDateTime.of(2030, 1, 7, 12, 0));
+        entry.setPriority(3);
+        entry.setReason("Control");
+        return entry;
+    }
+
+    @Test
+    void enqueue_returnsCreated() throws Exception {
+        given(waitlistService.enqueue(any(WaitlistEntry.class))).willReturn(entry());
+
+        String requestBody = """
+                {
+                  "patient": { "id": 10 },
+                  "doctor": { "id": 20 },
+                  "preferredFrom": "2030-01-07T08:00:00",
+                  "preferredTo": "2030-01-07T12:00:00",
+                  "priority": 3,
+                  "reason": "Control"
+                }
+                """;
+
+        mockMvc.perform(post("/api/waitlist")
+                        .contentType("application/json")
+                        .content(requestBody))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.status").value("WAITING"));
+    }
+
+    @Test
+    void getWaiting_returnsEntriesForDoctor() throws Exception {
+        given(waitlistService.getWaiting(20L)).willReturn(List.of(entry()));
+
+        mockMvc.perform(get("/api/waitlist").param("doctorId", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].priority").value(3));
+    }
+
+    @Test
+    void cancel_returnsNoContent() throws Exception {
+        mockMvc.perform(delete("/api/waitlist/1"))
+                .andExpect(status().isNoContent());
+
+        verify(waitlistService).cancel(1L);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.clinic_appointments.event;
+
+import com.example.clinic_appointments.model.AppointmentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppointmentChangeBusTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    // retine evenimentele trimise in loc sa scrie pe o conexiune
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<AppointmentChange> sent = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(AppointmentChange.class::isInstance)
+                    .map(AppointmentChange.class::cast)
+                    .forEach(sent::add);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    private static AppointmentSnapshot snapshot(Long doctorId, AppointmentStatus status) {
+        return new AppointmentSnapshot(5L, 11L, doctorId, null, NINE, NINE.plusMinutes(30), status, null);
+    }
+
+    @Test
+    void event_reachesOnlySubscribersOfThatDoctor() {
+        AppointmentChangeBus bus = new AppointmentChangeBus(new SimpleMeterRegistry(), Runnable::run, 8,
+                Duration.ofMinutes(1));
+        RecordingEmitter doctor20 = new RecordingEmitter();
+        RecordingEmitter doctor30 = new RecordingEmitter();
+        RecordingEmitter everyone = new RecordingEmitter();
+        bus.subscribe(20L, doctor20);
+        bus.subscribe(30L, doctor30);
+        bus.subscribe(null, everyone);
+
+        bus.onAppointmentEvent(new AppointmentEvent(null, snapshot(20L, AppointmentStatus.SCHEDULED)));
+
+        assertThat(doctor20.sent).singleElement()
+                .satisfies(change -> assertThat(change.type()).isEqualTo(AppointmentChange.Type.CREATED));
+        assertThat(doctor30.sent).isEmpty();
+        assertThat(everyone.sent).hasSize(1);
+    }
+
+    @Test
+    void moveToAnotherDoctor_isSeenByBothDoctors() {
+        AppointmentChangeBus bus = new AppointmentChangeBus(new SimpleMeterRegistry(), Runnable::run, 8,
+                Duration.ofMinutes(1));
+        RecordingEmitter doctor20 = new RecordingEmitter();
+        RecordingEmitter doctor30 = new RecordingEmitter();
+        bus.subscribe(20L, doctor20);
+        bus.subscribe(30L, doctor30);
+
+        bus.onAppointmentEvent(new AppointmentEvent(
+                snapshot(20L, AppointmentStatus.SCHEDULED), snapshot(30L, AppointmentStatus.SCHEDULED)));
+
+        assertThat(doctor20.sent).extracting(AppointmentChange::type).containsExactly(AppointmentChange.Type.UPDATED);
+        assertThat(doctor30.sent).extracting(AppointmentChange::type).containsExactly(AppointmentChange.Type.UPDATED);
+    }
+
+    @Test
+    void slowSubscriber_isDroppedWhenBufferFills() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // trimiterea nu ruleaza niciodata: evenimentele raman in bufferul abonatului
+        List<Runnable> pending = new ArrayList<>();
+        AppointmentChangeBus bus = new AppointmentChangeBus(registry, pending::add, 2, Duration.ofMinutes(1));
+        RecordingEmitter slow = new RecordingEmitter();
+        bus.subscribe(20L, slow);
+
+        for (int i = 0; i < 3; i++) {
+            bus.onAppointmentEvent(new AppointmentEvent(null, snapshot(20L, AppointmentStatus.SCHEDULED)));
+        }
+
+        assertThat(slow.completed).isTrue();
+        assertThat(bus.subscriberCount()).isZero();
+        assertThat(registry.get("clinic.stream.dropped").counter().count()).isEqualTo(1);
+
+        // drenajul programat inainte nu mai trimite nimic dupa deconectare
+        pending.forEach(Runnable::run);
+        assertThat(slow.sent).isEmpty();
+    }
+}
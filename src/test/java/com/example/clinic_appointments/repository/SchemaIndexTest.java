@@ -0,0 +1,166 @@
+package com.example.clinic_appointments.repository;
+
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.InvoiceStatus;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Verifica pe H2 (schema generata din entitati) ca interogarile fierbinti merg pe indexul lor.
+// SQL-ul e cel generat de Hibernate pentru metodele din repository-uri, prins cu un
+// StatementInspector, apoi trecut prin EXPLAIN.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.clinic_appointments.repository.SchemaIndexTest$CapturingInspector"
+})
+class SchemaIndexTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 7, 8, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2030, 1, 7, 18, 0);
+
+    // instantiat de Hibernate dupa nume, deci statementele se strang intr-o lista statica
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private DoctorAvailabilityRepository availabilityRepository;
+
+    // H2 creeaza cate un index pentru fiecare cheie straina, Postgres nu; indexul H2 pe
+    // patient_id ar castiga in fata celui compus, deci scoatem FK-urile ca planul sa arate
+    // ce indexuri declarate ar folosi Postgres
+    @BeforeEach
+    void dropForeignKeys() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            List<String> drops = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery("""
+                    select table_name, constraint_name from information_schema.table_constraints
+                    where constraint_type = 'FOREIGN KEY' and table_schema = 'PUBLIC'
+                    """)) {
+                while (rows.next()) {
+                    drops.add("alter table \"" + rows.getString(1) + "\" drop constraint \""
+                            + rows.getString(2) + "\"");
+                }
+            }
+            for (String drop : drops) {
+                statement.execute(drop);
+            }
+        }
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    // planul H2 pentru ultimul select generat; parametrii nu conteaza pentru alegerea indexului
+    private String explainLastQuery() throws SQLException {
+        List<String> selects = CapturingInspector.STATEMENTS.stream()
+                .filter(sql -> sql.strip().toLowerCase().startsWith("select"))
+                .toList();
+        assertThat(selects).isNotEmpty();
+        String sql = selects.getLast();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = explain.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                explain.setNull(i, Types.NULL);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    @Test
+    void findByDoctorAndStartTimeBetween_usesDoctorStartIndex() throws SQLException {
+        appointmentRepository.findByDoctorAndStartTimeBetween(
+                entityManager.getReference(Doctor.class, 1L), FROM, TO);
+
+        assertThat(explainLastQuery()).doesNotContain("tableScan")
+                .containsIgnoringCase("idx_appointments_doctor_start");
+    }
+
+    @Test
+    void findByRoomAndStartTimeBetween_usesRoomStartIndex() throws SQLException {
+        appointmentRepository.findByRoomAndStartTimeBetween(entityManager.getReference(Room.class, 1L), FROM, TO);
+
+        assertThat(explainLastQuery()).doesNotContain("tableScan")
+                .containsIgnoringCase("idx_appointments_room_start");
+    }
+
+    @Test
+    void findByPatientIdOrderByStartTimeDesc_usesPatientStartIndex() throws SQLException {
+        appointmentRepository.findByPatientIdOrderByStartTimeDesc(1L);
+
+        assertThat(explainLastQuery()).doesNotContain("tableScan")
+                .containsIgnoringCase("idx_appointments_patient_start");
+    }
+
+    @Test
+    void findByPatientAndStatus_usesPatientStatusIndex() throws SQLException {
+        invoiceRepository.findByPatientAndStatus(entityManager.getReference(Patient.class, 1L), InvoiceStatus.UNPAID);
+
+        assertThat(explainLastQuery()).doesNotContain("tableScan")
+                .containsIgnoringCase("idx_invoices_patient_status");
+    }
+
+    @Test
+    void findByDoctorAndDayOfWeek_usesDoctorDayIndex() throws SQLException {
+        availabilityRepository.findByDoctorAndDayOfWeek(entityManager.getReference(Doctor.class, 1L),
+                DayOfWeek.MONDAY);
+
+        assertThat(explainLastQuery()).doesNotContain("tableScan")
+                .containsIgnoringCase("idx_availabilities_doctor_day");
+    }
+
+    @Test
+    void findOldestEndTime_usesStatusEndIndex() throws SQLException {
+        appointmentRepository.findOldestEndTime(AppointmentStatus.SCHEDULED, FROM);
+
+        assertThat(explainLastQuery()).doesNotContain("tableScan")
+                .containsIgnoringCase("idx_appointments_status_end");
+    }
+}
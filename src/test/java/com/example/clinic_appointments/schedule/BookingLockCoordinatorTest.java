@@ -0,0 +1,105 @@
+package com.example.clinic_appointments.schedule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingLockCoordinatorTest {
+
+    @Test
+    void withLocks_sameDoctor_runsOneBookingAtATime() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BookingLockCoordinator coordinator = new BookingLockCoordinator(registry);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                // camere diferite, acelasi doctor
+                long roomId = i;
+                futures.add(executor.submit(() -> coordinator.withLocks(7L, roomId, () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    Thread.onSpinWait();
+                    inside.decrementAndGet();
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxInside.get()).isEqualTo(1);
+        assertThat(registry.get("clinic.booking.lock.wait").timer().count()).isEqualTo(32);
+    }
+
+    @Test
+    void withLocks_differentDoctors_doNotBlockEachOther() throws Exception {
+        BookingLockCoordinator coordinator = new BookingLockCoordinator(new SimpleMeterRegistry());
+        long other = 8L;
+        while (BookingLockCoordinator.stripeOf(other, 0) == BookingLockCoordinator.stripeOf(7L, 0)) {
+            other++;
+        }
+        long otherDoctor = other;
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> coordinator.withLocks(7L, null, () -> {
+            holding.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        try {
+            assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // doctorul 7 e blocat, dar alt doctor isi face rezervarea imediat
+            String result = coordinator.withLocks(otherDoctor, null, () -> "booked");
+            assertThat(result).isEqualTo("booked");
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    void withLocks_overlappingResourceSets_acquireInSameOrder() throws Exception {
+        BookingLockCoordinator coordinator = new BookingLockCoordinator(new SimpleMeterRegistry());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // ordinea inversa a resurselor nu trebuie sa produca deadlock
+            Future<?> first = executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    coordinator.withLocks(List.of(1L, 2L), List.of(3L), () -> null);
+                }
+            });
+            Future<?> second = executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    coordinator.withLocks(List.of(2L, 1L), List.of(3L), () -> null);
+                }
+            });
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
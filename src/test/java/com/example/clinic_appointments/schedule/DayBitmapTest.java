@@ -0,0 +1,46 @@
+package com.example.clinic_appointments.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayBitmapTest {
+
+    private static List<String> slots(DayBitmap bitmap, int duration) {
+        List<String> result = new ArrayList<>();
+        bitmap.forEachSlot(duration, (start, end) -> result.add(start + "-" + end));
+        return result;
+    }
+
+    @Test
+    void forEachSlot_splitsFreeWindowsAroundBusyIntervals() {
+        DayBitmap bitmap = new DayBitmap();
+        bitmap.markAvailable(9 * 60, 11 * 60);
+        bitmap.markBusy(9 * 60 + 30, 10 * 60);
+
+        assertThat(slots(bitmap, 30)).containsExactly("540-570", "600-630", "630-660");
+    }
+
+    @Test
+    void markBusy_roundsOutwardAndMarkAvailableRoundsInward() {
+        DayBitmap bitmap = new DayBitmap();
+        bitmap.markAvailable(9 * 60 + 2, 10 * 60 + 3);   // 09:05 - 10:00
+        bitmap.markBusy(9 * 60 + 31, 9 * 60 + 34);        // ocupa felia 09:30 - 09:35
+
+        assertThat(bitmap.isFree(9 * 60 + 5, 9 * 60 + 30)).isTrue();
+        assertThat(bitmap.isFree(9 * 60 + 30, 9 * 60 + 35)).isFalse();
+        assertThat(bitmap.freeMinutes()).isEqualTo(50);
+    }
+
+    @Test
+    void forEachSlot_skipsWindowsShorterThanDuration() {
+        DayBitmap bitmap = new DayBitmap();
+        bitmap.markAvailable(8 * 60, 8 * 60 + 20);
+        bitmap.markAvailable(23 * 60, DayBitmap.MINUTES_PER_DAY);
+
+        assertThat(slots(bitmap, 30)).containsExactly("1380-1410", "1410-1440");
+    }
+}
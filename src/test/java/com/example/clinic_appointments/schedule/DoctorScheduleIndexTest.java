@@ -0,0 +1,114 @@
+package com.example.clinic_appointments.schedule;
+
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorScheduleIndexTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @InjectMocks
+    private DoctorScheduleIndex index;
+
+    private static Appointment appointment(long id, Doctor doctor, LocalDateTime start, int minutes) {
+        Appointment a = new Appointment();
+        a.setId(id);
+        a.setDoctor(doctor);
+        a.setStartTime(start);
+        a.setEndTime(start.plusMinutes(minutes));
+        a.setStatus(AppointmentStatus.SCHEDULED);
+        return a;
+    }
+
+    @Test
+    void findConflict_loadsDoctorOnceAndAnswersFromMemory() {
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        LocalDateTime nine = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+        when(doctorRepository.getReferenceById(20L)).thenReturn(doctor);
+        when(appointmentRepository.findByDoctorAndStartTimeBetween(any(), any(), any()))
+                .thenReturn(List.of(appointment(1L, doctor, nine, 30)));
+
+        assertThat(index.findConflict(20L, nine.plusMinutes(15), nine.plusMinutes(45), null)).contains(1L);
+        assertThat(index.findConflict(20L, nine.plusMinutes(30), nine.plusMinutes(60), null)).isEmpty();
+
+        verify(appointmentRepository, times(1)).findByDoctorAndStartTimeBetween(any(), any(), any());
+    }
+
+    @Test
+    void register_cancelledAppointmentFreesSlot() {
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        LocalDateTime nine = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+        when(doctorRepository.getReferenceById(20L)).thenReturn(doctor);
+        when(appointmentRepository.findByDoctorAndStartTimeBetween(any(), any(), any())).thenReturn(List.of());
+
+        Appointment booked = appointment(5L, doctor, nine, 30);
+        index.register(booked);
+        assertThat(index.findConflict(20L, nine, nine.plusMinutes(30), null)).contains(5L);
+
+        booked.setStatus(AppointmentStatus.CANCELLED);
+        index.register(booked);
+        assertThat(index.findConflict(20L, nine, nine.plusMinutes(30), null)).isEmpty();
+    }
+
+    @Test
+    void changesRegisteredWhileLoadingWinOverTheRowsLoaded() {
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        LocalDateTime nine = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+        when(doctorRepository.getReferenceById(20L)).thenReturn(doctor);
+        // interogarea a citit programarile 1 si 2 active; pana sa le puna in index, 1 e anulata
+        // si 2 stearsa de alte thread-uri
+        when(appointmentRepository.findByDoctorAndStartTimeBetween(any(), any(), any())).thenAnswer(invocation -> {
+            Appointment cancelled = appointment(1L, doctor, nine, 30);
+            cancelled.setStatus(AppointmentStatus.CANCELLED);
+            index.register(cancelled);
+            index.remove(2L);
+            return List.of(appointment(1L, doctor, nine, 30), appointment(2L, doctor, nine.plusHours(1), 30),
+                    appointment(3L, doctor, nine.plusHours(2), 30));
+        });
+
+        assertThat(index.findConflict(20L, nine, nine.plusMinutes(30), null)).isEmpty();
+        assertThat(index.findConflict(20L, nine.plusHours(1), nine.plusHours(1).plusMinutes(30), null)).isEmpty();
+        assertThat(index.findConflict(20L, nine.plusHours(2), nine.plusHours(2).plusMinutes(30), null)).contains(3L);
+    }
+
+    @Test
+    void remove_dropsAppointmentById() {
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        LocalDateTime nine = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+        when(doctorRepository.getReferenceById(20L)).thenReturn(doctor);
+        when(appointmentRepository.findByDoctorAndStartTimeBetween(any(), any(), any())).thenReturn(List.of());
+
+        index.register(appointment(5L, doctor, nine, 30));
+        index.remove(5L);
+
+        assertThat(index.findConflict(20L, nine, nine.plusMinutes(30), null)).isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.clinic_appointments.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IndexedMinHeapTest {
+
+    private static List<Long> drain(IndexedMinHeap heap) {
+        List<Long> order = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            order.add(heap.poll());
+        }
+        return order;
+    }
+
+    @Test
+    void pollsInPriorityOrderWithKeyAsTieBreak() {
+        IndexedMinHeap heap = new IndexedMinHeap();
+        heap.put(3, 0.5);
+        heap.put(1, 0.2);
+        heap.put(2, 0.5);
+        heap.put(4, Double.POSITIVE_INFINITY);
+
+        assertThat(heap.peek()).isEqualTo(1);
+        assertThat(drain(heap)).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void updatingPriorityMovesKeyBothWays() {
+        IndexedMinHeap heap = new IndexedMinHeap();
+        for (long key = 1; key <= 5; key++) {
+            heap.put(key, key);
+        }
+
+        heap.put(5, 0);
+        heap.put(1, 10);
+
+        assertThat(heap.priorityOf(5)).isZero();
+        assertThat(heap.size()).isEqualTo(5);
+        assertThat(drain(heap)).containsExactly(5L, 2L, 3L, 4L, 1L);
+    }
+
+    @Test
+    void removeKeepsHeapOrder() {
+        IndexedMinHeap heap = new IndexedMinHeap();
+        for (long key = 1; key <= 7; key++) {
+            heap.put(key, 8 - key);
+        }
+
+        assertThat(heap.remove(4)).isTrue();
+        assertThat(heap.remove(4)).isFalse();
+        assertThat(heap.contains(4)).isFalse();
+        assertThat(drain(heap)).containsExactly(7L, 6L, 5L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void matchesSortedOrderAfterRandomUpdates() {
+        Random random = new Random(42);
+        IndexedMinHeap heap = new IndexedMinHeap();
+        double[] expected = new double[100];
+        for (int round = 0; round < 1_000; round++) {
+            int key = random.nextInt(100);
+            expected[key] = random.nextInt(20);
+            heap.put(key, expected[key]);
+        }
+
+        List<Long> order = drain(heap);
+
+        for (int i = 1; i < order.size(); i++) {
+            long previous = order.get(i - 1);
+            long current = order.get(i);
+            assertThat(expected[(int) previous] < expected[(int) current]
+                    || (expected[(int) previous] == expected[(int) current] && previous < current)).isTrue();
+        }
+    }
+
+    @Test
+    void emptyHeapThrowsOnPoll() {
+        assertThatThrownBy(() -> new IndexedMinHeap().poll()).isInstanceOf(IllegalStateException.class);
+    }
+}
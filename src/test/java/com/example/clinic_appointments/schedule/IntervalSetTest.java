@@ -0,0 +1,70 @@
+package com.example.clinic_appointments.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalSetTest {
+
+    @Test
+    void findOverlap_touchingIntervalsDoNotOverlap() {
+        IntervalSet set = new IntervalSet();
+        set.put(new Interval(1L, 600, 630));
+
+        assertThat(set.findOverlap(630, 660, null)).isEmpty();
+        assertThat(set.findOverlap(570, 600, null)).isEmpty();
+        assertThat(set.findOverlap(620, 640, null)).hasValue(1L);
+    }
+
+    @Test
+    void findOverlap_findsLongIntervalStartingBeforeShorterOnes() {
+        IntervalSet set = new IntervalSet();
+        // date vechi cu o suprapunere deja existenta
+        set.put(new Interval(1L, 0, 240));
+        set.put(new Interval(2L, 30, 60));
+
+        assertThat(set.findOverlap(120, 150, null)).hasValue(1L);
+    }
+
+    @Test
+    void findOverlap_ignoresExcludedId() {
+        IntervalSet set = new IntervalSet();
+        set.put(new Interval(1L, 600, 630));
+
+        assertThat(set.findOverlap(600, 630, 1L)).isEmpty();
+    }
+
+    @Test
+    void put_sameIdReplacesPreviousInterval() {
+        IntervalSet set = new IntervalSet();
+        set.put(new Interval(1L, 600, 630));
+        set.put(new Interval(1L, 700, 730));
+
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.findOverlap(600, 630, null)).isEmpty();
+        assertThat(set.findOverlap(700, 730, null)).hasValue(1L);
+    }
+
+    @Test
+    void remove_freesInterval() {
+        IntervalSet set = new IntervalSet();
+        set.put(new Interval(1L, 600, 630));
+
+        assertThat(set.remove(1L)).isTrue();
+        assertThat(set.findOverlap(600, 630, null)).isEmpty();
+        assertThat(set.remove(1L)).isFalse();
+    }
+
+    @Test
+    void overlapping_returnsIntervalsInStartOrder() {
+        IntervalSet set = new IntervalSet();
+        set.put(new Interval(3L, 700, 730));
+        set.put(new Interval(1L, 600, 630));
+        set.put(new Interval(2L, 640, 660));
+        set.put(new Interval(4L, 800, 830));
+
+        assertThat(set.overlapping(620, 720))
+                .extracting(Interval::id)
+                .containsExactly(1L, 2L, 3L);
+    }
+}
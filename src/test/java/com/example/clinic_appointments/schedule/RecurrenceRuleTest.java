@@ -0,0 +1,68 @@
+package com.example.clinic_appointments.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecurrenceRuleTest {
+
+    // 2030-01-07 este luni
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private static List<LocalDate> occurrences(String rule, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        RecurrenceRule.parse(rule, MONDAY).forEach(MONDAY, from, to, dates::add);
+        return dates;
+    }
+
+    @Test
+    void weeklyByDayWithCount_stopsAfterCountOccurrences() {
+        assertThat(occurrences("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=4", MONDAY, MONDAY.plusYears(1))).containsExactly(
+                MONDAY, MONDAY.plusDays(3), MONDAY.plusDays(7), MONDAY.plusDays(10));
+    }
+
+    @Test
+    void rangeInTheMiddle_onlyExpandsRequestedDays() {
+        assertThat(occurrences("FREQ=WEEKLY;INTERVAL=2;UNTIL=20300401",
+                LocalDate.of(2030, 2, 1), LocalDate.of(2030, 3, 1))).containsExactly(
+                LocalDate.of(2030, 2, 4), LocalDate.of(2030, 2, 18));
+        // COUNT se numara de la prima zi, nu de la inceputul intervalului cerut
+        assertThat(occurrences("FREQ=DAILY;COUNT=3", MONDAY.plusDays(1), MONDAY.plusDays(10))).containsExactly(
+                MONDAY.plusDays(1), MONDAY.plusDays(2));
+    }
+
+    @Test
+    void parse_normalizesRuleAndDefaultsToFirstDateWeekday() {
+        RecurrenceRule rule = RecurrenceRule.parse("rrule:freq=weekly;count=2", MONDAY);
+
+        assertThat(rule.toString()).isEqualTo("FREQ=WEEKLY;BYDAY=MO;COUNT=2");
+        assertThat(rule.occursOn(MONDAY, MONDAY.plusWeeks(1))).isTrue();
+        assertThat(rule.occursOn(MONDAY, MONDAY.plusWeeks(2))).isFalse();
+        assertThat(rule.lastDate(MONDAY)).isEqualTo(MONDAY.plusWeeks(1));
+    }
+
+    @Test
+    void endingBefore_keepsOccurrencesBeforeTheDate() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;COUNT=10", MONDAY)
+                .endingBefore(MONDAY, MONDAY.plusDays(21));
+
+        assertThat(rule.toString()).isEqualTo("FREQ=WEEKLY;BYDAY=MO;UNTIL=20300121");
+    }
+
+    @Test
+    void parse_rejectsUnboundedOrUnsupportedRules() {
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=WEEKLY", MONDAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO;COUNT=3", MONDAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=MONTHLY;COUNT=3", MONDAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=DAILY;INTERVAL=30;COUNT=100", MONDAY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.clinic_appointments.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomAllocatorTest {
+
+    private static RoomAllocator.Request request(long id, long start, long end, String... required) {
+        return new RoomAllocator.Request(id, start, end, Set.of(required), null);
+    }
+
+    private static List<RoomAllocator.RoomSpec> plainRooms(int count) {
+        List<RoomAllocator.RoomSpec> rooms = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            rooms.add(new RoomAllocator.RoomSpec(id, Set.of()));
+        }
+        return rooms;
+    }
+
+    @Test
+    void parsesCapabilitiesFromDescription() {
+        assertThat(RoomAllocator.capabilities(" Ecografie, Cardiologie;EKG ")).containsExactly(
+                "ecografie", "cardiologie", "ekg");
+        assertThat(RoomAllocator.capabilities(null)).isEmpty();
+    }
+
+    @Test
+    void reusesRoomsThatBecameFree() {
+        RoomAllocator.Result result = RoomAllocator.allocate(plainRooms(3), List.of(
+                request(1, 0, 30),
+                request(2, 10, 40),
+                request(3, 30, 60),
+                request(4, 40, 70)), false);
+
+        assertThat(result.roomsUsed()).isEqualTo(2);
+        assertThat(result.unassigned()).isEmpty();
+        assertThat(result.roomByAppointment().get(3L)).isEqualTo(result.roomByAppointment().get(1L));
+        assertThat(result.roomByAppointment().get(4L)).isEqualTo(result.roomByAppointment().get(2L));
+    }
+
+    @Test
+    void usesMinimumRoomsOnRandomDay() {
+        Random random = new Random(7);
+        List<RoomAllocator.Request> requests = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            long start = random.nextInt(12 * 60);
+            requests.add(request(id, start, start + 10 + random.nextInt(50)));
+        }
+        // numarul minim de camere = numarul maxim de programari simultane
+        int maxOverlap = 0;
+        for (long minute = 0; minute < 13 * 60; minute++) {
+            long m = minute;
+            maxOverlap = Math.max(maxOverlap,
+                    (int) requests.stream().filter(r -> r.start() <= m && r.end() > m).count());
+        }
+
+        RoomAllocator.Result result = RoomAllocator.allocate(plainRooms(maxOverlap + 20), requests, false);
+
+        assertThat(result.unassigned()).isEmpty();
+        assertThat(result.roomsUsed()).isEqualTo(maxOverlap);
+    }
+
+    @Test
+    void honoursCapabilitiesAndKeepsSpecialRoomsFree() {
+        List<RoomAllocator.RoomSpec> rooms = List.of(
+                new RoomAllocator.RoomSpec(1, Set.of("ecografie")),
+                new RoomAllocator.RoomSpec(2, Set.of()));
+
+        RoomAllocator.Result result = RoomAllocator.allocate(rooms, List.of(
+                request(1, 0, 30),
+                request(2, 0, 30, "ecografie"),
+                request(3, 10, 20, "ecografie")), false);
+
+        assertThat(result.roomByAppointment()).containsEntry(1L, 2L).containsEntry(2L, 1L);
+        assertThat(result.unassigned()).containsExactly(3L);
+    }
+
+    @Test
+    void keepsValidExistingRoomsAndMovesConflictingOnes() {
+        List<RoomAllocator.RoomSpec> rooms = plainRooms(2);
+        List<RoomAllocator.Request> requests = List.of(
+                new RoomAllocator.Request(1, 0, 30, Set.of(), 2L),
+                // pusa de mana in aceeasi camera, peste programarea 1
+                new RoomAllocator.Request(2, 10, 40, Set.of(), 2L),
+                new RoomAllocator.Request(3, 50, 60, Set.of(), null));
+
+        Map<Long, Long> kept = RoomAllocator.allocate(rooms, requests, true).roomByAppointment();
+        Map<Long, Long> fresh = RoomAllocator.allocate(rooms, requests, false).roomByAppointment();
+
+        assertThat(kept).containsEntry(1L, 2L).containsEntry(2L, 1L);
+        // ambele camere sunt libere; o alegem pe cea eliberata cel mai recent
+        assertThat(kept).containsEntry(3L, 1L);
+        assertThat(fresh).containsEntry(1L, 1L).containsEntry(2L, 2L);
+    }
+
+    @Test
+    void keptAppointmentsBlockTheirRoomLaterInTheDay() {
+        List<RoomAllocator.Request> requests = List.of(
+                new RoomAllocator.Request(1, 100, 130, Set.of(), 1L),
+                new RoomAllocator.Request(2, 90, 110, Set.of(), null));
+
+        RoomAllocator.Result result = RoomAllocator.allocate(plainRooms(2), requests, true);
+
+        assertThat(result.roomByAppointment()).containsEntry(1L, 1L).containsEntry(2L, 2L);
+        assertThat(result.roomsUsed()).isEqualTo(2);
+    }
+
+    @Test
+    void blockedIntervalsAreNeverAssigned() {
+        Map<Long, List<Interval>> blocked = Map.of(1L, List.of(new Interval(5, 0, 30)));
+
+        RoomAllocator.Result result = RoomAllocator.allocate(plainRooms(2), List.of(
+                request(5, 20, 40),
+                request(6, 40, 60)), blocked, false);
+
+        // id-ul blocat coincide cu al unei programari, dar tot nu o lasa in camera 1
+        assertThat(result.roomByAppointment()).containsEntry(5L, 2L).containsEntry(6L, 2L);
+        assertThat(result.roomsUsed()).isEqualTo(1);
+    }
+}
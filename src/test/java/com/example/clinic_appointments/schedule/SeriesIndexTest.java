@@ -0,0 +1,85 @@
+package com.example.clinic_appointments.schedule;
+
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.repository.AppointmentSeriesRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeriesIndexTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Mock
+    private AppointmentSeriesRepository seriesRepository;
+
+    @InjectMocks
+    private SeriesIndex index;
+
+    private static AppointmentSeries weekly(Set<LocalDate> exceptions) {
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        AppointmentSeries series = new AppointmentSeries();
+        series.setId(7L);
+        series.setDoctor(doctor);
+        series.setFirstDate(MONDAY);
+        series.setStartTime(LocalTime.of(9, 0));
+        series.setDurationMinutes(30);
+        series.setRule("FREQ=WEEKLY;BYDAY=MO;COUNT=10");
+        series.setExceptions(new HashSet<>(exceptions));
+        return series;
+    }
+
+    private static LocalDateTime at(int daysAfterMonday, int hour, int minute) {
+        return MONDAY.plusDays(daysAfterMonday).atTime(hour, minute);
+    }
+
+    @Test
+    void findConflict_expandsOnlyTheAskedDays() {
+        when(seriesRepository.findByDoctorId(20L)).thenReturn(List.of(weekly(Set.of(MONDAY.plusWeeks(1)))));
+
+        assertThat(index.findConflict(20L, null, at(14, 9, 15), at(14, 9, 45), null, null))
+                .hasValueSatisfying(interval -> {
+                    assertThat(interval.id()).isEqualTo(7L);
+                    assertThat(EpochMinutes.toDateTime(interval.start())).isEqualTo(at(14, 9, 0));
+                });
+        // exceptie: aparitia anulata sau deja materializata
+        assertThat(index.findConflict(20L, null, at(7, 9, 0), at(7, 9, 30), null, null)).isEmpty();
+        // aparitia care se materializeaza chiar acum nu se ciocneste cu ea insasi
+        assertThat(index.findConflict(20L, null, at(14, 9, 0), at(14, 9, 30), 7L, MONDAY.plusWeeks(2))).isEmpty();
+        assertThat(index.findConflict(20L, null, at(15, 9, 0), at(15, 9, 30), null, null)).isEmpty();
+        // dupa COUNT=10 seria s-a terminat
+        assertThat(index.findConflict(20L, null, at(70, 9, 0), at(70, 9, 30), null, null)).isEmpty();
+
+        verify(seriesRepository, times(1)).findByDoctorId(20L);
+    }
+
+    @Test
+    void register_replacesSeriesOfLoadedDoctor() {
+        when(seriesRepository.findByDoctorId(20L)).thenReturn(List.of(weekly(Set.of())));
+        assertThat(index.occupied(20L, MONDAY.atStartOfDay(), MONDAY.plusWeeks(3).atStartOfDay())).hasSize(3);
+
+        index.register(weekly(Set.of(MONDAY.plusWeeks(1))));
+
+        assertThat(index.occupied(20L, MONDAY.atStartOfDay(), MONDAY.plusWeeks(3).atStartOfDay()))
+                .extracting(interval -> EpochMinutes.toDateTime(interval.start()))
+                .containsExactly(at(0, 9, 0), at(14, 9, 0));
+
+        index.remove(7L);
+        assertThat(index.occupied(20L, MONDAY.atStartOfDay(), MONDAY.plusWeeks(3).atStartOfDay())).isEmpty();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.clinic_appointments.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlotHoldRegistryTest {
+
+    // ceas pe care testul il poate muta inainte
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2030-01-01T08:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Test
+    void findConflict_matchesDoctorOrRoomButNotOwnToken() {
+        SlotHoldRegistry registry = new SlotHoldRegistry(new MutableClock());
+        SlotHold hold = registry.place(1L, 5L, NINE, NINE.plusMinutes(30), Duration.ofSeconds(60));
+
+        assertThat(registry.findConflict(1L, null, NINE.plusMinutes(15), NINE.plusMinutes(45), null)).contains(hold);
+        assertThat(registry.findConflict(2L, 5L, NINE, NINE.plusMinutes(30), null)).contains(hold);
+        assertThat(registry.findConflict(2L, 6L, NINE, NINE.plusMinutes(30), null)).isEmpty();
+        assertThat(registry.findConflict(1L, 5L, NINE, NINE.plusMinutes(30), hold.token())).isEmpty();
+        assertThat(registry.findConflict(1L, null, NINE.plusMinutes(30), NINE.plusMinutes(60), null)).isEmpty();
+    }
+
+    @Test
+    void expiredHold_isIgnoredEvenBeforeTheWheelTicks() {
+        MutableClock clock = new MutableClock();
+        SlotHoldRegistry registry = new SlotHoldRegistry(clock);
+        SlotHold hold = registry.place(1L, null, NINE, NINE.plusMinutes(30), Duration.ofSeconds(60));
+
+        clock.advance(Duration.ofSeconds(61));
+
+        assertThat(registry.find(hold.token())).isEmpty();
+        assertThat(registry.findConflict(1L, null, NINE, NINE.plusMinutes(30), null)).isEmpty();
+        assertThat(registry.held(1L, NINE, NINE.plusHours(1))).isEmpty();
+    }
+
+    @Test
+    void expire_removesHoldsWhenTheirDeadlinePasses() {
+        MutableClock clock = new MutableClock();
+        SlotHoldRegistry registry = new SlotHoldRegistry(clock);
+        registry.place(1L, null, NINE, NINE.plusMinutes(30), Duration.ofSeconds(30));
+        registry.place(2L, null, NINE, NINE.plusMinutes(30), Duration.ofSeconds(90));
+
+        clock.advance(Duration.ofSeconds(31));
+        registry.expire();
+        assertThat(registry.size()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(60));
+        registry.expire();
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void release_freesTheInterval() {
+        SlotHoldRegistry registry = new SlotHoldRegistry(new MutableClock());
+        SlotHold hold = registry.place(1L, null, NINE, NINE.plusMinutes(30), Duration.ofSeconds(60));
+
+        assertThat(registry.release(hold.token())).isTrue();
+        assertThat(registry.findConflict(1L, null, NINE, NINE.plusMinutes(30), null)).isEmpty();
+        assertThat(registry.release(hold.token())).isFalse();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.clinic_appointments.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_returnsOnlyKeysWhoseDeadlinePassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 450);
+
+        assertThat(wheel.advance(200)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("a");
+        assertThat(wheel.advance(500)).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_keepsDeadlinesBeyondOneRotation() {
+        // 8 sloturi de 100ms = o rotatie de 800ms
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("late", 1_050);
+
+        assertThat(wheel.advance(800)).isEmpty();
+        assertThat(wheel.advance(1_000)).isEmpty();
+        assertThat(wheel.advance(1_100)).containsExactly("late");
+    }
+
+    @Test
+    void advance_afterLongPause_expiresEverythingDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 150);
+        wheel.schedule("b", 650);
+        wheel.schedule("c", 5_000);
+
+        assertThat(wheel.advance(3_000)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void cancel_removesKey() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 150);
+
+        assertThat(wheel.cancel("a")).isTrue();
+        assertThat(wheel.advance(1_000)).isEmpty();
+    }
+}
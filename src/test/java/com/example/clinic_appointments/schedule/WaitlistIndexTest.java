@@ -0,0 +1,81 @@
+package com.example.clinic_appointments.schedule;
+
+import com.example.clinic_appointments.model.WaitlistStatus;
+import com.example.clinic_appointments.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistIndexTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepository;
+
+    @InjectMocks
+    private WaitlistIndex index;
+
+    private static WaitlistIndex.Candidate candidate(long id, int priority, LocalDateTime from, LocalDateTime to) {
+        return new WaitlistIndex.Candidate(id, priority, from, to);
+    }
+
+    @Test
+    void claim_picksHighestPriorityWhoseWindowContainsSlot() {
+        LocalDateTime nine = MONDAY.plusHours(9);
+        index.add(1L, candidate(1L, 1, MONDAY, MONDAY.plusDays(5)));
+        index.add(1L, candidate(2L, 5, MONDAY.plusHours(14), MONDAY.plusHours(18)));
+        index.add(1L, candidate(3L, 3, MONDAY.plusHours(8), MONDAY.plusHours(12)));
+        index.add(1L, candidate(4L, 3, MONDAY.plusHours(8), MONDAY.plusHours(12)));
+
+        // 2 are prioritatea cea mai mare dar nu poate dimineata; 3 si 4 la egalitate -> primul inscris
+        assertThat(index.claim(1L, nine, nine.plusMinutes(30))).map(WaitlistIndex.Candidate::entryId).contains(3L);
+        assertThat(index.claim(1L, nine, nine.plusMinutes(30))).map(WaitlistIndex.Candidate::entryId).contains(4L);
+        assertThat(index.claim(1L, nine, nine.plusMinutes(30))).map(WaitlistIndex.Candidate::entryId).contains(1L);
+        assertThat(index.claim(1L, nine, nine.plusMinutes(30))).isEmpty();
+        assertThat(index.size(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void claim_multiDayWindowIsFoundOnEveryDayItCovers() {
+        index.add(1L, candidate(1L, 0, MONDAY.plusHours(12), MONDAY.plusDays(2)));
+
+        // fereastra se termina la miezul noptii de miercuri: miercuri nu mai e inclusa
+        assertThat(index.claim(1L, MONDAY.plusDays(2).plusHours(9), MONDAY.plusDays(2).plusHours(10))).isEmpty();
+        assertThat(index.claim(1L, MONDAY.plusDays(1).plusHours(9), MONDAY.plusDays(1).plusHours(10))).isPresent();
+        assertThat(index.size(1L)).isZero();
+    }
+
+    @Test
+    void remove_dropsCandidateFromAllDays() {
+        index.add(1L, candidate(1L, 0, MONDAY, MONDAY.plusDays(3)));
+
+        assertThat(index.remove(1L, 1L)).isTrue();
+        assertThat(index.claim(1L, MONDAY.plusDays(1).plusHours(9), MONDAY.plusDays(1).plusHours(10))).isEmpty();
+    }
+
+    @Test
+    void firstUse_loadsWaitingEntriesOnce() {
+        when(waitlistRepository.findByDoctorIdAndStatusAndPreferredToAfter(eq(1L), eq(WaitlistStatus.WAITING), any()))
+                .thenReturn(List.of());
+
+        index.size(1L);
+        index.size(1L);
+
+        verify(waitlistRepository, times(1))
+                .findByDoctorIdAndStatusAndPreferredToAfter(eq(1L), eq(WaitlistStatus.WAITING), any());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.ArchivedAppointmentRepository;
+import com.example.clinic_appointments.repository.ArchivedInvoiceRepository;
+import com.example.clinic_appointments.repository.InvoiceRepository;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentArchiverTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-03T12:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2023, 1, 4, 12, 0);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Mock
+    private ArchivedInvoiceRepository archivedInvoiceRepository;
+
+    @Mock
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Mock
+    private RoomScheduleIndex roomScheduleIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentArchiver archiver(SimpleMeterRegistry registry, int chunkSize) {
+        return new AppointmentArchiver(appointmentRepository, invoiceRepository, archivedAppointmentRepository,
+                archivedInvoiceRepository, doctorScheduleIndex, roomScheduleIndex, transactionManager, registry,
+                CLOCK, true, Duration.ofDays(730), chunkSize);
+    }
+
+    @Test
+    void archive_movesChunksUntilFewerThanChunkSizeRemain() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        when(appointmentRepository.findArchivableIds(eq(CUTOFF), eq(AppointmentStatus.SCHEDULED),
+                eq(AppointmentArchiver.SETTLED), any()))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(archivedInvoiceRepository.copyFromInvoices(any(), any())).thenReturn(1, 0);
+
+        int total = archiver(registry, 2).archive();
+
+        assertThat(total).isEqualTo(3);
+        // copiem in arhiva inainte sa stergem; facturile inaintea programarilor (FK)
+        InOrder order = inOrder(archivedAppointmentRepository, archivedInvoiceRepository,
+                invoiceRepository, appointmentRepository);
+        order.verify(archivedAppointmentRepository).copyFromAppointments(eq(List.of(1L, 2L)), any());
+        order.verify(archivedInvoiceRepository).copyFromInvoices(eq(List.of(1L, 2L)), any());
+        order.verify(invoiceRepository).deleteByAppointmentIds(List.of(1L, 2L));
+        order.verify(appointmentRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(appointmentRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+        verify(doctorScheduleIndex).remove(3L);
+        verify(roomScheduleIndex).remove(3L);
+
+        assertThat(registry.get("clinic.archive.appointments").counter().count()).isEqualTo(3);
+        assertThat(registry.get("clinic.archive.invoices").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void archive_nothingOldEnough_deletesNothing() {
+        when(appointmentRepository.findArchivableIds(any(), any(), any(), any())).thenReturn(List.of());
+
+        int total = archiver(new SimpleMeterRegistry(), 500).archive();
+
+        assertThat(total).isZero();
+        verifyNoInteractions(archivedAppointmentRepository, archivedInvoiceRepository, invoiceRepository);
+        verify(appointmentRepository, never()).deleteAllByIdInBatch(any());
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.SeriesOccurrence;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.BookingConflictException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.AppointmentSeriesRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.repository.PatientRepository;
+import com.example.clinic_appointments.repository.RoomRepository;
+import com.example.clinic_appointments.schedule.BookingLockCoordinator;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentSeriesServiceTest {
+
+    // 2030-01-07 este luni
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Mock
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Mock
+    private RoomScheduleIndex roomScheduleIndex;
+
+    @Spy
+    private SlotHoldRegistry slotHolds = new SlotHoldRegistry();
+
+    @Mock
+    private SeriesIndex seriesIndex;
+
+    @Spy
+    private BookingLockCoordinator bookingLocks = new BookingLockCoordinator(new SimpleMeterRegistry());
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @Spy
+    private OptimisticRetryExecutor updateRetries = new OptimisticRetryExecutor(3, Duration.ZERO);
+
+    @InjectMocks
+    private AppointmentSeriesService seriesService;
+
+    private static AppointmentSeries series(Set<LocalDate> exceptions) {
+        Patient patient = new Patient();
+        patient.setId(10L);
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        AppointmentSeries series = new AppointmentSeries();
+        series.setId(7L);
+        series.setPatient(patient);
+        series.setDoctor(doctor);
+        series.setFirstDate(MONDAY);
+        series.setStartTime(LocalTime.of(9, 0));
+        series.setDurationMinutes(30);
+        series.setRule("FREQ=WEEKLY;BYDAY=MO;COUNT=10");
+        series.setReason("Control");
+        series.setExceptions(new HashSet<>(exceptions));
+        return series;
+    }
+
+    private void stubEntities(AppointmentSeries series) {
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(series.getPatient()));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(series.getDoctor()));
+    }
+
+    @Test
+    void createSeries_normalizesRuleAndRegistersIt() {
+        AppointmentSeries series = series(Set.of(MONDAY));
+        series.setRule("freq=weekly;count=3");
+        stubEntities(series);
+        when(doctorScheduleIndex.findConflict(eq(20L), any(), any(), isNull())).thenReturn(Optional.empty());
+        when(seriesRepository.save(series)).thenReturn(series);
+
+        AppointmentSeries saved = seriesService.createSeries(series);
+
+        assertThat(saved.getRule()).isEqualTo("FREQ=WEEKLY;BYDAY=MO;COUNT=3");
+        assertThat(saved.getExceptions()).isEmpty();
+        verify(doctorScheduleIndex, times(3)).findConflict(eq(20L), any(), any(), isNull());
+        verify(seriesIndex).register(series);
+    }
+
+    @Test
+    void createSeries_rejectsWhenAnOccurrenceOverlapsAnAppointment() {
+        AppointmentSeries series = series(Set.of());
+        stubEntities(series);
+        when(doctorScheduleIndex.findConflict(eq(20L), any(), any(), isNull())).thenAnswer(invocation ->
+                invocation.getArgument(1).equals(MONDAY.plusWeeks(2).atTime(9, 0))
+                        ? Optional.of(99L) : Optional.empty());
+
+        assertThatThrownBy(() -> seriesService.createSeries(series))
+                .isInstanceOf(BookingConflictException.class)
+                .hasMessageContaining("2030-01-21")
+                .hasMessageContaining("99");
+        verify(seriesRepository, never()).save(any());
+        verify(seriesIndex, never()).register(any());
+    }
+
+    @Test
+    void getOccurrences_mergesMaterializedAndSkipsCancelled() {
+        LocalDate cancelled = MONDAY.plusWeeks(1);
+        LocalDate moved = MONDAY.plusWeeks(2);
+        when(seriesRepository.findById(7L)).thenReturn(Optional.of(series(Set.of(cancelled, moved))));
+        Appointment appointment = new Appointment();
+        appointment.setId(50L);
+        appointment.setSeriesId(7L);
+        appointment.setOccurrenceDate(moved);
+        appointment.setStartTime(moved.atTime(11, 0));
+        appointment.setEndTime(moved.atTime(11, 30));
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        when(appointmentRepository.findBySeriesIdAndOccurrenceDateBetween(7L, MONDAY, MONDAY.plusDays(24)))
+                .thenReturn(List.of(appointment));
+
+        List<SeriesOccurrence> occurrences = seriesService.getOccurrences(7L, MONDAY, MONDAY.plusDays(25));
+
+        assertThat(occurrences).extracting(SeriesOccurrence::occurrenceDate)
+                .containsExactly(MONDAY, moved, MONDAY.plusWeeks(3));
+        assertThat(occurrences.get(0).appointmentId()).isNull();
+        assertThat(occurrences.get(0).startTime()).isEqualTo(MONDAY.atTime(9, 0));
+        assertThat(occurrences.get(1).appointmentId()).isEqualTo(50L);
+        assertThat(occurrences.get(1).startTime()).isEqualTo(moved.atTime(11, 0));
+    }
+
+    @Test
+    void checkInOccurrence_materializesVirtualOccurrenceFirst() {
+        LocalDate date = MONDAY.plusWeeks(3);
+        AppointmentSeries series = series(Set.of());
+        when(seriesRepository.findById(7L)).thenReturn(Optional.of(series));
+        when(seriesRepository.save(series)).thenReturn(series);
+        Appointment created = new Appointment();
+        created.setId(60L);
+        when(appointmentService.createSeriesOccurrence(any(Appointment.class), any())).thenAnswer(invocation -> {
+            Supplier<AppointmentSeries> markOccurrence = invocation.getArgument(1);
+            assertThat(markOccurrence.get()).isSameAs(series);
+            return created;
+        });
+        when(appointmentService.checkIn(60L)).thenReturn(created);
+
+        assertThat(seriesService.checkInOccurrence(7L, date)).isSameAs(created);
+
+        ArgumentCaptor<Appointment> occurrence = ArgumentCaptor.forClass(Appointment.class);
+        verify(appointmentService).createSeriesOccurrence(occurrence.capture(), any());
+        assertThat(occurrence.getValue().getSeriesId()).isEqualTo(7L);
+        assertThat(occurrence.getValue().getOccurrenceDate()).isEqualTo(date);
+        assertThat(occurrence.getValue().getStartTime()).isEqualTo(date.atTime(9, 0));
+        assertThat(occurrence.getValue().getEndTime()).isEqualTo(date.atTime(9, 30));
+        assertThat(series.getExceptions()).containsExactly(date);
+        verify(seriesRepository).save(series);
+    }
+
+    @Test
+    void cancelOccurrence_rejectsMaterializedAndUnknownDates() {
+        AppointmentSeries series = series(Set.of());
+        when(seriesRepository.findById(7L)).thenReturn(Optional.of(series));
+        Appointment materialized = new Appointment();
+        materialized.setId(50L);
+        when(appointmentRepository.findBySeriesIdAndOccurrenceDate(7L, MONDAY)).thenReturn(Optional.of(materialized));
+
+        assertThatThrownBy(() -> seriesService.cancelOccurrence(7L, MONDAY))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> seriesService.cancelOccurrence(7L, MONDAY.plusDays(1)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(seriesRepository, never()).save(any());
+    }
+}
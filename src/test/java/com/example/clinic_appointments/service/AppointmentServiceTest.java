@@ -1,21 +1,60 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.AppointmentResponse;
+import com.example.clinic_appointments.dto.AppointmentSearch;
+import com.example.clinic_appointments.dto.BatchItemResult;
+import com.example.clinic_appointments.dto.CursorPage;
+import com.example.clinic_appointments.dto.SlotHoldRequest;
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.BookingConflictException;
+import com.example.clinic_appointments.exception.ConcurrentUpdateException;
 import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentSeries;
 import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.ArchivedAppointment;
 import com.example.clinic_appointments.model.Doctor;
 import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
 import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.ArchivedAppointmentRepository;
 import com.example.clinic_appointments.repository.DoctorRepository;
 import com.example.clinic_appointments.repository.PatientRepository;
+import com.example.clinic_appointments.repository.RoomRepository;
+import com.example.clinic_appointments.schedule.BookingLockCoordinator;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SlotHold;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor.SpecificationFluentQuery;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -33,6 +72,39 @@ class AppointmentServiceTest {
     @Mock
     private DoctorRepository doctorRepository;
 
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Mock
+    private RoomScheduleIndex roomScheduleIndex;
+
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private BookingLockCoordinator bookingLocks = new BookingLockCoordinator(new SimpleMeterRegistry());
+
+    @Spy
+    private OptimisticRetryExecutor updateRetries = new OptimisticRetryExecutor(3, Duration.ZERO);
+
+    @Spy
+    private SlotHoldRegistry slotHolds = new SlotHoldRegistry();
+
+    @Mock
+    private SeriesIndex seriesIndex;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private AppointmentService appointmentService;
 
@@ -55,6 +127,47 @@ class AppointmentServiceTest {
         verify(appointmentRepository, times(1)).findAll();
     }
 
+    @Test
+    void getAppointmentsPage_firstPage_returnsCursorWhenMoreRows() {
+        Appointment a1 = new Appointment();
+        a1.setId(1L);
+        a1.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+
+        Appointment a2 = new Appointment();
+        a2.setId(2L);
+        a2.setStartTime(LocalDateTime.of(2025, 1, 1, 11, 0));
+
+        // cerem 1 element, repository-ul intoarce size + 1
+        when(appointmentRepository.findAllByOrderByStartTimeAscIdAsc(Limit.of(2))).thenReturn(List.of(a1, a2));
+
+        CursorPage<Appointment> page = appointmentService.getAppointmentsPage(null, 1);
+
+        assertThat(page.items()).containsExactly(a1);
+        assertThat(page.nextCursor()).isEqualTo(CursorCodec.encode(a1.getStartTime(), 1L));
+    }
+
+    @Test
+    void getAppointmentsPage_withCursor_continuesAfterLastSeenRow() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        Appointment a2 = new Appointment();
+        a2.setId(2L);
+        a2.setStartTime(start);
+
+        when(appointmentRepository.findPageAfter(start, 1L, Limit.of(51))).thenReturn(List.of(a2));
+
+        CursorPage<Appointment> page = appointmentService.getAppointmentsPage(CursorCodec.encode(start, 1L), null);
+
+        assertThat(page.items()).containsExactly(a2);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getAppointmentsPage_invalidCursor_throwsBadRequest() {
+        assertThatThrownBy(() -> appointmentService.getAppointmentsPage("not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
     @Test
     void getAppointmentById_existing_returnsAppointment() {
         Appointment appt = new Appointment();
@@ -122,6 +235,147 @@ class AppointmentServiceTest {
         verify(patientRepository).findById(10L);
         verify(doctorRepository).findById(20L);
         verify(appointmentRepository).save(any(Appointment.class));
+        verify(doctorScheduleIndex).register(created);
+        verify(bookingLocks).withLocks(eq(20L), isNull(), any());
+    }
+
+    @Test
+    void createAppointment_doctorAlreadyBooked_throwsConflictWithAppointmentId() {
+        Patient patient = new Patient();
+        patient.setId(10L);
+
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 1, 1, 10, 30);
+
+        Appointment appt = new Appointment();
+        appt.setPatient(patient);
+        appt.setDoctor(doctor);
+        appt.setStartTime(start);
+        appt.setEndTime(end);
+
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(patient));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(doctor));
+        when(doctorScheduleIndex.findConflict(20L, start, end, null)).thenReturn(Optional.of(7L));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(appt))
+                .isInstanceOf(BookingConflictException.class)
+                .satisfies(ex -> assertThat(((BookingConflictException) ex).getConflictingAppointmentId()).isEqualTo(7L));
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    void createAppointment_roomAlreadyUsed_throwsConflict() {
+        Patient patient = new Patient();
+        patient.setId(10L);
+
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+
+        Room room = new Room();
+        room.setId(30L);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 1, 1, 10, 30);
+
+        Appointment appt = new Appointment();
+        appt.setPatient(patient);
+        appt.setDoctor(doctor);
+        appt.setRoom(room);
+        appt.setStartTime(start);
+        appt.setEndTime(end);
+
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(patient));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(doctor));
+        when(roomRepository.findById(30L)).thenReturn(Optional.of(room));
+        when(roomScheduleIndex.findConflict(30L, start, end, null)).thenReturn(Optional.of(8L));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(appt))
+                .isInstanceOf(BookingConflictException.class)
+                .hasMessageContaining("Room 30");
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    void createAppointment_unknownRoom_throwsException() {
+        Patient patient = new Patient();
+        patient.setId(10L);
+
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+
+        Room room = new Room();
+        room.setId(99L);
+
+        Appointment appt = new Appointment();
+        appt.setPatient(patient);
+        appt.setDoctor(doctor);
+        appt.setRoom(room);
+
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(patient));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(doctor));
+        when(roomRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(appt))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Room not found");
+    }
+
+    @Test
+    void createAppointment_slotHeldByAnotherBooking_throwsConflict() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(doctorRepository.existsById(20L)).thenReturn(true);
+        appointmentService.placeHold(new SlotHoldRequest(20L, null, start, start.plusMinutes(30), 60));
+
+        Appointment appt = newAppointment(10L, 20L, start);
+        Patient patient = new Patient();
+        patient.setId(10L);
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(patient));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(doctor));
+
+        assertThatThrownBy(() -> appointmentService.createAppointment(appt))
+                .isInstanceOf(BookingConflictException.class)
+                .hasMessageContaining("held");
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void createAppointment_withHoldToken_redeemsAndReleasesHold() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(doctorRepository.existsById(20L)).thenReturn(true);
+        SlotHold hold = appointmentService.placeHold(new SlotHoldRequest(20L, null, start, start.plusMinutes(30), 60));
+
+        Appointment appt = newAppointment(10L, 20L, start);
+        Patient patient = new Patient();
+        patient.setId(10L);
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(patient));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(doctor));
+        when(appointmentRepository.save(appt)).thenReturn(appt);
+
+        appointmentService.createAppointment(appt, hold.token());
+
+        assertThat(slotHolds.find(hold.token())).isEmpty();
+        verify(appointmentRepository).save(appt);
+    }
+
+    @Test
+    void placeHold_overlapsExistingAppointment_throwsConflict() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(doctorRepository.existsById(20L)).thenReturn(true);
+        when(doctorScheduleIndex.findConflict(eq(20L), any(), any(), isNull())).thenReturn(Optional.of(7L));
+
+        assertThatThrownBy(() -> appointmentService.placeHold(
+                new SlotHoldRequest(20L, null, start, start.plusMinutes(30), 60)))
+                .isInstanceOf(BookingConflictException.class);
+        assertThat(slotHolds.size()).isZero();
     }
 
     @Test
@@ -158,6 +412,63 @@ class AppointmentServiceTest {
                 .hasMessageContaining("End time cannot be before start time");
     }
 
+    private static Appointment newAppointment(long patientId, long doctorId, LocalDateTime start) {
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+
+        Appointment appt = new Appointment();
+        appt.setPatient(patient);
+        appt.setDoctor(doctor);
+        appt.setStartTime(start);
+        appt.setEndTime(start.plusMinutes(30));
+        appt.setReason("Control");
+        return appt;
+    }
+
+    @Test
+    void createAppointments_loadsReferencesOnceAndReportsPerItem() {
+        LocalDateTime nine = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Appointment ok = newAppointment(10L, 20L, nine);
+        Appointment unknownPatient = newAppointment(11L, 20L, nine.plusHours(1));
+        Appointment sameSlot = newAppointment(12L, 20L, nine.plusMinutes(15));
+
+        Patient p10 = new Patient();
+        p10.setId(10L);
+        Patient p12 = new Patient();
+        p12.setId(12L);
+        Doctor d20 = new Doctor();
+        d20.setId(20L);
+
+        when(patientRepository.findAllById(Set.of(10L, 11L, 12L))).thenReturn(List.of(p10, p12));
+        when(doctorRepository.findAllById(Set.of(20L))).thenReturn(List.of(d20));
+        when(roomRepository.findAllById(Set.of())).thenReturn(List.of());
+        when(doctorScheduleIndex.findConflict(eq(20L), any(), any(), isNull())).thenReturn(Optional.empty());
+        when(appointmentRepository.saveAll(List.of(ok))).thenAnswer(invocation -> {
+            ok.setId(100L);
+            return List.of(ok);
+        });
+
+        List<BatchItemResult> results = appointmentService.createAppointments(List.of(ok, unknownPatient, sameSlot));
+
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(
+                BatchItemResult.Status.CREATED, BatchItemResult.Status.REJECTED, BatchItemResult.Status.REJECTED);
+        assertThat(results.get(0).appointmentId()).isEqualTo(100L);
+        assertThat(results.get(1).message()).contains("Patient not found with id 11");
+        assertThat(results.get(2).message()).contains("Overlaps item 0");
+        verify(patientRepository, never()).findById(any());
+        verify(doctorScheduleIndex).register(ok);
+    }
+
+    @Test
+    void createAppointments_tooManyItems_throwsBadRequest() {
+        List<Appointment> tooMany = java.util.Collections.nCopies(AppointmentService.MAX_BATCH_SIZE + 1, new Appointment());
+
+        assertThatThrownBy(() -> appointmentService.createAppointments(tooMany))
+                .isInstanceOf(BadRequestException.class);
+    }
+
     @Test
     void updateAppointment_updatesFieldsAndSaves() {
         Appointment existing = new Appointment();
@@ -183,23 +494,294 @@ class AppointmentServiceTest {
         assertThat(result.getStartTime()).isEqualTo(LocalDateTime.of(2025, 1, 2, 14, 0));
         assertThat(result.getStatus()).isEqualTo(AppointmentStatus.COMPLETED);
         verify(appointmentRepository).save(existing);
+        verify(doctorScheduleIndex).register(existing);
+    }
+
+    @Test
+    void updateAppointment_staleClientVersion_throwsConcurrentUpdate() {
+        Appointment existing = new Appointment();
+        existing.setId(1L);
+        existing.setVersion(2L);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        Appointment updated = new Appointment();
+        updated.setReason("New reason");
+        updated.setVersion(1L);
+
+        assertThatThrownBy(() -> appointmentService.updateAppointment(1L, updated))
+                .isInstanceOf(ConcurrentUpdateException.class)
+                .hasMessageContaining("version 2")
+                .satisfies(ex -> assertThat(((ConcurrentUpdateException) ex).getCurrent())
+                        .isInstanceOfSatisfying(AppointmentResponse.class,
+                                response -> assertThat(response.version()).isEqualTo(2L)));
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void checkIn_setsCheckedInAtOnce() {
+        Appointment existing = new Appointment();
+        existing.setId(1L);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(appointmentRepository.save(existing)).thenReturn(existing);
+
+        Appointment first = appointmentService.checkIn(1L);
+        LocalDateTime checkedInAt = first.getCheckedInAt();
+        appointmentService.checkIn(1L);
+
+        assertThat(checkedInAt).isNotNull();
+        assertThat(existing.getCheckedInAt()).isEqualTo(checkedInAt);
+        verify(appointmentRepository, times(1)).save(existing);
+        verify(events, times(1)).publishEvent(any(AppointmentEvent.class));
+    }
+
+    @Test
+    void createAppointmentWith_failingSecondWriteRollsBackTheInsert() {
+        Appointment appt = newAppointment(10L, 20L, LocalDateTime.of(2030, 1, 7, 9, 0));
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(appt.getPatient()));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(appt.getDoctor()));
+        when(appointmentRepository.save(appt)).thenReturn(appt);
+
+        assertThatThrownBy(() -> appointmentService.createAppointmentWith(appt, saved -> {
+            throw new IllegalStateException("waitlist entry was modified");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(doctorScheduleIndex, never()).register(any());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void createSeriesOccurrence_marksTheSeriesInTheSameTransactionAsTheInsert() {
+        Appointment occurrence = newAppointment(10L, 20L, LocalDateTime.of(2030, 1, 7, 9, 0));
+        occurrence.setSeriesId(7L);
+        occurrence.setOccurrenceDate(LocalDate.of(2030, 1, 7));
+        AppointmentSeries series = new AppointmentSeries();
+        series.setId(7L);
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(occurrence.getPatient()));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(occurrence.getDoctor()));
+        when(appointmentRepository.save(occurrence)).thenReturn(occurrence);
+        Supplier<AppointmentSeries> markOccurrence = mock();
+        when(markOccurrence.get()).thenReturn(series);
+
+        appointmentService.createSeriesOccurrence(occurrence, markOccurrence);
+
+        // ambele scrieri intre inceputul si commit-ul aceleiasi tranzactii, indexurile dupa commit
+        InOrder order = inOrder(transactionManager, appointmentRepository, markOccurrence, seriesIndex,
+                doctorScheduleIndex);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(appointmentRepository).save(occurrence);
+        order.verify(markOccurrence).get();
+        order.verify(transactionManager).commit(any());
+        order.verify(seriesIndex).register(series);
+        order.verify(doctorScheduleIndex).register(occurrence);
+        verify(seriesIndex).findConflict(20L, null, occurrence.getStartTime(), occurrence.getEndTime(),
+                7L, LocalDate.of(2030, 1, 7));
+    }
+
+    @Test
+    void checkIn_seriesOccurrenceAfterItsStart_passesTheValidationRunOnSave() {
+        // Hibernate valideaza grupul Default inainte de insert si update; o aparitie la care
+        // pacientul ajunge cu 20 de minute intarziere trebuie sa poata fi salvata
+        Validator entityValidator = Validation.buildDefaultValidatorFactory().getValidator();
+        Appointment occurrence = newAppointment(10L, 20L, LocalDateTime.now().minusMinutes(20));
+        occurrence.setSeriesId(7L);
+        occurrence.setOccurrenceDate(LocalDate.now());
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(occurrence.getPatient()));
+        when(doctorRepository.findById(20L)).thenReturn(Optional.of(occurrence.getDoctor()));
+        when(appointmentRepository.save(occurrence)).thenAnswer(invocation -> {
+            Set<ConstraintViolation<Appointment>> violations = entityValidator.validate(occurrence);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            occurrence.setId(60L);
+            return occurrence;
+        });
+        when(appointmentRepository.findById(60L)).thenAnswer(invocation -> Optional.of(occurrence));
+
+        appointmentService.createSeriesOccurrence(occurrence, AppointmentSeries::new);
+        Appointment checkedIn = appointmentService.checkIn(60L);
+
+        assertThat(checkedIn.getCheckedInAt()).isNotNull();
+        verify(appointmentRepository, times(2)).save(occurrence);
+        // o rezervare noua in trecut ramane respinsa de API
+        assertThat(entityValidator.validate(occurrence, Appointment.Booking.class))
+                .extracting(ConstraintViolation::getMessage)
+                .containsExactly("Start time must be in the present or future");
+    }
+
+    @Test
+    void updateAppointment_overlapWithAnotherAppointment_throwsConflict() {
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+
+        Appointment existing = new Appointment();
+        existing.setId(1L);
+        existing.setDoctor(doctor);
+        existing.setStatus(AppointmentStatus.SCHEDULED);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 2, 14, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 1, 2, 15, 0);
+
+        Appointment updated = new Appointment();
+        updated.setReason("Moved");
+        updated.setStartTime(start);
+        updated.setEndTime(end);
+
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(doctorScheduleIndex.findConflict(20L, start, end, 1L)).thenReturn(Optional.of(2L));
+
+        assertThatThrownBy(() -> appointmentService.updateAppointment(1L, updated))
+                .isInstanceOf(BookingConflictException.class)
+                .hasMessageContaining("appointment 2");
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
     }
 
     @Test
     void deleteAppointment_existing_callsDeleteById() {
-        when(appointmentRepository.existsById(1L)).thenReturn(true);
+        Appointment existing = newAppointment(10L, 20L, LocalDateTime.of(2030, 1, 1, 9, 0));
+        existing.setId(1L);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existing));
 
         appointmentService.deleteAppointment(1L);
 
         verify(appointmentRepository).deleteById(1L);
+        verify(doctorScheduleIndex).remove(1L);
+        verify(roomScheduleIndex).remove(1L);
+
+        ArgumentCaptor<AppointmentEvent> event = ArgumentCaptor.forClass(AppointmentEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertThat(event.getValue().after()).isNull();
+        assertThat(event.getValue().before().doctorId()).isEqualTo(20L);
+        assertThat(event.getValue().freesSlot()).isTrue();
     }
 
     @Test
     void deleteAppointment_missing_throwsException() {
-        when(appointmentRepository.existsById(99L)).thenReturn(false);
+        when(appointmentRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> appointmentService.deleteAppointment(99L))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Appointment not found");
     }
+
+    private static ArchivedAppointment archived(Long id, Long patientId, LocalDateTime start) {
+        Patient patient = new Patient();
+        patient.setId(patientId);
+
+        ArchivedAppointment archived = new ArchivedAppointment();
+        archived.setId(id);
+        archived.setPatientId(patientId);
+        archived.setPatient(patient);
+        archived.setStartTime(start);
+        archived.setEndTime(start.plusMinutes(30));
+        archived.setReason("Control anual");
+        archived.setStatus(AppointmentStatus.COMPLETED);
+        archived.setVersion(3L);
+        return archived;
+    }
+
+    @Test
+    void getAppointmentById_archived_readsFromArchive() {
+        when(appointmentRepository.findById(5L)).thenReturn(Optional.empty());
+        when(archivedAppointmentRepository.findById(5L))
+                .thenReturn(Optional.of(archived(5L, 10L, LocalDateTime.of(2015, 3, 2, 9, 0))));
+
+        Appointment result = appointmentService.getAppointmentById(5L);
+
+        assertThat(result.getId()).isEqualTo(5L);
+        assertThat(result.getPatient().getId()).isEqualTo(10L);
+        assertThat(result.getStatus()).isEqualTo(AppointmentStatus.COMPLETED);
+        assertThat(result.getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void getAppointmentById_archivedSeriesOccurrence_keepsSeriesLink() {
+        ArchivedAppointment archived = archived(5L, 10L, LocalDateTime.of(2015, 3, 2, 9, 0));
+        archived.setSeriesId(7L);
+        archived.setOccurrenceDate(LocalDate.of(2015, 3, 2));
+        when(appointmentRepository.findById(5L)).thenReturn(Optional.empty());
+        when(archivedAppointmentRepository.findById(5L)).thenReturn(Optional.of(archived));
+
+        Appointment result = appointmentService.getAppointmentById(5L);
+
+        assertThat(result.getSeriesId()).isEqualTo(7L);
+        assertThat(result.getOccurrenceDate()).isEqualTo(LocalDate.of(2015, 3, 2));
+    }
+
+    @Test
+    void updateAppointment_archived_throwsBadRequest() {
+        when(appointmentRepository.findById(5L)).thenReturn(Optional.empty());
+        when(archivedAppointmentRepository.existsById(5L)).thenReturn(true);
+
+        Appointment updated = newAppointment(10L, 20L, LocalDateTime.of(2030, 1, 1, 9, 0));
+
+        assertThatThrownBy(() -> appointmentService.updateAppointment(5L, updated))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("archived");
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void getPatientHistory_mergesHotAndArchivedNewestFirst() {
+        Appointment recent = newAppointment(10L, 20L, LocalDateTime.of(2030, 1, 1, 9, 0));
+        recent.setId(7L);
+        Appointment oldButOpen = newAppointment(10L, 20L, LocalDateTime.of(2012, 6, 1, 9, 0));
+        oldButOpen.setId(2L);
+
+        when(patientRepository.existsById(10L)).thenReturn(true);
+        when(appointmentRepository.findByPatientIdOrderByStartTimeDesc(10L)).thenReturn(List.of(recent, oldButOpen));
+        when(archivedAppointmentRepository.findByPatientIdOrderByStartTimeDesc(10L))
+                .thenReturn(List.of(archived(5L, 10L, LocalDateTime.of(2015, 3, 2, 9, 0))));
+
+        List<Appointment> history = appointmentService.getPatientHistory(10L);
+
+        assertThat(history).extracting(Appointment::getId).containsExactly(7L, 5L, 2L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SpecificationFluentQuery<Appointment> stubSearch(List<Appointment> rows) {
+        SpecificationFluentQuery<Appointment> query = mock(SpecificationFluentQuery.class, RETURNS_SELF);
+        when(query.all()).thenReturn(rows);
+        when(appointmentRepository.findBy(any(Specification.class), any())).thenAnswer(invocation ->
+                invocation.<Function<SpecificationFluentQuery<Appointment>, Object>>getArgument(1)
+                        .apply(query));
+        return query;
+    }
+
+    @Test
+    void searchAppointments_pushesSortLimitAndGraphToQuery() {
+        Appointment found = newAppointment(10L, 20L, LocalDateTime.of(2030, 1, 1, 9, 0));
+        SpecificationFluentQuery<Appointment> query = stubSearch(List.of(found));
+
+        AppointmentSearch search = new AppointmentSearch(20L, null, null, AppointmentStatus.SCHEDULED,
+                LocalDateTime.of(2030, 1, 1, 0, 0), LocalDateTime.of(2030, 2, 1, 0, 0));
+        List<Appointment> result = appointmentService.searchAppointments(search, true, 20);
+
+        assertThat(result).containsExactly(found);
+        verify(query).project("patient", "doctor", "room");
+        verify(query).sortBy(Sort.by(Sort.Direction.DESC, "startTime").and(Sort.by(Sort.Direction.DESC, "id")));
+        verify(query).limit(20);
+    }
+
+    @Test
+    void searchAppointments_limitAboveCap_isClamped() {
+        SpecificationFluentQuery<Appointment> query = stubSearch(List.of());
+
+        appointmentService.searchAppointments(new AppointmentSearch(null, 10L, null, null, null, null),
+                false, 100_000);
+
+        verify(query).limit(AppointmentService.MAX_SEARCH_LIMIT);
+    }
+
+    @Test
+    void searchAppointments_emptyRange_throwsBadRequest() {
+        LocalDateTime t = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+        assertThatThrownBy(() -> appointmentService.searchAppointments(
+                new AppointmentSearch(null, null, null, null, t, t), false, null))
+                .isInstanceOf(BadRequestException.class);
+        verify(appointmentRepository, never()).findBy(any(Specification.class), any());
+    }
 }
@@ -0,0 +1,85 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentStatusSweeperTest {
+
+    // "acum" = 2025-01-03 12:30, deci cutoff = 12:00 cu grace de 30 de minute
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-03T12:30:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 1, 3, 12, 0);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentStatusSweeper sweeper(SimpleMeterRegistry registry, AppointmentStatus unchecked) {
+        return new AppointmentStatusSweeper(appointmentRepository, transactionManager, registry, CLOCK,
+                true, unchecked, Duration.ofMinutes(30), Duration.ofDays(1));
+    }
+
+    @Test
+    void sweep_updatesDayWindowsFromOldestPendingUntilCutoff() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocalDateTime oldest = LocalDateTime.of(2025, 1, 1, 18, 0);
+
+        when(appointmentRepository.findOldestEndTime(AppointmentStatus.SCHEDULED, CUTOFF)).thenReturn(oldest);
+        when(appointmentRepository.updateStatusForEndTimeWindow(
+                eq(AppointmentStatus.SCHEDULED), eq(AppointmentStatus.COMPLETED), any(), any(), eq(true)))
+                .thenReturn(2, 1);
+        when(appointmentRepository.updateStatusForEndTimeWindow(
+                eq(AppointmentStatus.SCHEDULED), eq(AppointmentStatus.NO_SHOW), any(), any(), eq(false)))
+                .thenReturn(3, 0);
+
+        int total = sweeper(registry, AppointmentStatus.NO_SHOW).sweep();
+
+        assertThat(total).isEqualTo(6);
+        // doua ferestre: [01-01 18:00, 01-02 18:00) si [01-02 18:00, cutoff)
+        verify(appointmentRepository).updateStatusForEndTimeWindow(AppointmentStatus.SCHEDULED,
+                AppointmentStatus.NO_SHOW, oldest, oldest.plusDays(1), false);
+        verify(appointmentRepository).updateStatusForEndTimeWindow(AppointmentStatus.SCHEDULED,
+                AppointmentStatus.NO_SHOW, oldest.plusDays(1), CUTOFF, false);
+        verify(transactionManager, times(2)).commit(any());
+
+        assertThat(registry.get("clinic.sweeper.batch.rows").summary().count()).isEqualTo(2);
+        assertThat(registry.get("clinic.sweeper.batch.rows").summary().totalAmount()).isEqualTo(6);
+        assertThat(registry.get("clinic.sweeper.updated").tag("status", "NO_SHOW").counter().count()).isEqualTo(3);
+        assertThat(registry.get("clinic.sweeper.updated").tag("status", "COMPLETED").counter().count()).isEqualTo(3);
+        assertThat(registry.get("clinic.sweeper.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sweep_nothingPending_runsNoUpdates() {
+        when(appointmentRepository.findOldestEndTime(AppointmentStatus.SCHEDULED, CUTOFF)).thenReturn(null);
+
+        int total = sweeper(new SimpleMeterRegistry(), AppointmentStatus.COMPLETED).sweep();
+
+        assertThat(total).isZero();
+        verify(appointmentRepository, never()).updateStatusForEndTimeWindow(any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void constructor_rejectsStatusThatIsNotTerminal() {
+        assertThatThrownBy(() -> sweeper(new SimpleMeterRegistry(), AppointmentStatus.CANCELLED))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
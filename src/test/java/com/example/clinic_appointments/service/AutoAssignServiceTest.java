@@ -0,0 +1,187 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.AutoAssignRequest;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.BookingConflictException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.Specialty;
+import com.example.clinic_appointments.repository.SpecialtyRepository;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHold;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutoAssignServiceTest {
+
+    // luni
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Mock
+    private SpecialtyRepository specialtyRepository;
+
+    @Mock
+    private DoctorOccupancyTracker occupancyTracker;
+
+    @Mock
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Mock
+    private RoomScheduleIndex roomScheduleIndex;
+
+    @Mock
+    private SlotHoldRegistry slotHolds;
+
+    @Mock
+    private SeriesIndex seriesIndex;
+
+    @Mock
+    private DoctorLoadBalancer loadBalancer;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @InjectMocks
+    private AutoAssignService autoAssignService;
+
+    @BeforeEach
+    void setUp() {
+        Specialty specialty = new Specialty();
+        specialty.setName("Medicina de familie");
+        lenient().when(specialtyRepository.findById(2L)).thenReturn(Optional.of(specialty));
+    }
+
+    private static AutoAssignRequest request() {
+        return new AutoAssignRequest(10L, 2L, null, NINE, NINE.plusMinutes(30), "Triaj");
+    }
+
+    // balancer-ul fals propune doctorii in ordinea data si intoarce primul acceptat de predicat
+    private void offerInOrder(long... doctorIds) {
+        when(loadBalancer.pickLeastLoaded(eq("Medicina de familie"), eq(NINE.toLocalDate()), any()))
+                .thenAnswer(invocation -> {
+                    LongPredicate eligible = invocation.getArgument(2);
+                    for (long id : doctorIds) {
+                        if (eligible.test(id)) {
+                            return Optional.of(id);
+                        }
+                    }
+                    return Optional.empty();
+                });
+    }
+
+    @Test
+    void booksLeastLoadedDoctorThatWorksAndIsFree() {
+        offerInOrder(1L, 2L, 3L);
+        // 1 nu lucreaza luni, 2 are deja o programare, 3 e liber
+        when(occupancyTracker.worksDuring(1L, NINE, NINE.plusMinutes(30))).thenReturn(false);
+        when(occupancyTracker.worksDuring(2L, NINE, NINE.plusMinutes(30))).thenReturn(true);
+        when(doctorScheduleIndex.findConflict(2L, NINE, NINE.plusMinutes(30), null)).thenReturn(Optional.of(99L));
+        when(occupancyTracker.worksDuring(3L, NINE, NINE.plusMinutes(30))).thenReturn(true);
+        when(appointmentService.createAppointment(any(Appointment.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Appointment booked = autoAssignService.autoAssign(request());
+
+        assertThat(booked.getDoctor().getId()).isEqualTo(3L);
+        assertThat(booked.getPatient().getId()).isEqualTo(10L);
+        assertThat(booked.getReason()).isEqualTo("Triaj");
+    }
+
+    @Test
+    void lostRaceMovesToNextDoctor() {
+        offerInOrder(1L, 2L);
+        when(occupancyTracker.worksDuring(anyLong(), eq(NINE), eq(NINE.plusMinutes(30)))).thenReturn(true);
+        when(appointmentService.createAppointment(any(Appointment.class)))
+                .thenThrow(new BookingConflictException("taken", 50L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Appointment booked = autoAssignService.autoAssign(request());
+
+        assertThat(booked.getDoctor().getId()).isEqualTo(2L);
+        ArgumentCaptor<Appointment> attempts = ArgumentCaptor.forClass(Appointment.class);
+        verify(appointmentService, times(2)).createAppointment(attempts.capture());
+        assertThat(attempts.getAllValues().get(0).getDoctor().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void noFreeDoctorIsAConflict() {
+        offerInOrder(1L);
+        when(occupancyTracker.worksDuring(1L, NINE, NINE.plusMinutes(30))).thenReturn(false);
+
+        assertThatThrownBy(() -> autoAssignService.autoAssign(request()))
+                .isInstanceOf(BookingConflictException.class)
+                .hasMessageContaining("Medicina de familie");
+        verifyNoInteractions(appointmentService);
+    }
+
+    @Test
+    void busyRoomFailsBeforePickingDoctor() {
+        when(roomScheduleIndex.findConflict(4L, NINE, NINE.plusMinutes(30), null)).thenReturn(Optional.of(77L));
+
+        assertThatThrownBy(() -> autoAssignService.autoAssign(
+                new AutoAssignRequest(10L, 2L, 4L, NINE, NINE.plusMinutes(30), "Triaj")))
+                .isInstanceOf(BookingConflictException.class);
+        verifyNoInteractions(loadBalancer);
+    }
+
+    @Test
+    void roomHeldOrUsedBySeriesFailsBeforePickingDoctor() {
+        AutoAssignRequest request = new AutoAssignRequest(10L, 2L, 4L, NINE, NINE.plusMinutes(30), "Triaj");
+        when(slotHolds.findConflict(null, 4L, NINE, NINE.plusMinutes(30), null))
+                .thenReturn(Optional.of(new SlotHold("h1", null, 4L, NINE, NINE.plusMinutes(30), Instant.EPOCH)));
+
+        assertThatThrownBy(() -> autoAssignService.autoAssign(request))
+                .isInstanceOf(BookingConflictException.class)
+                .hasMessageContaining("held");
+
+        when(slotHolds.findConflict(null, 4L, NINE, NINE.plusMinutes(30), null)).thenReturn(Optional.empty());
+        when(seriesIndex.occupiedInRoom(4L, NINE, NINE.plusMinutes(30))).thenReturn(
+                List.of(new Interval(7L, EpochMinutes.floor(NINE), EpochMinutes.floor(NINE.plusMinutes(30)))));
+
+        assertThatThrownBy(() -> autoAssignService.autoAssign(request))
+                .isInstanceOf(BookingConflictException.class)
+                .hasMessageContaining("appointment series 7");
+        verifyNoInteractions(loadBalancer);
+    }
+
+    @Test
+    void missingReasonIsRejected() {
+        assertThatThrownBy(() -> autoAssignService.autoAssign(
+                new AutoAssignRequest(10L, 2L, null, NINE, NINE.plusMinutes(30), " ")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("reason");
+        verifyNoInteractions(specialtyRepository, loadBalancer);
+    }
+
+    @Test
+    void invalidIntervalIsRejected() {
+        assertThatThrownBy(() -> autoAssignService.autoAssign(
+                new AutoAssignRequest(10L, 2L, null, NINE, NINE.minusMinutes(30), "Triaj")))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> autoAssignService.autoAssign(
+                new AutoAssignRequest(10L, 2L, null, NINE, NINE.plusDays(1), "Triaj")))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -26,6 +26,9 @@ class DoctorAvailabilityServiceTest {
     @Mock
     private DoctorRepository doctorRepository;
 
+    @Mock
+    private DoctorOccupancyTracker occupancyTracker;
+
     @InjectMocks
     private DoctorAvailabilityService availabilityService;
 
@@ -96,6 +99,7 @@ class DoctorAvailabilityServiceTest {
 
         verify(doctorRepository).findById(10L);
         verify(availabilityRepository).save(any(DoctorAvailability.class));
+        verify(occupancyTracker).availabilityChanged(10L);
     }
 
     @Test
@@ -142,20 +146,29 @@ class DoctorAvailabilityServiceTest {
         assertThat(result.getDoctor()).isSameAs(newDoctor);
         verify(doctorRepository).findById(20L);
         verify(availabilityRepository).save(existing);
+        // programul ambilor doctori s-a schimbat
+        verify(occupancyTracker).availabilityChanged(10L);
+        verify(occupancyTracker).availabilityChanged(20L);
     }
 
     @Test
-    void deleteAvailability_existing_callsDeleteById() {
-        when(availabilityRepository.existsById(1L)).thenReturn(true);
+    void deleteAvailability_existing_deletesAndRefreshesOccupancy() {
+        Doctor doctor = new Doctor();
+        doctor.setId(10L);
+        DoctorAvailability availability = new DoctorAvailability();
+        availability.setId(1L);
+        availability.setDoctor(doctor);
+        when(availabilityRepository.findById(1L)).thenReturn(Optional.of(availability));
 
         availabilityService.deleteAvailability(1L);
 
-        verify(availabilityRepository).deleteById(1L);
+        verify(availabilityRepository).delete(availability);
+        verify(occupancyTracker).availabilityChanged(10L);
     }
 
     @Test
     void deleteAvailability_missing_throwsException() {
-        when(availabilityRepository.existsById(99L)).thenReturn(false);
+        when(availabilityRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> availabilityService.deleteAvailability(99L))
                 .isInstanceOf(RuntimeException.class)
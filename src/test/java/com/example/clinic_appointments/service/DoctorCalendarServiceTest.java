@@ -0,0 +1,89 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.CalendarEntry;
+import com.example.clinic_appointments.dto.DoctorCalendar;
+import com.example.clinic_appointments.dto.TimeSlot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorCalendarServiceTest {
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private DoctorAvailabilityRepository availabilityRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private DoctorCalendarService calendarService;
+
+    @Test
+    void getCalendar_projectsWeekAndOverlaysAvailability() {
+        Doctor doctor = new Doctor();
+        doctor.setId(1L);
+        // 2026-W42 incepe luni, 12 octombrie
+        LocalDateTime monday = LocalDateTime.of(2026, 10, 12, 0, 0);
+        CalendarEntry entry = new CalendarEntry(5L, monday.plusHours(9), monday.plusHours(9).plusMinutes(30),
+                AppointmentStatus.SCHEDULED, "Ana Popescu", null);
+
+        when(doctorRepository.existsById(1L)).thenReturn(true);
+        when(appointmentRepository.findCalendarEntries(1L, monday, monday.plusDays(7))).thenReturn(List.of(entry));
+        when(availabilityRepository.findByDoctorId(1L)).thenReturn(List.of(
+                new DoctorAvailability(doctor, DayOfWeek.WEDNESDAY, LocalTime.of(14, 0), LocalTime.of(18, 0)),
+                new DoctorAvailability(doctor, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(13, 0))));
+
+        DoctorCalendar calendar = calendarService.getCalendar(1L, "2026-W42");
+
+        assertThat(calendar.weekStart()).isEqualTo(LocalDate.of(2026, 10, 12));
+        assertThat(calendar.week()).isEqualTo("2026-W42");
+        assertThat(calendar.appointments()).containsExactly(entry);
+        assertThat(calendar.availability()).containsExactly(
+                new TimeSlot(monday.plusHours(9), monday.plusHours(13)),
+                new TimeSlot(monday.plusDays(2).plusHours(14), monday.plusDays(2).plusHours(18)));
+    }
+
+    @Test
+    void getCalendar_unknownDoctor_throwsNotFound() {
+        when(doctorRepository.existsById(9L)).thenReturn(false);
+
+        assertThatThrownBy(() -> calendarService.getCalendar(9L, "2026-W42"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void parseWeek_handlesYearBoundariesAndRejectsGarbage() {
+        // saptamana 1 din 2026 incepe in 2025
+        assertThat(DoctorCalendarService.parseWeek("2026-W01")).isEqualTo(LocalDate.of(2025, 12, 29));
+        assertThat(DoctorCalendarService.parseWeek("2026-W53")).isEqualTo(LocalDate.of(2026, 12, 28));
+
+        assertThatThrownBy(() -> DoctorCalendarService.parseWeek("2025-W53"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> DoctorCalendarService.parseWeek("2026-42"))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
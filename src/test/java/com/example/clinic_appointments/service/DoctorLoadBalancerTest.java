@@ -0,0 +1,108 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorLoadBalancerTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private DoctorOccupancyTracker occupancyTracker;
+
+    private static Doctor doctor(Long id) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        return doctor;
+    }
+
+    private DoctorLoadBalancer balancerWith(double... utilization) {
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < utilization.length; i++) {
+            long id = i + 1;
+            doctors.add(doctor(id));
+            lenient().when(occupancyTracker.utilization(id, DAY)).thenReturn(utilization[i]);
+        }
+        when(doctorRepository.findBySpecializationIgnoreCase("cardiologie")).thenReturn(doctors);
+        return new DoctorLoadBalancer(doctorRepository, occupancyTracker);
+    }
+
+    @Test
+    void picksLeastLoadedEligibleDoctor() {
+        DoctorLoadBalancer balancer = balancerWith(0.8, 0.2, 0.5);
+
+        assertThat(balancer.pickLeastLoaded("Cardiologie", DAY, id -> true)).contains(2L);
+        // doctorul 2 e ocupat: urmatorul dupa utilizare, iar 2 ramane in heap
+        assertThat(balancer.pickLeastLoaded("Cardiologie", DAY, id -> id != 2)).contains(3L);
+        assertThat(balancer.pickLeastLoaded("cardiologie ", DAY, id -> true)).contains(2L);
+        verify(doctorRepository, times(1)).findBySpecializationIgnoreCase("cardiologie");
+    }
+
+    @Test
+    void doctorsNotWorkingThatDayAreNeverPicked() {
+        DoctorLoadBalancer balancer = balancerWith(Double.POSITIVE_INFINITY, 0.9);
+
+        assertThat(balancer.pickLeastLoaded("Cardiologie", DAY, id -> id != 2)).isEmpty();
+    }
+
+    @Test
+    void bookingEventReordersHeap() {
+        DoctorLoadBalancer balancer = balancerWith(0.1, 0.3);
+        assertThat(balancer.pickLeastLoaded("Cardiologie", DAY, id -> true)).contains(1L);
+
+        when(occupancyTracker.utilization(1L, DAY)).thenReturn(0.6);
+        LocalDateTime nine = DAY.atTime(9, 0);
+        balancer.onAppointmentEvent(new AppointmentEvent(null, new AppointmentSnapshot(
+                5L, 1L, 1L, null, nine, nine.plusHours(2), AppointmentStatus.SCHEDULED, null)));
+
+        assertThat(balancer.pickLeastLoaded("Cardiologie", DAY, id -> true)).contains(2L);
+    }
+
+    @Test
+    void newTrackerGenerationRebuildsHeaps() {
+        DoctorLoadBalancer balancer = balancerWith(0.1, 0.3);
+        balancer.pickLeastLoaded("Cardiologie", DAY, id -> true);
+
+        when(occupancyTracker.generation()).thenReturn(1L);
+        when(occupancyTracker.utilization(1L, DAY)).thenReturn(0.9);
+
+        assertThat(balancer.pickLeastLoaded("Cardiologie", DAY, id -> true)).contains(2L);
+        verify(doctorRepository, times(2)).findBySpecializationIgnoreCase("cardiologie");
+    }
+
+    @Test
+    void eligibilityCheckRunsOutsideHeapLock() {
+        DoctorLoadBalancer balancer = balancerWith(0.1, 0.3);
+
+        // alt thread care foloseste acelasi heap cat timp verificam doctorul 1 n-ar trebui sa astepte
+        Optional<Long> picked = balancer.pickLeastLoaded("Cardiologie", DAY, id -> id == 2
+                || CompletableFuture.supplyAsync(() -> balancer.pickLeastLoaded("Cardiologie", DAY, other -> true))
+                        .orTimeout(1, TimeUnit.SECONDS)
+                        .join()
+                        .isEmpty());
+
+        assertThat(picked).contains(2L);
+    }
+}
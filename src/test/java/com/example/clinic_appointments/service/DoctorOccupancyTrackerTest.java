@@ -0,0 +1,243 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.DoctorBooking;
+import com.example.clinic_appointments.dto.DoctorOccupancy;
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ServiceBusyException;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DoctorOccupancyTrackerTest {
+
+    // luni, 12 octombrie 2026
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-12T06:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 12);
+    private static final LocalDateTime NINE = MONDAY.atTime(9, 0);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorAvailabilityRepository availabilityRepository;
+
+    @Mock
+    private SeriesIndex seriesIndex;
+
+    private DoctorOccupancyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new DoctorOccupancyTracker(appointmentRepository, availabilityRepository, seriesIndex,
+                new SimpleMeterRegistry(), CLOCK, Duration.ofDays(7));
+    }
+
+    private static DoctorAvailability window(Long doctorId, DayOfWeek day, int fromHour, int toHour) {
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        return new DoctorAvailability(doctor, day, LocalTime.of(fromHour, 0), LocalTime.of(toHour, 0));
+    }
+
+    private static AppointmentSnapshot snapshot(Long id, Long doctorId, LocalDateTime start, int minutes,
+                                                AppointmentStatus status) {
+        return new AppointmentSnapshot(id, 1L, doctorId, null, start, start.plusMinutes(minutes), status, null);
+    }
+
+    private DoctorOccupancy day(LocalDate date) {
+        return tracker.getOccupancy(date, 1).getFirst();
+    }
+
+    private void rebuildWith(List<DoctorBooking> bookings, List<DoctorAvailability> windows) {
+        when(appointmentRepository.findBookingsEndingAfter(MONDAY.minusDays(7).atStartOfDay(),
+                AppointmentStatus.CANCELLED)).thenReturn(bookings);
+        when(availabilityRepository.findAll()).thenReturn(windows);
+        tracker.rebuild();
+    }
+
+    @Test
+    void rebuildLoadsBookingsAndMergesOverlappingWindows() {
+        rebuildWith(
+                List.of(new DoctorBooking(101L, 1L, NINE, NINE.plusMinutes(30)),
+                        new DoctorBooking(102L, 1L, NINE.plusHours(1), NINE.plusHours(2))),
+                List.of(window(1L, DayOfWeek.MONDAY, 9, 13), window(1L, DayOfWeek.MONDAY, 12, 14)));
+
+        DoctorOccupancy occupancy = day(MONDAY);
+
+        assertThat(occupancy.bookedMinutes()).isEqualTo(90);
+        assertThat(occupancy.appointmentCount()).isEqualTo(2);
+        assertThat(occupancy.availableMinutes()).isEqualTo(300);
+        assertThat(occupancy.utilization()).isEqualTo(0.3);
+    }
+
+    @Test
+    void eventsUpdateCountersIncrementally() {
+        rebuildWith(List.of(), List.of(window(1L, DayOfWeek.MONDAY, 9, 13)));
+        AppointmentSnapshot created = snapshot(5L, 1L, NINE, 30, AppointmentStatus.SCHEDULED);
+
+        tracker.onAppointmentEvent(new AppointmentEvent(null, created));
+        assertThat(day(MONDAY).bookedMinutes()).isEqualTo(30);
+
+        // mutata marti, pe o ora
+        AppointmentSnapshot moved = snapshot(5L, 1L, NINE.plusDays(1), 60, AppointmentStatus.SCHEDULED);
+        tracker.onAppointmentEvent(new AppointmentEvent(created, moved));
+        assertThat(day(MONDAY).bookedMinutes()).isZero();
+        assertThat(day(MONDAY).appointmentCount()).isZero();
+        assertThat(day(MONDAY.plusDays(1)).bookedMinutes()).isEqualTo(60);
+
+        AppointmentSnapshot cancelled = snapshot(5L, 1L, NINE.plusDays(1), 60, AppointmentStatus.CANCELLED);
+        tracker.onAppointmentEvent(new AppointmentEvent(moved, cancelled));
+        assertThat(day(MONDAY.plusDays(1)).bookedMinutes()).isZero();
+        assertThat(day(MONDAY.plusDays(1)).appointmentCount()).isZero();
+    }
+
+    @Test
+    void seriesOccurrencesAreAddedOnRead() {
+        rebuildWith(List.of(new DoctorBooking(103L, 1L, NINE, NINE.plusMinutes(30))),
+                List.of(window(1L, DayOfWeek.MONDAY, 9, 11)));
+        LocalDateTime ten = NINE.plusHours(1);
+        when(seriesIndex.occupied(1L, MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay())).thenReturn(List.of(
+                new Interval(7L, EpochMinutes.floor(ten), EpochMinutes.floor(ten.plusMinutes(30)))));
+        when(seriesIndex.version()).thenReturn(3L);
+        long generation = tracker.generation();
+
+        DoctorOccupancy occupancy = day(MONDAY);
+
+        assertThat(occupancy.bookedMinutes()).isEqualTo(60);
+        assertThat(occupancy.appointmentCount()).isEqualTo(2);
+        assertThat(tracker.utilization(1L, MONDAY)).isEqualTo(0.5);
+        // o serie noua invalideaza ce s-a calculat din contoare
+        when(seriesIndex.version()).thenReturn(4L);
+        assertThat(tracker.generation()).isEqualTo(generation + 1);
+    }
+
+    @Test
+    void checkInDoesNotCountTwice() {
+        rebuildWith(List.of(), List.of());
+        AppointmentSnapshot created = snapshot(5L, 1L, NINE, 30, AppointmentStatus.SCHEDULED);
+        tracker.onAppointmentEvent(new AppointmentEvent(null, created));
+
+        AppointmentSnapshot checkedIn = new AppointmentSnapshot(5L, 1L, 1L, null, NINE, NINE.plusMinutes(30),
+                AppointmentStatus.SCHEDULED, NINE.minusMinutes(5));
+        tracker.onAppointmentEvent(new AppointmentEvent(created, checkedIn));
+
+        assertThat(day(MONDAY).bookedMinutes()).isEqualTo(30);
+        assertThat(day(MONDAY).appointmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void appointmentAcrossMidnightIsSplitBetweenDays() {
+        rebuildWith(List.of(new DoctorBooking(104L, 1L, MONDAY.atTime(23, 0), MONDAY.plusDays(1).atTime(1, 30))),
+                List.of());
+
+        List<DoctorOccupancy> days = List.of(day(MONDAY), day(MONDAY.plusDays(1)));
+
+        assertThat(days.get(0).bookedMinutes()).isEqualTo(60);
+        assertThat(days.get(0).appointmentCount()).isEqualTo(1);
+        assertThat(days.get(1).bookedMinutes()).isEqualTo(90);
+        assertThat(days.get(1).appointmentCount()).isZero();
+    }
+
+    @Test
+    void weekSumsDaysAndAvailability() {
+        rebuildWith(
+                List.of(new DoctorBooking(105L, 1L, NINE, NINE.plusHours(1)),
+                        new DoctorBooking(106L, 1L, NINE.plusDays(2), NINE.plusDays(2).plusHours(2))),
+                List.of(window(1L, DayOfWeek.MONDAY, 9, 13), window(1L, DayOfWeek.WEDNESDAY, 9, 17)));
+
+        DoctorOccupancy week = tracker.getOccupancy(MONDAY, 7).getFirst();
+
+        assertThat(week.to()).isEqualTo(MONDAY.plusDays(6));
+        assertThat(week.bookedMinutes()).isEqualTo(180);
+        assertThat(week.appointmentCount()).isEqualTo(2);
+        assertThat(week.availableMinutes()).isEqualTo(12 * 60);
+    }
+
+    @Test
+    void availabilityChangeIsPickedUp() {
+        rebuildWith(List.of(), List.of(window(1L, DayOfWeek.MONDAY, 9, 13)));
+        when(availabilityRepository.findByDoctorId(1L)).thenReturn(List.of(window(1L, DayOfWeek.MONDAY, 9, 11)));
+
+        assertThat(tracker.worksDuring(1L, NINE.plusHours(2), NINE.plusHours(3))).isTrue();
+
+        tracker.availabilityChanged(1L);
+
+        assertThat(day(MONDAY).availableMinutes()).isEqualTo(120);
+        assertThat(tracker.worksDuring(1L, NINE.plusHours(1), NINE.plusHours(2))).isTrue();
+        assertThat(tracker.worksDuring(1L, NINE.plusHours(2), NINE.plusHours(3))).isFalse();
+        assertThat(tracker.worksDuring(1L, NINE.plusDays(1), NINE.plusDays(1).plusHours(1))).isFalse();
+    }
+
+    @Test
+    void rebuildReplacesCounters() {
+        rebuildWith(List.of(), List.of());
+        tracker.onAppointmentEvent(new AppointmentEvent(null,
+                snapshot(5L, 1L, NINE, 30, AppointmentStatus.SCHEDULED)));
+
+        // programarea a disparut din baza intre timp (de ex. stearsa direct)
+        when(appointmentRepository.findBookingsEndingAfter(any(), any())).thenReturn(List.of());
+        tracker.rebuild();
+
+        assertThat(tracker.getOccupancy(MONDAY, 1)).isEmpty();
+    }
+
+    @Test
+    void queriesAreRejectedBeforeLoadOrOutsideTrackedRange() {
+        assertThatThrownBy(() -> tracker.getOccupancy(MONDAY, 1)).isInstanceOf(ServiceBusyException.class);
+
+        rebuildWith(List.of(), List.of());
+
+        assertThatThrownBy(() -> tracker.getOccupancy(MONDAY.minusDays(8), 1))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> tracker.getOccupancy(MONDAY, DoctorOccupancyTracker.MAX_DAYS + 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void eventForChangeAlreadySeenByRebuildIsNotCountedTwice() {
+        // programarea 5 s-a salvat inainte de reconstruire, evenimentul ei vine dupa
+        rebuildWith(List.of(new DoctorBooking(5L, 1L, NINE, NINE.plusMinutes(30))), List.of());
+        AppointmentSnapshot created = snapshot(5L, 1L, NINE, 30, AppointmentStatus.SCHEDULED);
+
+        tracker.onAppointmentEvent(new AppointmentEvent(null, created));
+
+        assertThat(day(MONDAY).bookedMinutes()).isEqualTo(30);
+        assertThat(day(MONDAY).appointmentCount()).isEqualTo(1);
+
+        // la fel pentru o anulare pe care reconstruirea n-a mai gasit-o activa
+        AppointmentSnapshot other = snapshot(6L, 1L, NINE.plusHours(1), 30, AppointmentStatus.SCHEDULED);
+        tracker.onAppointmentEvent(new AppointmentEvent(other,
+                snapshot(6L, 1L, NINE.plusHours(1), 30, AppointmentStatus.CANCELLED)));
+
+        assertThat(day(MONDAY).bookedMinutes()).isEqualTo(30);
+        assertThat(day(MONDAY).appointmentCount()).isEqualTo(1);
+    }
+}
@@ -21,6 +21,9 @@ class DoctorServiceTest {
     @Mock
     private DoctorRepository doctorRepository;
 
+    @Mock
+    private DoctorLoadBalancer loadBalancer;
+
     @InjectMocks
     private DoctorService doctorService;
 
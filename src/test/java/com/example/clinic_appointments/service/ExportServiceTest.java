@@ -0,0 +1,106 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Invoice;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.InvoiceRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(appointmentRepository, invoiceRepository, entityManager,
+                transactionManager, JsonMapper.builder().build());
+    }
+
+    @Test
+    void exportAppointments_writesOneLinePerRowAndClearsEveryChunk() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+        int rows = ExportService.CHUNK_SIZE * 2 + 3;
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(appointmentRepository.streamByStartTimeRange(from, to)).thenReturn(
+                IntStream.range(0, rows).mapToObj(i -> {
+                    Appointment appt = new Appointment();
+                    appt.setId((long) i);
+                    appt.setStartTime(from.plusMinutes(i));
+                    appt.setStatus(AppointmentStatus.SCHEDULED);
+                    return appt;
+                }).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportAppointments(from, to, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(rows);
+        assertThat(lines[0]).contains("\"id\":0").contains("\"startTime\":\"2025-01-01T00:00:00\"");
+        verify(entityManager, times(2)).clear();
+        verify(transactionManager).commit(any());
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportInvoices_streamsIssueDateRange() {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+        Invoice invoice = new Invoice();
+        invoice.setId(7L);
+        invoice.setAmount(BigDecimal.TEN);
+
+        when(invoiceRepository.streamByIssueDateRange(from, to)).thenReturn(Stream.of(invoice));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportInvoices(from, to, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).startsWith("{").contains("\"id\":7").endsWith("}\n");
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    void exportAppointments_emptyRange_throwsBadRequest() {
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        assertThatThrownBy(() -> exportService.exportAppointments(t, t, new ByteArrayOutputStream()))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(appointmentRepository);
+    }
+}
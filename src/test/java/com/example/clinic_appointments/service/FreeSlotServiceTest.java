@@ -0,0 +1,138 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.TimeSlot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ResourceNotFoundException;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FreeSlotServiceTest {
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private DoctorAvailabilityRepository availabilityRepository;
+
+    @Mock
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Mock
+    private SlotHoldRegistry slotHolds;
+
+    @Mock
+    private SeriesIndex seriesIndex;
+
+    @InjectMocks
+    private FreeSlotService freeSlotService;
+
+    @Test
+    void getFreeSlots_expandsWeeklyWindowsAndSubtractsAppointments() {
+        Doctor doctor = new Doctor();
+        doctor.setId(1L);
+
+        // 2025-01-06 este luni
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 8, 0, 0);
+        LocalDateTime booked = LocalDateTime.of(2025, 1, 6, 9, 30);
+
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+        when(availabilityRepository.findByDoctor(doctor)).thenReturn(List.of(
+                new DoctorAvailability(doctor, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0))));
+        when(doctorScheduleIndex.occupied(1L, from, to)).thenReturn(List.of(
+                new Interval(5L, EpochMinutes.floor(booked), EpochMinutes.floor(booked.plusMinutes(30)))));
+
+        List<TimeSlot> slots = freeSlotService.getFreeSlots(1L, from, to, 30);
+
+        assertThat(slots).extracting(TimeSlot::startTime).containsExactly(
+                LocalDateTime.of(2025, 1, 6, 9, 0),
+                LocalDateTime.of(2025, 1, 6, 10, 0),
+                LocalDateTime.of(2025, 1, 6, 10, 30));
+    }
+
+    @Test
+    void getFreeSlots_heldIntervalsCountAsBusy() {
+        Doctor doctor = new Doctor();
+        doctor.setId(1L);
+
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 7, 0, 0);
+        LocalDateTime booked = LocalDateTime.of(2025, 1, 6, 10, 0);
+        LocalDateTime held = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+        when(availabilityRepository.findByDoctor(doctor)).thenReturn(List.of(
+                new DoctorAvailability(doctor, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0))));
+        when(doctorScheduleIndex.occupied(1L, from, to)).thenReturn(List.of(
+                new Interval(5L, EpochMinutes.floor(booked), EpochMinutes.floor(booked.plusMinutes(30)))));
+        when(slotHolds.held(1L, from, to)).thenReturn(List.of(
+                new Interval(1L, EpochMinutes.floor(held), EpochMinutes.floor(held.plusMinutes(30)))));
+
+        List<TimeSlot> slots = freeSlotService.getFreeSlots(1L, from, to, 30);
+
+        assertThat(slots).extracting(TimeSlot::startTime).containsExactly(
+                LocalDateTime.of(2025, 1, 6, 9, 30),
+                LocalDateTime.of(2025, 1, 6, 10, 30));
+    }
+
+    @Test
+    void getFreeSlots_clipsToRequestedRange() {
+        Doctor doctor = new Doctor();
+        doctor.setId(1L);
+
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 6, 10, 45);
+
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+        when(availabilityRepository.findByDoctor(doctor)).thenReturn(List.of(
+                new DoctorAvailability(doctor, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0))));
+        when(doctorScheduleIndex.occupied(1L, from, to)).thenReturn(List.of());
+
+        List<TimeSlot> slots = freeSlotService.getFreeSlots(1L, from, to, 30);
+
+        assertThat(slots).containsExactly(new TimeSlot(from, from.plusMinutes(30)));
+    }
+
+    @Test
+    void getFreeSlots_unknownDoctor_throwsNotFound() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 0, 0);
+        when(doctorRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> freeSlotService.getFreeSlots(99L, from, from.plusDays(1), 30))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void getFreeSlots_invalidArguments_throwBadRequest() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 0, 0);
+
+        assertThatThrownBy(() -> freeSlotService.getFreeSlots(1L, from, from.plusDays(100), 30))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> freeSlotService.getFreeSlots(1L, from, from.plusDays(1), 0))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(doctorRepository);
+    }
+}
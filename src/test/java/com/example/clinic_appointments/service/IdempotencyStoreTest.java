@@ -0,0 +1,140 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.model.IdempotencyRecord;
+import com.example.clinic_appointments.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    // ceas pe care testul il poate muta inainte
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2030-01-01T08:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void completedResponseIsServedFromMemoryAndPersisted() {
+        IdempotencyStore store = new IdempotencyStore(repository, clock, Duration.ofHours(1), 10);
+
+        assertThat(store.begin("k1", "hash")).isTrue();
+        store.complete("k1", "hash", 201, "application/json", "{\"id\":1}");
+
+        IdempotencyRecord record = store.find("k1").orElseThrow();
+        assertThat(record.getStatus()).isEqualTo(201);
+        assertThat(record.getBody()).isEqualTo("{\"id\":1}");
+        verify(repository).save(any(IdempotencyRecord.class));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void keyInFlightCannotBeTakenTwice() {
+        IdempotencyStore store = new IdempotencyStore(repository, clock, Duration.ofHours(1), 10);
+
+        assertThat(store.begin("k1", "hash")).isTrue();
+        assertThat(store.begin("k1", "hash")).isFalse();
+
+        store.abandon("k1");
+
+        assertThat(store.begin("k1", "hash")).isTrue();
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() {
+        IdempotencyStore store = new IdempotencyStore(repository, clock, Duration.ofHours(1), 10);
+        store.complete("k1", "hash", 201, null, "{}");
+
+        clock.advance(Duration.ofHours(2));
+
+        assertThat(store.find("k1")).isEmpty();
+        assertThat(store.cachedCount()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAndReloadedFromDatabase() {
+        IdempotencyStore store = new IdempotencyStore(repository, clock, Duration.ofHours(1), 2);
+        store.complete("k1", "h1", 201, null, "one");
+        store.complete("k2", "h2", 201, null, "two");
+        store.find("k1");
+        store.complete("k3", "h3", 201, null, "three");
+
+        assertThat(store.cachedCount()).isEqualTo(2);
+
+        IdempotencyRecord persisted = new IdempotencyRecord("k2", "h2", 201, null, "two",
+                clock.instant().plus(Duration.ofHours(1)));
+        when(repository.findById("k2")).thenReturn(Optional.of(persisted));
+
+        assertThat(store.find("k2")).contains(persisted);
+        // a doua cautare vine din memorie
+        assertThat(store.find("k2")).contains(persisted);
+        verify(repository, times(1)).findById("k2");
+    }
+
+    @Test
+    void expiredDatabaseRowIsIgnored() {
+        IdempotencyStore store = new IdempotencyStore(repository, clock, Duration.ofHours(1), 10);
+        when(repository.findById("k1")).thenReturn(Optional.of(
+                new IdempotencyRecord("k1", "h1", 201, null, "old", clock.instant().minusSeconds(1))));
+
+        assertThat(store.find("k1")).isEmpty();
+    }
+
+    @Test
+    void oversizedBodyStaysOnlyInMemory() {
+        IdempotencyStore store = new IdempotencyStore(repository, clock, Duration.ofHours(1), 10);
+
+        store.complete("k1", "h1", 200, null, "x".repeat(IdempotencyRecord.MAX_BODY_LENGTH + 1));
+
+        assertThat(store.find("k1")).isPresent();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void purgeDropsExpiredEntries() {
+        IdempotencyStore store = new IdempotencyStore(repository, clock, Duration.ofHours(1), 10);
+        store.complete("k1", "h1", 201, null, "{}");
+        clock.advance(Duration.ofHours(2));
+
+        store.purgeExpired();
+
+        assertThat(store.cachedCount()).isZero();
+        verify(repository).deleteExpired(clock.instant());
+    }
+}
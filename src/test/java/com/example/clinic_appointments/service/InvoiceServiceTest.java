@@ -1,19 +1,29 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.dto.InvoiceResponse;
+import com.example.clinic_appointments.exception.ConcurrentUpdateException;
 import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.ArchivedAppointment;
+import com.example.clinic_appointments.model.ArchivedInvoice;
 import com.example.clinic_appointments.model.Invoice;
 import com.example.clinic_appointments.model.InvoiceStatus;
 import com.example.clinic_appointments.model.Patient;
 import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.ArchivedInvoiceRepository;
 import com.example.clinic_appointments.repository.InvoiceRepository;
 import com.example.clinic_appointments.repository.PatientRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +44,12 @@ class InvoiceServiceTest {
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private ArchivedInvoiceRepository archivedInvoiceRepository;
+
+    @Spy
+    private OptimisticRetryExecutor updateRetries = new OptimisticRetryExecutor(3, Duration.ZERO);
+
     @InjectMocks
     private InvoiceService invoiceService;
 
@@ -80,6 +96,39 @@ class InvoiceServiceTest {
                 .hasMessageContaining("Invoice not found");
     }
 
+    @Test
+    void getInvoiceById_archived_readsFromArchiveWithItsAppointment() {
+        ArchivedAppointment appointment = new ArchivedAppointment();
+        appointment.setId(20L);
+        appointment.setStatus(AppointmentStatus.COMPLETED);
+
+        ArchivedInvoice archived = new ArchivedInvoice();
+        archived.setId(3L);
+        archived.setAppointmentId(20L);
+        archived.setAppointment(appointment);
+        archived.setAmount(BigDecimal.TEN);
+        archived.setStatus(InvoiceStatus.PAID);
+
+        when(invoiceRepository.findById(3L)).thenReturn(Optional.empty());
+        when(archivedInvoiceRepository.findById(3L)).thenReturn(Optional.of(archived));
+
+        Invoice result = invoiceService.getInvoiceById(3L);
+
+        assertThat(result.getId()).isEqualTo(3L);
+        assertThat(result.getStatus()).isEqualTo(InvoiceStatus.PAID);
+        assertThat(result.getAppointment().getId()).isEqualTo(20L);
+    }
+
+    @Test
+    void deleteInvoice_archived_throwsBadRequest() {
+        when(invoiceRepository.existsById(3L)).thenReturn(false);
+        when(archivedInvoiceRepository.existsById(3L)).thenReturn(true);
+
+        assertThatThrownBy(() -> invoiceService.deleteInvoice(3L))
+                .isInstanceOf(BadRequestException.class);
+        verify(invoiceRepository, never()).deleteById(any());
+    }
+
     @Test
     void createInvoice_valid_setsPatientAppointmentDefaultsAndSaves() {
         // invoice primit din afară, cu id-uri la patient și appointment
@@ -244,6 +293,70 @@ class InvoiceServiceTest {
                 .hasMessageContaining("Amount must be positive");
     }
 
+    private static Invoice invoiceAtVersion(long version, String description) {
+        Invoice invoice = new Invoice();
+        invoice.setId(1L);
+        invoice.setAmount(BigDecimal.valueOf(100));
+        invoice.setDescription(description);
+        invoice.setVersion(version);
+        return invoice;
+    }
+
+    @Test
+    void updateInvoice_versionConflict_rereadsAndRetries() {
+        Invoice stale = invoiceAtVersion(3L, "Old desc");
+        Invoice fresh = invoiceAtVersion(4L, "Changed meanwhile");
+
+        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(invoiceRepository.save(any(Invoice.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Invoice.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Invoice updated = new Invoice();
+        updated.setStatus(InvoiceStatus.PAID);
+
+        Invoice result = invoiceService.updateInvoice(1L, updated);
+
+        assertThat(result).isSameAs(fresh);
+        assertThat(result.getStatus()).isEqualTo(InvoiceStatus.PAID);
+        assertThat(result.getDescription()).isEqualTo("Changed meanwhile");
+        verify(invoiceRepository, times(2)).save(any(Invoice.class));
+    }
+
+    @Test
+    void updateInvoice_retriesExhausted_throwsWithCurrentState() {
+        Invoice current = invoiceAtVersion(9L, "Latest");
+
+        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(invoiceRepository.save(any(Invoice.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Invoice.class, 1L));
+
+        Invoice updated = new Invoice();
+        updated.setDescription("Mine");
+
+        assertThatThrownBy(() -> invoiceService.updateInvoice(1L, updated))
+                .isInstanceOf(ConcurrentUpdateException.class)
+                .satisfies(ex -> assertThat(((ConcurrentUpdateException) ex).getCurrent())
+                        .isInstanceOfSatisfying(InvoiceResponse.class,
+                                response -> assertThat(response.version()).isEqualTo(9L)));
+        verify(invoiceRepository, times(3)).save(any(Invoice.class));
+    }
+
+    @Test
+    void updateInvoice_staleClientVersion_rejectedWithoutSaving() {
+        Invoice current = invoiceAtVersion(5L, "Latest");
+        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        Invoice updated = new Invoice();
+        updated.setDescription("Mine");
+        updated.setVersion(4L);
+
+        assertThatThrownBy(() -> invoiceService.updateInvoice(1L, updated))
+                .isInstanceOf(ConcurrentUpdateException.class)
+                .hasMessageContaining("version 5");
+        verify(invoiceRepository, never()).save(any());
+    }
+
     @Test
     void deleteInvoice_existing_callsDeleteById() {
         when(invoiceRepository.existsById(1L)).thenReturn(true);
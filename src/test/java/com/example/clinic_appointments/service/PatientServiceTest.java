@@ -1,5 +1,6 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.CursorPage;
 import com.example.clinic_appointments.model.Patient;
 import com.example.clinic_appointments.repository.PatientRepository;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -45,6 +47,30 @@ class PatientServiceTest {
         verify(patientRepository, times(1)).findAll();
     }
 
+    @Test
+    void getPatientsPage_withCursor_readsAfterDecodedId() {
+        Patient p3 = new Patient();
+        p3.setId(3L);
+
+        when(patientRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(11))).thenReturn(List.of(p3));
+
+        CursorPage<Patient> page = patientService.getPatientsPage(CursorCodec.encode(2L), 10);
+
+        assertThat(page.items()).containsExactly(p3);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getPatientsPage_sizeIsCapped() {
+        when(patientRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(CursorPage.MAX_SIZE + 1)))
+                .thenReturn(List.of());
+
+        CursorPage<Patient> page = patientService.getPatientsPage(null, 100_000);
+
+        assertThat(page.items()).isEmpty();
+        verify(patientRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(CursorPage.MAX_SIZE + 1));
+    }
+
     @Test
     void getPatientById_existing_returnsPatient() {
         Patient p = new Patient();
@@ -0,0 +1,301 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.RescheduleMove;
+import com.example.clinic_appointments.dto.ReschedulePlan;
+import com.example.clinic_appointments.dto.RescheduleRequest;
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentSeries;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.AppointmentSeriesRepository;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.schedule.BookingLockCoordinator;
+import com.example.clinic_appointments.schedule.DoctorScheduleIndex;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RescheduleServiceTest {
+
+    // 2030-01-07 este luni
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private DoctorAvailabilityRepository availabilityRepository;
+
+    @Mock
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Mock
+    private RoomScheduleIndex roomScheduleIndex;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SeriesIndex seriesIndex;
+
+    private RescheduleService service;
+    private Doctor sick;
+    private Doctor substitute;
+
+    @BeforeEach
+    void setUp() {
+        SlotHoldRegistry slotHolds = new SlotHoldRegistry();
+        FreeSlotService freeSlotService = new FreeSlotService(doctorRepository, availabilityRepository,
+                doctorScheduleIndex, slotHolds, seriesIndex);
+        service = new RescheduleService(appointmentRepository, seriesRepository, doctorRepository,
+                availabilityRepository, freeSlotService, doctorScheduleIndex, roomScheduleIndex, slotHolds, seriesIndex,
+                new BookingLockCoordinator(new SimpleMeterRegistry()), events, transactionManager);
+        sick = doctor(1L);
+        substitute = doctor(2L);
+        lenient().when(doctorRepository.findById(1L)).thenReturn(Optional.of(sick));
+    }
+
+    private static Doctor doctor(Long id) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        return doctor;
+    }
+
+    private static Appointment appointment(Long id, LocalDateTime start, Room room) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setStartTime(start);
+        appointment.setEndTime(start.plusMinutes(30));
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        appointment.setRoom(room);
+        return appointment;
+    }
+
+    // serie saptamanala a doctorului bolnav, lunea la 9:30
+    private AppointmentSeries weeklySeries(Room room) {
+        Patient patient = new Patient();
+        patient.setId(40L);
+        AppointmentSeries series = new AppointmentSeries();
+        series.setId(7L);
+        series.setPatient(patient);
+        series.setDoctor(sick);
+        series.setRoom(room);
+        series.setFirstDate(MONDAY);
+        series.setStartTime(LocalTime.of(9, 30));
+        series.setDurationMinutes(30);
+        series.setRule("FREQ=WEEKLY;BYDAY=MO;COUNT=4");
+        series.setExceptions(new HashSet<>());
+        when(seriesRepository.findByDoctorId(1L)).thenReturn(List.of(series));
+        return series;
+    }
+
+    private void works(Doctor doctor, DayOfWeek... days) {
+        List<DoctorAvailability> windows = new ArrayList<>();
+        for (DayOfWeek day : days) {
+            windows.add(new DoctorAvailability(doctor, day, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        }
+        when(availabilityRepository.findByDoctor(doctor)).thenReturn(windows);
+    }
+
+    private void sourceHas(RescheduleRequest request, Appointment... appointments) {
+        when(appointmentRepository.findMovableByDoctor(1L, request.sourceFrom(), request.sourceTo(),
+                AppointmentStatus.SCHEDULED)).thenReturn(List.of(appointments));
+    }
+
+    private static RescheduleRequest request(Long substituteId, boolean dryRun) {
+        return new RescheduleRequest(MONDAY.atStartOfDay(), TUESDAY.atStartOfDay(),
+                TUESDAY.atStartOfDay(), TUESDAY.plusDays(1).atStartOfDay(), substituteId, dryRun);
+    }
+
+    @Test
+    void dryRun_placesAroundExistingBookingsAndReportsWhatDoesNotFit() {
+        RescheduleRequest request = request(2L, true);
+        when(doctorRepository.findById(2L)).thenReturn(Optional.of(substitute));
+        works(substitute, DayOfWeek.TUESDAY);
+        LocalDateTime booked = TUESDAY.atTime(9, 0);
+        when(doctorScheduleIndex.occupied(2L, request.targetFrom(), request.targetTo())).thenReturn(List.of(
+                new Interval(99L, EpochMinutes.floor(booked), EpochMinutes.floor(booked.plusMinutes(30)))));
+        sourceHas(request, appointment(10L, MONDAY.atTime(9, 0), null),
+                appointment(11L, MONDAY.atTime(9, 30), null),
+                appointment(12L, MONDAY.atTime(10, 0), null));
+
+        ReschedulePlan plan = service.reschedule(1L, request);
+
+        assertThat(plan.applied()).isFalse();
+        assertThat(plan.targetDoctorId()).isEqualTo(2L);
+        assertThat(plan.moves()).extracting(RescheduleMove::appointmentId).containsExactly(10L);
+        assertThat(plan.moves().get(0).startTime()).isEqualTo(TUESDAY.atTime(9, 30));
+        assertThat(plan.unplaced()).containsExactly(11L, 12L);
+        verify(appointmentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void sameDoctor_skipsSourceWindowAndKeepsRoomWhenItIsFree() {
+        Room room = new Room("Cabinet 3", "Etaj 1", null);
+        room.setId(3L);
+        // fereastra tinta include si ziua sursa, care trebuie sa ramana neatinsa
+        RescheduleRequest request = new RescheduleRequest(MONDAY.atStartOfDay(), TUESDAY.atStartOfDay(),
+                MONDAY.atStartOfDay(), TUESDAY.plusDays(1).atStartOfDay(), null, true);
+        works(sick, DayOfWeek.MONDAY, DayOfWeek.TUESDAY);
+        LocalDateTime roomBusy = TUESDAY.atTime(9, 0);
+        when(roomScheduleIndex.occupied(3L, request.targetFrom(), request.targetTo())).thenReturn(List.of(
+                new Interval(98L, EpochMinutes.floor(roomBusy), EpochMinutes.floor(roomBusy.plusMinutes(30)))));
+        sourceHas(request, appointment(10L, MONDAY.atTime(9, 0), room));
+
+        ReschedulePlan plan = service.reschedule(1L, request);
+
+        RescheduleMove move = plan.moves().get(0);
+        assertThat(move.doctorId()).isEqualTo(1L);
+        assertThat(move.startTime()).isEqualTo(TUESDAY.atTime(9, 30));
+        assertThat(move.endTime()).isEqualTo(TUESDAY.atTime(10, 0));
+        assertThat(move.roomId()).isEqualTo(3L);
+        assertThat(plan.unplaced()).isEmpty();
+    }
+
+    @Test
+    void apply_savesOneBatchAndDoesNotOfferTheOldSlots() {
+        RescheduleRequest request = request(2L, false);
+        when(doctorRepository.findById(2L)).thenReturn(Optional.of(substitute));
+        works(substitute, DayOfWeek.TUESDAY);
+        Appointment first = appointment(10L, MONDAY.atTime(9, 0), null);
+        Appointment second = appointment(11L, MONDAY.atTime(9, 30), null);
+        first.setDoctor(sick);
+        second.setDoctor(sick);
+        sourceHas(request, first, second);
+        when(appointmentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReschedulePlan plan = service.reschedule(1L, request);
+
+        assertThat(plan.applied()).isTrue();
+        assertThat(first.getDoctor()).isSameAs(substitute);
+        assertThat(first.getStartTime()).isEqualTo(TUESDAY.atTime(9, 0));
+        assertThat(second.getStartTime()).isEqualTo(TUESDAY.atTime(9, 30));
+        verify(appointmentRepository, times(1)).saveAll(List.of(first, second));
+        // indexurile se actualizeaza inainte sa se elibereze lock-urile, evenimentele dupa
+        InOrder order = inOrder(doctorScheduleIndex, roomScheduleIndex, events);
+        order.verify(doctorScheduleIndex).register(first);
+        order.verify(roomScheduleIndex).register(second);
+        order.verify(events, times(2)).publishEvent(any(AppointmentEvent.class));
+
+        ArgumentCaptor<AppointmentEvent> published = ArgumentCaptor.forClass(AppointmentEvent.class);
+        verify(events, times(2)).publishEvent(published.capture());
+        assertThat(published.getAllValues()).allSatisfy(event -> {
+            assertThat(event.before().doctorId()).isEqualTo(1L);
+            assertThat(event.after().doctorId()).isEqualTo(2L);
+            assertThat(event.freesSlot()).isFalse();
+        });
+    }
+
+    @Test
+    void invalidWindows_throwBadRequest() {
+        RescheduleRequest reversed = new RescheduleRequest(TUESDAY.atStartOfDay(), MONDAY.atStartOfDay(),
+                TUESDAY.atStartOfDay(), TUESDAY.plusDays(1).atStartOfDay(), null, true);
+
+        assertThatThrownBy(() -> service.reschedule(1L, reversed)).isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    void apply_materializesMovedSeriesOccurrences() {
+        RescheduleRequest request = request(2L, false);
+        when(doctorRepository.findById(2L)).thenReturn(Optional.of(substitute));
+        works(substitute, DayOfWeek.TUESDAY);
+        Appointment stored = appointment(10L, MONDAY.atTime(9, 0), null);
+        stored.setDoctor(sick);
+        sourceHas(request, stored);
+        AppointmentSeries series = weeklySeries(null);
+        when(appointmentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Appointment> rows = invocation.getArgument(0);
+            rows.stream().filter(row -> row.getId() == null).forEach(row -> row.setId(99L));
+            return rows;
+        });
+        when(seriesRepository.saveAll(any())).thenAnswer(invocation ->
+                List.copyOf(invocation.<Collection<AppointmentSeries>>getArgument(0)));
+
+        ReschedulePlan plan = service.reschedule(1L, request);
+
+        assertThat(plan.moves()).extracting(RescheduleMove::appointmentId).containsExactly(10L, 99L);
+        RescheduleMove occurrence = plan.moves().get(1);
+        assertThat(occurrence.seriesId()).isEqualTo(7L);
+        assertThat(occurrence.occurrenceDate()).isEqualTo(MONDAY);
+        assertThat(occurrence.startTime()).isEqualTo(TUESDAY.atTime(9, 30));
+        assertThat(plan.unplacedOccurrences()).isEmpty();
+        // ziua iese din serie; programarea noua o inlocuieste
+        assertThat(series.getExceptions()).containsExactly(MONDAY);
+        verify(seriesIndex).register(series);
+        ArgumentCaptor<AppointmentEvent> published = ArgumentCaptor.forClass(AppointmentEvent.class);
+        verify(events, times(2)).publishEvent(published.capture());
+        AppointmentEvent created = published.getAllValues().get(1);
+        assertThat(created.before()).isNull();
+        assertThat(created.after().doctorId()).isEqualTo(2L);
+        assertThat(created.after().startTime()).isEqualTo(TUESDAY.atTime(9, 30));
+    }
+
+    @Test
+    void dryRun_keepsRoomOnlyWhereNoOtherSeriesUsesIt() {
+        Room room = new Room("Cabinet 3", "Etaj 1", null);
+        room.setId(3L);
+        RescheduleRequest request = request(2L, true);
+        when(doctorRepository.findById(2L)).thenReturn(Optional.of(substitute));
+        works(substitute, DayOfWeek.TUESDAY);
+        sourceHas(request, appointment(10L, MONDAY.atTime(9, 0), room));
+        // camera 3 e folosita marti la 9:00 de aparitia unei alte serii
+        LocalDateTime busy = TUESDAY.atTime(9, 0);
+        when(seriesIndex.occupiedInRoom(eq(3L), any(), any())).thenAnswer(invocation ->
+                invocation.<LocalDateTime>getArgument(1).isBefore(busy.plusMinutes(30))
+                        ? List.of(new Interval(8L, EpochMinutes.floor(busy), EpochMinutes.floor(busy.plusMinutes(30))))
+                        : List.of());
+
+        ReschedulePlan plan = service.reschedule(1L, request);
+
+        RescheduleMove move = plan.moves().get(0);
+        assertThat(move.startTime()).isEqualTo(TUESDAY.atTime(9, 30));
+        assertThat(move.roomId()).isEqualTo(3L);
+    }
+}
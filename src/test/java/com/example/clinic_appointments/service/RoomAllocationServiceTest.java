@@ -0,0 +1,179 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.RoomAssignment;
+import com.example.clinic_appointments.dto.RoomPlan;
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Room;
+import com.example.clinic_appointments.repository.AppointmentRepository;
+import com.example.clinic_appointments.repository.RoomRepository;
+import com.example.clinic_appointments.schedule.BookingLockCoordinator;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
+import com.example.clinic_appointments.schedule.SlotHoldRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomAllocationServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+    private static final LocalDateTime NINE = DAY.atTime(9, 0);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private RoomScheduleIndex roomScheduleIndex;
+
+    @Mock
+    private SeriesIndex seriesIndex;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SlotHoldRegistry slotHolds;
+    private RoomAllocationService service;
+
+    @BeforeEach
+    void setUp() {
+        slotHolds = new SlotHoldRegistry();
+        service = new RoomAllocationService(appointmentRepository, roomRepository, roomScheduleIndex, slotHolds,
+                seriesIndex, new BookingLockCoordinator(new SimpleMeterRegistry()), events, transactionManager,
+                new SimpleMeterRegistry());
+        when(roomRepository.findAll()).thenReturn(List.of(room(1L, "Ecografie"), room(2L, null)));
+    }
+
+    private static Room room(Long id, String description) {
+        Room room = new Room("Cabinet " + id, "Etaj 1", description);
+        room.setId(id);
+        return room;
+    }
+
+    private static Appointment appointment(Long id, String reason, Room room) {
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        doctor.setSpecialization("Medicina interna");
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setDoctor(doctor);
+        appointment.setReason(reason);
+        appointment.setStartTime(NINE);
+        appointment.setEndTime(NINE.plusMinutes(30));
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        appointment.setRoom(room);
+        return appointment;
+    }
+
+    private void dayHas(Appointment... appointments) {
+        when(appointmentRepository.findActiveStartingBetween(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(),
+                AppointmentStatus.CANCELLED)).thenReturn(List.of(appointments));
+    }
+
+    @Test
+    void planMatchesReasonToRoomCapability() {
+        dayHas(appointment(5L, "Control", null), appointment(6L, "Ecografie abdominala", null));
+
+        RoomPlan plan = service.plan(DAY, true);
+
+        assertThat(plan.applied()).isFalse();
+        assertThat(plan.roomsUsed()).isEqualTo(2);
+        assertThat(plan.changed()).isEqualTo(2);
+        assertThat(plan.assignments()).extracting(RoomAssignment::roomId).containsExactly(2L, 1L);
+        verify(appointmentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void applySavesOnlyChangedRoomsAndPublishesEvents() {
+        Appointment kept = appointment(5L, "Control", room(2L, null));
+        Appointment moved = appointment(6L, "Ecografie", null);
+        dayHas(kept, moved);
+        when(appointmentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RoomPlan plan = service.apply(DAY, true);
+
+        assertThat(plan.applied()).isTrue();
+        assertThat(plan.changed()).isEqualTo(1);
+        assertThat(moved.getRoom().getId()).isEqualTo(1L);
+        verify(appointmentRepository).saveAll(List.of(moved));
+        // indexul se actualizeaza sub lock-uri, evenimentul dupa
+        InOrder order = inOrder(roomScheduleIndex, events);
+        order.verify(roomScheduleIndex).register(moved);
+        ArgumentCaptor<AppointmentEvent> event = ArgumentCaptor.forClass(AppointmentEvent.class);
+        order.verify(events).publishEvent(event.capture());
+        assertThat(event.getValue().before().roomId()).isNull();
+        assertThat(event.getValue().after().roomId()).isEqualTo(1L);
+    }
+
+    @Test
+    void planKeepsRoomsTakenByNeighbourDaysHoldsAndSeriesFree() {
+        Room plain = room(2L, null);
+        when(roomRepository.findAll()).thenReturn(List.of(plain, room(3L, null), room(4L, null)));
+        dayHas(appointment(5L, "Control", null));
+        // camera 2: o programare de ieri care trece de miezul noptii pana dupa ora 9
+        lenient().when(roomScheduleIndex.occupied(eq(2L), any(), any())).thenReturn(List.of(
+                new Interval(99L, EpochMinutes.floor(DAY.minusDays(1).atTime(22, 0)),
+                        EpochMinutes.floor(NINE.plusMinutes(15)))));
+        // camera 3: un hold, camera 4: o aparitie virtuala a unei serii
+        slotHolds.place(30L, 3L, NINE, NINE.plusMinutes(30), Duration.ofMinutes(5));
+        lenient().when(seriesIndex.occupiedInRoom(eq(4L), any(), any())).thenReturn(List.of(
+                new Interval(7L, EpochMinutes.floor(NINE), EpochMinutes.floor(NINE.plusMinutes(30)))));
+
+        RoomPlan plan = service.plan(DAY, false);
+
+        assertThat(plan.assignments().get(0).roomId()).isNull();
+        assertThat(plan.unassigned()).containsExactly(5L);
+    }
+
+    @Test
+    void applyNeverGivesAnOccupiedRoomAwayFromAnAppointmentLeftUnplaced() {
+        Room only = room(2L, null);
+        when(roomRepository.findAll()).thenReturn(List.of(only));
+        // A e deja in camera 10:00-11:00; B incepe mai devreme si n-are camera
+        Appointment a = appointment(5L, "Control", only);
+        a.setStartTime(NINE.plusHours(1));
+        a.setEndTime(NINE.plusHours(2));
+        Appointment b = appointment(6L, "Control", null);
+        b.setStartTime(NINE.plusMinutes(30));
+        b.setEndTime(NINE.plusMinutes(90));
+        dayHas(a, b);
+
+        RoomPlan plan = service.apply(DAY, false);
+
+        assertThat(plan.unassigned()).containsExactly(6L);
+        assertThat(plan.assignments()).extracting(RoomAssignment::roomId).containsExactly(2L, null);
+        assertThat(plan.changed()).isZero();
+        assertThat(b.getRoom()).isNull();
+        verify(appointmentRepository).saveAll(List.of());
+        verify(roomScheduleIndex, never()).register(any());
+    }
+}
@@ -1,13 +1,20 @@
 package com.example.clinic_appointments.service;
 
+import com.example.clinic_appointments.dto.OccupiedInterval;
+import com.example.clinic_appointments.exception.BadRequestException;
 import com.example.clinic_appointments.model.Room;
 import com.example.clinic_appointments.repository.RoomRepository;
+import com.example.clinic_appointments.schedule.EpochMinutes;
+import com.example.clinic_appointments.schedule.Interval;
+import com.example.clinic_appointments.schedule.RoomScheduleIndex;
+import com.example.clinic_appointments.schedule.SeriesIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +28,12 @@ class RoomServiceTest {
     @Mock
     private RoomRepository roomRepository;
 
+    @Mock
+    private RoomScheduleIndex roomScheduleIndex;
+
+    @Mock
+    private SeriesIndex seriesIndex;
+
     @InjectMocks
     private RoomService roomService;
 
@@ -132,4 +145,37 @@ class RoomServiceTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Room not found");
     }
+
+    @Test
+    void getOccupancy_returnsIntervalsFromIndex() {
+        Room r = new Room();
+        r.setId(1L);
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 8, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 18, 0);
+        LocalDateTime nine = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(r));
+        when(roomScheduleIndex.occupied(1L, from, to)).thenReturn(List.of(
+                new Interval(7L, EpochMinutes.floor(nine), EpochMinutes.floor(nine.plusMinutes(30)))));
+        // aparitia virtuala a seriei 3, la 8:30
+        when(seriesIndex.occupiedInRoom(1L, from, to)).thenReturn(List.of(
+                new Interval(3L, EpochMinutes.floor(nine.minusMinutes(30)), EpochMinutes.floor(nine))));
+
+        List<OccupiedInterval> result = roomService.getOccupancy(1L, from, to);
+
+        assertThat(result).containsExactly(
+                new OccupiedInterval(null, nine.minusMinutes(30), nine, 3L),
+                new OccupiedInterval(7L, nine, nine.plusMinutes(30)));
+    }
+
+    @Test
+    void getOccupancy_invalidRange_throwsBadRequest() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+        assertThatThrownBy(() -> roomService.getOccupancy(1L, from, from.minusHours(1)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> roomService.getOccupancy(1L, from, from.plusDays(60)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(roomScheduleIndex);
+    }
 }
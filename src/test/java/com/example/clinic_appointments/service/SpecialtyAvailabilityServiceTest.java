@@ -0,0 +1,141 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.dto.DoctorSlot;
+import com.example.clinic_appointments.dto.TimeSlot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.ServiceBusyException;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.DoctorAvailability;
+import com.example.clinic_appointments.model.Specialty;
+import com.example.clinic_appointments.repository.DoctorAvailabilityRepository;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.repository.SpecialtyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpecialtyAvailabilityServiceTest {
+
+    @Mock
+    private SpecialtyRepository specialtyRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private DoctorAvailabilityRepository availabilityRepository;
+
+    @Mock
+    private FreeSlotService freeSlotService;
+
+    private SpecialtyAvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SpecialtyAvailabilityService(specialtyRepository, doctorRepository, availabilityRepository,
+                freeSlotService, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static Doctor doctor(long id, String name) {
+        Doctor d = new Doctor();
+        d.setId(id);
+        d.setFirstName(name);
+        d.setLastName("Dr");
+        return d;
+    }
+
+    @Test
+    void findNextAvailable_mergesDoctorsByStartTime() {
+        Specialty cardio = new Specialty("Cardiologie", null);
+        cardio.setId(1L);
+        Doctor ana = doctor(10L, "Ana");
+        Doctor ion = doctor(11L, "Ion");
+        LocalDateTime after = LocalDateTime.of(2025, 1, 6, 14, 0);
+
+        DoctorAvailability anaMonday = new DoctorAvailability(ana, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0));
+        DoctorAvailability ionMonday = new DoctorAvailability(ion, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0));
+
+        when(specialtyRepository.findById(1L)).thenReturn(Optional.of(cardio));
+        when(doctorRepository.findBySpecializationIgnoreCase("Cardiologie")).thenReturn(List.of(ana, ion));
+        when(availabilityRepository.findByDoctorIn(List.of(ana, ion))).thenReturn(List.of(anaMonday, ionMonday));
+        // prima bucata are intervale, urmatoarele sunt goale
+        when(freeSlotService.computeFreeSlots(eq(10L), any(), any(), any(), eq(30))).thenReturn(List.of(
+                new TimeSlot(after.plusMinutes(30), after.plusMinutes(60)),
+                new TimeSlot(after.plusMinutes(90), after.plusMinutes(120))), List.of());
+        when(freeSlotService.computeFreeSlots(eq(11L), any(), any(), any(), eq(30))).thenReturn(List.of(
+                new TimeSlot(after.plusMinutes(60), after.plusMinutes(90))), List.of());
+
+        List<DoctorSlot> result = service.findNextAvailable(1L, after, 30, 3);
+
+        assertThat(result).extracting(DoctorSlot::doctorId).containsExactly(10L, 11L, 10L);
+        assertThat(result.get(0).startTime()).isEqualTo(after.plusMinutes(30));
+        assertThat(result.get(0).doctorName()).isEqualTo("Ana Dr");
+    }
+
+    @Test
+    void findNextAvailable_firstChunksRunOffTheCommonPoolAndFailuresSurfaceUnwrapped() {
+        Specialty cardio = new Specialty("Cardiologie", null);
+        cardio.setId(1L);
+        Doctor ana = doctor(10L, "Ana");
+        Doctor ion = doctor(11L, "Ion");
+        LocalDateTime after = LocalDateTime.of(2025, 1, 6, 14, 0);
+
+        when(specialtyRepository.findById(1L)).thenReturn(Optional.of(cardio));
+        when(doctorRepository.findBySpecializationIgnoreCase("Cardiologie")).thenReturn(List.of(ana, ion));
+        when(availabilityRepository.findByDoctorIn(List.of(ana, ion))).thenReturn(List.of(
+                new DoctorAvailability(ana, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0)),
+                new DoctorAvailability(ion, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0))));
+        // calculul poate astepta dupa baza de date: nu trebuie sa ocupe ForkJoinPool-ul comun
+        when(freeSlotService.computeFreeSlots(eq(10L), any(), any(), any(), eq(30))).thenAnswer(invocation -> {
+            assertThat(Thread.currentThread().isVirtual()).isTrue();
+            return List.of();
+        });
+        when(freeSlotService.computeFreeSlots(eq(11L), any(), any(), any(), eq(30)))
+                .thenThrow(new ServiceBusyException("Database is busy", Duration.ofSeconds(1)));
+
+        assertThatThrownBy(() -> service.findNextAvailable(1L, after, 30, 3))
+                .isInstanceOf(ServiceBusyException.class);
+    }
+
+    @Test
+    void findNextAvailable_noDoctorsForSpecialty_returnsEmpty() {
+        Specialty derma = new Specialty("Dermatologie", null);
+        derma.setId(2L);
+
+        when(specialtyRepository.findById(2L)).thenReturn(Optional.of(derma));
+        when(doctorRepository.findBySpecializationIgnoreCase("Dermatologie")).thenReturn(List.of());
+
+        assertThat(service.findNextAvailable(2L, LocalDateTime.of(2025, 1, 6, 14, 0), 30, 5)).isEmpty();
+        verify(freeSlotService, never()).computeFreeSlots(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void findNextAvailable_limitOutOfRange_throwsBadRequest() {
+        assertThatThrownBy(() -> service.findNextAvailable(1L, LocalDateTime.now(), 30, 500))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.clinic_appointments.service;
+
+import com.example.clinic_appointments.event.AppointmentEvent;
+import com.example.clinic_appointments.event.AppointmentSnapshot;
+import com.example.clinic_appointments.exception.BadRequestException;
+import com.example.clinic_appointments.exception.BookingConflictException;
+import com.example.clinic_appointments.model.Appointment;
+import com.example.clinic_appointments.model.AppointmentStatus;
+import com.example.clinic_appointments.model.Doctor;
+import com.example.clinic_appointments.model.Patient;
+import com.example.clinic_appointments.model.WaitlistEntry;
+import com.example.clinic_appointments.model.WaitlistStatus;
+import com.example.clinic_appointments.repository.DoctorRepository;
+import com.example.clinic_appointments.repository.PatientRepository;
+import com.example.clinic_appointments.repository.WaitlistEntryRepository;
+import com.example.clinic_appointments.schedule.WaitlistIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.now().plusDays(3).withHour(9).withMinute(0)
+            .withSecond(0).withNano(0);
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private WaitlistIndex waitlistIndex;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    private static WaitlistEntry waitingEntry(long id) {
+        Patient patient = new Patient();
+        patient.setId(10L);
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(id);
+        entry.setPatient(patient);
+        entry.setDoctor(doctor);
+        entry.setPreferredFrom(NINE.minusHours(1));
+        entry.setPreferredTo(NINE.plusHours(3));
+        entry.setReason("Control");
+        return entry;
+    }
+
+    private static AppointmentSnapshot snapshot(AppointmentStatus status) {
+        return new AppointmentSnapshot(5L, 11L, 20L, 3L, NINE, NINE.plusMinutes(30), status, null);
+    }
+
+    @Test
+    void cancellation_booksBestCandidateIntoFreedSlot() {
+        WaitlistEntry entry = waitingEntry(1L);
+        WaitlistIndex.Candidate candidate = WaitlistIndex.Candidate.of(entry);
+
+        when(waitlistIndex.claim(20L, NINE, NINE.plusMinutes(30))).thenReturn(Optional.of(candidate));
+        when(waitlistRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(appointmentService.createAppointmentWith(any(Appointment.class), any())).thenAnswer(invocation -> {
+            Appointment booked = invocation.getArgument(0);
+            booked.setId(42L);
+            // intrarea se marcheaza in tranzactia programarii, nu dupa
+            verify(waitlistRepository, never()).save(entry);
+            Consumer<Appointment> sameTransaction = invocation.getArgument(1);
+            sameTransaction.accept(booked);
+            return booked;
+        });
+
+        waitlistService.onAppointmentEvent(new AppointmentEvent(
+                snapshot(AppointmentStatus.SCHEDULED), snapshot(AppointmentStatus.CANCELLED)));
+
+        ArgumentCaptor<Appointment> booked = ArgumentCaptor.forClass(Appointment.class);
+        verify(appointmentService).createAppointmentWith(booked.capture(), any());
+        assertThat(booked.getValue().getPatient().getId()).isEqualTo(10L);
+        assertThat(booked.getValue().getRoom().getId()).isEqualTo(3L);
+        assertThat(booked.getValue().getStartTime()).isEqualTo(NINE);
+        assertThat(entry.getStatus()).isEqualTo(WaitlistStatus.BOOKED);
+        assertThat(entry.getAppointmentId()).isEqualTo(42L);
+        verify(waitlistRepository).save(entry);
+    }
+
+    @Test
+    void offer_slotTakenMeanwhile_putsCandidateBack() {
+        WaitlistEntry entry = waitingEntry(1L);
+        WaitlistIndex.Candidate candidate = WaitlistIndex.Candidate.of(entry);
+
+        when(waitlistIndex.claim(20L, NINE, NINE.plusMinutes(30))).thenReturn(Optional.of(candidate));
+        when(waitlistRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(appointmentService.createAppointmentWith(any(Appointment.class), any()))
+                .thenThrow(new BookingConflictException("taken", 6L));
+
+        assertThat(waitlistService.offer(20L, null, NINE, NINE.plusMinutes(30))).isEmpty();
+
+        verify(waitlistIndex).add(20L, candidate);
+        assertThat(entry.getStatus()).isEqualTo(WaitlistStatus.WAITING);
+        verify(waitlistRepository, never()).save(any());
+    }
+
+    @Test
+    void rescheduleWithinSameSlot_doesNotOfferAnything() {
+        waitlistService.onAppointmentEvent(new AppointmentEvent(
+                snapshot(AppointmentStatus.SCHEDULED), snapshot(AppointmentStatus.COMPLETED)));
+
+        verifyNoInteractions(waitlistIndex, appointmentService);
+    }
+
+    @Test
+    void enqueue_windowTooLong_throwsBadRequest() {
+        WaitlistEntry entry = waitingEntry(1L);
+        entry.setPreferredTo(entry.getPreferredFrom().plusDays(WaitlistIndex.MAX_WINDOW_DAYS));
+
+        assertThatThrownBy(() -> waitlistService.enqueue(entry))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(waitlistRepository);
+    }
+}